@@ -0,0 +1,462 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudwatch.features;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jclouds.cloudwatch.domain.Dimension;
+import org.jclouds.cloudwatch.domain.MetricDatum;
+import org.jclouds.cloudwatch.domain.StatisticValues;
+import org.jclouds.cloudwatch.domain.Unit;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Rolls observations of a metric up into {@link StatisticValues} and publishes them with
+ * {@link MetricApi#putMetricsInNamespace} once per flush interval.
+ * <p/>
+ * Every metric name, unit and set of dimensions gets a {@link Recorder}. Recording into a
+ * {@link Recorder} neither allocates nor contends with other threads much: each recorder keeps a
+ * few cells, and a thread only locks the cell its id maps to. A flush drains the cells into one
+ * datum per recorder which saw observations, and publishes the datums in batches of at most
+ * {@link Builder#maxDatumsPerRequest}.
+ * <p/>
+ * Publishing runs on the given executor, with at most {@link Builder#maxRequestsInFlight} requests
+ * at a time. A flush drains only as many recorders as it has free requests for, so when CloudWatch
+ * falls behind, observations keep accumulating in the recorders instead of in a queue of
+ * requests, and a flush never waits on the scheduler's thread.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * MetricAggregator aggregator = MetricAggregator.builder(cloudWatchApi.getMetricApiForRegion(region), &quot;MyApp&quot;)
+ *       .executor(userExecutor)
+ *       .scheduler(scheduler)
+ *       .build();
+ * Recorder latency = aggregator.metric(&quot;Latency&quot;, Unit.MILLISECONDS,
+ *       ImmutableSet.of(new Dimension(&quot;Api&quot;, &quot;get&quot;)));
+ * ...
+ * latency.record(elapsed);
+ * </pre>
+ */
+@Beta
+public class MetricAggregator implements Closeable {
+
+   /**
+    * The most datums CloudWatch accepts in one {@code PutMetricData} request.
+    */
+   public static final int MAX_DATUMS_PER_REQUEST = 20;
+
+   /**
+    * The most dimensions CloudWatch accepts for one datum.
+    */
+   public static final int MAX_DIMENSIONS = 10;
+
+   public static Builder builder(MetricApi api, String namespace) {
+      return new Builder(api, namespace);
+   }
+
+   public static class Builder {
+      private final MetricApi api;
+      private final String namespace;
+      private ListeningExecutorService executor;
+      private ScheduledExecutorService scheduler;
+      private long flushIntervalNanos = MINUTES.toNanos(1);
+      private int maxDatumsPerRequest = MAX_DATUMS_PER_REQUEST;
+      private int maxRequestsInFlight = 4;
+
+      private Builder(MetricApi api, String namespace) {
+         this.api = checkNotNull(api, "api");
+         this.namespace = checkNotNull(namespace, "namespace");
+      }
+
+      /**
+       * executor the requests run on
+       */
+      public Builder executor(ListeningExecutorService executor) {
+         this.executor = checkNotNull(executor, "executor");
+         return this;
+      }
+
+      /**
+       * scheduler which flushes every flush interval; without one, only {@link MetricAggregator#flush}
+       * publishes
+       */
+      public Builder scheduler(ScheduledExecutorService scheduler) {
+         this.scheduler = checkNotNull(scheduler, "scheduler");
+         return this;
+      }
+
+      /**
+       * period observations are rolled up over; default 1 minute, the finest period CloudWatch
+       * keeps
+       */
+      public Builder flushInterval(long flushInterval, TimeUnit unit) {
+         checkArgument(flushInterval > 0, "flushInterval must be positive");
+         this.flushIntervalNanos = unit.toNanos(flushInterval);
+         return this;
+      }
+
+      /**
+       * datums per request; 1 to 20, default 20
+       */
+      public Builder maxDatumsPerRequest(int maxDatumsPerRequest) {
+         checkArgument(maxDatumsPerRequest > 0 && maxDatumsPerRequest <= MAX_DATUMS_PER_REQUEST,
+               "maxDatumsPerRequest must be between 1 and %s", MAX_DATUMS_PER_REQUEST);
+         this.maxDatumsPerRequest = maxDatumsPerRequest;
+         return this;
+      }
+
+      /**
+       * requests which may be in flight before a flush leaves observations for the next one;
+       * default 4
+       */
+      public Builder maxRequestsInFlight(int maxRequestsInFlight) {
+         checkArgument(maxRequestsInFlight > 0, "maxRequestsInFlight must be positive");
+         this.maxRequestsInFlight = maxRequestsInFlight;
+         return this;
+      }
+
+      public MetricAggregator build() {
+         return new MetricAggregator(this);
+      }
+   }
+
+   private static final int STRIPES = Math.min(64,
+         Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+   private final MetricApi api;
+   private final String namespace;
+   private final ListeningExecutorService executor;
+   private final int maxDatumsPerRequest;
+   private final Semaphore requests;
+   private final ConcurrentMap<Key, Recorder> recorders = new ConcurrentHashMap<Key, Recorder>();
+   private final Lock flushLock = new ReentrantLock();
+   private final ScheduledFuture<?> flusher;
+
+   private MetricAggregator(Builder builder) {
+      this.api = builder.api;
+      this.namespace = builder.namespace;
+      this.executor = checkNotNull(builder.executor, "executor");
+      this.maxDatumsPerRequest = builder.maxDatumsPerRequest;
+      this.requests = new Semaphore(builder.maxRequestsInFlight);
+      if (builder.scheduler != null) {
+         this.flusher = builder.scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+               // failures only lose the datums of the failed requests
+               if (flushLock.tryLock()) {
+                  try {
+                     drainAndPublish(false);
+                  } finally {
+                     flushLock.unlock();
+                  }
+               }
+            }
+         }, builder.flushIntervalNanos, builder.flushIntervalNanos, NANOSECONDS);
+      } else {
+         this.flusher = null;
+      }
+   }
+
+   /**
+    * @return the recorder of the metric, which callers should keep rather than look up for each
+    *         observation
+    */
+   public Recorder metric(String metricName, Unit unit, Iterable<Dimension> dimensions) {
+      Key key = new Key(metricName, unit, dimensions);
+      Recorder recorder = recorders.get(key);
+      if (recorder == null) {
+         Recorder created = new Recorder(key);
+         recorder = recorders.putIfAbsent(key, created);
+         if (recorder == null)
+            recorder = created;
+      }
+      return recorder;
+   }
+
+   /**
+    * Records an observation of the metric; prefer {@link Recorder#record} on hot paths.
+    */
+   public void record(String metricName, Unit unit, double value, Dimension... dimensions) {
+      metric(metricName, unit, Arrays.asList(dimensions)).record(value);
+   }
+
+   /**
+    * Publishes what was recorded since the last flush, as far as fewer than
+    * {@link Builder#maxRequestsInFlight} requests are pending. The other metrics keep their
+    * observations until a later flush.
+    *
+    * @return a future which completes once all requests of this flush completed, and fails if one
+    *         of them failed
+    */
+   public ListenableFuture<Void> flush() {
+      flushLock.lock();
+      try {
+         return drainAndPublish(false);
+      } finally {
+         flushLock.unlock();
+      }
+   }
+
+   /**
+    * @param wait
+    *           whether to wait for a free request rather than leave the remaining observations in
+    *           the recorders
+    */
+   private ListenableFuture<Void> drainAndPublish(boolean wait) {
+      Date timestamp = new Date();
+      List<ListenableFuture<Void>> published = Lists.newArrayList();
+      List<MetricDatum> batch = Lists.newArrayList();
+      boolean acquired = false;
+      for (Recorder recorder : recorders.values()) {
+         if (!acquired) {
+            if (!acquire(wait))
+               break;
+            acquired = true;
+         }
+         MetricDatum datum = recorder.drain(timestamp);
+         if (datum == null)
+            continue;
+         batch.add(datum);
+         if (batch.size() == maxDatumsPerRequest) {
+            published.add(publish(batch));
+            batch = Lists.newArrayList();
+            acquired = false;
+         }
+      }
+      if (!batch.isEmpty())
+         published.add(publish(batch));
+      else if (acquired)
+         requests.release();
+      return Futures.transform(Futures.allAsList(published), new Function<List<Void>, Void>() {
+         @Override
+         public Void apply(List<Void> input) {
+            return null;
+         }
+      });
+   }
+
+   private boolean acquire(boolean wait) {
+      if (!wait)
+         return requests.tryAcquire();
+      try {
+         while (!requests.tryAcquire(1, SECONDS)) {
+            // tasks dropped by a shut down executor never return their request
+            if (executor.isShutdown())
+               return false;
+         }
+         return true;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      }
+   }
+
+   /**
+    * Publishes the batch with a request acquired by the caller.
+    */
+   private ListenableFuture<Void> publish(final List<MetricDatum> batch) {
+      ListenableFuture<Void> future;
+      try {
+         future = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+               api.putMetricsInNamespace(batch, namespace);
+               return null;
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         requests.release();
+         return Futures.immediateFailedFuture(e);
+      }
+      // also returns the request of a cancelled task
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            requests.release();
+         }
+      }, sameThreadExecutor());
+      return future;
+   }
+
+   /**
+    * Stops flushing periodically, and publishes what was recorded since the last flush, waiting
+    * for pending requests as needed.
+    */
+   @Override
+   public void close() throws IOException {
+      if (flusher != null)
+         flusher.cancel(false);
+      ListenableFuture<Void> flushed;
+      flushLock.lock();
+      try {
+         flushed = drainAndPublish(true);
+      } finally {
+         flushLock.unlock();
+      }
+      if (Thread.currentThread().isInterrupted())
+         throw new IOException(new InterruptedException("interrupted while waiting for requests"));
+      try {
+         flushed.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException(e);
+      } catch (ExecutionException e) {
+         throw new IOException(e.getCause());
+      }
+   }
+
+   /**
+    * Rolls up the observations of one metric.
+    */
+   public static final class Recorder {
+      private final Key key;
+      private final Cell[] cells = new Cell[STRIPES];
+
+      private Recorder(Key key) {
+         this.key = key;
+         for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+         }
+      }
+
+      public void record(double value) {
+         checkArgument(!Double.isNaN(value) && !Double.isInfinite(value), "value must be finite");
+         Cell cell = cells[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+         synchronized (cell) {
+            cell.add(value);
+         }
+      }
+
+      private MetricDatum drain(Date timestamp) {
+         long count = 0;
+         double sum = 0;
+         double min = Double.POSITIVE_INFINITY;
+         double max = Double.NEGATIVE_INFINITY;
+         for (Cell cell : cells) {
+            synchronized (cell) {
+               if (cell.count == 0)
+                  continue;
+               count += cell.count;
+               sum += cell.sum;
+               min = Math.min(min, cell.min);
+               max = Math.max(max, cell.max);
+               cell.reset();
+            }
+         }
+         if (count == 0)
+            return null;
+         return MetricDatum.builder().metricName(key.metricName).unit(key.unit).dimensions(key.dimensions)
+               .statisticValues(new StatisticValues(max, min, count, sum)).timestamp(timestamp).build();
+      }
+
+      @Override
+      public String toString() {
+         return key.toString();
+      }
+   }
+
+   private static final class Cell {
+      private long count;
+      private double sum;
+      private double min = Double.POSITIVE_INFINITY;
+      private double max = Double.NEGATIVE_INFINITY;
+
+      private void add(double value) {
+         count++;
+         sum += value;
+         if (value < min)
+            min = value;
+         if (value > max)
+            max = value;
+      }
+
+      private void reset() {
+         count = 0;
+         sum = 0;
+         min = Double.POSITIVE_INFINITY;
+         max = Double.NEGATIVE_INFINITY;
+      }
+   }
+
+   private static final class Key {
+      private final String metricName;
+      private final Unit unit;
+      private final Set<Dimension> dimensions;
+      private final int hashCode;
+
+      private Key(String metricName, Unit unit, Iterable<Dimension> dimensions) {
+         this.metricName = checkNotNull(metricName, "metricName");
+         this.unit = checkNotNull(unit, "unit");
+         this.dimensions = ImmutableSet.copyOf(checkNotNull(dimensions, "dimensions"));
+         checkArgument(this.dimensions.size() <= MAX_DIMENSIONS, "at most %s dimensions allowed", MAX_DIMENSIONS);
+         this.hashCode = Objects.hashCode(metricName, unit, this.dimensions);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof Key))
+            return false;
+         Key that = (Key) obj;
+         return metricName.equals(that.metricName) && unit == that.unit && dimensions.equals(that.dimensions);
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper("").add("metricName", metricName).add("unit", unit)
+               .add("dimensions", dimensions).toString();
+      }
+   }
+}
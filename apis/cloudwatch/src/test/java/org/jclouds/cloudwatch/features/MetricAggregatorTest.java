@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudwatch.features;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.IAnswer;
+import org.jclouds.cloudwatch.domain.Dimension;
+import org.jclouds.cloudwatch.domain.MetricDatum;
+import org.jclouds.cloudwatch.domain.StatisticValues;
+import org.jclouds.cloudwatch.domain.Unit;
+import org.jclouds.cloudwatch.features.MetricAggregator.Recorder;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+@Test(groups = "unit", testName = "MetricAggregatorTest")
+public class MetricAggregatorTest {
+
+   private static final Dimension GET = new Dimension("Api", "get");
+   private static final Dimension PUT = new Dimension("Api", "put");
+
+   public void testRollsUpObservationsOfEachMetric() throws Exception {
+      MetricApi api = createMock(MetricApi.class);
+      Capture<Iterable<MetricDatum>> published = new Capture<Iterable<MetricDatum>>();
+      api.putMetricsInNamespace(capture(published), eq("ns"));
+      replay(api);
+
+      final MetricAggregator aggregator = MetricAggregator.builder(api, "ns").executor(sameThreadExecutor()).build();
+      final Recorder latency = aggregator.metric("Latency", Unit.MILLISECONDS, ImmutableSet.of(GET));
+      ExecutorService threads = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<Void>> recorded = Lists.newArrayList();
+         for (int t = 0; t < 4; t++) {
+            recorded.add(threads.submit(new Callable<Void>() {
+               @Override
+               public Void call() {
+                  for (int i = 1; i <= 1000; i++) {
+                     latency.record(i);
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> future : recorded) {
+            future.get();
+         }
+      } finally {
+         threads.shutdownNow();
+      }
+      aggregator.record("Latency", Unit.MILLISECONDS, 5, PUT);
+      aggregator.flush().get();
+
+      List<MetricDatum> datums = Lists.newArrayList(published.getValue());
+      assertEquals(datums.size(), 2);
+      for (MetricDatum datum : datums) {
+         assertEquals(datum.getMetricName(), "Latency");
+         assertEquals(datum.getUnit(), Unit.MILLISECONDS);
+         StatisticValues values = datum.getStatisticValues().get();
+         if (datum.getDimensions().contains(GET)) {
+            assertEquals(values.getSampleCount(), 4000d);
+            assertEquals(values.getSum(), 4 * 500500d);
+            assertEquals(values.getMinimum(), 1d);
+            assertEquals(values.getMaximum(), 1000d);
+         } else {
+            assertEquals(datum.getDimensions(), ImmutableSet.of(PUT));
+            assertEquals(values.getSampleCount(), 1d);
+            assertEquals(values.getSum(), 5d);
+         }
+      }
+      verify(api);
+   }
+
+   public void testSplitsFlushIntoRequests() throws Exception {
+      MetricApi api = createMock(MetricApi.class);
+      Capture<Iterable<MetricDatum>> published = new Capture<Iterable<MetricDatum>>(CaptureType.ALL);
+      api.putMetricsInNamespace(capture(published), eq("ns"));
+      expectLastCall().times(3);
+      replay(api);
+
+      MetricAggregator aggregator = MetricAggregator.builder(api, "ns").executor(sameThreadExecutor()).build();
+      for (int i = 0; i < 45; i++) {
+         aggregator.record("Requests", Unit.COUNT, 1, new Dimension("Host", "host" + i));
+      }
+      aggregator.flush().get();
+      // nothing was recorded since
+      aggregator.close();
+
+      assertEquals(published.getValues().size(), 3);
+      assertEquals(Iterables.size(published.getValues().get(0)), 20);
+      assertEquals(Iterables.size(published.getValues().get(1)), 20);
+      assertEquals(Iterables.size(published.getValues().get(2)), 5);
+      verify(api);
+   }
+
+   public void testFlushLeavesObservationsWhileRequestsArePending() throws Exception {
+      final CountDownLatch release = new CountDownLatch(1);
+      MetricApi api = createMock(MetricApi.class);
+      Capture<Iterable<MetricDatum>> published = new Capture<Iterable<MetricDatum>>(CaptureType.ALL);
+      api.putMetricsInNamespace(capture(published), eq("ns"));
+      expectLastCall().andAnswer(new IAnswer<Void>() {
+         @Override
+         public Void answer() throws Throwable {
+            release.await();
+            return null;
+         }
+      }).times(2);
+      replay(api);
+
+      ListeningExecutorService executor = listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         MetricAggregator aggregator = MetricAggregator.builder(api, "ns").executor(executor)
+               .maxDatumsPerRequest(1).maxRequestsInFlight(1).build();
+         aggregator.record("Requests", Unit.COUNT, 1, GET);
+         aggregator.record("Requests", Unit.COUNT, 1, PUT);
+         ListenableFuture<Void> first = aggregator.flush();
+         // the only request is pending, so the other metric keeps its observation
+         assertTrue(aggregator.flush().isDone());
+         assertFalse(first.isDone());
+
+         release.countDown();
+         first.get();
+         aggregator.close();
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertEquals(published.getValues().size(), 2);
+      MetricDatum firstDatum = Iterables.getOnlyElement(published.getValues().get(0));
+      MetricDatum secondDatum = Iterables.getOnlyElement(published.getValues().get(1));
+      assertEquals(ImmutableSet.of(Iterables.getOnlyElement(firstDatum.getDimensions()),
+            Iterables.getOnlyElement(secondDatum.getDimensions())), ImmutableSet.of(GET, PUT));
+      verify(api);
+   }
+
+   public void testCancelledRequestReturnsItsSlot() throws Exception {
+      final CountDownLatch release = new CountDownLatch(1);
+      MetricApi api = createMock(MetricApi.class);
+      Capture<Iterable<MetricDatum>> published = new Capture<Iterable<MetricDatum>>();
+      api.putMetricsInNamespace(capture(published), eq("ns"));
+      replay(api);
+
+      ListeningExecutorService executor = listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         // keeps the requests of the aggregator queued
+         executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+               release.await();
+               return null;
+            }
+         });
+         MetricAggregator aggregator = MetricAggregator.builder(api, "ns").executor(executor)
+               .maxRequestsInFlight(1).build();
+         aggregator.record("Requests", Unit.COUNT, 1, GET);
+         assertTrue(aggregator.flush().cancel(false));
+
+         aggregator.record("Requests", Unit.COUNT, 1, PUT);
+         ListenableFuture<Void> second = aggregator.flush();
+         release.countDown();
+         second.get();
+      } finally {
+         executor.shutdownNow();
+      }
+
+      MetricDatum datum = Iterables.getOnlyElement(published.getValue());
+      assertEquals(datum.getDimensions(), ImmutableSet.of(PUT));
+      verify(api);
+   }
+
+   /**
+    * Times recording into one metric from a growing number of threads.
+    */
+   @Test(groups = "performance")
+   public void testRecordThroughput() throws Exception {
+      MetricApi api = createMock(MetricApi.class);
+      final MetricAggregator aggregator = MetricAggregator.builder(api, "ns").executor(sameThreadExecutor()).build();
+      final Recorder recorder = aggregator.metric("Latency", Unit.MILLISECONDS, ImmutableSet.of(GET));
+      final int perThread = 2000000;
+      for (int threadCount : new int[] { 1, 2, 4, 8 }) {
+         ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+         try {
+            List<Future<Void>> recorded = Lists.newArrayList();
+            long start = System.nanoTime();
+            for (int t = 0; t < threadCount; t++) {
+               recorded.add(threads.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() {
+                     for (int i = 0; i < perThread; i++) {
+                        recorder.record(i);
+                     }
+                     return null;
+                  }
+               }));
+            }
+            for (Future<Void> future : recorded) {
+               future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("TIMING: %d threads recorded %.1f million observations/s%n", threadCount,
+                  threadCount * perThread / (elapsed / 1e3));
+         } finally {
+            threads.shutdownNow();
+         }
+      }
+   }
+}
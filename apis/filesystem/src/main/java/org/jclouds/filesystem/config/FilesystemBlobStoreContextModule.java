@@ -30,7 +30,9 @@ import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemBlobKeyValidatorImpl;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemContainerNameValidatorImpl;
+import org.jclouds.filesystem.strategy.FilesystemMetadataStore;
 import org.jclouds.filesystem.strategy.internal.FilesystemStorageStrategyImpl;
+import org.jclouds.filesystem.strategy.internal.IndexFileMetadataStore;
 import org.jclouds.filesystem.util.internal.FileSystemBlobUtilsImpl;
 
 import com.google.inject.AbstractModule;
@@ -47,6 +49,7 @@ public class FilesystemBlobStoreContextModule extends AbstractModule {
          bind(ConsistencyModel.class).toInstance(ConsistencyModel.STRICT);
       }
       bind(LocalStorageStrategy.class).to(FilesystemStorageStrategyImpl.class);
+      bind(FilesystemMetadataStore.class).to(IndexFileMetadataStore.class);
       bind(BlobUtils.class).to(FileSystemBlobUtilsImpl.class);
       bind(FilesystemBlobKeyValidator.class).to(FilesystemBlobKeyValidatorImpl.class);
       bind(FilesystemContainerNameValidator.class).to(FilesystemContainerNameValidatorImpl.class);
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * Keeps the metadata of blobs whose files cannot carry it in extended attributes, as on tmpfs and
+ * some overlay or NFS mounts. The metadata is kept as the extended attributes it stands in for,
+ * and only holds while the file has the size and modification time it was stored with.
+ */
+public interface FilesystemMetadataStore {
+
+   /**
+    * @param container
+    *           the directory of the container
+    * @param file
+    *           the current attributes of the file of the blob
+    * @return the attributes stored for the blob, or {@code null} if none were stored for the
+    *         current content of its file
+    */
+   Map<String, byte[]> read(Path container, String key, BasicFileAttributes file) throws IOException;
+
+   /**
+    * Stores the attributes of a blob, replacing any stored before.
+    */
+   void write(Path container, String key, BasicFileAttributes file, Map<String, byte[]> attributes)
+         throws IOException;
+
+   void remove(Path container, String key) throws IOException;
+
+   /**
+    * @return whether the store keeps its own data under this key of a container, which then does
+    *         not name a blob and cannot be used as the key of one
+    */
+   boolean isMetadataKey(String key);
+}
@@ -16,11 +16,15 @@
  */
 package org.jclouds.filesystem.strategy.internal;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.io.BaseEncoding.base16;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getPosixFilePermissions;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newDirectoryStream;
 import static java.nio.file.Files.probeContentType;
 import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.setPosixFilePermissions;
@@ -35,13 +39,21 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
 
@@ -62,24 +74,27 @@ import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.util.BlobStoreUtils;
 import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
 import org.jclouds.filesystem.reference.FilesystemConstants;
+import org.jclouds.filesystem.strategy.FilesystemMetadataStore;
 import org.jclouds.filesystem.util.Utils;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.annotations.ParamValidators;
 
-import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
@@ -118,14 +133,26 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
    private final Supplier<Location> defaultLocation;
+   private final FilesystemMetadataStore metadataStore;
 
-   @Inject
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
          @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
          FilesystemContainerNameValidator filesystemContainerNameValidator,
          FilesystemBlobKeyValidator filesystemBlobKeyValidator,
          Supplier<Location> defaultLocation) {
+      this(blobBuilders, baseDir, autoDetectContentType, filesystemContainerNameValidator,
+            filesystemBlobKeyValidator, defaultLocation, new IndexFileMetadataStore());
+   }
+
+   @Inject
+   protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
+         @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
+         @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
+         FilesystemContainerNameValidator filesystemContainerNameValidator,
+         FilesystemBlobKeyValidator filesystemBlobKeyValidator,
+         Supplier<Location> defaultLocation,
+         FilesystemMetadataStore metadataStore) {
       this.blobBuilders = checkNotNull(blobBuilders, "filesystem storage strategy blobBuilders");
       this.baseDirectory = checkNotNull(baseDir, "filesystem storage strategy base directory");
       this.autoDetectContentType = autoDetectContentType;
@@ -133,6 +160,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
             "filesystem container name validator");
       this.filesystemBlobKeyValidator = checkNotNull(filesystemBlobKeyValidator, "filesystem blob key validator");
       this.defaultLocation = defaultLocation;
+      this.metadataStore = checkNotNull(metadataStore, "filesystem metadata store");
    }
 
    @Override
@@ -249,7 +277,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          File[] children = containerFile.listFiles();
          if (null != children) {
             for (File child : children)
-               if (options.isRecursive() || child.isFile()) {
+               if (options.isRecursive() || child.isFile() && !metadataStore.isMetadataKey(child.getName())) {
                   Utils.deleteRecursively(child);
                }
          }
@@ -298,23 +326,31 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
     */
    @Override
    public Iterable<String> getBlobKeysInsideContainer(String container) throws IOException {
+      // directories are returned even if they are not blobs, so that callers can tell empty containers apart
+      return blobKeys(container, null, null, null, true);
+   }
+
+   @Override
+   public Iterable<String> getBlobKeysInsideContainer(String container, String prefix, String delimiter,
+         String fromKey) throws IOException {
+      return blobKeys(container, prefix, delimiter, fromKey, false);
+   }
+
+   private Iterable<String> blobKeys(String container, final String prefix, final String delimiter,
+         final String fromKey, final boolean allDirectories) throws IOException {
       filesystemContainerNameValidator.validate(container);
       // check if container exists
       // TODO maybe an error is more appropriate
-      Set<String> blobNames = Sets.newHashSet();
       if (!containerExists(container)) {
-         return blobNames;
+         return ImmutableSet.of();
       }
-
-      File containerFile = openFolder(container);
-      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
-      populateBlobKeysInContainer(containerFile, blobNames, new Function<String, String>() {
+      final Path containerPath = openFolder(container).toPath();
+      return new Iterable<String>() {
          @Override
-         public String apply(String string) {
-            return string.substring(containerPathLength);
+         public Iterator<String> iterator() {
+            return new BlobKeyIterator(containerPath, prefix, delimiter, fromKey, allDirectories);
          }
-      });
-      return blobNames;
+      };
    }
 
    @Override
@@ -323,63 +359,47 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       builder.name(key);
       File file = getFileForBlobKey(container, key);
       ByteSource byteSource;
+      boolean directory = getDirectoryBlobSuffix(key) != null;
 
-      if (getDirectoryBlobSuffix(key) != null) {
+      if (directory) {
          logger.debug("%s - %s is a directory", container, key);
          byteSource = ByteSource.empty();
       } else {
          byteSource = Files.asByteSource(file);
       }
       try {
-         String cacheControl = null;
-         String contentDisposition = null;
-         String contentEncoding = null;
-         String contentLanguage = null;
-         String contentType = null;
-         HashCode hashCode = null;
-         Date expires = null;
-         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
-
          UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(file.toPath());
-         if (view != null) {
-            Set<String> attributes = ImmutableSet.copyOf(view.list());
-
-            cacheControl = readStringAttributeIfPresent(view, attributes, XATTR_CACHE_CONTROL);
-            contentDisposition = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_DISPOSITION);
-            contentEncoding = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_ENCODING);
-            contentLanguage = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_LANGUAGE);
-            contentType = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_TYPE);
+         Map<String, byte[]> attributes = view == null ? null : readAllAttributes(view);
+         if (!directory && (attributes == null || !attributes.containsKey(XATTR_CONTENT_MD5))) {
+            Map<String, byte[]> stored = readStoredAttributes(container, key, file, byteSource, view == null);
+            if (stored != null) {
+               attributes = stored;
+            }
+         }
+         if (attributes != null) {
+            String contentType = readStringAttribute(attributes, XATTR_CONTENT_TYPE);
             if (contentType == null && autoDetectContentType) {
                contentType = probeContentType(file.toPath());
             }
-            if (attributes.contains(XATTR_CONTENT_MD5)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
-               view.read(XATTR_CONTENT_MD5, buf);
-               hashCode = HashCode.fromBytes(buf.array());
-            }
-            if (attributes.contains(XATTR_EXPIRES)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_EXPIRES));
-               view.read(XATTR_EXPIRES, buf);
-               buf.flip();
-               expires = new Date(buf.asLongBuffer().get());
-            }
-            for (String attribute : attributes) {
-               if (!attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
-                  continue;
+            byte[] md5 = attributes.get(XATTR_CONTENT_MD5);
+            byte[] expires = attributes.get(XATTR_EXPIRES);
+            ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
+            for (String attribute : attributes.keySet()) {
+               if (attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
+                  userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()),
+                        readStringAttribute(attributes, attribute));
                }
-               String value = readStringAttributeIfPresent(view, attributes, attribute);
-               userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
             }
 
             builder.payload(byteSource)
-               .cacheControl(cacheControl)
-               .contentDisposition(contentDisposition)
-               .contentEncoding(contentEncoding)
-               .contentLanguage(contentLanguage)
+               .cacheControl(readStringAttribute(attributes, XATTR_CACHE_CONTROL))
+               .contentDisposition(readStringAttribute(attributes, XATTR_CONTENT_DISPOSITION))
+               .contentEncoding(readStringAttribute(attributes, XATTR_CONTENT_ENCODING))
+               .contentLanguage(readStringAttribute(attributes, XATTR_CONTENT_LANGUAGE))
                .contentLength(byteSource.size())
-               .contentMD5(hashCode)
+               .contentMD5(md5 == null ? null : HashCode.fromBytes(md5))
                .contentType(contentType)
-               .expires(expires)
+               .expires(expires == null ? null : new Date(ByteBuffer.wrap(expires).getLong()))
                .userMetadata(userMetadata.build());
          } else {
             builder.payload(byteSource)
@@ -398,21 +418,48 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return blob;
    }
 
-   private void writeCommonMetadataAttr(UserDefinedFileAttributeView view, Blob blob) throws IOException {
+   /**
+    * Reads the attributes stored for a blob whose file has no md5 attribute. If the file has no
+    * extended attributes at all, the md5 is computed and stored for the next time.
+    */
+   private Map<String, byte[]> readStoredAttributes(String container, String key, File file, ByteSource byteSource,
+         boolean computeIfAbsent) throws IOException {
+      Path containerPath = openFolder(container).toPath();
+      BasicFileAttributes fileAttributes = readAttributes(file.toPath(), BasicFileAttributes.class);
+      Map<String, byte[]> stored = metadataStore.read(containerPath, key, fileAttributes);
+      if (stored != null || !computeIfAbsent) {
+         return stored;
+      }
+      stored = ImmutableMap.of(XATTR_CONTENT_MD5, byteSource.hash(Hashing.md5()).asBytes());
+      try {
+         metadataStore.write(containerPath, key, fileAttributes, stored);
+      } catch (IOException e) {
+         logger.debug("Could not store metadata of %s: %s", file, e);
+      }
+      return stored;
+   }
+
+   private static Map<String, byte[]> commonMetadataAttributes(Blob blob) {
       ContentMetadata metadata = blob.getMetadata().getContentMetadata();
-      writeStringAttributeIfPresent(view, XATTR_CACHE_CONTROL, metadata.getCacheControl());
-      writeStringAttributeIfPresent(view, XATTR_CONTENT_DISPOSITION, metadata.getContentDisposition());
-      writeStringAttributeIfPresent(view, XATTR_CONTENT_ENCODING, metadata.getContentEncoding());
-      writeStringAttributeIfPresent(view, XATTR_CONTENT_LANGUAGE, metadata.getContentLanguage());
-      writeStringAttributeIfPresent(view, XATTR_CONTENT_TYPE, metadata.getContentType());
+      Map<String, byte[]> attributes = Maps.newLinkedHashMap();
+      putStringAttributeIfPresent(attributes, XATTR_CACHE_CONTROL, metadata.getCacheControl());
+      putStringAttributeIfPresent(attributes, XATTR_CONTENT_DISPOSITION, metadata.getContentDisposition());
+      putStringAttributeIfPresent(attributes, XATTR_CONTENT_ENCODING, metadata.getContentEncoding());
+      putStringAttributeIfPresent(attributes, XATTR_CONTENT_LANGUAGE, metadata.getContentLanguage());
+      putStringAttributeIfPresent(attributes, XATTR_CONTENT_TYPE, metadata.getContentType());
       Date expires = metadata.getExpires();
       if (expires != null) {
-         ByteBuffer buf = ByteBuffer.allocate(Longs.BYTES).putLong(expires.getTime());
-         buf.flip();
-         view.write(XATTR_EXPIRES, buf);
+         attributes.put(XATTR_EXPIRES, Longs.toByteArray(expires.getTime()));
       }
       for (Map.Entry<String, String> entry : blob.getMetadata().getUserMetadata().entrySet()) {
-         writeStringAttributeIfPresent(view, XATTR_USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+         putStringAttributeIfPresent(attributes, XATTR_USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+      }
+      return attributes;
+   }
+
+   private void writeCommonMetadataAttr(UserDefinedFileAttributeView view, Blob blob) throws IOException {
+      for (Map.Entry<String, byte[]> attribute : commonMetadataAttributes(blob).entrySet()) {
+         view.write(attribute.getKey(), ByteBuffer.wrap(attribute.getValue()));
       }
    }
 
@@ -451,6 +498,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       Payload payload = blob.getPayload();
       filesystemContainerNameValidator.validate(containerName);
       filesystemBlobKeyValidator.validate(blobKey);
+      checkArgument(!metadataStore.isMetadataKey(blobKey), "Blob key '%s' is reserved for blob metadata", blobKey);
       if (getDirectoryBlobSuffix(blobKey) != null) {
          return putDirectoryBlob(containerName, blob);
       }
@@ -482,10 +530,12 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          }
 
          UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(tmpPath);
+         boolean xattrs = false;
          if (view != null) {
             try {
                view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(actualHashCode.asBytes()));
                writeCommonMetadataAttr(view, blob);
+               xattrs = true;
             } catch (IOException e) {
                logger.debug("xattrs not supported on %s", tmpPath);
             }
@@ -498,6 +548,17 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          }
          tmpFile = null;
 
+         if (!xattrs) {
+            Map<String, byte[]> attributes = commonMetadataAttributes(blob);
+            attributes.put(XATTR_CONTENT_MD5, actualHashCode.asBytes());
+            try {
+               metadataStore.write(openFolder(containerName).toPath(), blobKey,
+                     readAttributes(outputFile.toPath(), BasicFileAttributes.class), attributes);
+            } catch (IOException e) {
+               logger.warn(e, "Could not store metadata of %s", outputFile);
+            }
+         }
+
          return base16().lowerCase().encode(actualHashCode.asBytes());
       } finally {
          if (tmpFile != null) {
@@ -540,6 +601,11 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       } catch (IOException e) {
          logger.debug("Could not delete %s: %s", fileToBeDeleted, e);
       }
+      try {
+         metadataStore.remove(openFolder(container).toPath(), blobKey);
+      } catch (IOException e) {
+         logger.debug("Could not remove metadata of %s: %s", fileToBeDeleted, e);
+      }
 
       // now examine if the key of the blob is a complex key (with a directory structure)
       // and eventually remove empty directory
@@ -698,7 +764,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return null;
    }
 
-   private UserDefinedFileAttributeView getUserDefinedFileAttributeView(Path path) throws IOException {
+   protected UserDefinedFileAttributeView getUserDefinedFileAttributeView(Path path) throws IOException {
       return getFileAttributeView(path, UserDefinedFileAttributeView.class);
    }
 
@@ -848,22 +914,171 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
-   private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
-         Function<String, String> function) {
-      File[] children = directory.listFiles();
-      if (children == null) {
-         return;
+   /**
+    * Walks the blobs of a container in the order of their keys, reading one directory at a time.
+    * <p/>
+    * The entries of a directory are sorted by key, where the key of a subdirectory ends with the
+    * separator, so the keys under a subdirectory sort among its siblings just as they would in a
+    * flat listing. Subdirectories which cannot hold a key in the requested range, or only hold keys
+    * of a common prefix which was already returned, are not read.
+    * <p/>
+    * A directory stream is not ordered, so each read of a directory visits all of its entries, but
+    * keeps only the first batch of them in key order. The next batch, twice as large, is read
+    * after the last key of the batch before. A page from a directory of n entries thus costs one
+    * pass over them and memory for the batch, while walking all of it costs about log(n) passes.
+    */
+   private final class BlobKeyIterator extends AbstractIterator<String> {
+      private static final int FIRST_BATCH_SIZE = 1024;
+
+      private final String prefix;
+      private final String delimiter;
+      private final String start;
+      private final boolean allDirectories;
+      private final Deque<Iterator<KeyedPath>> directories = new ArrayDeque<Iterator<KeyedPath>>();
+      private String skipPrefix;
+
+      private BlobKeyIterator(Path container, String prefix, String delimiter, String fromKey,
+            boolean allDirectories) {
+         this.prefix = prefix;
+         this.delimiter = delimiter;
+         this.start = prefix != null && (fromKey == null || fromKey.compareTo(prefix) < 0) ? prefix : fromKey;
+         this.allDirectories = allDirectories;
+         directories.push(new DirectoryEntries(container, ""));
+      }
+
+      @Override
+      protected String computeNext() {
+         while (!directories.isEmpty()) {
+            Iterator<KeyedPath> entries = directories.peek();
+            if (!entries.hasNext()) {
+               directories.pop();
+               continue;
+            }
+            KeyedPath entry = entries.next();
+            if (skipPrefix != null && entry.key.startsWith(skipPrefix)) {
+               continue;
+            }
+            boolean wanted = inRange(entry.key) && (!entry.directory || allDirectories || isDirectoryBlob(entry.path));
+            if (wanted && delimiter != null) {
+               skipPrefix = BlobStoreUtils.commonPrefix(entry.key, prefix, delimiter);
+            }
+            if (entry.directory && (skipPrefix == null || !entry.key.startsWith(skipPrefix))) {
+               directories.push(new DirectoryEntries(entry.path, entry.key));
+            }
+            if (wanted) {
+               return entry.key;
+            }
+         }
+         return endOfData();
+      }
+
+      private boolean inRange(String key) {
+         return (start == null || key.compareTo(start) >= 0) && (prefix == null || key.startsWith(prefix));
+      }
+
+      /** @return whether the range may include {@code key} or, for a directory, a key under it */
+      private boolean mayLeadToRange(String key, boolean directory) {
+         if (start != null && key.compareTo(start) < 0 && !(directory && start.startsWith(key))) {
+            return false;
+         }
+         return prefix == null || key.startsWith(prefix) || (directory && prefix.startsWith(key));
+      }
+
+      /** The entries of a directory in key order, read a batch at a time. */
+      private final class DirectoryEntries extends AbstractIterator<KeyedPath> {
+         private final Path directory;
+         private final String directoryKey;
+         private int batchSize = FIRST_BATCH_SIZE;
+         private Iterator<KeyedPath> batch = Collections.<KeyedPath> emptyIterator();
+         private String lastKey;
+         private boolean lastBatch;
+
+         private DirectoryEntries(Path directory, String directoryKey) {
+            this.directory = directory;
+            this.directoryKey = directoryKey;
+         }
+
+         @Override
+         protected KeyedPath computeNext() {
+            if (!batch.hasNext()) {
+               if (lastBatch) {
+                  return endOfData();
+               }
+               batch = read();
+               if (!batch.hasNext()) {
+                  return endOfData();
+               }
+            }
+            KeyedPath entry = batch.next();
+            lastKey = entry.key;
+            return entry;
+         }
+
+         /** @return the next batch of entries after {@link #lastKey}, sorted by key */
+         private Iterator<KeyedPath> read() {
+            // the largest entry is at the head, so that it is the one dropped once the batch is full
+            PriorityQueue<KeyedPath> entries = new PriorityQueue<KeyedPath>(batchSize + 1,
+                  Collections.reverseOrder());
+            lastBatch = true;
+            try (DirectoryStream<Path> children = newDirectoryStream(directory)) {
+               for (Path child : children) {
+                  boolean isDirectory = isDirectory(child);
+                  if (!isDirectory && !isRegularFile(child)) {
+                     continue;
+                  }
+                  String key = directoryKey + child.getFileName() + (isDirectory ? File.separator : "");
+                  if (directoryKey.isEmpty() && !isDirectory && metadataStore.isMetadataKey(key)) {
+                     continue;
+                  }
+                  if ((lastKey == null || key.compareTo(lastKey) > 0)
+                        && (skipPrefix == null || !key.startsWith(skipPrefix))
+                        && mayLeadToRange(key, isDirectory)) {
+                     entries.add(new KeyedPath(child, key, isDirectory));
+                     if (entries.size() > batchSize) {
+                        entries.poll();
+                        lastBatch = false;
+                     }
+                  }
+               }
+            } catch (NoSuchFileException e) {
+               // removed since its parent was read
+            } catch (IOException e) {
+               throw Throwables.propagate(e);
+            }
+            batchSize *= 2;
+            List<KeyedPath> sorted = Lists.newArrayList(entries);
+            Collections.sort(sorted);
+            return sorted.iterator();
+         }
       }
-      for (File child : children) {
-         if (child.isFile()) {
-            blobNames.add( function.apply(child.getAbsolutePath()) );
-         } else if (child.isDirectory()) {
-            blobNames.add(function.apply(child.getAbsolutePath()) + File.separator); // TODO: undo if failures
-            populateBlobKeysInContainer(child, blobNames, function);
+
+      private boolean isDirectoryBlob(Path directory) {
+         try {
+            UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(directory);
+            return view != null && view.list().contains(XATTR_CONTENT_MD5);
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
          }
       }
    }
 
+   private static final class KeyedPath implements Comparable<KeyedPath> {
+      private final Path path;
+      private final String key;
+      private final boolean directory;
+
+      private KeyedPath(Path path, String key, boolean directory) {
+         this.path = path;
+         this.key = key;
+         this.directory = directory;
+      }
+
+      @Override
+      public int compareTo(KeyedPath other) {
+         return key.compareTo(other.key);
+      }
+   }
+
    /**
     * Creates a directory and returns the result
     *
@@ -887,25 +1102,27 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return result;
    }
 
-   /** Read the String representation of filesystem attribute, or return null if not present. */
-   private static String readStringAttributeIfPresent(UserDefinedFileAttributeView view, Set<String> attributes,
-         String name) throws IOException {
-      if (!attributes.contains(name)) {
-         return null;
+   /** Read all filesystem attributes. */
+   private static Map<String, byte[]> readAllAttributes(UserDefinedFileAttributeView view) throws IOException {
+      Map<String, byte[]> attributes = Maps.newHashMap();
+      for (String name : view.list()) {
+         ByteBuffer buf = ByteBuffer.allocate(view.size(name));
+         view.read(name, buf);
+         attributes.put(name, buf.array());
       }
-      ByteBuffer buf = ByteBuffer.allocate(view.size(name));
-      view.read(name, buf);
-      return new String(buf.array(), StandardCharsets.UTF_8);
+      return attributes;
    }
 
-   /** Write an filesystem attribute, if its value is non-null. */
-   private static void writeStringAttributeIfPresent(UserDefinedFileAttributeView view, String name, String value) throws IOException {
-      if (value != null) {
-         view.write(name, ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)));
-      }
+   /** Read the String representation of filesystem attribute, or return null if not present. */
+   private static String readStringAttribute(Map<String, byte[]> attributes, String name) {
+      byte[] value = attributes.get(name);
+      return value == null ? null : new String(value, StandardCharsets.UTF_8);
    }
 
-   private static void copyStringAttributeIfPresent(UserDefinedFileAttributeView view, String name, Map<String, String> attrs) throws IOException {
-      writeStringAttributeIfPresent(view, name, attrs.get(name));
+   /** Add a filesystem attribute, if its value is non-null. */
+   private static void putStringAttributeIfPresent(Map<String, byte[]> attributes, String name, String value) {
+      if (value != null) {
+         attributes.put(name, value.getBytes(StandardCharsets.UTF_8));
+      }
    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Singleton;
+
+import org.jclouds.filesystem.strategy.FilesystemMetadataStore;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the metadata of the blobs of a container in an index file at the root of the container.
+ * <p/>
+ * The index is a log of records which is read into memory when the container is first used, so
+ * that reading metadata costs no i/o. Storing metadata appends a record, and the log is rewritten
+ * once most of its records were superseded. A file of that name which does not start with the
+ * index header was not written by this store; it is left alone, and no metadata is stored for the
+ * container.
+ */
+@Singleton
+public class IndexFileMetadataStore implements FilesystemMetadataStore {
+   @VisibleForTesting
+   static final String INDEX_FILE = ".jclouds-metadata";
+   private static final String COMPACTED_INDEX_FILE = INDEX_FILE + ".tmp";
+   private static final int HEADER = 0x6a636d31;
+   private static final int MIN_RECORDS_TO_COMPACT = 1024;
+   private static final long REMOVED = -1;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final LoadingCache<Path, Index> indexes = CacheBuilder.newBuilder().build(
+         new CacheLoader<Path, Index>() {
+            @Override
+            public Index load(Path container) {
+               return new Index(container.resolve(INDEX_FILE));
+            }
+         });
+
+   @Override
+   public Map<String, byte[]> read(Path container, String key, BasicFileAttributes file) throws IOException {
+      Entry entry = index(container).get(key);
+      if (entry == null || entry.size != file.size() || entry.modified != modified(file)) {
+         return null;
+      }
+      return entry.attributes;
+   }
+
+   @Override
+   public void write(Path container, String key, BasicFileAttributes file, Map<String, byte[]> attributes)
+         throws IOException {
+      index(container).put(key, new Entry(file.size(), modified(file), ImmutableMap.copyOf(attributes)));
+   }
+
+   @Override
+   public void remove(Path container, String key) throws IOException {
+      index(container).put(key, null);
+   }
+
+   @Override
+   public boolean isMetadataKey(String key) {
+      return key.equals(INDEX_FILE) || key.equals(COMPACTED_INDEX_FILE);
+   }
+
+   private Index index(Path container) throws IOException {
+      try {
+         return indexes.get(container);
+      } catch (ExecutionException e) {
+         Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   private static long modified(BasicFileAttributes file) {
+      return file.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+   }
+
+   private static final class Entry {
+      private final long size;
+      private final long modified;
+      private final Map<String, byte[]> attributes;
+
+      private Entry(long size, long modified, Map<String, byte[]> attributes) {
+         this.size = size;
+         this.modified = modified;
+         this.attributes = attributes;
+      }
+   }
+
+   private final class Index {
+      private final Path file;
+      private final Map<String, Entry> entries = Maps.newHashMap();
+      private int records;
+      private boolean writable = true;
+
+      private Index(Path file) {
+         this.file = file;
+         boolean complete = true;
+         try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream data = new DataInputStream(in);
+            if (!readHeader(data)) {
+               logger.warn("%s is not a metadata index, so no metadata is stored for %s", file, file.getParent());
+               writable = false;
+               return;
+            }
+            while (true) {
+               in.mark(1);
+               if (in.read() < 0) {
+                  break;
+               }
+               in.reset();
+               try {
+                  apply(data.readUTF(), readEntry(data));
+               } catch (EOFException e) {
+                  // the last append did not complete
+                  logger.warn("dropping incomplete record at the end of %s", file);
+                  complete = false;
+                  break;
+               }
+            }
+         } catch (NoSuchFileException e) {
+            return;
+         } catch (IOException e) {
+            logger.warn(e, "dropping unreadable records of %s", file);
+            complete = false;
+         }
+         if (!complete) {
+            try {
+               compact();
+            } catch (IOException e) {
+               logger.warn(e, "could not rewrite %s", file);
+            }
+         }
+      }
+
+      private synchronized Entry get(String key) {
+         return entries.get(key);
+      }
+
+      /**
+       * @param entry
+       *           or {@code null} to remove the entry of the key
+       */
+      private synchronized void put(String key, Entry entry) throws IOException {
+         if (entry == null && !entries.containsKey(key)) {
+            return;
+         }
+         boolean created = !Files.exists(file);
+         if (created) {
+            // the container was cleared
+            entries.clear();
+            records = 0;
+            writable = true;
+         }
+         if (!writable) {
+            throw new IOException(file + " is not a metadata index");
+         }
+         ByteArrayOutputStream record = new ByteArrayOutputStream();
+         DataOutputStream data = new DataOutputStream(record);
+         if (created) {
+            data.writeInt(HEADER);
+         }
+         writeRecord(data, key, entry);
+         try (OutputStream out = Files.newOutputStream(file, CREATE, APPEND)) {
+            record.writeTo(out);
+         }
+         apply(key, entry);
+         if (records >= MIN_RECORDS_TO_COMPACT && records > 2 * entries.size()) {
+            compact();
+         }
+      }
+
+      private void apply(String key, Entry entry) {
+         if (entry == null) {
+            entries.remove(key);
+         } else {
+            entries.put(key, entry);
+         }
+         records++;
+      }
+
+      private void compact() throws IOException {
+         Path tmp = file.resolveSibling(COMPACTED_INDEX_FILE);
+         try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(HEADER);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+               writeRecord(out, entry.getKey(), entry.getValue());
+            }
+         }
+         Files.move(tmp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+         records = entries.size();
+      }
+   }
+
+   private static boolean readHeader(DataInputStream in) throws IOException {
+      try {
+         return in.readInt() == HEADER;
+      } catch (EOFException e) {
+         return false;
+      }
+   }
+
+   private static Entry readEntry(DataInputStream in) throws IOException {
+      long size = in.readLong();
+      long modified = in.readLong();
+      if (size == REMOVED) {
+         return null;
+      }
+      int count = in.readInt();
+      if (count < 0) {
+         throw new IOException("invalid attribute count " + count);
+      }
+      ImmutableMap.Builder<String, byte[]> attributes = ImmutableMap.builder();
+      for (int i = 0; i < count; i++) {
+         String name = in.readUTF();
+         int length = in.readInt();
+         if (length < 0) {
+            throw new IOException("invalid length " + length + " of attribute " + name);
+         }
+         byte[] value = new byte[length];
+         in.readFully(value);
+         attributes.put(name, value);
+      }
+      return new Entry(size, modified, attributes.build());
+   }
+
+   private static void writeRecord(DataOutputStream out, String key, Entry entry) throws IOException {
+      out.writeUTF(key);
+      if (entry == null) {
+         out.writeLong(REMOVED);
+         out.writeLong(0);
+         return;
+      }
+      out.writeLong(entry.size);
+      out.writeLong(entry.modified);
+      out.writeInt(entry.attributes.size());
+      for (Map.Entry<String, byte[]> attribute : entry.attributes.entrySet()) {
+         out.writeUTF(attribute.getKey());
+         out.writeInt(attribute.getValue().length);
+         out.write(attribute.getValue());
+      }
+   }
+}
@@ -27,6 +27,10 @@ import static org.testng.Assert.fail;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -39,6 +43,7 @@ import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.ContainerAccess;
 import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
+import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemBlobKeyValidatorImpl;
@@ -53,9 +58,13 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -590,6 +599,68 @@ public class FilesystemStorageStrategyImplTest {
       storageStrategy.removeBlob(CONTAINER_NAME, "sdfsdfsdfasd");
    }
 
+   public void testGetBlobKeysInsideContainerInKeyOrder() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      // '-' and '.' sort before the separator and '0' after it
+      String nested = "a" + FS + "b";
+      String deep = "b" + FS + "c" + FS + "d";
+      String sibling = "b" + FS + "e";
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, "a-c", nested, "a0", "a.txt", deep, sibling);
+      Ordering<String> natural = Ordering.natural();
+
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null, null)),
+            natural.sortedCopy(ImmutableList.of("a-c", nested, "a0", "a.txt", deep, sibling)));
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, "b" + FS, null,
+            null)), natural.sortedCopy(ImmutableList.of(deep, sibling)));
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, FS, null)),
+            natural.sortedCopy(ImmutableList.of("a-c", nested, "a0", "a.txt", deep)));
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, "b" + FS, FS,
+            null)), natural.sortedCopy(ImmutableList.of(deep, sibling)));
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null,
+            deep)), ImmutableList.of(deep, sibling));
+   }
+
+   public void testGetBlobKeysInsideFlatContainerInKeyOrder() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      // enough files to be read in several batches
+      List<String> keys = Lists.newArrayList();
+      for (int i = 0; i < 5000; i++) {
+         String key = String.format("blob%05d", (i * 7919) % 5000);
+         Files.touch(new File(TARGET_CONTAINER_NAME, key));
+         keys.add(key);
+      }
+      Collections.sort(keys);
+
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null, null)),
+            keys);
+      assertEquals(Lists.newArrayList(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null,
+            "blob01234")), keys.subList(1234, keys.size()));
+   }
+
+   /**
+    * Times reading the first page of keys of a container of 20k files against walking all of them.
+    */
+   @Test(groups = "performance")
+   public void testGetFirstPageOfBlobKeysInsideLargeContainer() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      int count = 20000;
+      for (int i = 0; i < count; i++) {
+         File file = new File(TARGET_CONTAINER_NAME, String.format("dir%02d%sblob%05d", i % 100, FS, i));
+         Files.createParentDirs(file);
+         Files.write(new byte[0], file);
+      }
+      long start = System.nanoTime();
+      int page = Iterables.size(Iterables.limit(
+            storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null, null), 100));
+      long pageNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      int all = Iterables.size(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME, null, null, null));
+      long allNanos = System.nanoTime() - start;
+      assertEquals(all, count);
+      System.out.printf("TIMING: first %d of %d keys took %.3fms, all keys took %.3fms%n", page, count,
+            pageNanos / 1000000d, allNanos / 1000000d);
+   }
+
    public void testGetBlobKeysInsideContainer() throws IOException {
       Iterable<String> resultList;
 
@@ -668,6 +739,63 @@ public class FilesystemStorageStrategyImplTest {
       assertFalse(blob.getMetadata().getUserMetadata().containsKey("key1"));
    }
 
+   public void testMetadataWithoutXattrs() throws Exception {
+      FilesystemStorageStrategyImpl withoutXattrs = new FilesystemStorageStrategyImpl(new Provider<BlobBuilder>() {
+         @Override
+         public BlobBuilder get() {
+            return new BlobBuilderImpl();
+         }
+      }, TestUtils.TARGET_BASE_DIR, false, new FilesystemContainerNameValidatorImpl(),
+            new FilesystemBlobKeyValidatorImpl(), defaultLocation) {
+         @Override
+         protected UserDefinedFileAttributeView getUserDefinedFileAttributeView(Path path) {
+            return null;
+         }
+      };
+      String blobKey = "dir/metadata.bin";
+      ByteSource content = randomByteSource().slice(0, 1024);
+      withoutXattrs.createContainerInLocation(CONTAINER_NAME, null, CreateContainerOptions.NONE);
+      withoutXattrs.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(content)
+            .contentType("application/x-test")
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build());
+
+      Blob blob = withoutXattrs.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), content.hash(Hashing.md5()).toString());
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "application/x-test");
+      assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key1", "value1"));
+      assertEquals(ImmutableList.copyOf(withoutXattrs.getBlobKeysInsideContainer(CONTAINER_NAME, null, null, null)),
+            ImmutableList.of(blobKey));
+
+      // the stored md5 holds as long as size and modification time do
+      File file = withoutXattrs.getFileForBlobKey(CONTAINER_NAME, blobKey);
+      FileTime lastModified = java.nio.file.Files.getLastModifiedTime(file.toPath());
+      ByteSource changed = randomByteSource().slice(1024, 1024);
+      changed.copyTo(Files.asByteSink(file));
+      java.nio.file.Files.setLastModifiedTime(file.toPath(), lastModified);
+      assertEquals(withoutXattrs.getBlob(CONTAINER_NAME, blobKey).getMetadata().getETag(),
+            content.hash(Hashing.md5()).toString());
+
+      java.nio.file.Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified.toMillis() - 1000));
+      blob = withoutXattrs.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), changed.hash(Hashing.md5()).toString());
+      assertTrue(blob.getMetadata().getUserMetadata().isEmpty());
+   }
+
+   public void testPutBlobNamedLikeMetadataIndex() throws Exception {
+      Blob blob = new BlobBuilderImpl()
+            .name(IndexFileMetadataStore.INDEX_FILE)
+            .payload(randomByteSource().slice(0, 1024))
+            .build();
+      try {
+         storageStrategy.putBlob(CONTAINER_NAME, blob);
+         fail("Metadata index key not rejected");
+      } catch (IllegalArgumentException e) {
+      }
+   }
+
    @Test
    public void testPutIncorrectContentLength() throws Exception {
       Blob blob = new BlobBuilderImpl()
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import static org.jclouds.filesystem.strategy.internal.IndexFileMetadataStore.INDEX_FILE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import org.jclouds.filesystem.utils.TestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+@Test(groups = "unit", testName = "IndexFileMetadataStoreTest", singleThreaded = true)
+public class IndexFileMetadataStoreTest {
+   private Path container;
+   private Path blob;
+
+   @BeforeMethod
+   protected void setUp() throws IOException {
+      TestUtils.cleanDirectoryContent(TestUtils.TARGET_BASE_DIR);
+      container = Files.createDirectories(new java.io.File(TestUtils.TARGET_BASE_DIR, "index").toPath());
+      blob = Files.write(container.resolve("blob"), new byte[] { 1, 2, 3 });
+   }
+
+   @AfterMethod
+   protected void tearDown() throws IOException {
+      TestUtils.cleanDirectoryContent(TestUtils.TARGET_BASE_DIR);
+   }
+
+   public void testReadsAttributesWhileFileIsUnchanged() throws IOException {
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+      store.write(container, "blob", attributes(), metadata("v1"));
+
+      assertEquals(value(store.read(container, "blob", attributes())), "v1");
+      assertNull(store.read(container, "other", attributes()));
+
+      Files.setLastModifiedTime(blob, FileTime.fromMillis(attributes().lastModifiedTime().toMillis() + 1000));
+      assertNull(store.read(container, "blob", attributes()));
+   }
+
+   public void testIndexSurvivesRestart() throws IOException {
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+      store.write(container, "blob", attributes(), metadata("v1"));
+      store.write(container, "blob", attributes(), metadata("v2"));
+      store.write(container, "removed", attributes(), metadata("v1"));
+      store.remove(container, "removed");
+
+      IndexFileMetadataStore restarted = new IndexFileMetadataStore();
+      assertEquals(value(restarted.read(container, "blob", attributes())), "v2");
+      assertNull(restarted.read(container, "removed", attributes()));
+   }
+
+   public void testDropsIncompleteRecord() throws IOException {
+      new IndexFileMetadataStore().write(container, "blob", attributes(), metadata("v1"));
+      Files.write(container.resolve(INDEX_FILE), new byte[] { 0, 4, 'b', 'l' }, StandardOpenOption.APPEND);
+
+      IndexFileMetadataStore restarted = new IndexFileMetadataStore();
+      assertEquals(value(restarted.read(container, "blob", attributes())), "v1");
+      restarted.write(container, "blob", attributes(), metadata("v2"));
+      assertEquals(value(new IndexFileMetadataStore().read(container, "blob", attributes())), "v2");
+   }
+
+   public void testCompactsSupersededRecords() throws IOException {
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+      store.write(container, "blob", attributes(), metadata("v0"));
+      long oneRecord = Files.size(container.resolve(INDEX_FILE));
+      for (int i = 1; i <= 5000; i++) {
+         store.write(container, "blob", attributes(), metadata("v" + i % 10));
+      }
+      assertTrue(Files.size(container.resolve(INDEX_FILE)) < 2048 * oneRecord);
+      assertEquals(value(new IndexFileMetadataStore().read(container, "blob", attributes())), "v0");
+   }
+
+   public void testStartsOverOnceIndexIsDeleted() throws IOException {
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+      store.write(container, "blob", attributes(), metadata("v1"));
+      Files.delete(container.resolve(INDEX_FILE));
+      Files.write(container.resolve("other"), new byte[] { 1, 2, 3 });
+      store.write(container, "other", attributes(), metadata("v2"));
+
+      assertNull(store.read(container, "blob", attributes()));
+      assertEquals(value(store.read(container, "other", attributes())), "v2");
+      assertTrue(store.isMetadataKey(INDEX_FILE));
+      assertFalse(store.isMetadataKey("blob"));
+   }
+
+   public void testKeepsMetadataOfBlobNamedLikeIndex() throws IOException {
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+      String key = INDEX_FILE + "-backup";
+      Files.write(container.resolve(key), new byte[] { 1, 2, 3 });
+      store.write(container, key, attributes(), metadata("v1"));
+
+      assertFalse(store.isMetadataKey(key));
+      assertTrue(store.isMetadataKey(INDEX_FILE + ".tmp"));
+      assertEquals(value(new IndexFileMetadataStore().read(container, key, attributes())), "v1");
+   }
+
+   public void testLeavesFileThatIsNotAnIndexAlone() throws IOException {
+      byte[] content = "not an index".getBytes(StandardCharsets.UTF_8);
+      Files.write(container.resolve(INDEX_FILE), content);
+      IndexFileMetadataStore store = new IndexFileMetadataStore();
+
+      assertNull(store.read(container, "blob", attributes()));
+      try {
+         store.write(container, "blob", attributes(), metadata("v1"));
+         fail("Expected the metadata not to be stored");
+      } catch (IOException e) {
+      }
+      assertEquals(Files.readAllBytes(container.resolve(INDEX_FILE)), content);
+   }
+
+   public void testReadsUnreadableIndexAsEmpty() throws IOException {
+      new IndexFileMetadataStore().write(container, "blob", attributes(), metadata("v1"));
+      // a record of a negative number of attributes
+      Files.write(container.resolve(INDEX_FILE), new byte[] { 0, 1, 'x', 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0,
+            0, 1, -1, -1, -1, -1 }, StandardOpenOption.APPEND);
+
+      IndexFileMetadataStore restarted = new IndexFileMetadataStore();
+      assertEquals(value(restarted.read(container, "blob", attributes())), "v1");
+      restarted.write(container, "blob", attributes(), metadata("v2"));
+      assertEquals(value(new IndexFileMetadataStore().read(container, "blob", attributes())), "v2");
+   }
+
+   private BasicFileAttributes attributes() throws IOException {
+      return Files.readAttributes(blob, BasicFileAttributes.class);
+   }
+
+   private static Map<String, byte[]> metadata(String value) {
+      return ImmutableMap.of("user.user-metadata.key", value.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static String value(Map<String, byte[]> attributes) {
+      return new String(attributes.get("user.user-metadata.key"), StandardCharsets.UTF_8);
+   }
+}
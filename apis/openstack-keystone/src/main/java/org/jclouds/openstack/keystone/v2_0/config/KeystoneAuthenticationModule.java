@@ -17,14 +17,17 @@
 package org.jclouds.openstack.keystone.v2_0.config;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.util.Suppliers2.getLastValueInMap;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -56,13 +59,17 @@ import org.jclouds.openstack.keystone.v2_0.suppliers.RegionIdToURIFromAccessForT
 import org.jclouds.openstack.keystone.v2_0.suppliers.ZoneIdToURIFromAccessForTypeAndVersion;
 import org.jclouds.rest.annotations.ApiVersion;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
@@ -236,8 +243,71 @@ public class KeystoneAuthenticationModule extends AbstractModule {
    // PROPERTY_SESSION_INTERVAL is default to 60 seconds, but we have this here at 11 hours for now.
    @Provides
    @Singleton
-   public final LoadingCache<Credentials, Access> provideAccessCache(Function<Credentials, Access> getAccess) {
-      return CacheBuilder.newBuilder().expireAfterWrite(11, TimeUnit.HOURS).build(CacheLoader.from(getAccess));
+   public final LoadingCache<Credentials, Access> provideAccessCache(ReauthenticateInBackground reauthenticate) {
+      return CacheBuilder.newBuilder().expireAfterWrite(11, TimeUnit.HOURS).build(reauthenticate);
+   }
+
+   /**
+    * Authenticates on the calling thread when there is no token yet, but renews a token on a user
+    * thread, so that {@link LoadingCache#refresh} keeps serving the current token meanwhile.
+    * <p/>
+    * Tokens are renewed {@link #RENEW_AHEAD_MILLIS} before they expire. Only one renewal is in
+    * flight at a time, and only once a token expired do callers wait for a new one. Tokens which
+    * already looked that close to expiry when they were received, as happens when the clocks of
+    * client and server disagree, are not renewed ahead but left to {@link RetryOnRenew}.
+    */
+   @Singleton
+   @VisibleForTesting
+   static final class ReauthenticateInBackground extends CacheLoader<Credentials, Access> {
+      @VisibleForTesting
+      static final long RENEW_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+      private final Function<Credentials, Access> getAccess;
+      private final ListeningExecutorService userExecutor;
+      private final Cache<Access, Long> received = CacheBuilder.newBuilder().weakKeys().build();
+
+      @Inject
+      ReauthenticateInBackground(Function<Credentials, Access> getAccess,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+         this.getAccess = getAccess;
+         this.userExecutor = userExecutor;
+      }
+
+      @Override
+      public Access load(Credentials key) {
+         Access access = getAccess.apply(key);
+         if (access != null)
+            received.put(access, System.currentTimeMillis());
+         return access;
+      }
+
+      @Override
+      public ListenableFuture<Access> reload(final Credentials key, Access oldValue) {
+         return userExecutor.submit(new Callable<Access>() {
+            @Override
+            public Access call() {
+               return load(key);
+            }
+         });
+      }
+
+      Access renewAhead(LoadingCache<Credentials, Access> cache, Credentials creds, long now) {
+         Access access = cache.getUnchecked(creds);
+         long expires = access.getToken().getExpires().getTime();
+         Long receivedAt = received.getIfPresent(access);
+         if (receivedAt == null || expires - receivedAt <= RENEW_AHEAD_MILLIS)
+            return access;
+         if (expires <= now) {
+            // only the first caller to see the expired token drops it, so the others wait on its load
+            cache.asMap().remove(creds, access);
+            return cache.getUnchecked(creds);
+         }
+         if (expires - now <= RENEW_AHEAD_MILLIS) {
+            // a no-op while a renewal is in flight
+            cache.refresh(creds);
+         }
+         return access;
+      }
    }
 
    // Temporary conversion of a cache to a supplier until there is a single-element cache
@@ -245,11 +315,11 @@ public class KeystoneAuthenticationModule extends AbstractModule {
    @Provides
    @Singleton
    protected final Supplier<Access> provideAccessSupplier(final LoadingCache<Credentials, Access> cache,
-         @Provider final Supplier<Credentials> creds) {
+         final ReauthenticateInBackground reauthenticate, @Provider final Supplier<Credentials> creds) {
       return new Supplier<Access>() {
          @Override
          public Access get() {
-            return cache.getUnchecked(creds.get());
+            return reauthenticate.renewAhead(cache, creds.get(), System.currentTimeMillis());
          }
       };
    }
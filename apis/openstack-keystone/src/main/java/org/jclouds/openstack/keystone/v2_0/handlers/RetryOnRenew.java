@@ -18,6 +18,7 @@ package org.jclouds.openstack.keystone.v2_0.handlers;
 
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
@@ -37,6 +38,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
@@ -97,7 +99,7 @@ public class RetryOnRenew implements HttpRetryHandler {
                      // First time this non-authentication request failed
                      logger.debug("invalidating authentication token - first time for %s", command);
                      retryCountMap.put(command, 1);
-                     authenticationResponseCache.invalidateAll();
+                     invalidate(headers);
                      retry = true;
                   } else {
                      // This request has failed before
@@ -109,7 +111,7 @@ public class RetryOnRenew implements HttpRetryHandler {
                         logger.debug("invalidating authentication token - retry %s for %s", count, command);
                         retryCountMap.put(command, count + 1);
                         // Wait between retries
-                        authenticationResponseCache.invalidateAll();
+                        invalidate(headers);
                         Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
                         retry = true;
                      }
@@ -129,4 +131,21 @@ public class RetryOnRenew implements HttpRetryHandler {
       }
    }
 
+   /**
+    * Drops the token the request was sent with. When many requests fail with the same expired
+    * token, only the first one drops it, and the others are retried with its replacement instead
+    * of authenticating again.
+    */
+   private void invalidate(Multimap<String, String> headers) {
+      String token = headers == null ? null : Iterables.getFirst(headers.get(AuthHeaders.AUTH_TOKEN), null);
+      if (token == null) {
+         authenticationResponseCache.invalidateAll();
+         return;
+      }
+      for (Map.Entry<Credentials, Access> entry : authenticationResponseCache.asMap().entrySet()) {
+         if (token.equals(entry.getValue().getToken().getId())) {
+            authenticationResponseCache.asMap().remove(entry.getKey(), entry.getValue());
+         }
+      }
+   }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.keystone.v2_0.config;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.jclouds.openstack.keystone.v2_0.config.KeystoneAuthenticationModule.ReauthenticateInBackground.RENEW_AHEAD_MILLIS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.openstack.keystone.v2_0.config.KeystoneAuthenticationModule.ReauthenticateInBackground;
+import org.jclouds.openstack.keystone.v2_0.domain.Access;
+import org.jclouds.openstack.keystone.v2_0.domain.Token;
+import org.jclouds.openstack.keystone.v2_0.domain.User;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", testName = "KeystoneAuthenticationModuleTest", singleThreaded = true)
+public class KeystoneAuthenticationModuleTest {
+   private static final Credentials CREDS = new Credentials("identity", "credential");
+   private static final long NOW = System.currentTimeMillis();
+   private static final long LIFETIME = TimeUnit.HOURS.toMillis(1);
+
+   private final ListeningExecutorService userExecutor = listeningDecorator(newCachedThreadPool());
+
+   /**
+    * Authenticates with tokens expiring at the given times. All but the first authentication wait
+    * for the latch.
+    */
+   private static class Authenticate implements Function<Credentials, Access> {
+      private final AtomicInteger calls = new AtomicInteger();
+      private final CountDownLatch renewal;
+      private final long[] expires;
+
+      Authenticate(CountDownLatch renewal, long... expires) {
+         this.renewal = renewal;
+         this.expires = expires;
+      }
+
+      @Override
+      public Access apply(Credentials input) {
+         int call = calls.getAndIncrement();
+         if (call > 0)
+            Uninterruptibles.awaitUninterruptibly(renewal);
+         return Access.builder()
+               .token(Token.builder().id("token" + call).expires(new Date(expires[call])).build())
+               .user(User.builder().id("user").name("user").build()).build();
+      }
+   }
+
+   private LoadingCache<Credentials, Access> cache(ReauthenticateInBackground reauthenticate) {
+      return CacheBuilder.newBuilder().build(reauthenticate);
+   }
+
+   private List<Future<String>> concurrentTokens(final ReauthenticateInBackground reauthenticate,
+         final LoadingCache<Credentials, Access> cache, final long now, int callers) {
+      List<Future<String>> tokens = Lists.newArrayList();
+      for (int i = 0; i < callers; i++) {
+         tokens.add(userExecutor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+               return reauthenticate.renewAhead(cache, CREDS, now).getToken().getId();
+            }
+         }));
+      }
+      return tokens;
+   }
+
+   @AfterClass(alwaysRun = true)
+   void shutdownExecutor() {
+      userExecutor.shutdownNow();
+   }
+
+   public void testKeepsTokenUntilShortlyBeforeItExpires() {
+      Authenticate authenticate = new Authenticate(new CountDownLatch(0), NOW + LIFETIME);
+      ReauthenticateInBackground reauthenticate = new ReauthenticateInBackground(authenticate, userExecutor);
+      LoadingCache<Credentials, Access> cache = cache(reauthenticate);
+
+      for (long now = NOW; now < NOW + LIFETIME - RENEW_AHEAD_MILLIS; now += RENEW_AHEAD_MILLIS) {
+         assertEquals(reauthenticate.renewAhead(cache, CREDS, now).getToken().getId(), "token0");
+      }
+      assertEquals(authenticate.calls.get(), 1);
+   }
+
+   public void testRenewsOnceInBackgroundWhileServingCurrentToken() throws Exception {
+      CountDownLatch renewal = new CountDownLatch(1);
+      Authenticate authenticate = new Authenticate(renewal, NOW + LIFETIME, NOW + 2 * LIFETIME);
+      ReauthenticateInBackground reauthenticate = new ReauthenticateInBackground(authenticate, userExecutor);
+      LoadingCache<Credentials, Access> cache = cache(reauthenticate);
+      cache.getUnchecked(CREDS);
+
+      long shortlyBeforeExpiry = NOW + LIFETIME - RENEW_AHEAD_MILLIS / 2;
+      for (Future<String> token : concurrentTokens(reauthenticate, cache, shortlyBeforeExpiry, 20)) {
+         assertEquals(token.get(5, TimeUnit.SECONDS), "token0");
+      }
+      renewal.countDown();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!cache.getUnchecked(CREDS).getToken().getId().equals("token1")) {
+         assertTrue(System.currentTimeMillis() < deadline, "token was not renewed");
+         Thread.sleep(10);
+      }
+      assertEquals(reauthenticate.renewAhead(cache, CREDS, shortlyBeforeExpiry).getToken().getId(), "token1");
+      assertEquals(authenticate.calls.get(), 2);
+   }
+
+   public void testWaitsForSingleAuthenticationOnceExpired() throws Exception {
+      Authenticate authenticate = new Authenticate(new CountDownLatch(0), NOW + LIFETIME, NOW + 2 * LIFETIME);
+      ReauthenticateInBackground reauthenticate = new ReauthenticateInBackground(authenticate, userExecutor);
+      LoadingCache<Credentials, Access> cache = cache(reauthenticate);
+      cache.getUnchecked(CREDS);
+
+      for (Future<String> token : concurrentTokens(reauthenticate, cache, NOW + LIFETIME, 20)) {
+         assertEquals(token.get(5, TimeUnit.SECONDS), "token1");
+      }
+      assertEquals(authenticate.calls.get(), 2);
+   }
+
+   public void testLeavesTokensReceivedCloseToExpiryToRetryOnRenew() {
+      Authenticate authenticate = new Authenticate(new CountDownLatch(0), NOW - LIFETIME);
+      ReauthenticateInBackground reauthenticate = new ReauthenticateInBackground(authenticate, userExecutor);
+      LoadingCache<Credentials, Access> cache = cache(reauthenticate);
+
+      assertEquals(reauthenticate.renewAhead(cache, CREDS, NOW).getToken().getId(), "token0");
+      assertEquals(reauthenticate.renewAhead(cache, CREDS, NOW).getToken().getId(), "token0");
+      assertEquals(authenticate.calls.get(), 1);
+   }
+}
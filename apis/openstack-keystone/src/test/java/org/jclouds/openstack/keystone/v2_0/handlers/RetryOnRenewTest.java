@@ -21,9 +21,13 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Date;
+
 import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
@@ -31,8 +35,13 @@ import org.jclouds.http.HttpResponse;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.Payloads;
 import org.jclouds.openstack.keystone.v2_0.domain.Access;
+import org.jclouds.openstack.keystone.v2_0.domain.Token;
+import org.jclouds.openstack.keystone.v2_0.domain.User;
+import org.jclouds.openstack.v2_0.reference.AuthHeaders;
 import org.testng.annotations.Test;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
 /**
@@ -103,6 +112,39 @@ public class RetryOnRenewTest {
       verify(command, response, cache);
    }
 
+   @Test
+   public void test401InvalidatesOnlyTheFailingToken() {
+      HttpCommand command = createMock(HttpCommand.class);
+      HttpResponse response = createMock(HttpResponse.class);
+      BackoffLimitedRetryHandler backoffHandler = createMock(BackoffLimitedRetryHandler.class);
+      LoadingCache<Credentials, Access> cache = CacheBuilder.newBuilder().build(
+            new CacheLoader<Credentials, Access>() {
+               @Override
+               public Access load(Credentials key) {
+                  throw new AssertionError("should not authenticate");
+               }
+            });
+      Credentials current = new Credentials("current", "credential");
+      Credentials other = new Credentials("other", "credential");
+      cache.put(current, access("expired"));
+      cache.put(other, access("valid"));
+
+      expect(command.getCurrentRequest()).andReturn(HttpRequest.builder().method("GET")
+            .endpoint("http://localhost/servers").addHeader(AuthHeaders.AUTH_TOKEN, "expired").build()).anyTimes();
+      expect(response.getPayload()).andReturn(Payloads.newStringPayload("")).anyTimes();
+      expect(response.getStatusCode()).andReturn(401).anyTimes();
+      replay(command, response, backoffHandler);
+
+      assertTrue(new RetryOnRenew(cache, backoffHandler).shouldRetryRequest(command, response));
+      assertNull(cache.getIfPresent(current));
+      assertEquals(cache.getIfPresent(other).getToken().getId(), "valid");
+   }
+
+   private static Access access(String token) {
+      return Access.builder().token(Token.builder().id(token).expires(new Date()).build())
+            .user(User.builder().id("user").name("user").build()).build();
+   }
+
    @Test
    public void test408ShouldRetry() {
       HttpCommand command = createMock(HttpCommand.class);
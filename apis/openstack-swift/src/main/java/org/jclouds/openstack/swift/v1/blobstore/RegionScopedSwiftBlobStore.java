@@ -29,7 +29,9 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.KeyNotFoundException;
@@ -55,8 +57,10 @@ import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.ClearListStrategy;
 import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.internal.ParallelMultipartUploader;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
@@ -89,10 +93,11 @@ import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.ByteSource;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.assistedinject.Assisted;
@@ -131,6 +136,31 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    private final ToResourceMetadata toResourceMetadata;
    protected final PayloadSlicer slicer;
 
+   protected ListeningExecutorService userExecutor = MoreExecutors.sameThreadExecutor();
+   protected BackoffLimitedRetryHandler retryHandler = BackoffLimitedRetryHandler.INSTANCE;
+   protected int maxParallelUploads = 1;
+   protected int maxPartRetries = 3;
+
+   @com.google.inject.Inject(optional = true)
+   void setUserExecutor(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = userExecutor;
+   }
+
+   @com.google.inject.Inject(optional = true)
+   void setRetryHandler(BackoffLimitedRetryHandler retryHandler) {
+      this.retryHandler = retryHandler;
+   }
+
+   @com.google.inject.Inject(optional = true)
+   void setMaxParallelUploads(@Named(Constants.PROPERTY_MAX_PARALLEL_UPLOADS) int maxParallelUploads) {
+      this.maxParallelUploads = maxParallelUploads;
+   }
+
+   @com.google.inject.Inject(optional = true)
+   void setMaxPartRetries(@Named(Constants.PROPERTY_MAX_RETRIES) int maxPartRetries) {
+      this.maxPartRetries = maxPartRetries;
+   }
+
    @Override
    public Set<? extends Location> listAssignableLocations() {
       return ImmutableSet.of(region);
@@ -577,19 +607,13 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
    // copied from BaseBlobStore
    @Beta
    protected String putMultipartBlob(String container, Blob blob, PutOptions overrides) {
-      List<MultipartPart> parts = Lists.newArrayList();
       long contentLength = checkNotNull(blob.getMetadata().getContentMetadata().getContentLength(),
             "must provide content-length to use multi-part upload");
       MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
             getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
       long partSize = algorithm.calculateChunkSize(contentLength);
       MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), partSize, overrides);
-      int partNumber = 1;
-      for (Payload payload : slicer.slice(blob.getPayload(), partSize)) {
-         MultipartPart part = uploadMultipartPart(mpu, partNumber, payload);
-         parts.add(part);
-         ++partNumber;
-      }
-      return completeMultipartUpload(mpu, parts);
+      return new ParallelMultipartUploader(this, userExecutor, retryHandler, maxParallelUploads, maxPartRetries)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
    }
 }
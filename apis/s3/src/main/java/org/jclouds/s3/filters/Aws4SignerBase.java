@@ -19,31 +19,39 @@ package org.jclouds.s3.filters;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
-import static com.google.common.io.ByteStreams.readBytes;
 import static org.jclouds.crypto.Macs.asByteProcessor;
 import static org.jclouds.http.utils.Queries.queryParser;
-import static org.jclouds.util.Strings2.toInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 import javax.xml.ws.http.HTTPException;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -51,10 +59,10 @@ import com.google.common.escape.Escaper;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteProcessor;
-import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.PercentEscaper;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.ImplementedBy;
 import org.jclouds.crypto.Crypto;
 import org.jclouds.domain.Credentials;
@@ -78,6 +86,18 @@ public abstract class Aws4SignerBase {
 
    private static final Escaper AWS_PATH_ESCAPER = new PercentEscaper("/-_.~", false);
 
+   // digest() resets the digest, so each thread can reuse its own
+   private static final ThreadLocal<MessageDigest> SHA256 = new ThreadLocal<MessageDigest>() {
+      @Override
+      protected MessageDigest initialValue() {
+         try {
+            return MessageDigest.getInstance("SHA-256");
+         } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+         }
+      }
+   };
+
    static {
       timestampFormat = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'");
       timestampFormat.setTimeZone(GMT);
@@ -126,7 +146,8 @@ public abstract class Aws4SignerBase {
    protected final Supplier<Credentials> creds;
    protected final Supplier<Date> timestampProvider;
    protected final Crypto crypto;
-
+   private final ThreadLocalMac hmacSHA256;
+   private final Cache<List<String>, byte[]> signingKeys = CacheBuilder.newBuilder().maximumSize(64).build();
 
    protected Aws4SignerBase(SignatureWire signatureWire, String headerTag,
          Supplier<Credentials> creds, Supplier<Date> timestampProvider,
@@ -137,6 +158,7 @@ public abstract class Aws4SignerBase {
       this.timestampProvider = timestampProvider;
       this.serviceAndRegion = serviceAndRegion;
       this.crypto = crypto;
+      this.hmacSHA256 = new ThreadLocalMac(crypto, "HmacSHA256");
    }
 
    protected String getContentType(HttpRequest request) {
@@ -170,9 +192,15 @@ public abstract class Aws4SignerBase {
    // append all of 'x-amz-*' headers
    protected void appendAmzHeaders(HttpRequest request,
          ImmutableMap.Builder<String, String> signedHeadersBuilder) {
+      appendAmzHeaders(request, signedHeadersBuilder, ImmutableSet.<String>of());
+   }
+
+   // append all of 'x-amz-*' headers, but those the signer sets itself
+   protected void appendAmzHeaders(HttpRequest request,
+         ImmutableMap.Builder<String, String> signedHeadersBuilder, Set<String> excludedLowerCase) {
       for (Map.Entry<String, String> header : request.getHeaders().entries()) {
          String key = header.getKey();
-         if (key.startsWith("x-" + headerTag + "-")) {
+         if (key.startsWith("x-" + headerTag + "-") && !excludedLowerCase.contains(key.toLowerCase())) {
             signedHeadersBuilder.put(key.toLowerCase(), header.getValue());
          }
       }
@@ -200,13 +228,25 @@ public abstract class Aws4SignerBase {
     * @param service   AWS service
     * @return SigningKey
     */
-   protected byte[] signatureKey(String secretKey, String datestamp, String region, String service) {
-      byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
-      byte[] kDate = hmacSHA256(datestamp, kSecret);
-      byte[] kRegion = hmacSHA256(region, kDate);
-      byte[] kService = hmacSHA256(service, kRegion);
-      byte[] kSigning = hmacSHA256("aws4_request", kService);
-      return kSigning;
+   protected byte[] signatureKey(final String secretKey, final String datestamp, final String region,
+         final String service) {
+      // the key only changes with the day, so it is derived once per day, region and service
+      try {
+         return signingKeys.get(ImmutableList.of(secretKey, datestamp, region, service), new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+               byte[] kSecret = ("AWS4" + secretKey).getBytes(UTF_8);
+               byte[] kDate = hmacSHA256(datestamp, kSecret);
+               byte[] kRegion = hmacSHA256(region, kDate);
+               byte[] kService = hmacSHA256(service, kRegion);
+               return hmacSHA256("aws4_request", kService);
+            }
+         });
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
    }
 
    /**
@@ -217,11 +257,11 @@ public abstract class Aws4SignerBase {
     */
    protected byte[] hmacSHA256(String toSign, byte[] key) {
       try {
-         return readBytes(toInputStream(toSign), hmacSHA256(crypto, key));
-      } catch (IOException e) {
-         throw new HttpException("read sign error", e);
+         return hmacSHA256.sign(key, toSign);
       } catch (InvalidKeyException e) {
          throw new HttpException("invalid key", e);
+      } catch (NoSuchAlgorithmException e) {
+         throw new HttpException("HmacSHA256 is not supported", e);
       }
    }
 
@@ -254,11 +294,7 @@ public abstract class Aws4SignerBase {
     * @throws HTTPException
     */
    public static byte[] hash(byte[] bytes) throws HTTPException {
-      try {
-         return ByteSource.wrap(bytes).hash(Hashing.sha256()).asBytes();
-      } catch (IOException e) {
-         throw new HttpException("Unable to compute hash while signing request: " + e.getMessage(), e);
-      }
+      return SHA256.get().digest(bytes);
    }
 
 
@@ -270,7 +306,7 @@ public abstract class Aws4SignerBase {
     * @throws HTTPException
     */
    public static byte[] hash(String input) throws HTTPException {
-      return hash(new ByteArrayInputStream(input.getBytes(UTF_8)));
+      return hash(input.getBytes(UTF_8));
    }
 
    /**
@@ -19,7 +19,10 @@ package org.jclouds.s3.filters;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.hash.HashCode;
 import com.google.common.io.BaseEncoding;
@@ -41,6 +44,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
@@ -52,12 +56,23 @@ import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_ALGORITHM_HMAC_
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_CONTENT_SHA256_HEADER;
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_DATE_HEADER;
 import static org.jclouds.s3.filters.AwsSignatureV4Constants.AMZ_SECURITY_TOKEN_HEADER;
+import static org.jclouds.s3.filters.AwsSignatureV4Constants.UNSIGNED_PAYLOAD;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_PAYLOAD_SIGNING;
 import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_VIRTUAL_HOST_BUCKETS;
 
 /**
  * AWS4 signer sign requests to Amazon S3 using an 'Authorization' header.
  */
 public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
+   private static final Set<String> SIGNER_HEADERS = ImmutableSet.of(AMZ_CONTENT_SHA256_HEADER.toLowerCase(),
+         AMZ_DATE_HEADER.toLowerCase());
+   private static final Set<String> SIGNER_HEADERS_WITH_TOKEN = ImmutableSet.<String>builder()
+         .addAll(SIGNER_HEADERS).add(AMZ_SECURITY_TOKEN_HEADER.toLowerCase()).build();
+
+   private PayloadSigning payloadSigning = PayloadSigning.SIGNED;
+   // payloads of the requests signed before, which a retry signs again
+   private final Cache<Payload, String> payloadHashes = CacheBuilder.newBuilder().weakKeys().build();
+
    @Inject
    public Aws4SignerForAuthorizationHeader(SignatureWire signatureWire,
          @Named(PROPERTY_S3_VIRTUAL_HOST_BUCKETS) boolean isVhostStyle,
@@ -67,6 +82,11 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
       super(signatureWire, headerTag, creds, timestampProvider, serviceAndRegion, crypto);
    }
 
+   @Inject(optional = true)
+   void setPayloadSigning(@Named(PROPERTY_S3_PAYLOAD_SIGNING) String payloadSigning) {
+      this.payloadSigning = PayloadSigning.fromValue(payloadSigning);
+   }
+
    protected HttpRequest sign(HttpRequest request) throws HttpException {
       checkNotNull(request, "request is not ready to sign");
       checkNotNull(request.getEndpoint(), "request is not ready to sign, request.endpoint not present.");
@@ -128,11 +148,12 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
                request.getFirstHeaderOrNull(HttpHeaders.USER_AGENT));
       }
 
-      // all x-amz-* headers
-      appendAmzHeaders(request, signedHeadersBuilder);
+      // all x-amz-* headers, but those set below, which a request signed before (e.g. when retried) carries
+      Credentials credentials = creds.get();
+      appendAmzHeaders(request, signedHeadersBuilder, credentials instanceof SessionCredentials
+            ? SIGNER_HEADERS_WITH_TOKEN : SIGNER_HEADERS);
 
       // x-amz-security-token
-      Credentials credentials = creds.get();
       if (credentials instanceof SessionCredentials) {
          String token = SessionCredentials.class.cast(credentials).getSessionToken();
          requestBuilder.replaceHeader(AMZ_SECURITY_TOKEN_HEADER, token);
@@ -172,7 +193,17 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
          // when payload is null.
          return getEmptyPayloadContentHash();
       }
-      return calculatePayloadContentHash(payload);
+      if (payloadSigning == PayloadSigning.UNSIGNED) {
+         return UNSIGNED_PAYLOAD;
+      }
+      // this request was signed before, e.g. it is being retried
+      String signed = request.getFirstHeaderOrNull(AMZ_CONTENT_SHA256_HEADER);
+      if (signed != null && signed.equals(payloadHashes.getIfPresent(payload))) {
+         return signed;
+      }
+      String hash = calculatePayloadContentHash(payload);
+      payloadHashes.put(payload, hash);
+      return hash;
    }
 
    /**
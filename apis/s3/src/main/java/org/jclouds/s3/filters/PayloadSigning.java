@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.filters;
+
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_PAYLOAD_SIGNING;
+
+import java.util.List;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+/**
+ * The values of {@link org.jclouds.s3.reference.S3Constants#PROPERTY_S3_PAYLOAD_SIGNING}.
+ */
+enum PayloadSigning {
+   SIGNED, UNSIGNED, CHUNKED;
+
+   public String value() {
+      return name().toLowerCase();
+   }
+
+   /**
+    * @throws IllegalArgumentException
+    *            if {@code payloadSigning} is not one of the accepted values
+    */
+   public static PayloadSigning fromValue(String payloadSigning) {
+      List<String> accepted = Lists.newArrayList();
+      for (PayloadSigning value : values()) {
+         if (value.value().equalsIgnoreCase(payloadSigning))
+            return value;
+         accepted.add(value.value());
+      }
+      throw new IllegalArgumentException(String.format("%s must be one of %s, but was %s",
+            PROPERTY_S3_PAYLOAD_SIGNING, Joiner.on(", ").join(accepted), payloadSigning));
+   }
+}
@@ -19,10 +19,8 @@ package org.jclouds.s3.filters;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Iterables.get;
 import static com.google.common.io.BaseEncoding.base64;
-import static com.google.common.io.ByteStreams.readBytes;
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_AUTH_TAG;
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_HEADER_TAG;
-import static org.jclouds.crypto.Macs.asByteProcessor;
 import static org.jclouds.http.utils.Queries.queryParser;
 import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_SERVICE_PATH;
 import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_VIRTUAL_HOST_BUCKETS;
@@ -61,7 +59,6 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
-import com.google.common.io.ByteProcessor;
 import com.google.common.net.HttpHeaders;
 
 /**
@@ -79,7 +76,7 @@ public class RequestAuthorizeSignatureV2 implements RequestAuthorizeSignature, R
    private final SignatureWire signatureWire;
    private final Supplier<Credentials> creds;
    private final Provider<String> timeStampProvider;
-   private final Crypto crypto;
+   private final ThreadLocalMac hmacSHA1;
    private final HttpUtils utils;
 
    @Resource
@@ -104,7 +101,7 @@ public class RequestAuthorizeSignatureV2 implements RequestAuthorizeSignature, R
       this.signatureWire = signatureWire;
       this.creds = creds;
       this.timeStampProvider = timeStampProvider;
-      this.crypto = crypto;
+      this.hmacSHA1 = new ThreadLocalMac(crypto, "HmacSHA1");
       this.utils = utils;
    }
 
@@ -169,9 +166,7 @@ public class RequestAuthorizeSignatureV2 implements RequestAuthorizeSignature, R
 
    public String sign(String toSign) {
       try {
-         ByteProcessor<byte[]> hmacSHA1 = asByteProcessor(
-               crypto.hmacSHA1(creds.get().credential.getBytes(UTF_8)));
-         return base64().encode(readBytes(toInputStream(toSign), hmacSHA1));
+         return base64().encode(hmacSHA1.sign(creds.get().credential.getBytes(UTF_8), toSign));
       } catch (Exception e) {
          throw new HttpException("error signing request", e);
       }
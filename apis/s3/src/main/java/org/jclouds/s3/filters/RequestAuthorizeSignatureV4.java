@@ -25,6 +25,9 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 import org.jclouds.s3.S3Client;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_PAYLOAD_SIGNING;
 
 @Singleton
 public class RequestAuthorizeSignatureV4 implements RequestAuthorizeSignature {
@@ -33,6 +36,8 @@ public class RequestAuthorizeSignatureV4 implements RequestAuthorizeSignature {
    private static final TypeToken<S3Client> S3_CLIENT_TYPE = new TypeToken<S3Client>() {
    };
 
+   private PayloadSigning payloadSigning = PayloadSigning.SIGNED;
+
    private final Aws4SignerForAuthorizationHeader signerForAuthorizationHeader;
    private final Aws4SignerForChunkedUpload signerForChunkedUpload;
    private final Aws4SignerForQueryString signerForQueryString;
@@ -46,6 +51,11 @@ public class RequestAuthorizeSignatureV4 implements RequestAuthorizeSignature {
       this.signerForQueryString = signerForQueryString;
    }
 
+   @com.google.inject.Inject(optional = true)
+   void setPayloadSigning(@Named(PROPERTY_S3_PAYLOAD_SIGNING) String payloadSigning) {
+      this.payloadSigning = PayloadSigning.fromValue(payloadSigning);
+   }
+
    @Override
    public HttpRequest filter(HttpRequest request) throws HttpException {
       // request use chunked upload
@@ -56,7 +66,9 @@ public class RequestAuthorizeSignatureV4 implements RequestAuthorizeSignature {
    }
 
    /**
-    * returns true, if use AWS S3 chunked upload.
+    * returns true, if use AWS S3 chunked upload. Chunked uploads hash the payload while sending it,
+    * so they are used for payloads which cannot be read twice, and for all object uploads when
+    * payloads are signed {@code chunked}.
     */
    protected boolean useChunkedUpload(HttpRequest request) {
       // only S3Client putObject method, payload not null, content-length > 0 and cannot repeatable
@@ -84,7 +96,7 @@ public class RequestAuthorizeSignatureV4 implements RequestAuthorizeSignature {
          return false;
       }
 
-      return contentLength > 0l && !payload.isRepeatable();
+      return contentLength > 0l && (!payload.isRepeatable() || payloadSigning == PayloadSigning.CHUNKED);
    }
 
    protected HttpRequest signForAuthorizationHeader(HttpRequest request) {
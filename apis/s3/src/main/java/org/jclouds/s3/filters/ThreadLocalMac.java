@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.filters;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.jclouds.crypto.Crypto;
+
+/**
+ * Keeps one {@link Mac} per thread, so that signing a request neither looks up the algorithm nor
+ * allocates a new {@link Mac}. The {@link Mac} is only re-keyed when the key differs from the
+ * one it was last used with.
+ */
+final class ThreadLocalMac {
+   private final Crypto crypto;
+   private final String algorithm;
+   private final ThreadLocal<KeyedMac> macs = new ThreadLocal<KeyedMac>();
+
+   ThreadLocalMac(Crypto crypto, String algorithm) {
+      this.crypto = checkNotNull(crypto, "crypto");
+      this.algorithm = checkNotNull(algorithm, "algorithm");
+   }
+
+   /**
+    * @return the mac of the UTF-8 bytes of {@code toSign} under {@code key}
+    */
+   byte[] sign(byte[] key, String toSign) throws InvalidKeyException, NoSuchAlgorithmException {
+      KeyedMac keyed = macs.get();
+      if (keyed == null) {
+         keyed = new KeyedMac(crypto.hmac(algorithm, key), key);
+         macs.set(keyed);
+      } else if (keyed.key != key && !Arrays.equals(keyed.key, key)) {
+         // a mac which failed to take the new key can't be used anymore
+         macs.remove();
+         keyed.mac.init(new SecretKeySpec(key, keyed.mac.getAlgorithm()));
+         keyed.key = key;
+         macs.set(keyed);
+      }
+      // doFinal leaves the mac ready for the next message under the same key
+      return keyed.mac.doFinal(toSign.getBytes(UTF_8));
+   }
+
+   private static final class KeyedMac {
+      private final Mac mac;
+      private byte[] key;
+
+      private KeyedMac(Mac mac, byte[] key) {
+         this.mac = mac;
+         this.key = key;
+      }
+   }
+}
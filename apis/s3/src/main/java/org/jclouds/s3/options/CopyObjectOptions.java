@@ -36,7 +36,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.ThreadLocalDateService;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 import org.jclouds.s3.domain.CannedAccessPolicy;
 
@@ -70,7 +70,7 @@ import com.google.common.net.HttpHeaders;
  * <code>
  */
 public class CopyObjectOptions extends BaseHttpRequestOptions {
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new ThreadLocalDateService();
    public static final CopyObjectOptions NONE = new CopyObjectOptions();
    private String cacheControl;
    private String contentDisposition;
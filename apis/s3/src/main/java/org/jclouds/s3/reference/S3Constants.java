@@ -32,6 +32,16 @@ public final class S3Constants {
    public static final String PROPERTY_S3_SERVICE_PATH = "jclouds.s3.service-path";
    public static final String PROPERTY_S3_VIRTUAL_HOST_BUCKETS = "jclouds.s3.virtual-host-buckets";
    public static final String PROPERTY_JCLOUDS_S3_CHUNKED_SIZE = "jclouds.s3.chunked.size";
+   /**
+    * How V4 signatures cover request payloads. {@code signed} hashes the payload before sending
+    * it, and does not hash it again when a retry signs the request again. {@code unsigned} sends
+    * {@code UNSIGNED-PAYLOAD} instead, so the payload is read once. {@code chunked} signs object
+    * uploads chunk by chunk while sending them.
+    * <p/>
+    * The setting applies to every request of the context. Payload hashes are always computed by the
+    * signer; an {@code x-amz-content-sha256} header set by the caller is replaced.
+    */
+   public static final String PROPERTY_S3_PAYLOAD_SIGNING = "jclouds.s3.payload-signing";
 
    private S3Constants() {
       throw new AssertionError("intentionally unimplemented");
@@ -16,10 +16,22 @@
  */
 package org.jclouds.s3.filters;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
 
+import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Named;
 
@@ -32,6 +44,7 @@ import org.jclouds.http.HttpRequest;
 import org.jclouds.http.options.GetOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.logging.config.NullLoggingModule;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.ConfiguresHttpApi;
@@ -42,14 +55,19 @@ import org.jclouds.s3.S3Client;
 import org.jclouds.s3.config.S3HttpApiModule;
 import org.jclouds.s3.domain.S3Object;
 import org.jclouds.s3.options.PutObjectOptions;
+import org.jclouds.s3.reference.S3Constants;
+import org.jclouds.util.Throwables2;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.google.inject.ProvisionException;
 
 /**
  * Tests behavior of {@code RequestAuthorizeSignature}
@@ -103,8 +121,13 @@ public class RequestAuthorizeSignatureV4Test {
    }
 
    public static Injector injector(Credentials creds) {
+      return injector(creds, new Properties());
+   }
+
+   private static Injector injector(Credentials creds, Properties overrides) {
       return ContextBuilder.newBuilder(new S3ApiMetadata())
             .credentialsSupplier(Suppliers.<Credentials>ofInstance(creds))
+            .overrides(overrides)
             .modules(ImmutableList.<Module>of(new BaseRestApiTest.MockModule(), new NullLoggingModule(),
                   new TestS3HttpApiModule()))
             .buildInjector();
@@ -190,4 +213,151 @@ public class RequestAuthorizeSignatureV4Test {
       assertEquals(filtered.getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
 
    }
+
+   @Test
+   void testPutObjectIgnoresPayloadHashFromCaller() {
+      Payload payload = Payloads.newStringPayload(PUT_OBJECT_CONTENT);
+      payload.getContentMetadata().setContentType("text/plain");
+      HttpRequest putObject = putObjectRequest(payload).toBuilder()
+            .addHeader("x-amz-content-sha256", Hashing.sha256().hashString("other content", UTF_8).toString())
+            .build();
+
+      HttpRequest filtered = filter(temporaryCredentials).filter(putObject);
+      assertEquals(filtered.getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+   }
+
+   @Test
+   void testPutObjectHashesPayloadOnceWhenSignedAgain() {
+      final AtomicInteger reads = new AtomicInteger();
+      Payload payload = new StringPayload(PUT_OBJECT_CONTENT) {
+         @Override
+         public InputStream openStream() {
+            reads.incrementAndGet();
+            return super.openStream();
+         }
+      };
+      payload.getContentMetadata().setContentType("text/plain");
+      RequestAuthorizeSignatureV4 filter = filter(temporaryCredentials);
+
+      HttpRequest filtered = filter.filter(filter.filter(putObjectRequest(payload)));
+      assertEquals(filtered.getFirstHeaderOrNull("Authorization"), PUT_OBJECT_RESULT);
+      assertEquals(reads.get(), 1);
+   }
+
+   @Test
+   void testRejectsUnknownPayloadSigning() {
+      Properties overrides = new Properties();
+      overrides.setProperty(S3Constants.PROPERTY_S3_PAYLOAD_SIGNING, "sigend");
+      try {
+         injector(temporaryCredentials, overrides).getInstance(RequestAuthorizeSignatureV4.class);
+         fail("expected an unknown payload signing to be rejected");
+      } catch (ProvisionException e) {
+         IllegalArgumentException cause = Throwables2.getFirstThrowableOfType(e, IllegalArgumentException.class);
+         assertEquals(cause.getMessage(),
+               "jclouds.s3.payload-signing must be one of signed, unsigned, chunked, but was sigend");
+      }
+   }
+
+   @Test
+   void testPutObjectWithUnsignedPayload() {
+      Properties overrides = new Properties();
+      overrides.setProperty(S3Constants.PROPERTY_S3_PAYLOAD_SIGNING, "unsigned");
+      Payload payload = Payloads.newStringPayload(PUT_OBJECT_CONTENT);
+      payload.getContentMetadata().setContentType("text/plain");
+
+      HttpRequest filtered = injector(temporaryCredentials, overrides).getInstance(RequestAuthorizeSignatureV4.class)
+            .filter(putObjectRequest(payload));
+      assertEquals(filtered.getFirstHeaderOrNull("x-amz-content-sha256"), "UNSIGNED-PAYLOAD");
+      assertEquals(filtered.getPayload(), payload);
+   }
+
+   @Test
+   void testPutObjectWithChunkedPayload() {
+      Properties overrides = new Properties();
+      overrides.setProperty(S3Constants.PROPERTY_S3_PAYLOAD_SIGNING, "chunked");
+      Payload payload = Payloads.newStringPayload(PUT_OBJECT_CONTENT);
+      payload.getContentMetadata().setContentType("text/plain");
+
+      HttpRequest filtered = injector(temporaryCredentials, overrides).getInstance(RequestAuthorizeSignatureV4.class)
+            .filter(putObjectRequest(payload));
+      assertEquals(filtered.getFirstHeaderOrNull("x-amz-content-sha256"), "STREAMING-AWS4-HMAC-SHA256-PAYLOAD");
+   }
+
+   private static HttpRequest putObjectRequest(Payload payload) {
+      Invocation invocation = Invocation.create(method(S3Client.class, "putObject", String.class, S3Object.class,
+                  PutObjectOptions[].class),
+            ImmutableList.<Object>of(BUCKET_NAME));
+      return GeneratedHttpRequest.builder().method("PUT")
+            .invocation(invocation)
+            .endpoint("https://" + BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn/" + OBJECT_NAME)
+            .addHeader(HttpHeaders.HOST, BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn")
+            .addHeader("x-amz-storage-class", "REDUCED_REDUNDANCY")
+            .payload(payload)
+            .build();
+   }
+
+   @Test
+   void testSigningKeyIsDerivedOncePerScope() {
+      Aws4SignerBase signer = injector(temporaryCredentials).getInstance(Aws4SignerForAuthorizationHeader.class);
+      // example from the AWS documentation on deriving a signing key
+      String secret = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+      byte[] key = signer.signatureKey(secret, "20120215", "us-east-1", "iam");
+      assertEquals(Aws4SignerBase.hex(key), "f4780e2d9f65fa895f9c67b32ce1baf0b0d8a43505a000a1a9e090d414db404d");
+      assertSame(signer.signatureKey(secret, "20120215", "us-east-1", "iam"), key);
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(secret, "20120216", "us-east-1", "iam")),
+            Aws4SignerBase.hex(key));
+      assertNotEquals(Aws4SignerBase.hex(signer.signatureKey(CREDENTIAL, "20120215", "us-east-1", "iam")),
+            Aws4SignerBase.hex(key));
+   }
+
+   @Test
+   void testSignsConcurrently() throws Exception {
+      final RequestAuthorizeSignatureV4 filter = filter(temporaryCredentials);
+      final HttpRequest getObject = getObjectRequest();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<String>> signatures = Lists.newArrayList();
+         for (int i = 0; i < 100; i++) {
+            signatures.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() {
+                  return filter.filter(getObject).getFirstHeaderOrNull("Authorization");
+               }
+            }));
+         }
+         for (Future<String> signature : signatures) {
+            assertEquals(signature.get(), GET_OBJECT_RESULT);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Measures how many GET object requests are signed per second.
+    */
+   @Test(groups = "performance")
+   void testSignaturesPerSecond() {
+      RequestAuthorizeSignatureV4 filter = filter(temporaryCredentials);
+      HttpRequest getObject = getObjectRequest();
+      for (int round = 0; round < 3; round++) {
+         int count = 20000;
+         long start = System.nanoTime();
+         for (int i = 0; i < count; i++) {
+            filter.filter(getObject);
+         }
+         System.out.printf("TIMING: %.0f V4 signatures per second%n", count / ((System.nanoTime() - start) / 1e9));
+      }
+   }
+
+   private static HttpRequest getObjectRequest() {
+      Invocation invocation = Invocation.create(method(S3Client.class, "getObject", String.class,
+                  String.class, GetOptions[].class),
+            ImmutableList.<Object>of(BUCKET_NAME, OBJECT_NAME, new GetOptions[0]));
+      return GeneratedHttpRequest.builder().method("GET")
+            .invocation(invocation)
+            .endpoint("https://" + BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn/" + OBJECT_NAME)
+            .addHeader(HttpHeaders.HOST, BUCKET_NAME + ".s3.cn-north-1.amazonaws.com.cn")
+            .build();
+   }
 }
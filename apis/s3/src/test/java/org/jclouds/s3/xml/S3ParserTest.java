@@ -26,6 +26,8 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 
+import javax.xml.parsers.SAXParserFactory;
+
 import org.jclouds.PerformanceTest;
 import org.jclouds.date.internal.SimpleDateFormatDateService;
 import org.jclouds.http.HttpException;
@@ -173,4 +175,58 @@ public class S3ParserTest extends PerformanceTest {
          assert completer.take().get() != null;
    }
 
+   /**
+    * Compares parsing a listing of 1000 keys with a new parser per response against the readers
+    * pooled by {@link SaxParserModule}.
+    */
+   @Test
+   void testParseLargeListContainerResultPooledVersusNewParser() throws Exception {
+      String listing = listContainerResult(1000);
+      SAXParserFactory saxParserFactory = injector.getInstance(SAXParserFactory.class);
+      int loops = 200;
+      for (int i = 0; i < loops; i++) {
+         parseWithNewParser(saxParserFactory, listing);
+         parseWithFactory(listing);
+      }
+
+      long start = System.nanoTime();
+      for (int i = 0; i < loops; i++)
+         assertEquals(parseWithNewParser(saxParserFactory, listing).size(), 1000);
+      long newParserNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < loops; i++)
+         assertEquals(parseWithFactory(listing).size(), 1000);
+      long pooledNanos = System.nanoTime() - start;
+
+      System.out.printf("TIMING: %d listings of 1000 keys with a new parser took %.3fms, pooled took %.3fms%n",
+            loops, newParserNanos / 1000000d, pooledNanos / 1000000d);
+   }
+
+   private ListBucketResponse parseWithNewParser(SAXParserFactory saxParserFactory, String listing)
+         throws Exception {
+      ParseSax<ListBucketResponse> parser = new ParseSax<ListBucketResponse>(saxParserFactory.newSAXParser()
+            .getXMLReader(), injector.getInstance(ListBucketHandler.class));
+      return parser.setContext(HttpRequest.builder().method("GET").endpoint("http://bucket.com").build()).parse(
+            listing);
+   }
+
+   private ListBucketResponse parseWithFactory(String listing) {
+      return factory.create(injector.getInstance(ListBucketHandler.class)).setContext(
+            HttpRequest.builder().method("GET").endpoint("http://bucket.com").build()).parse(listing);
+   }
+
+   private static String listContainerResult(int keys) {
+      StringBuilder builder = new StringBuilder("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+            + "<Name>adrianjbosstest</Name><Prefix></Prefix><Marker></Marker><MaxKeys>1000</MaxKeys>"
+            + "<IsTruncated>false</IsTruncated>");
+      for (int i = 0; i < keys; i++) {
+         builder.append("<Contents><Key>key-").append(i).append("</Key>")
+               .append("<LastModified>2009-03-12T02:00:13.000Z</LastModified>")
+               .append("<ETag>&quot;9d7bb64e8e18ee34eec06dd2cf37b766&quot;</ETag><Size>136</Size>")
+               .append("<Owner><ID>e1a5f66a480ca99a4fdfe8e318c3020446c9989d7004e7778029fbcc5d990fa0</ID>")
+               .append("<DisplayName>ferncam</DisplayName></Owner><StorageClass>STANDARD</StorageClass></Contents>");
+      }
+      return builder.append("</ListBucketResult>").toString();
+   }
 }
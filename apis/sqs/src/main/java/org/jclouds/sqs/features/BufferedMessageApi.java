@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs.features;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Utf8;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Merges single message calls to a {@link MessageApi} into batch calls.
+ * <p/>
+ * {@link #send}, {@link #delete} and {@link #changeVisibility} calls are collected per action and
+ * sent as one batch call once {@link Builder#maxBatchSize} entries are pending, or
+ * {@link Builder#maxBatchLatency} after the first entry was added, whichever comes first. Each
+ * caller gets a future of its own entry, which fails with a {@link BatchEntryException} if the
+ * batch call reported an error for it.
+ * <p/>
+ * {@link #receive} is served from a buffer of up to {@link Builder#receiveBufferSize} messages,
+ * which is refilled in the background while the queue returns messages. Buffered messages count
+ * against their visibility timeout, so keep the buffer small relative to the rate at which they
+ * are consumed. Set {@link ReceiveMessageOptions#waitTimeSeconds} in
+ * {@link Builder#receiveOptions} to long poll.
+ * <p/>
+ * Batch calls run on the given executor, and the latency timers on the given scheduler. Neither
+ * is shut down on {@link #close}.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * BufferedMessageApi buffered = BufferedMessageApi.builder(sqsApi.getMessageApiForQueue(queue))
+ *       .executor(userExecutor)
+ *       .scheduler(scheduler)
+ *       .build();
+ * ListenableFuture&lt;MessageIdAndMD5&gt; sent = buffered.send(&quot;hello&quot;);
+ * </pre>
+ */
+@Beta
+public class BufferedMessageApi implements Closeable {
+
+   /**
+    * The most entries SQS accepts in one batch call.
+    */
+   public static final int MAX_BATCH_SIZE = 10;
+
+   /**
+    * The most bytes of message bodies SQS accepts in one {@code SendMessageBatch} call.
+    */
+   public static final int MAX_SEND_BATCH_BYTES = 64 * 1024;
+
+   public static Builder builder(MessageApi api) {
+      return new Builder(api);
+   }
+
+   public static class Builder {
+      private final MessageApi api;
+      private ExecutorService executor;
+      private ScheduledExecutorService scheduler;
+      private int maxBatchSize = MAX_BATCH_SIZE;
+      private long maxBatchLatencyNanos = MILLISECONDS.toNanos(200);
+      private int receiveBufferSize = MAX_BATCH_SIZE;
+      private ReceiveMessageOptions receiveOptions = new ReceiveMessageOptions();
+
+      private Builder(MessageApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      /**
+       * executor the batch and receive calls run on
+       */
+      public Builder executor(ExecutorService executor) {
+         this.executor = checkNotNull(executor, "executor");
+         return this;
+      }
+
+      /**
+       * scheduler which sends batches that did not fill up in time
+       */
+      public Builder scheduler(ScheduledExecutorService scheduler) {
+         this.scheduler = checkNotNull(scheduler, "scheduler");
+         return this;
+      }
+
+      /**
+       * entries which are sent together as soon as they are pending; 1 to 10, default 10
+       */
+      public Builder maxBatchSize(int maxBatchSize) {
+         checkArgument(maxBatchSize > 0 && maxBatchSize <= MAX_BATCH_SIZE, "maxBatchSize must be between 1 and %s",
+               MAX_BATCH_SIZE);
+         this.maxBatchSize = maxBatchSize;
+         return this;
+      }
+
+      /**
+       * longest an entry waits for its batch to fill up; default 200 milliseconds
+       */
+      public Builder maxBatchLatency(long maxBatchLatency, TimeUnit unit) {
+         checkArgument(maxBatchLatency >= 0, "maxBatchLatency must not be negative");
+         this.maxBatchLatencyNanos = unit.toNanos(maxBatchLatency);
+         return this;
+      }
+
+      /**
+       * messages received ahead of {@link BufferedMessageApi#receive} calls; 0 only receives on
+       * demand, default 10
+       */
+      public Builder receiveBufferSize(int receiveBufferSize) {
+         checkArgument(receiveBufferSize >= 0, "receiveBufferSize must not be negative");
+         this.receiveBufferSize = receiveBufferSize;
+         return this;
+      }
+
+      /**
+       * options of the receive calls, such as visibility timeout or long polling
+       */
+      public Builder receiveOptions(ReceiveMessageOptions receiveOptions) {
+         this.receiveOptions = checkNotNull(receiveOptions, "receiveOptions").clone();
+         return this;
+      }
+
+      public BufferedMessageApi build() {
+         return new BufferedMessageApi(this);
+      }
+   }
+
+   /**
+    * An error SQS reported for one entry of a batch call.
+    */
+   public static class BatchEntryException extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      private final BatchError error;
+
+      public BatchEntryException(BatchError error) {
+         super(checkNotNull(error, "error").getCode() + ": " + error.getMessage());
+         this.error = error;
+      }
+
+      public BatchError getError() {
+         return error;
+      }
+   }
+
+   private final MessageApi api;
+   private final ExecutorService executor;
+   private final ScheduledExecutorService scheduler;
+   private final int maxBatchSize;
+   private final long maxBatchLatencyNanos;
+   private final int receiveBufferSize;
+   private final ReceiveMessageOptions receiveOptions;
+
+   private final Outbox<String, MessageIdAndMD5> sends;
+   private final Outbox<String, Void> deletes;
+   private final Outbox<Visibility, Void> visibilityChanges;
+
+   private final Object receiveLock = new Object();
+   private final Deque<Message> buffered = new ArrayDeque<Message>();
+   private final Deque<SettableFuture<Message>> receivers = new ArrayDeque<SettableFuture<Message>>();
+   private boolean receiving;
+   private boolean prefetch = true;
+   private volatile boolean closed;
+
+   private BufferedMessageApi(Builder builder) {
+      this.api = builder.api;
+      this.executor = checkNotNull(builder.executor, "executor");
+      this.scheduler = checkNotNull(builder.scheduler, "scheduler");
+      this.maxBatchSize = builder.maxBatchSize;
+      this.maxBatchLatencyNanos = builder.maxBatchLatencyNanos;
+      this.receiveBufferSize = builder.receiveBufferSize;
+      this.receiveOptions = builder.receiveOptions;
+      this.sends = new Outbox<String, MessageIdAndMD5>(MAX_SEND_BATCH_BYTES) {
+         @Override
+         BatchResult<?> call(List<String> messages) {
+            ImmutableMap.Builder<String, String> idMessageBody = ImmutableMap.builder();
+            for (int i = 0; i < messages.size(); i++) {
+               idMessageBody.put(id(i), messages.get(i));
+            }
+            return api.send(idMessageBody.build());
+         }
+
+         @Override
+         MessageIdAndMD5 value(Object result) {
+            return (MessageIdAndMD5) result;
+         }
+      };
+      this.deletes = new Outbox<String, Void>(Integer.MAX_VALUE) {
+         @Override
+         BatchResult<?> call(List<String> receiptHandles) {
+            ImmutableMap.Builder<String, String> idReceiptHandle = ImmutableMap.builder();
+            for (int i = 0; i < receiptHandles.size(); i++) {
+               idReceiptHandle.put(id(i), receiptHandles.get(i));
+            }
+            return api.delete(idReceiptHandle.build());
+         }
+
+         @Override
+         Void value(Object result) {
+            return null;
+         }
+      };
+      this.visibilityChanges = new Outbox<Visibility, Void>(Integer.MAX_VALUE) {
+         @Override
+         BatchResult<?> call(List<Visibility> changes) {
+            ImmutableTable.Builder<String, String, Integer> idReceiptHandleVisibilityTimeout = ImmutableTable.builder();
+            for (int i = 0; i < changes.size(); i++) {
+               idReceiptHandleVisibilityTimeout.put(id(i), changes.get(i).receiptHandle, changes.get(i).timeout);
+            }
+            return api.changeVisibility(idReceiptHandleVisibilityTimeout.build());
+         }
+
+         @Override
+         Void value(Object result) {
+            return null;
+         }
+      };
+   }
+
+   /**
+    * @see MessageApi#send(String)
+    */
+   public ListenableFuture<MessageIdAndMD5> send(String message) {
+      return sends.add(checkNotNull(message, "message"), Utf8.encodedLength(message));
+   }
+
+   /**
+    * @see MessageApi#delete(String)
+    */
+   public ListenableFuture<Void> delete(String receiptHandle) {
+      return deletes.add(checkNotNull(receiptHandle, "receiptHandle"), 0);
+   }
+
+   /**
+    * @see MessageApi#changeVisibility(String, int)
+    */
+   public ListenableFuture<Void> changeVisibility(String receiptHandle, int visibilityTimeout) {
+      return visibilityChanges.add(new Visibility(checkNotNull(receiptHandle, "receiptHandle"), visibilityTimeout), 0);
+   }
+
+   /**
+    * @return a future of the next message, or of {@code null} if a receive call, which was made on
+    *         behalf of this one, returned no message
+    * @see MessageApi#receive()
+    */
+   public ListenableFuture<Message> receive() {
+      synchronized (receiveLock) {
+         checkState(!closed, "closed");
+         Message message = buffered.poll();
+         if (message != null) {
+            fetchIfNeeded();
+            return Futures.immediateFuture(message);
+         }
+         SettableFuture<Message> receiver = SettableFuture.create();
+         receivers.add(receiver);
+         fetchIfNeeded();
+         return receiver;
+      }
+   }
+
+   /**
+    * Starts the batch calls of all pending entries, without waiting for their batches to fill up.
+    */
+   public void flush() {
+      sends.flush();
+      deletes.flush();
+      visibilityChanges.flush();
+   }
+
+   /**
+    * Flushes pending entries and stops receiving. Pending {@link #receive} calls complete with
+    * {@code null}, and buffered messages become visible again once their visibility timeout
+    * expires.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      flush();
+      List<SettableFuture<Message>> pending;
+      synchronized (receiveLock) {
+         buffered.clear();
+         pending = Lists.newArrayList(receivers);
+         receivers.clear();
+      }
+      for (SettableFuture<Message> receiver : pending) {
+         receiver.set(null);
+      }
+   }
+
+   private static String id(int index) {
+      return String.valueOf(index + 1);
+   }
+
+   private void fetchIfNeeded() {
+      if (receiving || closed)
+         return;
+      int wanted = receivers.size() + (prefetch ? receiveBufferSize - buffered.size() : 0);
+      if (wanted <= 0)
+         return;
+      final int max = Math.min(wanted, MAX_BATCH_SIZE);
+      final int waiting = receivers.size();
+      receiving = true;
+      try {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               fetch(max, waiting);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         receiving = false;
+         failReceivers(receivers.size(), e);
+      }
+   }
+
+   private void fetch(int max, int waiting) {
+      FluentIterable<Message> messages;
+      try {
+         messages = api.receive(max, receiveOptions);
+      } catch (RuntimeException e) {
+         synchronized (receiveLock) {
+            receiving = false;
+            prefetch = false;
+            failReceivers(waiting, e);
+            fetchIfNeeded();
+         }
+         return;
+      }
+      synchronized (receiveLock) {
+         receiving = false;
+         if (closed)
+            return;
+         for (Message message : messages) {
+            offer(message);
+         }
+         // the queue looked empty to the receivers waiting for this call
+         prefetch = !messages.isEmpty();
+         if (!prefetch) {
+            for (int i = 0; i < waiting && !receivers.isEmpty(); i++) {
+               receivers.poll().set(null);
+            }
+         }
+         fetchIfNeeded();
+      }
+   }
+
+   private void offer(Message message) {
+      SettableFuture<Message> receiver;
+      while ((receiver = receivers.poll()) != null) {
+         // a cancelled receiver leaves the message to the next one
+         if (receiver.set(message))
+            return;
+      }
+      buffered.add(message);
+   }
+
+   private void failReceivers(int count, Throwable cause) {
+      for (int i = 0; i < count && !receivers.isEmpty(); i++) {
+         receivers.poll().setException(cause);
+      }
+   }
+
+   private static final class Visibility {
+      private final String receiptHandle;
+      private final int timeout;
+
+      private Visibility(String receiptHandle, int timeout) {
+         this.receiptHandle = receiptHandle;
+         this.timeout = timeout;
+      }
+   }
+
+   /**
+    * Collects the entries of one batch action.
+    */
+   private abstract class Outbox<E, V> implements Runnable {
+      private final int maxBatchBytes;
+      private List<E> entries = Lists.newArrayList();
+      private List<SettableFuture<V>> futures = Lists.newArrayList();
+      private int bytes;
+      private ScheduledFuture<?> timer;
+
+      Outbox(int maxBatchBytes) {
+         this.maxBatchBytes = maxBatchBytes;
+      }
+
+      abstract BatchResult<?> call(List<E> entries);
+
+      abstract V value(Object result);
+
+      synchronized ListenableFuture<V> add(E entry, int entryBytes) {
+         checkState(!closed, "closed");
+         SettableFuture<V> future = SettableFuture.create();
+         if (!entries.isEmpty() && bytes + entryBytes > maxBatchBytes)
+            dispatch();
+         entries.add(entry);
+         futures.add(future);
+         bytes += entryBytes;
+         if (entries.size() >= maxBatchSize) {
+            dispatch();
+         } else if (entries.size() == 1) {
+            try {
+               timer = scheduler.schedule(this, maxBatchLatencyNanos, NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+               dispatch();
+            }
+         }
+         return future;
+      }
+
+      synchronized void flush() {
+         dispatch();
+      }
+
+      @Override
+      public void run() {
+         flush();
+      }
+
+      private void dispatch() {
+         if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+         }
+         if (entries.isEmpty())
+            return;
+         final List<E> batch = entries;
+         final List<SettableFuture<V>> results = futures;
+         entries = Lists.newArrayList();
+         futures = Lists.newArrayList();
+         bytes = 0;
+         try {
+            executor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  complete(batch, results);
+               }
+            });
+         } catch (RejectedExecutionException e) {
+            for (SettableFuture<V> result : results) {
+               result.setException(e);
+            }
+         }
+      }
+
+      private void complete(List<E> batch, List<SettableFuture<V>> results) {
+         BatchResult<?> batchResult;
+         try {
+            batchResult = call(batch);
+         } catch (RuntimeException e) {
+            for (SettableFuture<V> result : results) {
+               result.setException(e);
+            }
+            return;
+         }
+         Map<String, ?> values = batchResult;
+         Map<String, BatchError> errors = batchResult.getErrors();
+         for (int i = 0; i < results.size(); i++) {
+            String id = id(i);
+            if (values.containsKey(id)) {
+               results.get(i).set(value(values.get(id)));
+            } else if (errors.containsKey(id)) {
+               results.get(i).setException(new BatchEntryException(errors.get(id)));
+            } else {
+               results.get(i).setException(new IllegalStateException("no result for entry " + id + " in "
+                     + batchResult));
+            }
+         }
+      }
+   }
+}
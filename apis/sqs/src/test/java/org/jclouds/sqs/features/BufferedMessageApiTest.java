@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs.features;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.features.BufferedMessageApi.BatchEntryException;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "BufferedMessageApiTest")
+public class BufferedMessageApiTest {
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+
+   private static MessageIdAndMD5 sent(String id) {
+      return MessageIdAndMD5.builder().id(id).md5(HashCode.fromInt(1)).build();
+   }
+
+   private static Message message(String id) {
+      return Message.builder().id(id).body(id).receiptHandle("handle-" + id).md5(HashCode.fromInt(1)).build();
+   }
+
+   public void testSendsFullBatchAtOnce() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      BatchResult<MessageIdAndMD5> result = BatchResult.<MessageIdAndMD5> builder().put("1", sent("a"))
+            .put("3", sent("c"))
+            .addError(BatchError.builder().id("2").code("InvalidMessageContents").message("bad").build()).build();
+      expect(api.send(ImmutableMap.of("1", "a", "2", "b", "3", "c"))).andReturn((BatchResult) result);
+      replay(api);
+
+      BufferedMessageApi buffered = BufferedMessageApi.builder(api).executor(sameThreadExecutor())
+            .scheduler(scheduler).maxBatchSize(3).maxBatchLatency(1, HOURS).build();
+      ListenableFuture<MessageIdAndMD5> a = buffered.send("a");
+      ListenableFuture<MessageIdAndMD5> b = buffered.send("b");
+      ListenableFuture<MessageIdAndMD5> c = buffered.send("c");
+
+      assertEquals(a.get(), sent("a"));
+      assertEquals(c.get(), sent("c"));
+      try {
+         b.get();
+         fail("expected the entry to fail");
+      } catch (ExecutionException e) {
+         assertEquals(((BatchEntryException) e.getCause()).getError().getCode(), "InvalidMessageContents");
+      }
+      verify(api);
+   }
+
+   public void testSendsPartialBatchAfterLatency() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.delete(ImmutableMap.of("1", "h1", "2", "h2"))).andReturn(
+            BatchResult.<String> builder().put("1", "1").put("2", "2").build());
+      replay(api);
+
+      BufferedMessageApi buffered = BufferedMessageApi.builder(api).executor(sameThreadExecutor())
+            .scheduler(scheduler).maxBatchLatency(10, MILLISECONDS).build();
+      List<Void> deleted = Futures.allAsList(buffered.delete("h1"), buffered.delete("h2")).get(10, SECONDS);
+
+      assertEquals(deleted.size(), 2);
+      verify(api);
+   }
+
+   public void testFailedBatchCallFailsEntries() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      IllegalStateException failure = new IllegalStateException("throttled");
+      expect(api.changeVisibility(ImmutableTable.of("1", "h1", 30))).andThrow(failure);
+      replay(api);
+
+      BufferedMessageApi buffered = BufferedMessageApi.builder(api).executor(sameThreadExecutor())
+            .scheduler(scheduler).maxBatchLatency(1, HOURS).build();
+      ListenableFuture<Void> changed = buffered.changeVisibility("h1", 30);
+      buffered.close();
+
+      try {
+         changed.get();
+         fail("expected the entry to fail");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause(), failure);
+      }
+      verify(api);
+   }
+
+   public void testReceivesAheadIntoBuffer() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      ReceiveMessageOptions options = new ReceiveMessageOptions().visibilityTimeout(60);
+      ReceiveMessageOptions expected = options.clone();
+      expect(api.receive(eq(3), eq(expected))).andReturn(messages("m1", "m2"));
+      expect(api.receive(eq(1), eq(expected))).andReturn(messages());
+      expect(api.receive(eq(1), eq(expected))).andReturn(messages("m3"));
+      expect(api.receive(eq(2), eq(expected))).andReturn(messages());
+      expect(api.receive(eq(1), eq(expected))).andReturn(messages());
+      replay(api);
+
+      BufferedMessageApi buffered = BufferedMessageApi.builder(api).executor(sameThreadExecutor())
+            .scheduler(scheduler).receiveBufferSize(2).receiveOptions(options).build();
+      // the builder keeps its own copy
+      options.visibilityTimeout(null);
+
+      assertEquals(buffered.receive().get(), message("m1"));
+      assertEquals(buffered.receive().get(), message("m2"));
+      assertEquals(buffered.receive().get(), message("m3"));
+      assertNull(buffered.receive().get());
+      buffered.close();
+      verify(api);
+   }
+
+   private static FluentIterable<Message> messages(String... ids) {
+      List<Message> messages = Lists.newArrayList();
+      for (String id : ids) {
+         messages.add(message(id));
+      }
+      return FluentIterable.from(ImmutableList.copyOf(messages));
+   }
+
+   /**
+    * Times sending messages from several threads, each waiting for its message to be sent, once
+    * with a call per message and once buffered, against a queue which takes 10 milliseconds per call.
+    */
+   @Test(groups = "performance")
+   public void testSendThroughput() throws Exception {
+      int messages = 4000;
+      ExecutorService senders = Executors.newFixedThreadPool(32);
+      ExecutorService executor = Executors.newCachedThreadPool();
+      try {
+         for (final boolean buffer : new boolean[] { false, true }) {
+            AtomicInteger calls = new AtomicInteger();
+            final MessageApi api = slowQueue(calls);
+            final BufferedMessageApi buffered = BufferedMessageApi.builder(api).executor(executor)
+                  .scheduler(scheduler).maxBatchLatency(5, MILLISECONDS).build();
+            List<Future<MessageIdAndMD5>> results = Lists.newArrayList();
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+               final String body = "message" + i;
+               results.add(senders.submit(new Callable<MessageIdAndMD5>() {
+                  @Override
+                  public MessageIdAndMD5 call() throws Exception {
+                     return buffer ? buffered.send(body).get() : api.send(body);
+                  }
+               }));
+            }
+            for (Future<MessageIdAndMD5> result : results) {
+               result.get(60, SECONDS);
+            }
+            long elapsed = System.nanoTime() - start;
+            buffered.close();
+            System.out.printf("TIMING: %s sent %d messages in %d calls, %.0f messages/s%n",
+                  buffer ? "buffered" : "direct", messages, calls.get(), messages / (elapsed / 1e9));
+         }
+      } finally {
+         senders.shutdownNow();
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * A queue which takes 10 milliseconds per send call.
+    */
+   private static MessageApi slowQueue(final AtomicInteger calls) {
+      return (MessageApi) Proxy.newProxyInstance(MessageApi.class.getClassLoader(),
+            new Class<?>[] { MessageApi.class }, new InvocationHandler() {
+               @Override
+               public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                  calls.incrementAndGet();
+                  Thread.sleep(10);
+                  if (args[0] instanceof String)
+                     return sent((String) args[0]);
+                  BatchResult.Builder<MessageIdAndMD5> result = BatchResult.builder();
+                  for (Map.Entry<?, ?> entry : ((Map<?, ?>) args[0]).entrySet()) {
+                     result.put((String) entry.getKey(), sent((String) entry.getValue()));
+                  }
+                  return result.build();
+               }
+            });
+   }
+}
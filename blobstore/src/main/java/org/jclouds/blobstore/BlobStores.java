@@ -16,15 +16,40 @@
  */
 package org.jclouds.blobstore;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.options.DownloadOptions;
+import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListAllOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.util.Closeables2;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Utilities for using Blob Stores.
@@ -102,4 +127,151 @@ public class BlobStores {
       };
    }
 
+   /**
+    * @see #downloadBlob(BlobStore, String, String, File, ListeningExecutorService, DownloadOptions)
+    */
+   @Beta
+   public static BlobMetadata downloadBlob(BlobStore blobStore, String container, String name, File destination,
+            ListeningExecutorService executor) {
+      return downloadBlob(blobStore, container, name, destination, executor, DownloadOptions.NONE);
+   }
+
+   /**
+    * Downloads a blob into a file over several connections at once. The blob is split into ranges
+    * of {@link DownloadOptions#getPartSize()} bytes which are fetched concurrently on the executor
+    * and written at their offset in the pre-sized destination file.
+    * 
+    * Every range is requested with If-Match on the ETag read before the download starts, so a blob
+    * overwritten in the meantime fails the download rather than mixing versions. When the blob
+    * metadata carries a Content-MD5, the assembled file is verified against it. On failure the
+    * destination file is deleted.
+    * 
+    * @return the metadata of the downloaded blob
+    * @throws KeyNotFoundException if the blob does not exist
+    */
+   @Beta
+   public static BlobMetadata downloadBlob(BlobStore blobStore, String container, String name, File destination,
+            ListeningExecutorService executor, DownloadOptions downloadOptions) {
+      BlobMetadata metadata = blobStore.blobMetadata(container, name);
+      if (metadata == null) {
+         throw new KeyNotFoundException(container, name, "while downloading");
+      }
+      long length = checkNotNull(metadata.getContentMetadata().getContentLength(), "content-length");
+      long partSize = downloadOptions.getPartSize();
+      long parts = (length + partSize - 1) / partSize;
+      int workers = (int) Math.max(1, Math.min(downloadOptions.getMaxParallelDownloads(), parts));
+
+      boolean success = false;
+      RandomAccessFile file = null;
+      try {
+         file = new RandomAccessFile(destination, "rw");
+         file.setLength(length);
+         AtomicLong nextOffset = new AtomicLong();
+         List<ListenableFuture<Void>> futures = Lists.newArrayList();
+         for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(new RangeDownloader(blobStore, container, name, metadata.getETag(),
+                  file.getChannel(), nextOffset, partSize, length)));
+         }
+         try {
+            Futures.allAsList(futures).get();
+         } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            cancel(futures);
+            throw Throwables.propagate(e.getCause());
+         }
+         file.close();
+
+         HashCode expected = metadata.getContentMetadata().getContentMD5AsHashCode();
+         if (expected != null) {
+            HashCode actual = Files.asByteSource(destination).hash(Hashing.md5());
+            if (!expected.equals(actual)) {
+               throw new IllegalStateException(String.format("MD5 of %s/%s was %s but expected %s", container,
+                     name, actual, expected));
+            }
+         }
+         success = true;
+         return metadata;
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         Closeables2.closeQuietly(file);
+         if (!success) {
+            destination.delete();
+         }
+      }
+   }
+
+   private static void cancel(List<ListenableFuture<Void>> futures) {
+      for (ListenableFuture<Void> future : futures) {
+         future.cancel(/*mayInterruptIfRunning=*/ true);
+      }
+   }
+
+   /**
+    * Claims the next unclaimed range, fetches it and writes it at its offset, until the whole blob
+    * has been claimed.
+    */
+   private static final class RangeDownloader implements Callable<Void> {
+      private final BlobStore blobStore;
+      private final String container;
+      private final String name;
+      private final String eTag;
+      private final FileChannel channel;
+      private final AtomicLong nextOffset;
+      private final long partSize;
+      private final long length;
+
+      RangeDownloader(BlobStore blobStore, String container, String name, String eTag, FileChannel channel,
+            AtomicLong nextOffset, long partSize, long length) {
+         this.blobStore = blobStore;
+         this.container = container;
+         this.name = name;
+         this.eTag = eTag;
+         this.channel = channel;
+         this.nextOffset = nextOffset;
+         this.partSize = partSize;
+         this.length = length;
+      }
+
+      @Override
+      public Void call() throws IOException {
+         byte[] buffer = new byte[64 * 1024];
+         for (long start = nextOffset.getAndAdd(partSize); start < length; start = nextOffset.getAndAdd(partSize)) {
+            long end = Math.min(start + partSize, length);
+            GetOptions options = new GetOptions().range(start, end - 1);
+            if (eTag != null) {
+               options.ifETagMatches(eTag);
+            }
+            Blob blob = blobStore.getBlob(container, name, options);
+            if (blob == null) {
+               throw new KeyNotFoundException(container, name, "while downloading");
+            }
+            InputStream is = blob.getPayload().openStream();
+            try {
+               long position = start;
+               int read;
+               while ((read = is.read(buffer)) != -1) {
+                  if (position + read > end) {
+                     throw new IOException(String.format("received more than range %d-%d of %s/%s", start,
+                           end - 1, container, name));
+                  }
+                  ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                  while (bytes.hasRemaining()) {
+                     position += channel.write(bytes, position);
+                  }
+               }
+               if (position != end) {
+                  throw new IOException(String.format("received %d of %d bytes of range %d-%d of %s/%s",
+                        position - start, end - start, start, end - 1, container, name));
+               }
+            } finally {
+               Closeables2.closeQuietly(is);
+            }
+         }
+         return null;
+      }
+   }
 }
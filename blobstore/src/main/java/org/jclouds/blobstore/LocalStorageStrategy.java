@@ -26,6 +26,7 @@ import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
+import org.jclouds.javax.annotation.Nullable;
 
 /**
  * Strategy for local operations related to container and blob
@@ -100,6 +101,22 @@ public interface LocalStorageStrategy {
      */
     Iterable<String> getBlobKeysInsideContainer(String container) throws IOException;
 
+    /**
+     * Returns the keys of the blobs inside a container which start with {@code prefix} and are not
+     * less than {@code fromKey}, in lexicographic order. If {@code delimiter} is set, only the first
+     * key of each common prefix, the part of a key up to the first delimiter after the prefix, is
+     * returned. Keys are read lazily, so callers which stop iterating once they have a page do not
+     * read the whole container.
+     * @param container
+     * @param prefix the prefix of the keys to return, or null to return any key
+     * @param delimiter the delimiter of common prefixes, or null to return every key
+     * @param fromKey the first key to return, or null to start at the first key
+     * @return
+     * @throws IOException
+     */
+    Iterable<String> getBlobKeysInsideContainer(String container, @Nullable String prefix,
+          @Nullable String delimiter, @Nullable String fromKey) throws IOException;
+
     /**
      * Load the blob with the given key belonging to the container with the given
      * name. There must exist a resource on the file system whose complete name
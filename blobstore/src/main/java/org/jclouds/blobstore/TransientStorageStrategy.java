@@ -22,9 +22,12 @@ import static com.google.common.io.BaseEncoding.base16;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.inject.Inject;
 
@@ -49,6 +52,7 @@ import org.jclouds.io.Payloads;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimaps;
 import com.google.common.hash.HashCode;
@@ -59,7 +63,9 @@ import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 
 public class TransientStorageStrategy implements LocalStorageStrategy {
-   private final ConcurrentMap<String, ConcurrentMap<String, Blob>> containerToBlobs = new ConcurrentHashMap<String, ConcurrentMap<String, Blob>>();
+   // keys are kept sorted so that listings can seek to a prefix or marker instead of sorting the container
+   private final ConcurrentMap<String, ConcurrentNavigableMap<String, Blob>> containerToBlobs =
+         new ConcurrentHashMap<String, ConcurrentNavigableMap<String, Blob>>();
    private final ConcurrentMap<String, ConcurrentMap<String, BlobAccess>> containerToBlobAccess = new ConcurrentHashMap<String, ConcurrentMap<String, BlobAccess>>();
    private final ConcurrentMap<String, StorageMetadata> containerMetadata = new ConcurrentHashMap<String, StorageMetadata>();
    private final ConcurrentMap<String, ContainerAccess> containerAccessMap = new ConcurrentHashMap<String, ContainerAccess>();
@@ -89,8 +95,8 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
 
    @Override
    public boolean createContainerInLocation(String containerName, Location location, CreateContainerOptions options) {
-      ConcurrentMap<String, Blob> origValue = containerToBlobs.putIfAbsent(
-            containerName, new ConcurrentHashMap<String, Blob>());
+      ConcurrentNavigableMap<String, Blob> origValue = containerToBlobs.putIfAbsent(
+            containerName, new ConcurrentSkipListMap<String, Blob>());
       if (origValue != null) {
          return false;
       }
@@ -152,6 +158,35 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return containerToBlobs.get(containerName).keySet();
    }
 
+   @Override
+   public Iterable<String> getBlobKeysInsideContainer(final String containerName, final String prefix,
+         final String delimiter, final String fromKey) {
+      final ConcurrentNavigableMap<String, Blob> map = containerToBlobs.get(containerName);
+      final String start = prefix != null && (fromKey == null || fromKey.compareTo(prefix) < 0) ? prefix : fromKey;
+      return new Iterable<String>() {
+         @Override
+         public Iterator<String> iterator() {
+            return new AbstractIterator<String>() {
+               private String from = start == null ? "" : start;
+               private boolean inclusive = true;
+
+               @Override
+               protected String computeNext() {
+                  String key = inclusive ? map.ceilingKey(from) : map.higherKey(from);
+                  if (key == null || (prefix != null && !key.startsWith(prefix))) {
+                     return endOfData();
+                  }
+                  String commonPrefix = BlobStoreUtils.commonPrefix(key, prefix, delimiter);
+                  // seek past the other keys under a common prefix rather than visiting them
+                  from = commonPrefix != null ? BlobStoreUtils.keyAfterPrefix(commonPrefix) : key;
+                  inclusive = commonPrefix != null;
+                  return key;
+               }
+            };
+         }
+      };
+   }
+
    @Override
    public Blob getBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
@@ -22,9 +22,6 @@ import static com.google.common.base.Throwables.getCausalChain;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterables.tryFind;
-import static com.google.common.collect.Sets.filter;
-import static com.google.common.collect.Sets.newTreeSet;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 
 import java.io.File;
@@ -37,7 +34,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.UUID;
 
 import javax.annotation.Resource;
@@ -86,8 +82,6 @@ import org.jclouds.logging.Logger;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
@@ -225,150 +219,113 @@ public final class LocalBlobStore implements BlobStore {
       if (!storageStrategy.containerExists(containerName))
          throw cnfe(containerName);
 
-      // Loading blobs from container
-      Iterable<String> blobBelongingToContainer = null;
-      try {
-         blobBelongingToContainer = storageStrategy.getBlobKeysInsideContainer(containerName);
-      } catch (IOException e) {
-         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
-         propagate(e);
-      }
-
-      blobBelongingToContainer = Iterables.filter(blobBelongingToContainer,
-            new Predicate<String>() {
-               @Override
-               public boolean apply(String key) {
-                  // ignore folders
-                  return storageStrategy.blobExists(containerName, key);
-               }
-            });
-      SortedSet<StorageMetadata> contents = newTreeSet(transform(blobBelongingToContainer,
-            new Function<String, StorageMetadata>() {
-               public StorageMetadata apply(String key) {
-                  Blob oldBlob = loadBlob(containerName, key);
-                  checkState(oldBlob != null, "blob " + key + " is not present although it was in the list of "
-                        + containerName);
-                  checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
-                  MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
-                  md.setSize(oldBlob.getMetadata().getSize());
-                  return md;
-               }
-            }));
-
-      String marker = null;
-      if (options != null) {
-         if (options.getDir() != null && !options.getDir().isEmpty()) {
-            contents = filterDirectory(contents, options);
-         } else if (options.getPrefix() != null) {
-            contents = filterPrefix(contents, options);
-         } else if (!options.isRecursive() || (options.getDelimiter() != null)) {
-            String delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
-            contents = extractCommonPrefixes(contents, delimiter, null);
+      String prefix = null;
+      // whether a blob named exactly the prefix is listed
+      boolean includePrefix = true;
+      String delimiter = null;
+      if (options.getDir() != null && !options.getDir().isEmpty()) {
+         prefix = options.getDir().endsWith("/") ? options.getDir() : options.getDir() + "/";
+         includePrefix = false;
+         if (!options.isRecursive()) {
+            delimiter = storageStrategy.getSeparator();
          }
-
-         if (options.getMarker() != null) {
-            final String finalMarker = options.getMarker();
-            String delimiter = storageStrategy.getSeparator();
-            Optional<StorageMetadata> lastMarkerMetadata;
-            if (finalMarker.endsWith(delimiter)) {
-               lastMarkerMetadata = tryFind(contents, new Predicate<StorageMetadata>() {
-                  public boolean apply(StorageMetadata metadata) {
-                     int length = finalMarker.length() - 1;
-                     return metadata.getName().substring(0, length).compareTo(finalMarker.substring(0, length)) > 0;
-                  }
-               });
-            } else {
-               lastMarkerMetadata = tryFind(contents, new Predicate<StorageMetadata>() {
-                  public boolean apply(StorageMetadata metadata) {
-                     return metadata.getName().compareTo(finalMarker) > 0;
-                  }
-               });
-            }
-            if (lastMarkerMetadata.isPresent()) {
-               contents = contents.tailSet(lastMarkerMetadata.get());
-            } else {
-               // marker is after last key or container is empty
-               contents.clear();
-            }
+      } else if (options.getPrefix() != null) {
+         prefix = options.getPrefix();
+         delimiter = options.getDelimiter();
+      } else if (!options.isRecursive() || (options.getDelimiter() != null)) {
+         delimiter = options.getDelimiter() == null ? storageStrategy.getSeparator() : options.getDelimiter();
+      }
+
+      String marker = options.getMarker();
+      // a marker ending with the separator is a common prefix, and every key under it was listed
+      boolean markerIsPrefix = marker != null && marker.endsWith(storageStrategy.getSeparator());
+      String fromKey = null;
+      if (marker != null) {
+         fromKey = markerIsPrefix ? BlobStoreUtils.keyAfterPrefix(marker) : marker;
+      }
+
+      // keys are compared to the prefix with / separators, so the storage can only seek to it if
+      // keys use them too
+      boolean seekToPrefix = File.separatorChar == '/';
+      Iterable<String> keys = seekToPrefix ? blobKeysFrom(containerName, prefix, delimiter, fromKey)
+            : blobKeysFrom(containerName, null, null, fromKey);
+
+      int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
+      List<StorageMetadata> contents = new ArrayList<StorageMetadata>();
+      boolean truncated = false;
+      String lastCommonPrefix = null;
+      for (String key : keys) {
+         if (prefix != null && !key.replace(File.separatorChar, '/').startsWith(prefix)) {
+            continue;
+         }
+         if (!includePrefix && key.replace(File.separatorChar, '/').equals(prefix)) {
+            continue;
          }
 
-         int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
-         if (!contents.isEmpty()) {
-            StorageMetadata lastElement = contents.last();
-            contents = newTreeSet(Iterables.limit(contents, maxResults));
-            if (maxResults != 0 && !contents.contains(lastElement)) {
-               // Partial listing
-               lastElement = contents.last();
-               marker = lastElement.getName();
+         String commonPrefix = BlobStoreUtils.commonPrefix(key, prefix, delimiter);
+         if (commonPrefix != null) {
+            if (commonPrefix.equals(lastCommonPrefix)) {
+               continue;
             }
+            lastCommonPrefix = commonPrefix;
          }
-
-         // trim metadata, if the response isn't supposed to be detailed.
-         if (!options.isDetailed()) {
-            for (StorageMetadata md : contents) {
-               md.getUserMetadata().clear();
+         String name = commonPrefix != null ? commonPrefix : key;
+         if (marker != null && (name.compareTo(marker) <= 0 || (markerIsPrefix && name.startsWith(marker)))) {
+            continue;
+         }
+         StorageMetadata md = commonPrefix != null ? relativePath(commonPrefix)
+               : listedBlobMetadata(containerName, key);
+         if (md != null) {
+            if (contents.size() == maxResults) {
+               truncated = true;
+               break;
             }
+            contents.add(md);
          }
       }
 
-      return new PageSetImpl<StorageMetadata>(contents, marker);
-   }
+      String nextMarker = null;
+      if (truncated && maxResults != 0) {
+         // Partial listing
+         nextMarker = contents.get(contents.size() - 1).getName();
+      }
 
-   private SortedSet<StorageMetadata> filterDirectory(SortedSet<StorageMetadata> contents, ListContainerOptions
-           options) {
-      String prefix = options.getDir();
-      final String dirPrefix = prefix.endsWith("/") ?
-              prefix :
-              prefix + "/";
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null
-                    && o.getName().replace(File.separatorChar, '/').startsWith(dirPrefix)
-                    && !o.getName().replace(File.separatorChar, '/').equals(dirPrefix);
+      // trim metadata, if the response isn't supposed to be detailed.
+      if (!options.isDetailed()) {
+         for (StorageMetadata md : contents) {
+            md.getUserMetadata().clear();
          }
-      }));
-
-      if (!options.isRecursive()) {
-         return extractCommonPrefixes(contents, storageStrategy.getSeparator(), dirPrefix);
       }
 
-      return contents;
+      return new PageSetImpl<StorageMetadata>(contents, nextMarker);
    }
 
-   private SortedSet<StorageMetadata> filterPrefix(SortedSet<StorageMetadata> contents, final ListContainerOptions
-                                                   options) {
-      contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-         public boolean apply(StorageMetadata o) {
-            return o != null && o.getName().replace(File.separatorChar, '/').startsWith(options.getPrefix());
-         }
-      }));
-
-      if (options.getDelimiter() != null) {
-         return extractCommonPrefixes(contents, options.getDelimiter(), options.getPrefix());
+   private Iterable<String> blobKeysFrom(String containerName, String prefix, String delimiter, String fromKey) {
+      try {
+         return storageStrategy.getBlobKeysInsideContainer(containerName, prefix, delimiter, fromKey);
+      } catch (IOException e) {
+         logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
+         throw propagate(e);
       }
-
-      return contents;
    }
 
-   private SortedSet<StorageMetadata> extractCommonPrefixes(SortedSet<StorageMetadata> contents, String delimiter,
-                                                            String prefix) {
-      SortedSet<String> commonPrefixes = newTreeSet(
-              transform(contents, new CommonPrefixes(prefix, delimiter)));
-      commonPrefixes.remove(CommonPrefixes.NO_PREFIX);
-
-      contents = newTreeSet(filter(contents, new DelimiterFilter(prefix, delimiter)));
-
-      for (String o : commonPrefixes) {
-         MutableStorageMetadata md = new MutableStorageMetadataImpl();
-         md.setType(StorageType.RELATIVE_PATH);
-
-         if (prefix != null) {
-            o = prefix + o;
-         }
-         md.setName(o + delimiter);
-         contents.add(md);
+   /** @return the metadata of the blob, or null if it was removed since its key was listed */
+   private StorageMetadata listedBlobMetadata(String containerName, String key) {
+      Blob oldBlob = loadBlob(containerName, key);
+      if (oldBlob == null) {
+         return null;
       }
-      return contents;
+      checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
+      MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
+      md.setSize(oldBlob.getMetadata().getSize());
+      return md;
+   }
+
+   private static StorageMetadata relativePath(String name) {
+      MutableStorageMetadata md = new MutableStorageMetadataImpl();
+      md.setType(StorageType.RELATIVE_PATH);
+      md.setName(name);
+      return md;
    }
 
    private ContainerNotFoundException cnfe(final String name) {
@@ -457,60 +414,6 @@ public final class LocalBlobStore implements BlobStore {
       return storageStrategy.getBlob(container, key);
    }
 
-   private static class DelimiterFilter implements Predicate<StorageMetadata> {
-      private final String prefix;
-      private final String delimiter;
-
-      public DelimiterFilter(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public boolean apply(StorageMetadata metadata) {
-         String name = metadata.getName();
-         if (prefix == null || prefix.isEmpty()) {
-            return name.indexOf(delimiter) == -1;
-         }
-         if (name.startsWith(prefix)) {
-            String unprefixedName = name.substring(prefix.length());
-            if (unprefixedName.equals("")) {
-               // a blob that matches the prefix should also be returned
-               return true;
-            }
-            return unprefixedName.indexOf(delimiter) == -1;
-         }
-         return false;
-      }
-   }
-
-   private static class CommonPrefixes implements Function<StorageMetadata, String> {
-      private final String prefix;
-      private final String delimiter;
-      public static final String NO_PREFIX = "NO_PREFIX";
-
-      public CommonPrefixes(String prefix, String delimiter) {
-         this.prefix = prefix;
-         this.delimiter = delimiter;
-      }
-
-      public String apply(StorageMetadata metadata) {
-         String working = metadata.getName();
-         if (prefix != null) {
-            if (working.startsWith(prefix)) {
-               working = working.substring(prefix.length());
-            } else {
-               return NO_PREFIX;
-            }
-         }
-         if (working.indexOf(delimiter) >= 0) {
-            // include the delimiter in the result
-            return working.substring(0, working.indexOf(delimiter));
-         } else {
-            return NO_PREFIX;
-         }
-      }
-   }
-
    private static HttpResponseException returnResponseException(int code) {
       HttpResponse response = HttpResponse.builder().statusCode(code).build();
       return new HttpResponseException(new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://stub")
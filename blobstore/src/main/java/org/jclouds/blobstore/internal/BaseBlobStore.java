@@ -24,19 +24,18 @@ import static org.jclouds.util.Predicates2.retry;
 import java.io.InputStream;
 import java.io.IOException;
 import java.util.Date;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
-import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
@@ -44,6 +43,7 @@ import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.blobstore.strategy.internal.ParallelMultipartUploader;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
@@ -51,8 +51,8 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.ContentMetadata;
-import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.util.Closeables2;
 
@@ -60,7 +60,9 @@ import com.google.common.annotations.Beta;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
-import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
 
 public abstract class BaseBlobStore implements BlobStore {
 
@@ -70,6 +72,17 @@ public abstract class BaseBlobStore implements BlobStore {
    protected final Supplier<Set<? extends Location>> locations;
    protected final PayloadSlicer slicer;
 
+   /** Executor for multipart uploads; parts are uploaded on the calling thread unless injected. */
+   protected ListeningExecutorService userExecutor = MoreExecutors.sameThreadExecutor();
+
+   protected BackoffLimitedRetryHandler retryHandler = BackoffLimitedRetryHandler.INSTANCE;
+
+   /** Maximum parts of a single multipart upload in flight at once. */
+   protected int maxParallelUploads = 1;
+
+   /** Maximum times to retry uploading a part. */
+   protected int maxPartRetries = 3;
+
    @Inject
    protected BaseBlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
          @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer) {
@@ -80,6 +93,26 @@ public abstract class BaseBlobStore implements BlobStore {
       this.slicer = checkNotNull(slicer, "slicer");
    }
 
+   @Inject(optional = true)
+   void setUserExecutor(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = userExecutor;
+   }
+
+   @Inject(optional = true)
+   void setRetryHandler(BackoffLimitedRetryHandler retryHandler) {
+      this.retryHandler = retryHandler;
+   }
+
+   @Inject(optional = true)
+   void setMaxParallelUploads(@Named(Constants.PROPERTY_MAX_PARALLEL_UPLOADS) int maxParallelUploads) {
+      this.maxParallelUploads = maxParallelUploads;
+   }
+
+   @Inject(optional = true)
+   void setMaxPartRetries(@Named(Constants.PROPERTY_MAX_RETRIES) int maxPartRetries) {
+      this.maxPartRetries = maxPartRetries;
+   }
+
    @Override
    public BlobStoreContext getContext() {
       return context;
@@ -319,22 +352,19 @@ public abstract class BaseBlobStore implements BlobStore {
       }
    }
 
-   // TODO: parallel uploads
+   /**
+    * Uploads the blob in parts, up to {@link Constants#PROPERTY_MAX_PARALLEL_UPLOADS} at a time on
+    * the user executor, aborting the upload if any part fails.
+    */
    @Beta
    protected String putMultipartBlob(String container, Blob blob, PutOptions overrides) {
       MultipartUpload mpu = initiateMultipartUpload(container, blob.getMetadata(), overrides);
-      List<MultipartPart> parts = Lists.newArrayList();
       long contentLength = blob.getMetadata().getContentMetadata().getContentLength();
       MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(
             getMinimumMultipartPartSize(), getMaximumMultipartPartSize(), getMaximumNumberOfParts());
       long partSize = algorithm.calculateChunkSize(contentLength);
-      int partNumber = 1;
-      for (Payload payload : slicer.slice(blob.getPayload(), partSize)) {
-         MultipartPart part = uploadMultipartPart(mpu, partNumber, payload);
-         parts.add(part);
-         ++partNumber;
-      }
-      return completeMultipartUpload(mpu, parts);
+      return new ParallelMultipartUploader(this, userExecutor, retryHandler, maxParallelUploads, maxPartRetries)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
    }
 
    private static HttpResponseException returnResponseException(int code) {
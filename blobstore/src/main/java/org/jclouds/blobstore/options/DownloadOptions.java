@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.options;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+
+/**
+ * Contains options supported by BlobStores.downloadBlob.
+ *
+ * @see ListOptions for recommended usage patterns
+ */
+@Beta
+public class DownloadOptions implements Cloneable {
+
+   public static final ImmutableDownloadOptions NONE = new ImmutableDownloadOptions(new DownloadOptions());
+
+   public static final long DEFAULT_PART_SIZE = 32 * 1024 * 1024;
+   public static final int DEFAULT_MAX_PARALLEL_DOWNLOADS = 4;
+
+   private long partSize = DEFAULT_PART_SIZE;
+   private int maxParallelDownloads = DEFAULT_MAX_PARALLEL_DOWNLOADS;
+
+   public DownloadOptions() {
+   }
+
+   DownloadOptions(long partSize, int maxParallelDownloads) {
+      this.partSize = partSize;
+      this.maxParallelDownloads = maxParallelDownloads;
+   }
+
+   public static class ImmutableDownloadOptions extends DownloadOptions {
+      private final DownloadOptions delegate;
+
+      public ImmutableDownloadOptions(DownloadOptions delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public long getPartSize() {
+         return delegate.getPartSize();
+      }
+
+      @Override
+      public DownloadOptions partSize(long partSize) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int getMaxParallelDownloads() {
+         return delegate.getMaxParallelDownloads();
+      }
+
+      @Override
+      public DownloadOptions maxParallelDownloads(int maxParallelDownloads) {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   public long getPartSize() {
+      return partSize;
+   }
+
+   /**
+    * Size in bytes of each range requested from the blob store.
+    */
+   public DownloadOptions partSize(long partSize) {
+      checkArgument(partSize > 0, "partSize must be positive");
+      this.partSize = partSize;
+      return this;
+   }
+
+   public int getMaxParallelDownloads() {
+      return maxParallelDownloads;
+   }
+
+   /**
+    * Maximum number of ranges fetched at the same time.
+    */
+   public DownloadOptions maxParallelDownloads(int maxParallelDownloads) {
+      checkArgument(maxParallelDownloads > 0, "maxParallelDownloads must be positive");
+      this.maxParallelDownloads = maxParallelDownloads;
+      return this;
+   }
+
+   public static class Builder {
+      /**
+       * @see DownloadOptions#partSize(long)
+       */
+      public static DownloadOptions partSize(long partSize) {
+         DownloadOptions options = new DownloadOptions();
+         return options.partSize(partSize);
+      }
+
+      /**
+       * @see DownloadOptions#maxParallelDownloads(int)
+       */
+      public static DownloadOptions maxParallelDownloads(int maxParallelDownloads) {
+         DownloadOptions options = new DownloadOptions();
+         return options.maxParallelDownloads(maxParallelDownloads);
+      }
+   }
+
+   @Override
+   public DownloadOptions clone() {
+      return new DownloadOptions(getPartSize(), getMaxParallelDownloads());
+   }
+
+   @Override
+   public String toString() {
+      return "[partSize=" + getPartSize() + ", maxParallelDownloads=" + getMaxParallelDownloads() + "]";
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getPartSize(), getMaxParallelDownloads());
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof DownloadOptions))
+         return false;
+      DownloadOptions other = (DownloadOptions) obj;
+      return getPartSize() == other.getPartSize() && getMaxParallelDownloads() == other.getMaxParallelDownloads();
+   }
+}
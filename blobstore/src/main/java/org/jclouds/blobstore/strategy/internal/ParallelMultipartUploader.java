@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.Payload;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Uploads the parts of a multipart upload concurrently and completes it.
+ * <p/>
+ * At most {@code maxParallelUploads} parts are in flight at any time. The slices are only advanced
+ * once a part finishes, so slicers which buffer non-repeatable input in memory hold at most
+ * {@code maxParallelUploads + 1} parts. Each part is retried up to {@code maxRetries} times with
+ * exponential backoff. If a part still fails, the outstanding parts are cancelled and the upload
+ * is aborted.
+ */
+public final class ParallelMultipartUploader {
+
+   private final BlobStore blobStore;
+   private final ListeningExecutorService executor;
+   private final BackoffLimitedRetryHandler retryHandler;
+   private final int maxParallelUploads;
+   private final int maxRetries;
+
+   public ParallelMultipartUploader(BlobStore blobStore, ListeningExecutorService executor,
+         BackoffLimitedRetryHandler retryHandler, int maxParallelUploads, int maxRetries) {
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      this.executor = checkNotNull(executor, "executor");
+      this.retryHandler = checkNotNull(retryHandler, "retryHandler");
+      checkArgument(maxParallelUploads > 0, "maxParallelUploads must be positive");
+      this.maxParallelUploads = maxParallelUploads;
+      checkArgument(maxRetries >= 0, "maxRetries must not be negative");
+      this.maxRetries = maxRetries;
+   }
+
+   /**
+    * Uploads every slice as a part of {@code mpu}, numbered from 1, then completes the upload.
+    *
+    * @return the ETag of the completed blob
+    */
+   public String execute(MultipartUpload mpu, Iterable<Payload> slices) {
+      try {
+         List<MultipartPart> parts = uploadParts(mpu, slices);
+         return blobStore.completeMultipartUpload(mpu, parts);
+      } catch (RuntimeException e) {
+         try {
+            blobStore.abortMultipartUpload(mpu);
+         } catch (RuntimeException ignored) {
+            // report the failure which caused the abort rather than the abort itself
+         }
+         throw e;
+      }
+   }
+
+   private List<MultipartPart> uploadParts(MultipartUpload mpu, Iterable<Payload> slices) {
+      final Semaphore permits = new Semaphore(maxParallelUploads);
+      final AtomicBoolean failed = new AtomicBoolean();
+      List<ListenableFuture<MultipartPart>> futures = Lists.newArrayList();
+      try {
+         Iterator<Payload> it = slices.iterator();
+         int partNumber = 1;
+         while (true) {
+            permits.acquire();
+            if (failed.get() || !it.hasNext()) {
+               permits.release();
+               break;
+            }
+            ListenableFuture<MultipartPart> future = executor.submit(new UploadPart(mpu, partNumber++, it.next()));
+            Futures.addCallback(future, new FutureCallback<MultipartPart>() {
+               @Override
+               public void onSuccess(MultipartPart result) {
+                  permits.release();
+               }
+
+               @Override
+               public void onFailure(Throwable t) {
+                  failed.set(true);
+                  permits.release();
+               }
+            });
+            futures.add(future);
+         }
+         // allAsList preserves the submission order, which is the part order
+         return Futures.allAsList(futures).get();
+      } catch (InterruptedException e) {
+         cancel(futures);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         cancel(futures);
+         throw Throwables.propagate(e.getCause());
+      } catch (RuntimeException e) {
+         cancel(futures);
+         throw e;
+      }
+   }
+
+   private static void cancel(List<ListenableFuture<MultipartPart>> futures) {
+      for (ListenableFuture<MultipartPart> future : futures) {
+         future.cancel(/*mayInterruptIfRunning=*/ true);
+      }
+   }
+
+   private final class UploadPart implements Callable<MultipartPart> {
+      private final MultipartUpload mpu;
+      private final int partNumber;
+      private final Payload payload;
+
+      private UploadPart(MultipartUpload mpu, int partNumber, Payload payload) {
+         this.mpu = mpu;
+         this.partNumber = partNumber;
+         this.payload = payload;
+      }
+
+      @Override
+      public MultipartPart call() {
+         int failures = 0;
+         while (true) {
+            try {
+               return blobStore.uploadMultipartPart(mpu, partNumber, payload);
+            } catch (AuthorizationException e) {
+               throw e;
+            } catch (RuntimeException e) {
+               if (++failures > maxRetries || !payload.isRepeatable() || Thread.currentThread().isInterrupted()) {
+                  throw e;
+               }
+               retryHandler.imposeBackoffExponentialDelay(failures, String.format("upload part %d of %s/%s",
+                     partNumber, mpu.containerName(), mpu.blobName()));
+            }
+         }
+      }
+   }
+}
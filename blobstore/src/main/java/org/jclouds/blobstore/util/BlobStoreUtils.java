@@ -27,6 +27,7 @@ import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.collect.Maps;
@@ -78,6 +79,27 @@ public class BlobStoreUtils {
       return newMd;
    }
 
+   /**
+    * @return the part of {@code key} up to and including the first {@code delimiter} after
+    *         {@code prefix}, or null if there is none
+    */
+   @Nullable
+   public static String commonPrefix(String key, @Nullable String prefix, @Nullable String delimiter) {
+      if (delimiter == null || (prefix != null && !key.startsWith(prefix))) {
+         return null;
+      }
+      int index = key.indexOf(delimiter, prefix == null ? 0 : prefix.length());
+      return index < 0 ? null : key.substring(0, index + delimiter.length());
+   }
+
+   /**
+    * @return the first key which sorts after every key starting with {@code prefix}
+    */
+   public static String keyAfterPrefix(String prefix) {
+      int last = prefix.length() - 1;
+      return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+   }
+
    private static void convertUserMetadataKeysToLowercase(MutableBlobMetadata metadata) {
       Map<String, String> lowerCaseUserMetadata = Maps.newHashMap();
       for (Map.Entry<String, String> entry : metadata.getUserMetadata().entrySet()) {
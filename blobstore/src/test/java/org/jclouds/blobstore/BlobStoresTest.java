@@ -18,14 +18,19 @@ package org.jclouds.blobstore;
 
 import static org.easymock.EasyMock.createMock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
 
+import java.io.File;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import org.easymock.EasyMock;
 import org.jclouds.ContextBuilder;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
+import org.jclouds.blobstore.options.DownloadOptions;
 import org.jclouds.blobstore.options.ListAllOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.testng.annotations.Test;
@@ -35,6 +40,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 @Test(singleThreaded = true, testName = "BlobStoresTest")
 public class BlobStoresTest {
@@ -158,4 +166,66 @@ public class BlobStoresTest {
       Iterable<StorageMetadata> iterable = BlobStores.listAll(blobStore, containerName, options);
       assertEquals(ImmutableList.copyOf(iterable), ImmutableList.of(v1, v2));
    }
+
+   @Test
+   public void testDownloadBlobInParallelRanges() throws Exception {
+      byte[] content = new byte[10 * 1024 + 7];
+      for (int i = 0; i < content.length; i++) {
+         content[i] = (byte) i;
+      }
+      BlobStoreContext context = blobStoreContext();
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+      File destination = File.createTempFile("download", ".bin");
+      try {
+         BlobStore blobStore = context.getBlobStore();
+         blobStore.createContainerInLocation(null, containerName);
+         blobStore.putBlob(containerName, blobStore.blobBuilder("blob").payload(content).build());
+
+         BlobStores.downloadBlob(blobStore, containerName, "blob", destination, executor,
+               DownloadOptions.Builder.partSize(1024).maxParallelDownloads(4));
+
+         assertEquals(Files.toByteArray(destination), content);
+      } finally {
+         destination.delete();
+         executor.shutdownNow();
+         context.close();
+      }
+   }
+
+   @Test
+   public void testDownloadEmptyBlob() throws Exception {
+      BlobStoreContext context = blobStoreContext();
+      File destination = File.createTempFile("download", ".bin");
+      try {
+         BlobStore blobStore = context.getBlobStore();
+         blobStore.createContainerInLocation(null, containerName);
+         blobStore.putBlob(containerName, blobStore.blobBuilder("blob").payload(new byte[0]).build());
+
+         BlobStores.downloadBlob(blobStore, containerName, "blob", destination, MoreExecutors.sameThreadExecutor());
+
+         assertEquals(destination.length(), 0);
+      } finally {
+         destination.delete();
+         context.close();
+      }
+   }
+
+   @Test
+   public void testDownloadUnknownBlobDeletesDestination() throws Exception {
+      BlobStoreContext context = blobStoreContext();
+      File destination = new File(Files.createTempDir(), "download.bin");
+      try {
+         BlobStore blobStore = context.getBlobStore();
+         blobStore.createContainerInLocation(null, containerName);
+         BlobStores.downloadBlob(blobStore, containerName, "missing", destination,
+               MoreExecutors.sameThreadExecutor());
+         fail("expected KeyNotFoundException");
+      } catch (KeyNotFoundException expected) {
+         assertFalse(destination.exists());
+      } finally {
+         destination.delete();
+         destination.getParentFile().delete();
+         context.close();
+      }
+   }
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.config;
+
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.afterMarker;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.inDirectory;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.prefix;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+@Test(testName = "LocalBlobStoreTest", singleThreaded = true)
+public class LocalBlobStoreTest {
+   private static final String CONTAINER = "listing";
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+
+   @BeforeClass
+   void setupBlobStore() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      for (String key : new String[] { "d", "a/1", "c/2/x", "dir/x", "b", "a/2", "c/1", "dirA" }) {
+         blobStore.putBlob(CONTAINER, blobStore.blobBuilder(key).payload(key).build());
+      }
+   }
+
+   @AfterClass
+   void tearDownBlobStore() {
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testListsCommonPrefixesInOrder() {
+      PageSet<? extends StorageMetadata> page = blobStore.list(CONTAINER);
+      assertEquals(names(page), ImmutableList.of("a/", "b", "c/", "d", "dir/", "dirA"));
+      assertEquals(page.iterator().next().getType(), StorageType.RELATIVE_PATH);
+      assertNull(page.getNextMarker());
+   }
+
+   public void testPagesResumeAfterCommonPrefix() {
+      List<String> listed = Lists.newArrayList();
+      ListContainerOptions options = maxResults(1);
+      while (true) {
+         PageSet<? extends StorageMetadata> page = blobStore.list(CONTAINER, options);
+         listed.addAll(names(page));
+         if (page.getNextMarker() == null)
+            break;
+         options = maxResults(1).afterMarker(page.getNextMarker());
+      }
+      assertEquals(listed, ImmutableList.of("a/", "b", "c/", "d", "dir/", "dirA"));
+   }
+
+   public void testRecursivePagesWithMarker() {
+      PageSet<? extends StorageMetadata> page = blobStore.list(CONTAINER, afterMarker("b").recursive().maxResults(3));
+      assertEquals(names(page), ImmutableList.of("c/1", "c/2/x", "d"));
+      assertEquals(page.getNextMarker(), "d");
+   }
+
+   public void testListsPrefixAsRange() {
+      assertEquals(names(blobStore.list(CONTAINER, prefix("c/").recursive())), ImmutableList.of("c/1", "c/2/x"));
+      assertEquals(names(blobStore.list(CONTAINER, prefix("c/").delimiter("/"))), ImmutableList.of("c/1", "c/2/"));
+      assertEquals(names(blobStore.list(CONTAINER, prefix("dir").recursive())), ImmutableList.of("dir/x", "dirA"));
+      assertEquals(names(blobStore.list(CONTAINER, prefix("e").recursive())), ImmutableList.of());
+   }
+
+   public void testListsDirectory() {
+      assertEquals(names(blobStore.list(CONTAINER, inDirectory("c"))), ImmutableList.of("c/1", "c/2/"));
+      assertEquals(names(blobStore.list(CONTAINER, inDirectory("c").recursive())), ImmutableList.of("c/1", "c/2/x"));
+   }
+
+   /**
+    * Times listing the first, a middle and a prefixed page of a container of 100k blobs.
+    */
+   @Test(groups = "performance")
+   public void testListingPagesOfLargeContainer() {
+      String container = "large";
+      blobStore.createContainerInLocation(null, container);
+      int count = 100000;
+      for (int i = 0; i < count; i++) {
+         blobStore.putBlob(container, blobStore.blobBuilder(String.format("dir%02d/blob%06d", i % 100, i))
+               .payload("").build());
+      }
+      ListContainerOptions[] pages = { ListContainerOptions.Builder.recursive(),
+            afterMarker("dir50/").recursive(), prefix("dir99/").recursive().maxResults(100),
+            ListContainerOptions.NONE };
+      for (ListContainerOptions options : pages) {
+         long start = System.nanoTime();
+         int listed = blobStore.list(container, options).size();
+         System.out.printf("TIMING: listing %d of %d blobs with %s took %.3fms%n", listed, count, options,
+               (System.nanoTime() - start) / 1000000d);
+      }
+      blobStore.deleteContainer(container);
+   }
+
+   private static List<String> names(Iterable<? extends StorageMetadata> page) {
+      List<String> names = Lists.newArrayList();
+      for (StorageMetadata md : page) {
+         names.add(md.getName());
+      }
+      return names;
+   }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(testName = "ParallelMultipartUploaderTest", singleThreaded = true)
+public class ParallelMultipartUploaderTest {
+   private static final String containerName = "container";
+   private static final int partSize = 1024;
+
+   private final PayloadSlicer slicer = new BasePayloadSlicer();
+   private final BackoffLimitedRetryHandler retryHandler = new BackoffLimitedRetryHandler();
+   private ListeningExecutorService executor;
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+
+   @BeforeClass
+   void setupExecutor() {
+      executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+   }
+
+   @AfterClass
+   void shutdownExecutor() {
+      executor.shutdownNow();
+   }
+
+   @BeforeMethod
+   void setupBlobStore() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, containerName);
+   }
+
+   @AfterMethod
+   void close() {
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testUploadsAllPartsInOrder() throws IOException {
+      byte[] content = content(10 * partSize + 17);
+      Blob blob = blobStore.blobBuilder("blob").payload(content).build();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(), new PutOptions());
+
+      new ParallelMultipartUploader(blobStore, executor, retryHandler, 4, 0)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+
+      Blob uploaded = blobStore.getBlob(containerName, "blob");
+      assertEquals(ByteStreams.toByteArray(uploaded.getPayload().openStream()), content);
+   }
+
+   public void testBoundsPartsInFlight() {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+      BlobStore slowBlobStore = new ForwardingBlobStore(blobStore) {
+         @Override
+         public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+            int current = inFlight.incrementAndGet();
+            synchronized (maxInFlight) {
+               maxInFlight.set(Math.max(maxInFlight.get(), current));
+            }
+            try {
+               Thread.sleep(20);
+               return super.uploadMultipartPart(mpu, partNumber, payload);
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            } finally {
+               inFlight.decrementAndGet();
+            }
+         }
+      };
+      Blob blob = blobStore.blobBuilder("blob").payload(content(20 * partSize)).build();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(), new PutOptions());
+
+      new ParallelMultipartUploader(slowBlobStore, executor, retryHandler, 3, 0)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+
+      assertTrue(maxInFlight.get() <= 3, "max in flight: " + maxInFlight.get());
+      assertTrue(maxInFlight.get() > 1, "max in flight: " + maxInFlight.get());
+   }
+
+   public void testRetriesFailedPart() throws IOException {
+      final AtomicBoolean failedOnce = new AtomicBoolean();
+      BlobStore flakyBlobStore = new ForwardingBlobStore(blobStore) {
+         @Override
+         public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+            if (partNumber == 2 && failedOnce.compareAndSet(false, true)) {
+               throw new RuntimeException("connection reset");
+            }
+            return super.uploadMultipartPart(mpu, partNumber, payload);
+         }
+      };
+      byte[] content = content(4 * partSize);
+      Blob blob = blobStore.blobBuilder("blob").payload(content).build();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(), new PutOptions());
+
+      new ParallelMultipartUploader(flakyBlobStore, executor, retryHandler, 2, 1)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+
+      assertTrue(failedOnce.get());
+      Blob uploaded = blobStore.getBlob(containerName, "blob");
+      assertEquals(ByteStreams.toByteArray(uploaded.getPayload().openStream()), content);
+   }
+
+   public void testAbortsAfterPartFailure() {
+      final AtomicBoolean aborted = new AtomicBoolean();
+      final AtomicBoolean completed = new AtomicBoolean();
+      BlobStore failingBlobStore = new ForwardingBlobStore(blobStore) {
+         @Override
+         public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+            if (partNumber == 3) {
+               throw new IllegalStateException("part 3");
+            }
+            return super.uploadMultipartPart(mpu, partNumber, payload);
+         }
+
+         @Override
+         public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+            completed.set(true);
+            return super.completeMultipartUpload(mpu, parts);
+         }
+
+         @Override
+         public void abortMultipartUpload(MultipartUpload mpu) {
+            aborted.set(true);
+            super.abortMultipartUpload(mpu);
+         }
+      };
+      Blob blob = blobStore.blobBuilder("blob").payload(content(8 * partSize)).build();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(), new PutOptions());
+
+      try {
+         new ParallelMultipartUploader(failingBlobStore, executor, retryHandler, 2, 0)
+               .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+         fail("expected the failure of part 3 to propagate");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "part 3");
+      }
+      assertTrue(aborted.get());
+      assertFalse(completed.get());
+      assertFalse(blobStore.blobExists(containerName, "blob"));
+   }
+
+   public void testUploadsNonRepeatableInput() throws IOException {
+      byte[] content = content(5 * partSize + 1);
+      Payload payload = Payloads.newInputStreamPayload(ByteSource.wrap(content).openStream());
+      payload.getContentMetadata().setContentLength((long) content.length);
+      Blob blob = blobStore.blobBuilder("blob").payload(payload).build();
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(), new PutOptions());
+
+      new ParallelMultipartUploader(blobStore, executor, retryHandler, 4, 0)
+            .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+
+      Blob uploaded = blobStore.getBlob(containerName, "blob");
+      assertEquals(ByteStreams.toByteArray(uploaded.getPayload().openStream()), content);
+   }
+
+   /**
+    * Simulates a fixed per-part round-trip against the transient store and reports how upload
+    * throughput scales with the number of parallel parts.
+    */
+   @Test(groups = "performance")
+   public void testThroughputScalesWithParallelism() {
+      BlobStore remoteBlobStore = new ForwardingBlobStore(blobStore) {
+         @Override
+         public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+            try {
+               Thread.sleep(10);
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            }
+            return super.uploadMultipartPart(mpu, partNumber, payload);
+         }
+      };
+      int parts = 32;
+      Blob blob = blobStore.blobBuilder("blob").payload(content(parts * partSize)).build();
+      for (int parallelism = 1; parallelism <= 8; parallelism *= 2) {
+         MultipartUpload mpu = blobStore.initiateMultipartUpload(containerName, blob.getMetadata(),
+               new PutOptions());
+         long start = System.nanoTime();
+         new ParallelMultipartUploader(remoteBlobStore, executor, retryHandler, parallelism, 0)
+               .execute(mpu, slicer.slice(blob.getPayload(), partSize));
+         long elapsed = System.nanoTime() - start;
+         System.out.printf("TIMING: multipart upload of %d parts with %d in parallel took %.3fms (%.1f parts/s)%n",
+               parts, parallelism, elapsed / 1000000d, parts / (elapsed / 1000000000d));
+      }
+   }
+
+   private static byte[] content(int length) {
+      byte[] content = new byte[length];
+      for (int i = 0; i < length; i++) {
+         content[i] = (byte) i;
+      }
+      return content;
+   }
+}
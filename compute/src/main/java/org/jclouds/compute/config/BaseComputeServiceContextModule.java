@@ -15,14 +15,21 @@
  * limitations under the License.
  */
 package org.jclouds.compute.config;
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_CACHE_DIRECTORY;
+import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_CACHE_TTL;
 import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_ID;
 import static org.jclouds.compute.config.ComputeServiceProperties.TEMPLATE;
 import static org.jclouds.compute.domain.OsFamily.UBUNTU;
 
+import java.io.File;
+import java.net.URI;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -54,8 +61,10 @@ import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.GetImageStrategy;
 import org.jclouds.compute.strategy.InitializeRunScriptOnNodeOrPlaceInBadMap;
+import org.jclouds.compute.suppliers.ImageCacheSnapshot;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
 import org.jclouds.config.ValueOfConfigurationKeyOrNull;
+import org.jclouds.domain.Credentials;
 import org.jclouds.domain.LoginCredentials;
 import org.jclouds.json.Json;
 import org.jclouds.location.Provider;
@@ -67,10 +76,14 @@ import org.jclouds.ssh.SshClient;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binding;
 import com.google.inject.Inject;
@@ -80,6 +93,7 @@ import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.name.Names;
+import com.google.inject.spi.InstanceBinding;
 
 public abstract class BaseComputeServiceContextModule extends AbstractModule {
 
@@ -247,7 +261,44 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
          final Supplier<Set<? extends Image>> imageSupplier, com.google.inject.Provider<GetImageStrategy> imageLoader, Injector injector) {
       Supplier<Set<? extends Image>> parsingImageSupplier = shouldEagerlyParseImages(injector) ? imageSupplier
             : supplyNonParsingImages(imageSupplier, injector);
-      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader);
+      ImageCacheSnapshot snapshot = imageCacheSnapshot(injector);
+      if (snapshot == null)
+         return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader);
+      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader, snapshot,
+            injector.getInstance(Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS))));
+   }
+
+   /**
+    * The snapshot is named after the provider, endpoint, identity and properties of the context,
+    * so that contexts which may see different images don't share one.
+    */
+   private static ImageCacheSnapshot imageCacheSnapshot(Injector injector) {
+      ValueOfConfigurationKeyOrNull config = injector.getInstance(ValueOfConfigurationKeyOrNull.class);
+      String directory = config.apply(IMAGE_CACHE_DIRECTORY);
+      if (directory == null)
+         return null;
+      String ttl = config.apply(IMAGE_CACHE_TTL);
+      String provider = injector.getInstance(Key.get(String.class, Provider.class));
+      Hasher hasher = Hashing.sha256().newHasher();
+      hasher.putString(provider, UTF_8).putByte((byte) 0);
+      hasher.putString(injector.getInstance(Key.get(new TypeLiteral<Supplier<URI>>() {
+      }, Provider.class)).get().toString(), UTF_8).putByte((byte) 0);
+      hasher.putString(Strings.nullToEmpty(injector.getInstance(Key.get(new TypeLiteral<Supplier<Credentials>>() {
+      }, Provider.class)).get().identity), UTF_8).putByte((byte) 0);
+      SortedMap<String, String> properties = Maps.newTreeMap();
+      // only the properties bound as constants; other bindings may call the api
+      for (Binding<String> binding : injector.findBindingsByType(TypeLiteral.get(String.class))) {
+         if (binding instanceof InstanceBinding
+               && binding.getKey().getAnnotation() instanceof com.google.inject.name.Named)
+            properties.put(((com.google.inject.name.Named) binding.getKey().getAnnotation()).value(),
+                  Strings.nullToEmpty(((InstanceBinding<String>) binding).getInstance()));
+      }
+      for (Map.Entry<String, String> property : properties.entrySet()) {
+         hasher.putString(property.getKey(), UTF_8).putByte((byte) 0);
+         hasher.putString(property.getValue(), UTF_8).putByte((byte) 0);
+      }
+      return new ImageCacheSnapshot(new File(directory, provider + "-" + hasher.hash() + ".images"),
+            ttl != null ? Long.parseLong(ttl) : TimeUnit.DAYS.toSeconds(1), TimeUnit.SECONDS);
    }
 
    protected boolean shouldEagerlyParseImages(Injector injector) {
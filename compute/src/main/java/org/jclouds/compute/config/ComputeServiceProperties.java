@@ -118,6 +118,21 @@ public final class ComputeServiceProperties {
     */
    public static final String SOCKET_FINDER_ALLOWED_INTERFACES = "jclouds.compute.socket-finder-allowed-interfaces";
 
+   /**
+    * directory to keep a snapshot of the image catalog in, so that new processes can build
+    * templates without listing the images first. The snapshot is served while the images are
+    * listed in the background. Unset by default, which keeps the catalog in memory only.
+    *
+    * @see org.jclouds.compute.suppliers.ImageCacheSnapshot
+    */
+   public static final String IMAGE_CACHE_DIRECTORY = "jclouds.compute.image-cache.directory";
+
+   /**
+    * time in seconds after which the snapshot in {@link #IMAGE_CACHE_DIRECTORY} is no longer
+    * served. Defaults to one day.
+    */
+   public static final String IMAGE_CACHE_TTL = "jclouds.compute.image-cache.ttl";
+
    private ComputeServiceProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -39,11 +39,14 @@ import org.jclouds.compute.predicates.AtomicNodeSuspended;
 import org.jclouds.compute.predicates.AtomicNodeTerminated;
 import org.jclouds.compute.predicates.ScriptStatusReturnsZero;
 import org.jclouds.compute.predicates.ScriptStatusReturnsZero.CommandUsingClient;
+import org.jclouds.compute.predicates.internal.RefreshNodeAndDoubleCheckOnFailUnlessStatusInvalid;
 import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
 import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.util.BatchedNodePoller;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
@@ -55,10 +58,22 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_RUNNING)
    protected final Predicate<AtomicReference<NodeMetadata>> provideNodeRunning(AtomicNodeRunning statusRunning, Timeouts timeouts,
-           PollPeriod period) {
-      return nodeRunning(statusRunning, timeouts, period);
+           PollPeriod period, BatchedNodePoller poller) {
+      return nodeRunning(statusRunning, timeouts, period, poller);
    }
 
+   /**
+    * Waits for the node to run by polling it together with all other pending nodes.
+    */
+   protected Predicate<AtomicReference<NodeMetadata>> nodeRunning(AtomicNodeRunning statusRunning, Timeouts timeouts,
+         PollPeriod period, BatchedNodePoller poller) {
+      return timeouts.nodeRunning == 0 ? statusRunning : AwaitGuardingNull.create(poller.awaiting(
+            checkingStatus(statusRunning), timeouts.nodeRunning));
+   }
+
+   /**
+    * Waits for the node to run by polling it on its own.
+    */
    protected Predicate<AtomicReference<NodeMetadata>> nodeRunning(AtomicNodeRunning statusRunning, Timeouts timeouts,
          PollPeriod period) {
       return timeouts.nodeRunning == 0 ? statusRunning : RetryablePredicateGuardingNull.create(statusRunning,
@@ -69,10 +84,28 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_TERMINATED)
    protected final Predicate<AtomicReference<NodeMetadata>> provideServerTerminated(AtomicNodeTerminated statusTerminated,
-           Timeouts timeouts, PollPeriod period) {
-      return serverTerminated(statusTerminated, timeouts, period);
+           Timeouts timeouts, PollPeriod period, BatchedNodePoller poller) {
+      return serverTerminated(statusTerminated, timeouts, period, poller);
+   }
+
+   /**
+    * Waits for the node to terminate by polling it together with all other pending nodes.
+    */
+   protected Predicate<AtomicReference<NodeMetadata>> serverTerminated(final AtomicNodeTerminated statusTerminated,
+         Timeouts timeouts, PollPeriod period, BatchedNodePoller poller) {
+      if (timeouts.nodeTerminated == 0)
+         return statusTerminated;
+      return poller.awaiting(new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return statusTerminated.checkStatus(input);
+         }
+      }, timeouts.nodeTerminated);
    }
 
+   /**
+    * Waits for the node to terminate by polling it on its own.
+    */
    protected Predicate<AtomicReference<NodeMetadata>> serverTerminated(AtomicNodeTerminated statusTerminated,
          Timeouts timeouts, PollPeriod period) {
       return timeouts.nodeTerminated == 0 ? statusTerminated : retry(statusTerminated, timeouts.nodeTerminated,
@@ -83,16 +116,37 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_SUSPENDED)
    protected final Predicate<AtomicReference<NodeMetadata>> provideserverSuspended(AtomicNodeSuspended statusSuspended,
-           Timeouts timeouts, PollPeriod period) {
-      return serverSuspended(statusSuspended, timeouts, period);
+           Timeouts timeouts, PollPeriod period, BatchedNodePoller poller) {
+      return serverSuspended(statusSuspended, timeouts, period, poller);
    }
 
+   /**
+    * Waits for the node to suspend by polling it together with all other pending nodes.
+    */
+   protected Predicate<AtomicReference<NodeMetadata>> serverSuspended(AtomicNodeSuspended statusSuspended,
+         Timeouts timeouts, PollPeriod period, BatchedNodePoller poller) {
+      return timeouts.nodeSuspended == 0 ? statusSuspended : AwaitGuardingNull.create(poller.awaiting(
+            checkingStatus(statusSuspended), timeouts.nodeSuspended));
+   }
+
+   /**
+    * Waits for the node to suspend by polling it on its own.
+    */
    protected Predicate<AtomicReference<NodeMetadata>> serverSuspended(AtomicNodeSuspended statusSuspended,
          Timeouts timeouts, PollPeriod period) {
       return timeouts.nodeSuspended == 0 ? statusSuspended : RetryablePredicateGuardingNull.create(statusSuspended,
             timeouts.nodeSuspended, period.pollInitialPeriod, period.pollMaxPeriod);
    }
 
+   private static Predicate<NodeMetadata> checkingStatus(final RefreshNodeAndDoubleCheckOnFailUnlessStatusInvalid status) {
+      return new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return status.checkStatus(input);
+         }
+      };
+   }
+
    @Provides
    @Singleton
    @Named(TIMEOUT_SCRIPT_COMPLETE)
@@ -152,8 +206,19 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
       
       private final Predicate<AtomicRefAndOrig> retryablePredicate;
       
-      private RetryablePredicateGuardingNull(final Predicate<AtomicReference<T>> predicate, long maxWait, long period, long maxPeriod) {
-         Predicate<AtomicRefAndOrig> nonNullThingPredicate = new Predicate<AtomicRefAndOrig>() {
+      private RetryablePredicateGuardingNull(Predicate<AtomicReference<T>> predicate, long maxWait, long period, long maxPeriod) {
+         retryablePredicate = retry(guardingNull(predicate), maxWait, period, maxPeriod);
+      }
+
+      /**
+       * for predicates which wait on their own
+       */
+      private RetryablePredicateGuardingNull(Predicate<AtomicReference<T>> predicate) {
+         retryablePredicate = guardingNull(predicate);
+      }
+
+      private Predicate<AtomicRefAndOrig> guardingNull(final Predicate<AtomicReference<T>> predicate) {
+         return new Predicate<AtomicRefAndOrig>() {
             @Override
             public boolean apply(AtomicRefAndOrig input) {
                AtomicReference<T> ref = (input.ref.get() != null) ? input.ref : new AtomicReference<T>(input.orig);
@@ -164,7 +229,6 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
                }
             }
          };
-         retryablePredicate = retry(nonNullThingPredicate, maxWait, period, maxPeriod);
       }
 
       @Override
@@ -173,4 +237,33 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
          return retryablePredicate.apply(refAndOrig);
       }
    }
+
+   /**
+    * Guards a predicate which waits through the {@link BatchedNodePoller}, which already keeps
+    * polling a node the api temporarily did not list, and still hands out its wait as a future.
+    */
+   private static final class AwaitGuardingNull extends RetryablePredicateGuardingNull<NodeMetadata> implements
+         BatchedNodePoller.Awaitable {
+
+      private static AwaitGuardingNull create(BatchedNodePoller.Await await) {
+         return new AwaitGuardingNull(await);
+      }
+
+      private final BatchedNodePoller.Await await;
+
+      private AwaitGuardingNull(BatchedNodePoller.Await await) {
+         super(await);
+         this.await = await;
+      }
+
+      @Override
+      public ListenableFuture<Boolean> start(AtomicReference<NodeMetadata> node) {
+         return await.start(node);
+      }
+
+      @Override
+      public String toString() {
+         return "guardingNull(" + await + ")";
+      }
+   }
 }
@@ -22,7 +22,6 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.and;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Lists.newArrayList;
@@ -56,6 +55,7 @@ import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.predicates.ImagePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
+import org.jclouds.compute.suppliers.ImageIndex;
 import org.jclouds.domain.Location;
 import org.jclouds.logging.Logger;
 
@@ -168,6 +168,22 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       };
    }
 
+   /**
+    * Keeps the pattern last matched, as a predicate matches the same pattern against every image.
+    */
+   private static final class LastPattern {
+      private String regex;
+      private Pattern pattern;
+
+      private boolean matches(String regex, String input) {
+         if (!regex.equals(this.regex)) {
+            pattern = Pattern.compile(regex);
+            this.regex = regex;
+         }
+         return pattern.matcher(input).matches();
+      }
+   }
+
    final Predicate<ComputeMetadata> locationPredicate = new NullEqualToIsParentOrIsGrandparentOfCurrentLocation(new Supplier<Location>() {
 
       @Override
@@ -193,6 +209,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern osNamePattern = new LastPattern();
+
    private final Predicate<OperatingSystem> osNamePredicate = new Predicate<OperatingSystem>() {
       @Override
       public boolean apply(OperatingSystem input) {
@@ -201,7 +219,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getName() == null)
                returnVal = false;
             else
-               returnVal = input.getName().contains(osName) || input.getName().matches(osName);
+               returnVal = input.getName().contains(osName) || osNamePattern.matches(osName, input.getName());
          }
          return returnVal;
       }
@@ -212,6 +230,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern osDescriptionPattern = new LastPattern();
+
    private final Predicate<OperatingSystem> osDescriptionPredicate = new Predicate<OperatingSystem>() {
       @Override
       public boolean apply(OperatingSystem input) {
@@ -221,7 +241,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
                returnVal = false;
             else
                returnVal = input.getDescription().contains(osDescription)
-                     || input.getDescription().matches(osDescription);
+                     || osDescriptionPattern.matches(osDescription, input.getDescription());
          }
          return returnVal;
       }
@@ -232,6 +252,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern osVersionPattern = new LastPattern();
+
    private final Predicate<OperatingSystem> osVersionPredicate = new Predicate<OperatingSystem>() {
       @Override
       public boolean apply(OperatingSystem input) {
@@ -240,7 +262,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(osVersion) || input.getVersion().matches(osVersion);
+               returnVal = input.getVersion().contains(osVersion) || osVersionPattern.matches(osVersion, input.getVersion());
          }
          return returnVal;
       }
@@ -270,6 +292,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern osArchPattern = new LastPattern();
+
    private final Predicate<OperatingSystem> osArchPredicate = new Predicate<OperatingSystem>() {
       @Override
       public boolean apply(OperatingSystem input) {
@@ -278,7 +302,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getArch() == null)
                returnVal = false;
             else
-               returnVal = input.getArch().contains(osArch) || input.getArch().matches(osArch);
+               returnVal = input.getArch().contains(osArch) || osArchPattern.matches(osArch, input.getArch());
          }
          return returnVal;
       }
@@ -289,6 +313,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern imageVersionPattern = new LastPattern();
+
    private final Predicate<Image> imageVersionPredicate = new Predicate<Image>() {
       @Override
       public boolean apply(Image input) {
@@ -297,7 +323,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(imageVersion) || input.getVersion().matches(imageVersion);
+               returnVal = input.getVersion().contains(imageVersion) || imageVersionPattern.matches(imageVersion, input.getVersion());
          }
          return returnVal;
       }
@@ -308,6 +334,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern imageNamePattern = new LastPattern();
+
    private final Predicate<Image> imageNamePredicate = new Predicate<Image>() {
       @Override
       public boolean apply(Image input) {
@@ -317,7 +345,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
                returnVal = false;
             else
                returnVal = input.getName().equals(imageName) || input.getName().contains(imageName)
-                        || input.getName().matches(imageName);
+                        || imageNamePattern.matches(imageName, input.getName());
          }
          return returnVal;
       }
@@ -328,6 +356,8 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       }
    };
 
+   private final LastPattern imageDescriptionPattern = new LastPattern();
+
    private final Predicate<Image> imageDescriptionPredicate = new Predicate<Image>() {
       @Override
       public boolean apply(Image input) {
@@ -338,7 +368,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             else
                returnVal = input.getDescription().equals(imageDescription)
                      || input.getDescription().contains(imageDescription)
-                     || input.getDescription().matches(imageDescription);
+                     || imageDescriptionPattern.matches(imageDescription, input.getDescription());
          }
          return returnVal;
       }
@@ -705,10 +735,14 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       return new TemplateImpl(image, hardware, location, options);
    }
 
-   private Iterable<? extends Image> findSupportedImages(Set<? extends Image> images) {
+   private List<? extends Image> findSupportedImages(Set<? extends Image> images) {
       Predicate<Image> imagePredicate = buildImagePredicate();
-      Iterable<? extends Image> supportedImages = filter(images, imagePredicate);
-      if (size(supportedImages) == 0) {
+      Optional<ImageIndex> index = this.images.indexOf(images);
+      Iterable<? extends Image> candidates = index.isPresent() ? index.get().matching(buildIndexedImagePredicate())
+            : images;
+      // the hardware and image resolution below go through the supported images several times
+      List<? extends Image> supportedImages = ImmutableList.copyOf(filter(candidates, imagePredicate));
+      if (supportedImages.isEmpty()) {
          throw throwNoSuchElementExceptionAfterLoggingImageIds(
                format("no image matched predicate: %s", imagePredicate), images);
       }
@@ -857,6 +891,31 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       return forceCacheReload != null && forceCacheReload ? images.rebuildCache() : images.get();
    }
 
+   /**
+    * The part of {@link #buildImagePredicate()} which only looks at the fields images are grouped
+    * by in the {@link ImageIndex}.
+    */
+   private Predicate<Image> buildIndexedImagePredicate() {
+      final List<Predicate<OperatingSystem>> osPredicates = newArrayList();
+      if (osFamily != null)
+         osPredicates.add(osFamilyPredicate);
+      if (osVersion != null)
+         osPredicates.add(osVersionPredicate);
+      if (os64Bit != null)
+         osPredicates.add(os64BitPredicate);
+      if (osArch != null)
+         osPredicates.add(osArchPredicate);
+      return new Predicate<Image>() {
+
+         @Override
+         public boolean apply(Image input) {
+            return (location == null || locationPredicate.apply(input))
+                  && (osPredicates.isEmpty() || and(osPredicates).apply(input.getOperatingSystem()));
+         }
+
+      };
+   }
+
    private Predicate<Image> buildImagePredicate() {
       List<Predicate<Image>> predicates = newArrayList();
       if (location != null)
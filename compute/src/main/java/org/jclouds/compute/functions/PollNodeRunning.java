@@ -61,15 +61,7 @@ public class PollNodeRunning implements Function<AtomicReference<NodeMetadata>,
       try {
          Stopwatch stopwatch = Stopwatch.createStarted();
          if (!nodeRunning.apply(node)) {
-            long timeWaited = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-            if (node.get() == null) {
-               node.set(originalNode);
-               throw new IllegalStateException(format("api response for node(%s) was null", originalId));
-            } else {
-               throw new IllegalStateException(format(
-                     "node(%s) didn't achieve the status running; aborting after %d seconds with final status: %s",
-                     originalId, timeWaited / 1000, formatStatus(node.get())));
-            }
+            throw notRunning(node, originalNode, stopwatch.elapsed(TimeUnit.MILLISECONDS));
          }
       } catch (IllegalStateException e) {
          if (node.get().getStatus() == Status.TERMINATED) {
@@ -80,4 +72,22 @@ public class PollNodeRunning implements Function<AtomicReference<NodeMetadata>,
       }
       return node;
    }
+
+   /**
+    * @param node
+    *           which did not run within the timeout, reset to {@code originalNode} if the api
+    *           stopped returning it
+    * @return the exception describing why the node is not running
+    */
+   public static IllegalStateException notRunning(AtomicReference<NodeMetadata> node, NodeMetadata originalNode,
+         long millisWaited) {
+      String originalId = originalNode.getId();
+      if (node.get() == null) {
+         node.set(originalNode);
+         return new IllegalStateException(format("api response for node(%s) was null", originalId));
+      }
+      return new IllegalStateException(format(
+            "node(%s) didn't achieve the status running; aborting after %d seconds with final status: %s",
+            originalId, millisWaited / 1000, formatStatus(node.get())));
+   }
 }
@@ -21,15 +21,17 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.any;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
 import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
 
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -39,20 +41,27 @@ import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.functions.PollNodeRunning;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.compute.util.BatchedNodePoller;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureFallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 /**
  * creates futures that correlate to
@@ -96,6 +105,10 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
    protected final ListeningExecutorService userExecutor;
    protected final CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory;
 
+   @Inject(optional = true)
+   @Named(TIMEOUT_NODE_RUNNING)
+   protected Predicate<AtomicReference<NodeMetadata>> nodeRunning;
+
    @Inject
    protected CreateNodesWithGroupEncodedIntoNameThenAddToSet(
             CreateNodeWithGroupEncodedIntoName addNodeWithGroupStrategy,
@@ -113,19 +126,74 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
    /**
     * This implementation gets a list of acceptable node names to encode the group into, then it
     * simultaneously runs the nodes and applies options to them.
+    * <p/>
+    * When the nodes are polled in batches, customization of each node starts once it runs, so no
+    * thread waits for a booting node.
     */
    @Override
    public Map<?, ListenableFuture<Void>> execute(String group, int count, Template template, Set<NodeMetadata> goodNodes,
             Map<NodeMetadata, Exception> badNodes, Multimap<NodeMetadata, CustomizationResponse> customizationResponses) {
       Map<String, ListenableFuture<Void>> responses = newLinkedHashMap();
       for (String name : getNextNames(group, template, count)) {
-         responses.put(name, Futures.transform(createNodeInGroupWithNameAndTemplate(group, name, template),
-                  customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory.create(template.getOptions(), goodNodes,
-                           badNodes, customizationResponses), userExecutor));
+         ListenableFuture<AtomicReference<NodeMetadata>> node = createNodeInGroupWithNameAndTemplate(group, name,
+                  template);
+         Function<AtomicReference<NodeMetadata>, Void> customize = customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory
+                  .create(template.getOptions(), goodNodes, badNodes, customizationResponses);
+         if (template.getOptions().shouldBlockUntilRunning() && nodeRunning instanceof BatchedNodePoller.Awaitable) {
+            responses.put(name, Futures.transform(node, new CustomizeOnceRunning(
+                     BatchedNodePoller.Awaitable.class.cast(nodeRunning), customize, badNodes)));
+         } else {
+            responses.put(name, Futures.transform(node, customize, userExecutor));
+         }
       }
       return responses;
    }
 
+   private final class CustomizeOnceRunning implements AsyncFunction<AtomicReference<NodeMetadata>, Void> {
+      private final BatchedNodePoller.Awaitable nodeRunning;
+      private final Function<AtomicReference<NodeMetadata>, Void> customize;
+      private final Map<NodeMetadata, Exception> badNodes;
+
+      private CustomizeOnceRunning(BatchedNodePoller.Awaitable nodeRunning,
+               Function<AtomicReference<NodeMetadata>, Void> customize, Map<NodeMetadata, Exception> badNodes) {
+         this.nodeRunning = nodeRunning;
+         this.customize = customize;
+         this.badNodes = badNodes;
+      }
+
+      @Override
+      public ListenableFuture<Void> apply(final AtomicReference<NodeMetadata> node) {
+         final NodeMetadata originalNode = node.get();
+         final Stopwatch stopwatch = Stopwatch.createStarted();
+         // the reason the node cannot be customized, or null once it runs
+         ListenableFuture<Exception> notRunning = Futures.transform(nodeRunning.start(node),
+                  new Function<Boolean, Exception>() {
+                     @Override
+                     public Exception apply(Boolean isRunning) {
+                        return isRunning ? null : PollNodeRunning.notRunning(node, originalNode,
+                                 stopwatch.elapsed(MILLISECONDS));
+                     }
+                  });
+         notRunning = Futures.withFallback(notRunning, new FutureFallback<Exception>() {
+            @Override
+            public ListenableFuture<Exception> create(Throwable t) {
+               return Futures.<Exception> immediateFuture(t instanceof Exception ? (Exception) t
+                        : new ExecutionException(t));
+            }
+         });
+         return Futures.transform(notRunning, new Function<Exception, Void>() {
+            @Override
+            public Void apply(Exception e) {
+               if (e == null)
+                  return customize.apply(node);
+               logger.error(e, "<< problem customizing node(%s): ", originalNode.getId());
+               badNodes.put(node.get(), e);
+               return null;
+            }
+         }, userExecutor);
+      }
+   }
+
    /**
     * This calls logic necessary to create a node and convert it from its provider-specific object
     * to the jclouds {@link NodeMetadata} object. This call directly precedes customization, such as
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.domain.internal.ImageImpl;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+/**
+ * A compact binary copy of an image catalog on disk, so that a new process can build templates
+ * without listing the images of the provider first.
+ * <p>
+ * Only plain {@link ImageImpl images} with a plain {@link OperatingSystem} are written, and only
+ * if their default credentials carry neither a password nor a private key. Catalogs which don't
+ * qualify are not written at all, as a partial catalog would make templates match differently.
+ * Location metadata is not kept.
+ */
+@Beta
+public class ImageCacheSnapshot {
+
+   private static final int MAGIC = 0x4A434943;
+   private static final int VERSION = 1;
+
+   private final File file;
+   private final long ttlMillis;
+
+   /**
+    * @param ttl
+    *           snapshots written longer ago are not read
+    */
+   public ImageCacheSnapshot(File file, long ttl, TimeUnit unit) {
+      this.file = checkNotNull(file, "file");
+      checkArgument(ttl >= 0, "ttl must not be negative");
+      this.ttlMillis = unit.toMillis(ttl);
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   /**
+    * @return the images of the snapshot, or absent if there is none or it has expired
+    */
+   public Optional<Set<Image>> read() throws IOException {
+      FileInputStream fileIn;
+      try {
+         fileIn = new FileInputStream(file);
+      } catch (FileNotFoundException e) {
+         return Optional.absent();
+      }
+      DataInputStream in;
+      try {
+         // reads the gzip header
+         in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn)));
+      } catch (IOException e) {
+         closeQuietly(fileIn);
+         throw e;
+      }
+      try {
+         if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            return Optional.absent();
+         long age = System.currentTimeMillis() - in.readLong();
+         if (age < 0 || age > ttlMillis)
+            return Optional.absent();
+         List<Location> locations = Lists.newArrayList();
+         for (int i = in.readInt(); i > 0; i--) {
+            locations.add(readLocation(in, locations));
+         }
+         ImmutableSet.Builder<Image> images = ImmutableSet.builder();
+         for (int i = in.readInt(); i > 0; i--) {
+            images.add(readImage(in, locations));
+         }
+         return Optional.<Set<Image>> of(images.build());
+      } finally {
+         closeQuietly(in);
+      }
+   }
+
+   /**
+    * Replaces the snapshot with {@code images}, unless some of them can't be written.
+    * 
+    * @return true if the snapshot was written
+    */
+   public boolean write(Set<? extends Image> images) throws IOException {
+      Map<Location, Integer> locations = Maps.newLinkedHashMap();
+      for (Image image : images) {
+         if (!canWrite(image))
+            return false;
+         indexLocation(image.getLocation(), locations);
+      }
+      File parent = file.getAbsoluteFile().getParentFile();
+      if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory())
+         throw new IOException("could not create directory " + parent);
+      // readers of the old snapshot never see a partially written one
+      File temp = File.createTempFile(file.getName(), ".tmp", parent);
+      try {
+         FileOutputStream fileOut = new FileOutputStream(temp);
+         DataOutputStream out;
+         try {
+            // writes the gzip header
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut)));
+         } catch (IOException e) {
+            closeQuietly(fileOut);
+            throw e;
+         }
+         try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(locations.size());
+            for (Location location : locations.keySet()) {
+               writeLocation(out, location, locations);
+            }
+            out.writeInt(images.size());
+            for (Image image : images) {
+               writeImage(out, image, locations);
+            }
+         } finally {
+            out.close();
+         }
+         Files.move(temp, file);
+      } finally {
+         temp.delete();
+      }
+      return true;
+   }
+
+   private static boolean canWrite(Image image) {
+      if (image.getClass() != ImageImpl.class || image.getOperatingSystem().getClass() != OperatingSystem.class)
+         return false;
+      LoginCredentials credentials = image.getDefaultCredentials();
+      return credentials == null
+            || !credentials.getOptionalPassword().isPresent() && !credentials.getOptionalPrivateKey().isPresent();
+   }
+
+   /**
+    * Numbers the location after its parents, so that parents are read first.
+    */
+   private static void indexLocation(@Nullable Location location, Map<Location, Integer> locations) {
+      if (location == null || locations.containsKey(location))
+         return;
+      indexLocation(location.getParent(), locations);
+      locations.put(location, locations.size());
+   }
+
+   private static void writeLocation(DataOutputStream out, Location location, Map<Location, Integer> locations)
+         throws IOException {
+      writeString(out, location.getId());
+      out.writeByte(location.getScope().ordinal());
+      writeString(out, location.getDescription());
+      writeLocationIndex(out, location.getParent(), locations);
+      writeStrings(out, location.getIso3166Codes());
+   }
+
+   private static Location readLocation(DataInputStream in, List<Location> locations) throws IOException {
+      LocationBuilder builder = new LocationBuilder().id(readString(in))
+            .scope(LocationScope.values()[in.readUnsignedByte()]).description(readString(in));
+      Location parent = readLocationIndex(in, locations);
+      if (parent != null)
+         builder.parent(parent);
+      return builder.iso3166Codes(readStrings(in)).build();
+   }
+
+   private static void writeImage(DataOutputStream out, Image image, Map<Location, Integer> locations)
+         throws IOException {
+      writeString(out, image.getId());
+      writeString(out, image.getProviderId());
+      writeString(out, image.getName());
+      writeLocationIndex(out, image.getLocation(), locations);
+      writeString(out, image.getUri() != null ? image.getUri().toString() : null);
+      out.writeInt(image.getUserMetadata().size());
+      for (Map.Entry<String, String> entry : image.getUserMetadata().entrySet()) {
+         writeString(out, entry.getKey());
+         writeString(out, entry.getValue());
+      }
+      writeStrings(out, image.getTags());
+      out.writeByte(image.getStatus().ordinal());
+      writeString(out, image.getBackendStatus());
+      writeString(out, image.getVersion());
+      writeString(out, image.getDescription());
+      OperatingSystem os = image.getOperatingSystem();
+      writeString(out, os.getFamily() != null ? os.getFamily().name() : null);
+      writeString(out, os.getName());
+      writeString(out, os.getArch());
+      writeString(out, os.getVersion());
+      writeString(out, os.getDescription());
+      out.writeBoolean(os.is64Bit());
+      LoginCredentials credentials = image.getDefaultCredentials();
+      out.writeBoolean(credentials != null);
+      if (credentials != null) {
+         writeString(out, credentials.getUser());
+         out.writeBoolean(credentials.shouldAuthenticateSudo());
+      }
+   }
+
+   private static Image readImage(DataInputStream in, List<Location> locations) throws IOException {
+      ImageBuilder builder = new ImageBuilder().id(readString(in)).providerId(readString(in)).name(readString(in))
+            .location(readLocationIndex(in, locations));
+      String uri = readString(in);
+      if (uri != null)
+         builder.uri(URI.create(uri));
+      Map<String, String> userMetadata = Maps.newLinkedHashMap();
+      for (int i = in.readInt(); i > 0; i--) {
+         userMetadata.put(readString(in), readString(in));
+      }
+      builder.userMetadata(userMetadata).tags(readStrings(in)).status(Image.Status.values()[in.readUnsignedByte()])
+            .backendStatus(readString(in)).version(readString(in)).description(readString(in));
+      String family = readString(in);
+      builder.operatingSystem(OperatingSystem.builder().family(family != null ? OsFamily.valueOf(family) : null)
+            .name(readString(in)).arch(readString(in)).version(readString(in)).description(readString(in))
+            .is64Bit(in.readBoolean()).build());
+      if (in.readBoolean())
+         builder.defaultCredentials(LoginCredentials.builder().user(readString(in))
+               .authenticateSudo(in.readBoolean()).build());
+      return builder.build();
+   }
+
+   private static void writeLocationIndex(DataOutputStream out, @Nullable Location location,
+         Map<Location, Integer> locations) throws IOException {
+      out.writeInt(location != null ? locations.get(location) : -1);
+   }
+
+   @Nullable
+   private static Location readLocationIndex(DataInputStream in, List<Location> locations) throws IOException {
+      int index = in.readInt();
+      return index >= 0 ? locations.get(index) : null;
+   }
+
+   private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+      out.writeInt(strings.size());
+      for (String string : strings) {
+         writeString(out, string);
+      }
+   }
+
+   private static Set<String> readStrings(DataInputStream in) throws IOException {
+      ImmutableSet.Builder<String> strings = ImmutableSet.builder();
+      for (int i = in.readInt(); i > 0; i--) {
+         strings.add(readString(in));
+      }
+      return strings.build();
+   }
+
+   /**
+    * Unlike {@link DataOutputStream#writeUTF}, neither limits the length nor rejects null.
+    */
+   private static void writeString(DataOutputStream out, @Nullable String string) throws IOException {
+      if (string == null) {
+         out.writeInt(-1);
+         return;
+      }
+      byte[] bytes = string.getBytes(UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+   }
+
+   @Nullable
+   private static String readString(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0)
+         return null;
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, UTF_8);
+   }
+}
@@ -18,8 +18,12 @@ package org.jclouds.compute.suppliers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
@@ -28,6 +32,7 @@ import javax.inject.Named;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.GetImageStrategy;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
@@ -40,8 +45,11 @@ import com.google.common.base.Supplier;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Provider;
 
 /**
@@ -54,6 +62,10 @@ import com.google.inject.Provider;
  * {@link org.jclouds.compute.extensions.ImageExtension}, or discovered by other
  * means (see https://issues.apache.org/jira/browse/JCLOUDS-570) this supplier
  * will allow the image to be appended to the cached list.
+ * <p>
+ * If given an {@link ImageCacheSnapshot}, the first call serves the images of the snapshot, if
+ * it has not expired, and loads the images from the provider in the background. Every load from
+ * the provider replaces the snapshot.
  */
 @Beta
 public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, ValueLoadedCallback<Set<? extends Image>> {
@@ -74,6 +86,19 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     * and allows to add and remove images at runtime.
     */
    private final LoadingCache<String, Image> imageCache;
+
+   /**
+    * Counts the changes to the {@link #imageCache}, so that the index of its images is only
+    * rebuilt after they changed.
+    */
+   private final AtomicLong modifications = new AtomicLong();
+   private volatile IndexedImages indexed;
+
+   @Nullable
+   private final ImageCacheSnapshot snapshot;
+   private final Executor refreshExecutor;
+   private volatile boolean snapshotRead;
+   private volatile boolean refreshing;
    
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
@@ -81,11 +106,31 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
 
    public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
          AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader) {
+      this(imageSupplier, sessionIntervalSeconds, authException, imageLoader, null,
+            MoreExecutors.sameThreadExecutor());
+   }
+
+   /**
+    * @param snapshot
+    *           the snapshot to serve first and to write the loaded images to, if any
+    * @param refreshExecutor
+    *           loads the images from the provider while the snapshot is served
+    */
+   public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
+         AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader,
+         @Nullable ImageCacheSnapshot snapshot, Executor refreshExecutor) {
+      this.snapshot = snapshot;
+      this.refreshExecutor = checkNotNull(refreshExecutor, "refreshExecutor");
       liveImageSupplier = imageSupplier;
       memoizedImageSupplier = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException,
             imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this);
       imageCache = CacheBuilder.newBuilder().expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS)
-            .build(new CacheLoader<String, Image>() {
+            .removalListener(new RemovalListener<String, Image>() {
+               @Override
+               public void onRemoval(RemovalNotification<String, Image> notification) {
+                  modifications.incrementAndGet();
+               }
+            }).build(new CacheLoader<String, Image>() {
                @Override
                public Image load(String key) throws Exception {
                   return imageLoader.get().getImage(key);
@@ -95,6 +140,12 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    
    @Override
    public Set<? extends Image> get() {
+      if (snapshot != null && !snapshotRead)
+         serveSnapshot();
+      // While the snapshot is served, the memoized supplier is loading in
+      // the background and would block the caller until it is done.
+      if (refreshing)
+         return index().getImages();
       // Call the memoized supplier. The "imageCache" is subscribed to the
       // reloads of the supplier once it expires. For this reason we ignore the
       // value returned by the supplier: every time it is reloaded, the cache
@@ -104,7 +155,38 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
       // individual image additions and deletions (introduced, for example, by
       // the usage of the ImageExtension).
       memoizedImageSupplier.get();
-      return ImmutableSet.copyOf(imageCache.asMap().values());
+      return index().getImages();
+   }
+
+   /**
+    * @return the index of {@code images}, if they are the images last returned by {@link #get()}
+    */
+   public Optional<ImageIndex> indexOf(Set<? extends Image> images) {
+      IndexedImages current = indexed;
+      return current != null && current.index.getImages() == images ? Optional.of(current.index)
+            : Optional.<ImageIndex> absent();
+   }
+
+   private ImageIndex index() {
+      // evicts expired images, which counts them as modifications
+      imageCache.cleanUp();
+      long count = modifications.get();
+      IndexedImages current = indexed;
+      if (current == null || current.modifications != count) {
+         current = new IndexedImages(count, new ImageIndex(ImmutableSet.copyOf(imageCache.asMap().values())));
+         indexed = current;
+      }
+      return current.index;
+   }
+
+   private static final class IndexedImages {
+      private final long modifications;
+      private final ImageIndex index;
+
+      private IndexedImages(long modifications, ImageIndex index) {
+         this.modifications = modifications;
+         this.index = index;
+      }
    }
 
    /**
@@ -119,6 +201,51 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    public void valueLoaded(Optional<Set<? extends Image>> value) {
       if (value.isPresent()) {
          reset(value.get());
+         writeSnapshot(value.get());
+      }
+   }
+
+   private synchronized void serveSnapshot() {
+      if (snapshotRead)
+         return;
+      try {
+         Optional<Set<Image>> images = snapshot.read();
+         if (images.isPresent()) {
+            logger.debug(">> serving %d images from %s", images.get().size(), snapshot.getFile());
+            reset(images.get());
+            refreshing = true;
+            refreshExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     memoizedImageSupplier.get();
+                  } catch (RuntimeException e) {
+                     logger.warn(e, "<< problem refreshing images served from %s", snapshot.getFile());
+                  } finally {
+                     refreshing = false;
+                  }
+               }
+            });
+         }
+      } catch (IOException e) {
+         logger.warn(e, "<< problem reading images from %s", snapshot.getFile());
+      } catch (RejectedExecutionException e) {
+         refreshing = false;
+      } finally {
+         snapshotRead = true;
+      }
+   }
+
+   private void writeSnapshot(Set<? extends Image> images) {
+      if (snapshot == null)
+         return;
+      try {
+         if (snapshot.write(images))
+            logger.debug("<< wrote %d images to %s", images.size(), snapshot.getFile());
+         else
+            logger.debug("<< images can't be written to %s", snapshot.getFile());
+      } catch (IOException e) {
+         logger.warn(e, "<< problem writing images to %s", snapshot.getFile());
       }
    }
    
@@ -137,6 +264,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
             return input.getId();
          }
       }));
+      modifications.incrementAndGet();
    }
    
    /**
@@ -146,6 +274,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    public Set<? extends Image> rebuildCache() {
       Set<? extends Image> images = liveImageSupplier.get();
       reset(images);
+      writeSnapshot(images);
       return images;
    }
 
@@ -157,7 +286,12 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     */
    public Optional<? extends Image> get(String id) {
       try {
-         return Optional.fromNullable(imageCache.getUnchecked(id));
+         Image image = imageCache.getIfPresent(id);
+         if (image == null) {
+            image = imageCache.getUnchecked(id);
+            modifications.incrementAndGet();
+         }
+         return Optional.of(image);
       } catch (Exception ex) {
          logger.error(ex, "Unexpected error loading image %s", id);
          return Optional.absent();
@@ -180,6 +314,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    public void registerImage(Image image) {
       checkNotNull(image, "image");
       imageCache.put(image.getId(), image);
+      modifications.incrementAndGet();
    }
 
    /**
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Groups a set of images by operating system family, version, 64-bit flag and architecture, and
+ * by location, so that a condition on those fields is evaluated once per group instead of once
+ * per image.
+ * <p>
+ * The groups are built on first use.
+ */
+@Beta
+public final class ImageIndex {
+
+   private final Set<? extends Image> images;
+   private volatile Groups groups;
+
+   public ImageIndex(Set<? extends Image> images) {
+      this.images = checkNotNull(images, "images");
+   }
+
+   public Set<? extends Image> getImages() {
+      return images;
+   }
+
+   /**
+    * @param condition
+    *           may only look at the location and the operating system family, version, 64-bit
+    *           flag and architecture of the image
+    * @return the images which satisfy the condition, in the order of {@link #getImages()}
+    */
+   public List<Image> matching(Predicate<? super Image> condition) {
+      Groups groups = groups();
+      BitSet matched = new BitSet(groups.all.length);
+      for (Group group : groups.groups) {
+         if (condition.apply(group.representative)) {
+            for (int i = 0; i < group.size; i++) {
+               matched.set(group.positions[i]);
+            }
+         }
+      }
+      List<Image> result = Lists.newArrayListWithCapacity(matched.cardinality());
+      for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+         result.add(groups.all[i]);
+      }
+      return result;
+   }
+
+   private Groups groups() {
+      Groups result = groups;
+      if (result == null) {
+         synchronized (this) {
+            result = groups;
+            if (result == null)
+               groups = result = new Groups(images);
+         }
+      }
+      return result;
+   }
+
+   private static final class Groups {
+      private final Image[] all;
+      private final Collection<Group> groups;
+
+      private Groups(Set<? extends Image> images) {
+         all = Iterables.toArray(images, Image.class);
+         Map<Key, Group> byKey = Maps.newLinkedHashMap();
+         for (int i = 0; i < all.length; i++) {
+            Key key = new Key(all[i]);
+            Group group = byKey.get(key);
+            if (group == null)
+               byKey.put(key, group = new Group(all[i]));
+            group.add(i);
+         }
+         groups = ImmutableList.copyOf(byKey.values());
+      }
+   }
+
+   private static final class Group {
+      private final Image representative;
+      private int[] positions = new int[4];
+      private int size;
+
+      private Group(Image representative) {
+         this.representative = representative;
+      }
+
+      private void add(int position) {
+         if (size == positions.length)
+            positions = Arrays.copyOf(positions, size * 2);
+         positions[size++] = position;
+      }
+   }
+
+   private static final class Key {
+      private final Location location;
+      private final boolean hasOperatingSystem;
+      private final OsFamily family;
+      private final String version;
+      private final boolean is64Bit;
+      private final String arch;
+      private final int hashCode;
+
+      private Key(Image image) {
+         location = image.getLocation();
+         OperatingSystem os = image.getOperatingSystem();
+         hasOperatingSystem = os != null;
+         family = os != null ? os.getFamily() : null;
+         version = os != null ? os.getVersion() : null;
+         is64Bit = os != null && os.is64Bit();
+         arch = os != null ? os.getArch() : null;
+         hashCode = Objects.hashCode(location, hasOperatingSystem, family, version, is64Bit, arch);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o)
+            return true;
+         if (!(o instanceof Key))
+            return false;
+         Key that = (Key) o;
+         return hashCode == that.hashCode && hasOperatingSystem == that.hasOperatingSystem
+               && is64Bit == that.is64Bit && equal(family, that.family) && equal(version, that.version)
+               && equal(arch, that.arch) && equal(location, that.location);
+      }
+
+      @Override
+      public int hashCode() {
+         return hashCode;
+      }
+   }
+}
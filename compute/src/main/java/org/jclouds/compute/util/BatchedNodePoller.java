@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Waits for nodes to reach a status by polling all of them together.
+ * <p/>
+ * Each tick lists every node somebody is waiting for with a single
+ * {@link ListNodesStrategy#listNodesByIds} call, so a thousand nodes booting at once cost one api
+ * call per tick instead of a thousand, and no thread is parked per node. Ticks start after
+ * {@link PollPeriod#pollInitialPeriod} and back off to {@link PollPeriod#pollMaxPeriod} while
+ * nodes are pending.
+ * <p/>
+ * Ticks run on the scheduler bound by
+ * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule}, if installed. Otherwise
+ * a single user thread sleeps between ticks.
+ */
+@Singleton
+public class BatchedNodePoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   private Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   private ListeningScheduledExecutorService scheduler;
+
+   private final ListNodesStrategy listNodesStrategy;
+   private final ListeningExecutorService userExecutor;
+   private final PollPeriod period;
+   private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+   private final AtomicBoolean ticking = new AtomicBoolean();
+   private long delay;
+
+   @Inject
+   BatchedNodePoller(ListNodesStrategy listNodesStrategy,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, PollPeriod period) {
+      this.listNodesStrategy = checkNotNull(listNodesStrategy, "listNodesStrategy");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.period = checkNotNull(period, "period");
+   }
+
+   /**
+    * @param node
+    *           is updated with the listed node on every tick, or {@code null} if the node was not
+    *           listed
+    * @param condition
+    *           applied to the listed node, which may be {@code null}. An
+    *           {@link IllegalStateException} thrown by the condition fails the wait.
+    * @return a future which completes with {@code true} once the condition holds, or with
+    *         {@code false} if it did not hold within {@code timeoutMillis}
+    */
+   public ListenableFuture<Boolean> await(AtomicReference<NodeMetadata> node, Predicate<NodeMetadata> condition,
+         long timeoutMillis) {
+      Waiter waiter = new Waiter(node, condition, timeoutMillis);
+      waiters.add(waiter);
+      if (ticking.compareAndSet(false, true)) {
+         delay = period.pollInitialPeriod;
+         schedule();
+      }
+      return waiter.result;
+   }
+
+   /**
+    * @return a predicate which waits up to {@code timeoutMillis} for {@code condition}, unless it
+    *         already holds for the node at hand
+    */
+   public Await awaiting(Predicate<NodeMetadata> condition, long timeoutMillis) {
+      return new Await(condition, timeoutMillis);
+   }
+
+   /**
+    * A blocking node predicate which can hand out its wait as a future to callers who do not want
+    * to block.
+    */
+   public interface Awaitable extends Predicate<AtomicReference<NodeMetadata>> {
+
+      /**
+       * @return a future of whether the node reached the condition within the timeout
+       */
+      ListenableFuture<Boolean> start(AtomicReference<NodeMetadata> node);
+   }
+
+   /**
+    * Waits for its condition through the poller.
+    */
+   public final class Await implements Awaitable {
+      private final Predicate<NodeMetadata> condition;
+      private final long timeoutMillis;
+
+      private Await(Predicate<NodeMetadata> condition, long timeoutMillis) {
+         this.condition = checkNotNull(condition, "condition");
+         checkArgument(timeoutMillis >= 0, "timeoutMillis must not be negative");
+         this.timeoutMillis = timeoutMillis;
+      }
+
+      @Override
+      public ListenableFuture<Boolean> start(AtomicReference<NodeMetadata> node) {
+         try {
+            if (condition.apply(node.get()))
+               return Futures.immediateFuture(true);
+         } catch (IllegalStateException e) {
+            return Futures.immediateFailedFuture(e);
+         }
+         return await(node, condition, timeoutMillis);
+      }
+
+      @Override
+      public boolean apply(AtomicReference<NodeMetadata> node) {
+         ListenableFuture<Boolean> result = start(node);
+         try {
+            return result.get();
+         } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      @Override
+      public String toString() {
+         return "await(" + condition + ", " + timeoutMillis + "ms)";
+      }
+   }
+
+   private void schedule() {
+      Runnable tick = new Runnable() {
+         @Override
+         public void run() {
+            tick();
+         }
+      };
+      try {
+         if (scheduler != null) {
+            scheduler.schedule(tick, delay, MILLISECONDS);
+         } else {
+            final long sleep = delay;
+            final Runnable next = tick;
+            userExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     Thread.sleep(sleep);
+                  } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                     failAll(e);
+                     return;
+                  }
+                  next.run();
+               }
+            });
+         }
+      } catch (RuntimeException e) {
+         // the executors reject work once the context is closed
+         failAll(e);
+      }
+   }
+
+   private void tick() {
+      try {
+         poll(ImmutableList.copyOf(waiters));
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< problem polling nodes");
+      }
+      delay = Math.min(Math.max(delay * 2, 1), Math.max(period.pollMaxPeriod, period.pollInitialPeriod));
+      ticking.set(false);
+      // a waiter added after the snapshot may have seen ticking still set
+      if (!waiters.isEmpty() && ticking.compareAndSet(false, true))
+         schedule();
+   }
+
+   private void poll(List<Waiter> batch) {
+      Set<String> ids = Sets.newLinkedHashSet();
+      for (Waiter waiter : batch) {
+         ids.add(waiter.id);
+      }
+      if (ids.isEmpty())
+         return;
+      Map<String, NodeMetadata> listed = Maps.newHashMap();
+      try {
+         for (NodeMetadata node : listNodesStrategy.listNodesByIds(ids)) {
+            listed.put(node.getId(), node);
+         }
+         logger.trace("<< polled %d of %d nodes", listed.size(), ids.size());
+      } catch (RuntimeException e) {
+         // try again on the next tick, unless the waiters time out before
+         logger.warn(e, "<< problem listing nodes(%s)", ids);
+         listed = null;
+      }
+      long now = System.nanoTime();
+      for (Waiter waiter : batch) {
+         if (listed != null)
+            waiter.check(listed.get(waiter.id));
+         if (!waiter.result.isDone() && now - waiter.deadline >= 0)
+            waiter.result.set(false);
+         if (waiter.result.isDone())
+            waiters.remove(waiter);
+      }
+   }
+
+   private void failAll(Throwable cause) {
+      Waiter waiter;
+      while ((waiter = waiters.poll()) != null) {
+         waiter.result.setException(cause);
+      }
+      ticking.set(false);
+   }
+
+   private static final class Waiter {
+      private final String id;
+      private final AtomicReference<NodeMetadata> node;
+      private final Predicate<NodeMetadata> condition;
+      private final long deadline;
+      private final SettableFuture<Boolean> result = SettableFuture.create();
+
+      private Waiter(AtomicReference<NodeMetadata> node, Predicate<NodeMetadata> condition, long timeoutMillis) {
+         this.node = checkNotNull(node, "node");
+         this.id = checkNotNull(node.get(), "node").getId();
+         this.condition = checkNotNull(condition, "condition");
+         this.deadline = System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis);
+      }
+
+      private void check(NodeMetadata listed) {
+         if (result.isDone())
+            return;
+         node.set(listed);
+         try {
+            if (condition.apply(listed))
+               result.set(true);
+         } catch (IllegalStateException e) {
+            result.setException(e);
+         }
+      }
+   }
+}
@@ -17,14 +17,30 @@
 package org.jclouds.compute.config;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
+import java.io.File;
 import java.util.Properties;
+import java.util.Set;
 
 import org.jclouds.ContextBuilder;
+import org.jclouds.collect.Memoized;
+import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants.InitStatusProperties;
 import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.suppliers.ImageCacheSupplier;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
 @Test(groups = "unit", testName = "ComputeServicePropertiesTest")
 public class ComputeServicePropertiesTest {
    public void testDefaultInitStatusProperties() {
@@ -64,4 +80,28 @@ public class ComputeServicePropertiesTest {
       assertEquals(props.pollInitialPeriod, 501);
       assertEquals(props.pollMaxPeriod, 5001);
    }
+
+   public void testImageCacheDirectoryOnlyReadsConstantProperties() {
+      File directory = Files.createTempDir();
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(ComputeServiceProperties.IMAGE_CACHE_DIRECTORY, directory.getAbsolutePath());
+         Supplier<Set<? extends Image>> images = ContextBuilder.newBuilder("stub").overrides(overrides)
+               .modules(ImmutableSet.<Module> of(new AbstractModule() {
+                  @Override
+                  protected void configure() {
+                     bind(String.class).annotatedWith(Names.named("computed")).toProvider(new Provider<String>() {
+                        @Override
+                        public String get() {
+                           throw new AssertionError("computed properties should not be read");
+                        }
+                     });
+                  }
+               })).buildInjector().getInstance(Key.get(new TypeLiteral<Supplier<Set<? extends Image>>>() {
+               }, Memoized.class));
+         assertTrue(images instanceof ImageCacheSupplier);
+      } finally {
+         directory.delete();
+      }
+   }
 }
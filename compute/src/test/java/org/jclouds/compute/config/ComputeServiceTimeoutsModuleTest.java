@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.config;
+
+import static org.easymock.EasyMock.createMock;
+import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_RUNNING;
+import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
+import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.predicates.AtomicNodeRunning;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.util.BatchedNodePoller;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "ComputeServiceTimeoutsModuleTest")
+public class ComputeServiceTimeoutsModuleTest {
+   private static final TypeLiteral<Predicate<AtomicReference<NodeMetadata>>> NODE_PREDICATE =
+         new TypeLiteral<Predicate<AtomicReference<NodeMetadata>>>() {
+         };
+
+   public void testNodeStatusPredicatesWaitThroughPoller() {
+      Injector injector = ContextBuilder.newBuilder("stub").buildInjector();
+      assertTrue(nodePredicate(injector, TIMEOUT_NODE_RUNNING) instanceof BatchedNodePoller.Awaitable);
+      assertTrue(nodePredicate(injector, TIMEOUT_NODE_SUSPENDED) instanceof BatchedNodePoller.Awaitable);
+      assertTrue(nodePredicate(injector, TIMEOUT_NODE_TERMINATED) instanceof BatchedNodePoller.Awaitable);
+   }
+
+   public void testNodeRunningWithoutPollerPollsNodeOnItsOwn() {
+      Predicate<AtomicReference<NodeMetadata>> nodeRunning = new ComputeServiceTimeoutsModule().nodeRunning(
+            new AtomicNodeRunning(createMock(GetNodeMetadataStrategy.class)), new Timeouts(),
+            new PollPeriod());
+      assertFalse(nodeRunning instanceof BatchedNodePoller.Awaitable);
+   }
+
+   private static Predicate<AtomicReference<NodeMetadata>> nodePredicate(Injector injector, String name) {
+      return injector.getInstance(Key.get(NODE_PREDICATE, Names.named(name)));
+   }
+}
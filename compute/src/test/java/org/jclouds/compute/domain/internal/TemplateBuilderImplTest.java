@@ -1179,4 +1179,80 @@ public class TemplateBuilderImplTest {
       assertEquals(template.getOptions().getLoginPrivateKey(), null);
       assertEquals(template.getOptions().shouldAuthenticateSudo(), Boolean.TRUE);
    }
+
+   /**
+    * Times building templates over a catalog of 100k images in four regions and 20 hardware
+    * profiles, which only support images of one architecture.
+    */
+   @Test(groups = "performance")
+   public void testBuildOverLargeCatalog() {
+      Location[] regions = new Location[4];
+      for (int i = 0; i < regions.length; i++) {
+         regions[i] = new LocationBuilder().scope(LocationScope.REGION).id("region-" + i).description("region-" + i)
+               .parent(provider).build();
+      }
+      OsFamily[] families = { OsFamily.UBUNTU, OsFamily.CENTOS, OsFamily.RHEL, OsFamily.AMZN_LINUX,
+            OsFamily.DEBIAN, OsFamily.WINDOWS };
+      String[] versions = { "10.04", "12.04", "13.10", "14.04", "6.5", "7.0" };
+      ImmutableSet.Builder<Image> catalog = ImmutableSet.builder();
+      for (int i = 0; i < 100000; i++) {
+         OsFamily family = families[i % families.length];
+         String version = versions[i / families.length % versions.length];
+         boolean is64Bit = i / 7 % 3 != 0;
+         String arch = i / 11 % 5 == 0 ? "hvm" : "paravirtual";
+         catalog.add(new ImageBuilder().ids(String.format("ami-%08x", i)).name(family + "-" + version + "-" + i)
+               .description(family + " " + version + " build " + i).version(Integer.toString(i % 97))
+               .location(regions[i / 5 % regions.length]).status(Status.AVAILABLE)
+               .operatingSystem(OperatingSystem.builder().family(family).name(family.value()).version(version)
+                     .description(family + " " + version).arch(arch).is64Bit(is64Bit).build()).build());
+      }
+      ImmutableSet.Builder<Hardware> profiles = ImmutableSet.builder();
+      for (int i = 0; i < 20; i++) {
+         final String arch = i % 2 == 0 ? "hvm" : "paravirtual";
+         profiles.add(new HardwareBuilder().ids("hardware-" + i).ram(512 * (i + 1))
+               .processors(ImmutableList.of(new Processor(1 + i / 4, 1.0)))
+               .supportsImage(new Predicate<Image>() {
+                  @Override
+                  public boolean apply(Image input) {
+                     return arch.equals(input.getOperatingSystem().getArch());
+                  }
+               }).build());
+      }
+      final Supplier<Set<? extends Location>> locations = Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet
+            .<Location> copyOf(regions));
+      final Supplier<Set<? extends Image>> images = Suppliers.<Set<? extends Image>> ofInstance(catalog.build());
+      final Supplier<Set<? extends Hardware>> hardwares = Suppliers.<Set<? extends Hardware>> ofInstance(profiles
+            .build());
+      final Location defaultLocation = regions[0];
+      final Provider<TemplateOptions> optionsProvider = new Provider<TemplateOptions>() {
+         @Override
+         public TemplateOptions get() {
+            return new TemplateOptions();
+         }
+      };
+      final GetImageStrategy getImageStrategy = createMock(GetImageStrategy.class);
+      final ImageCacheSupplier imageCache = new ImageCacheSupplier(images, 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy));
+      Provider<TemplateBuilder> templateBuilderProvider = new Provider<TemplateBuilder>() {
+         @Override
+         public TemplateBuilder get() {
+            return new TemplateBuilderImpl(locations, imageCache, hardwares, Suppliers.ofInstance(defaultLocation),
+                  optionsProvider, this);
+         }
+      };
+      for (int run = 0; run < 5; run++) {
+         long start = System.nanoTime();
+         Template ubuntu = templateBuilderProvider.get().osFamily(OsFamily.UBUNTU).osVersionMatches("12.04")
+               .os64Bit(true).build();
+         long ubuntuDone = System.nanoTime();
+         Template biggest = templateBuilderProvider.get().osFamily(OsFamily.CENTOS).locationId("region-2").biggest()
+               .build();
+         long biggestDone = System.nanoTime();
+         Template named = templateBuilderProvider.get().imageNameMatches("debian-7.0-.*").build();
+         long namedDone = System.nanoTime();
+         System.out.printf("TIMING: %s took %.1fms, %s took %.1fms, %s took %.1fms%n", ubuntu.getImage().getId(),
+               (ubuntuDone - start) / 1000000d, biggest.getImage().getId(), (biggestDone - ubuntuDone) / 1000000d,
+               named.getImage().getId(), (namedDone - biggestDone) / 1000000d);
+      }
+   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "ImageCacheSnapshotTest", singleThreaded = true)
+public class ImageCacheSnapshotTest {
+
+   private final Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("aws-ec2")
+         .description("aws-ec2").iso3166Codes(ImmutableSet.of("US-VA", "IE")).build();
+   private final Location region = new LocationBuilder().scope(LocationScope.REGION).id("us-east-1")
+         .description("us-east-1").parent(provider).build();
+
+   private File dir;
+   private ImageCacheSnapshot snapshot;
+
+   @BeforeMethod
+   void createSnapshot() {
+      dir = Files.createTempDir();
+      snapshot = new ImageCacheSnapshot(new File(dir, "images"), 60, TimeUnit.SECONDS);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   void deleteSnapshot() {
+      for (File file : dir.listFiles()) {
+         file.delete();
+      }
+      dir.delete();
+   }
+
+   private Image image(String id, Location location) {
+      return new ImageBuilder().ids(id).name("name-" + id).location(location).uri(URI.create("https://images/" + id))
+            .userMetadata(ImmutableMap.of("rootDeviceType", "ebs", "virtualizationType", "hvm"))
+            .tags(ImmutableSet.of("tag")).status(Image.Status.AVAILABLE).backendStatus("available")
+            .version("20140101").description("description of " + id)
+            .operatingSystem(OperatingSystem.builder().family(OsFamily.UBUNTU).name("ubuntu").arch("paravirtual")
+                  .version("12.04").description("ubuntu/images/" + id).is64Bit(true).build())
+            .defaultCredentials(LoginCredentials.builder().user("ubuntu").authenticateSudo(true).build()).build();
+   }
+
+   public void testRoundTrip() throws Exception {
+      Image minimal = new ImageBuilder().ids("minimal").status(Image.Status.PENDING)
+            .operatingSystem(OperatingSystem.builder().description("unknown").build()).build();
+      Set<Image> images = ImmutableSet.of(image("ami-1", region), image("ami-2", provider), minimal);
+
+      assertTrue(snapshot.write(images));
+      Set<Image> read = snapshot.read().get();
+
+      assertEquals(read, images);
+      Map<String, Image> writtenById = Maps.uniqueIndex(images, new Function<Image, String>() {
+         @Override
+         public String apply(Image input) {
+            return input.getId();
+         }
+      });
+      for (Image image : read) {
+         Image written = writtenById.get(image.getId());
+         assertEquals(image.getUserMetadata(), written.getUserMetadata());
+         assertEquals(image.getTags(), written.getTags());
+         assertEquals(image.getStatus(), written.getStatus());
+         assertEquals(image.getBackendStatus(), written.getBackendStatus());
+         assertEquals(image.getVersion(), written.getVersion());
+         assertEquals(image.getDescription(), written.getDescription());
+         assertEquals(image.getOperatingSystem(), written.getOperatingSystem());
+         assertEquals(image.getDefaultCredentials(), written.getDefaultCredentials());
+      }
+   }
+
+   public void testLocationsAreShared() throws Exception {
+      assertTrue(snapshot.write(ImmutableSet.of(image("ami-1", region), image("ami-2", region))));
+      Set<Image> read = snapshot.read().get();
+
+      Location first = read.iterator().next().getLocation();
+      assertEquals(first, region);
+      assertEquals(first.getParent().getIso3166Codes(), provider.getIso3166Codes());
+      for (Image image : read) {
+         assertSame(image.getLocation(), first);
+      }
+   }
+
+   public void testMissingSnapshotIsAbsent() throws Exception {
+      assertFalse(snapshot.read().isPresent());
+   }
+
+   @Test(expectedExceptions = IOException.class)
+   public void testSnapshotWhichIsNotGzippedFails() throws Exception {
+      Files.write("not a snapshot".getBytes(), snapshot.getFile());
+      snapshot.read();
+   }
+
+   public void testExpiredSnapshotIsAbsent() throws Exception {
+      assertTrue(snapshot.write(ImmutableSet.of(image("ami-1", region))));
+      Thread.sleep(10);
+      assertFalse(new ImageCacheSnapshot(snapshot.getFile(), 0, TimeUnit.SECONDS).read().isPresent());
+   }
+
+   public void testDoesNotWriteSecrets() throws Exception {
+      Image withPassword = ImageBuilder.fromImage(image("ami-1", region))
+            .defaultCredentials(LoginCredentials.builder().user("root").password("secret").build()).build();
+
+      assertFalse(snapshot.write(ImmutableSet.of(image("ami-2", region), withPassword)));
+      assertFalse(snapshot.getFile().exists());
+   }
+
+   public void testReplacesSnapshot() throws Exception {
+      assertTrue(snapshot.write(ImmutableSet.of(image("ami-1", region))));
+      assertTrue(snapshot.write(ImmutableSet.of(image("ami-2", region))));
+
+      assertEquals(snapshot.read().get(), ImmutableSet.of(image("ami-2", region)));
+      assertEquals(dir.list().length, 1);
+   }
+
+   /**
+    * Times writing and reading a catalog the size of the public images of a large region.
+    */
+   @Test(groups = "performance")
+   public void testReadThroughput() throws Exception {
+      ImmutableSet.Builder<Image> builder = ImmutableSet.builder();
+      for (int i = 0; i < 50000; i++) {
+         builder.add(image(String.format("ami-%08x", i), region));
+      }
+      Set<Image> images = builder.build();
+      for (int run = 0; run < 3; run++) {
+         long start = System.nanoTime();
+         snapshot.write(images);
+         long written = System.nanoTime();
+         int read = snapshot.read().get().size();
+         System.out.printf("TIMING: writing %d images took %.1fms, reading %d took %.1fms, %d bytes%n",
+               images.size(), (written - start) / 1000000d, read, (System.nanoTime() - written) / 1000000d,
+               snapshot.getFile().length());
+      }
+   }
+}
@@ -20,9 +20,15 @@ import static com.google.common.collect.Iterables.any;
 import static org.jclouds.compute.predicates.ImagePredicates.idEquals;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.jclouds.compute.domain.Image;
@@ -36,9 +42,13 @@ import org.jclouds.rest.AuthorizationException;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.Atomics;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.util.Providers;
 
@@ -147,4 +157,84 @@ public class ImageCacheSupplierTest {
       assertEquals(imageCache.get().size(), 1);
       assertFalse(any(imageCache.get(), idEquals("foo")));
    }
+
+   @Test
+   public void testIndexIsKeptUntilImagesChange() {
+      ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy));
+      Set<? extends Image> first = imageCache.get();
+
+      assertSame(imageCache.get(), first);
+      assertTrue(imageCache.indexOf(first).isPresent());
+      assertFalse(imageCache.indexOf(Sets.newHashSet(first)).isPresent());
+
+      imageCache.registerImage(ImageBuilder.fromImage(image).id("newimage").build());
+      Set<? extends Image> second = imageCache.get();
+
+      assertEquals(second.size(), 2);
+      assertFalse(imageCache.indexOf(first).isPresent());
+      assertTrue(imageCache.indexOf(second).isPresent());
+
+      imageCache.removeImage("newimage");
+
+      assertEquals(imageCache.get(), first);
+   }
+
+   @Test
+   public void testServesSnapshotWhileRefreshingInBackground() throws Exception {
+      File dir = Files.createTempDir();
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         ImageCacheSnapshot snapshot = new ImageCacheSnapshot(new File(dir, "images"), 60, TimeUnit.SECONDS);
+         assertTrue(snapshot.write(images));
+         final Image live = ImageBuilder.fromImage(image).ids("liveImage").build();
+         final CountDownLatch listed = new CountDownLatch(1);
+         Supplier<Set<? extends Image>> slowImages = new Supplier<Set<? extends Image>>() {
+            @Override
+            public Set<? extends Image> get() {
+               Uninterruptibles.awaitUninterruptibly(listed);
+               return ImmutableSet.of(live);
+            }
+         };
+         ImageCacheSupplier imageCache = new ImageCacheSupplier(slowImages, 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshot, executor);
+
+         assertEquals(imageCache.get(), images);
+
+         listed.countDown();
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+         assertEquals(imageCache.get(), ImmutableSet.of(live));
+         assertEquals(snapshot.read().get(), ImmutableSet.of(live));
+      } finally {
+         executor.shutdownNow();
+         deleteDirectory(dir);
+      }
+   }
+
+   @Test
+   public void testExpiredSnapshotIsNotServed() throws Exception {
+      File dir = Files.createTempDir();
+      try {
+         ImageCacheSnapshot snapshot = new ImageCacheSnapshot(new File(dir, "images"), 0, TimeUnit.SECONDS);
+         assertTrue(snapshot.write(ImmutableSet.of(ImageBuilder.fromImage(image).ids("oldImage").build())));
+         Thread.sleep(10);
+         ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images),
+               60, Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshot,
+               MoreExecutors.sameThreadExecutor());
+
+         assertEquals(imageCache.get(), images);
+      } finally {
+         deleteDirectory(dir);
+      }
+   }
+
+   private static void deleteDirectory(File dir) throws IOException {
+      for (File file : dir.listFiles()) {
+         if (!file.delete())
+            throw new IOException("could not delete " + file);
+      }
+      if (!dir.delete())
+         throw new IOException("could not delete " + dir);
+   }
 }
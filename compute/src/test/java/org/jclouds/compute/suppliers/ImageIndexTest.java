@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "ImageIndexTest")
+public class ImageIndexTest {
+
+   private final Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("aws-ec2")
+         .description("aws-ec2").build();
+   private final Location east = new LocationBuilder().scope(LocationScope.REGION).id("us-east-1")
+         .description("us-east-1").parent(provider).build();
+   private final Location west = new LocationBuilder().scope(LocationScope.REGION).id("us-west-1")
+         .description("us-west-1").parent(provider).build();
+
+   private Image image(String id, Location location, OsFamily family, String version, boolean is64Bit) {
+      return new ImageBuilder().ids(id).name(id).location(location).status(Image.Status.AVAILABLE)
+            .operatingSystem(OperatingSystem.builder().family(family).version(version).description(id)
+                  .is64Bit(is64Bit).build()).build();
+   }
+
+   private final Image ubuntuEast = image("ubuntu-east", east, OsFamily.UBUNTU, "12.04", true);
+   private final Image centosEast = image("centos-east", east, OsFamily.CENTOS, "6.5", true);
+   private final Image ubuntuWest = image("ubuntu-west", west, OsFamily.UBUNTU, "12.04", true);
+   private final Image ubuntuEast32 = image("ubuntu-east-32", east, OsFamily.UBUNTU, "12.04", false);
+   private final Image ubuntuEastAgain = image("ubuntu-east-again", east, OsFamily.UBUNTU, "12.04", true);
+   private final Image anywhere = image("anywhere", null, OsFamily.UBUNTU, "12.04", true);
+
+   private final Set<Image> images = ImmutableSet.of(ubuntuEast, centosEast, ubuntuWest, ubuntuEast32,
+         ubuntuEastAgain, anywhere);
+
+   public void testMatchingKeepsOrderOfImages() {
+      ImageIndex index = new ImageIndex(images);
+      List<Image> matching = index.matching(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            return input.getOperatingSystem().getFamily() == OsFamily.UBUNTU
+                  && input.getOperatingSystem().is64Bit();
+         }
+      });
+
+      assertEquals(matching, ImmutableList.of(ubuntuEast, ubuntuWest, ubuntuEastAgain, anywhere));
+      assertEquals(index.getImages(), images);
+   }
+
+   public void testConditionIsAppliedOncePerGroup() {
+      final List<Image> applied = Lists.newArrayList();
+      List<Image> matching = new ImageIndex(images).matching(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            applied.add(input);
+            return east.equals(input.getLocation());
+         }
+      });
+
+      assertEquals(matching, ImmutableList.of(ubuntuEast, centosEast, ubuntuEast32, ubuntuEastAgain));
+      assertEquals(applied, ImmutableList.of(ubuntuEast, centosEast, ubuntuWest, ubuntuEast32, anywhere));
+   }
+
+   public void testNothingMatching() {
+      assertEquals(new ImageIndex(images).matching(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            return false;
+         }
+      }), ImmutableList.of());
+      assertEquals(new ImageIndex(ImmutableSet.<Image> of()).matching(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            return true;
+         }
+      }), ImmutableList.of());
+   }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.predicates.AtomicNodeRunning;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+@Test(groups = "unit", testName = "BatchedNodePollerTest", singleThreaded = true)
+public class BatchedNodePollerTest {
+
+   private final ListeningExecutorService userExecutor = listeningDecorator(newCachedThreadPool());
+
+   /**
+    * Lists the nodes, which run after they were listed a given number of times.
+    */
+   private static class BootingNodes implements ListNodesStrategy {
+      private final Map<String, AtomicInteger> listingsUntilRunning = new ConcurrentHashMap<String, AtomicInteger>();
+      private final Map<String, Status> finalStatus = new ConcurrentHashMap<String, Status>();
+      private final List<List<String>> calls = Lists.newCopyOnWriteArrayList();
+
+      NodeMetadata boot(String id, int listings, Status status) {
+         listingsUntilRunning.put(id, new AtomicInteger(listings));
+         finalStatus.put(id, status);
+         return new NodeMetadataBuilder().ids(id).status(Status.PENDING).build();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
+         calls.add(ImmutableList.copyOf(ids));
+         List<NodeMetadata> nodes = Lists.newArrayList();
+         for (String id : ids) {
+            AtomicInteger listings = listingsUntilRunning.get(id);
+            if (listings == null)
+               continue;
+            Status status = listings.decrementAndGet() > 0 ? Status.PENDING : finalStatus.get(id);
+            nodes.add(new NodeMetadataBuilder().ids(id).status(status).build());
+         }
+         return nodes;
+      }
+
+      @Override
+      public Iterable<? extends ComputeMetadata> listNodes() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<ComputeMetadata> filter) {
+         throw new UnsupportedOperationException();
+      }
+   }
+
+   private static final Predicate<NodeMetadata> RUNNING;
+
+   static {
+      final AtomicNodeRunning running = new AtomicNodeRunning(new GetNodeMetadataStrategy() {
+         @Override
+         public NodeMetadata getNode(String id) {
+            throw new AssertionError("nodes should be listed together");
+         }
+      });
+      RUNNING = new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return running.checkStatus(input);
+         }
+      };
+   }
+
+   private BatchedNodePoller poller(ListNodesStrategy nodes, long initialPeriod, long maxPeriod) {
+      PollPeriod period = new PollPeriod();
+      period.pollInitialPeriod = initialPeriod;
+      period.pollMaxPeriod = maxPeriod;
+      return new BatchedNodePoller(nodes, userExecutor, period);
+   }
+
+   @AfterClass(alwaysRun = true)
+   void shutdownExecutor() {
+      userExecutor.shutdownNow();
+   }
+
+   public void testListsAllPendingNodesInOneCallPerTick() throws Exception {
+      BootingNodes nodes = new BootingNodes();
+      BatchedNodePoller poller = poller(nodes, 10, 10);
+      List<AtomicReference<NodeMetadata>> refs = Lists.newArrayList();
+      List<ListenableFuture<Boolean>> results = Lists.newArrayList();
+      for (int i = 0; i < 3; i++) {
+         AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.boot("node" + i, i + 1,
+               Status.RUNNING));
+         refs.add(ref);
+         results.add(poller.await(ref, RUNNING, 10000));
+      }
+
+      assertEquals(Futures.allAsList(results).get(), ImmutableList.of(true, true, true));
+      assertEquals(nodes.calls.get(0), ImmutableList.of("node0", "node1", "node2"));
+      assertEquals(nodes.calls.get(1), ImmutableList.of("node1", "node2"));
+      assertEquals(nodes.calls.get(2), ImmutableList.of("node2"));
+      assertEquals(nodes.calls.size(), 3);
+      for (AtomicReference<NodeMetadata> ref : refs) {
+         assertEquals(ref.get().getStatus(), Status.RUNNING);
+      }
+   }
+
+   public void testFailsWaitOnInvalidStatus() throws Exception {
+      BootingNodes nodes = new BootingNodes();
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.boot("broken", 1, Status.ERROR));
+      try {
+         poller(nodes, 10, 10).await(ref, RUNNING, 10000).get();
+         fail("expected the wait to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.toString());
+      }
+      assertEquals(ref.get().getStatus(), Status.ERROR);
+   }
+
+   public void testTimesOutAndPropagatesMissingNode() throws Exception {
+      BootingNodes nodes = new BootingNodes();
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(
+            new NodeMetadataBuilder().ids("missing").status(Status.PENDING).build());
+      assertFalse(poller(nodes, 10, 20).await(ref, RUNNING, 100).get());
+      assertNull(ref.get());
+   }
+
+   public void testAwaitDoesNotPollNodeInStatus() {
+      BootingNodes nodes = new BootingNodes();
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(
+            new NodeMetadataBuilder().ids("running").status(Status.RUNNING).build());
+      assertTrue(poller(nodes, 10, 10).awaiting(RUNNING, 10000).apply(ref));
+      assertTrue(nodes.calls.isEmpty());
+   }
+
+   /**
+    * Times waiting for many nodes which run after a few polls, and counts the list calls made.
+    */
+   @Test(groups = "performance")
+   public void testWaitingForManyNodes() throws Exception {
+      for (int count : new int[] { 100, 1000 }) {
+         BootingNodes nodes = new BootingNodes();
+         BatchedNodePoller poller = poller(nodes, 5, 20);
+         List<ListenableFuture<Boolean>> results = Lists.newArrayList();
+         Stopwatch stopwatch = Stopwatch.createStarted();
+         for (int i = 0; i < count; i++) {
+            results.add(poller.await(new AtomicReference<NodeMetadata>(nodes.boot("node" + i, 1 + i % 5,
+                  Status.RUNNING)), RUNNING, 60000));
+         }
+         Futures.allAsList(results).get();
+         System.out.printf("TIMING: waiting for %d nodes took %s and %d list calls%n", count, stopwatch,
+               nodes.calls.size());
+      }
+   }
+}
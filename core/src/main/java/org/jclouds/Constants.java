@@ -30,6 +30,15 @@ public final class Constants {
     */
    public static final String PROPERTY_USER_THREADS = "jclouds.user-threads";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Whether user requests and transformations run on virtual threads, one per task, instead of on a
+    * pool of {@link #PROPERTY_USER_THREADS} threads. Only takes effect on a JDK which supports virtual
+    * threads; otherwise the pool is used.
+    */
+   public static final String PROPERTY_VIRTUAL_THREADS = "jclouds.virtual-threads";
+
    /**
     * Integer property. default (20)
     * <p/>
@@ -62,6 +71,14 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_CONNECTIONS_PER_HOST = "jclouds.max-connections-per-host";
 
+   /**
+    * Long property.
+    * <p/>
+    * Milliseconds a pooled connection may stay idle before it is closed. The default depends on
+    * the http driver.
+    */
+   public static final String PROPERTY_IDLE_CONNECTION_TIMEOUT = "jclouds.idle-connection-timeout";
+
    /**
     * Integer property. default (2)
     * <p/>
@@ -230,6 +247,20 @@ public final class Constants {
     * default value is false
     */
    public static final String PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO = "jclouds.wire.log.sensitive";
+   /**
+    * Long property.
+    * <p/>
+    * maximum number of bytes of each message to log in the wire log. Payloads are logged as they
+    * are read, so this bounds the size of the log but not the transfer. Default is no limit.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_MAX_BYTES = "jclouds.wire.max-bytes";
+   /**
+    * Integer property.
+    * <p/>
+    * log only one out of this many messages in the wire log. Requests and responses are sampled
+    * independently. Default is 1, which logs all messages.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_SAMPLE_EVERY = "jclouds.wire.sample-every";
    /**
     * Name of the logger that records all http headers from the client and the server.
     */
@@ -350,6 +381,22 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_PARALLEL_DELETES = "jclouds.max-parallel-deletes";
 
+   /**
+    * Integer property. default (4)
+    * <p/>
+    * The maximum number of parts of a single multipart upload being uploaded in parallel at any
+    * point in time.
+    */
+   public static final String PROPERTY_MAX_PARALLEL_UPLOADS = "jclouds.max-parallel-uploads";
+
+   /**
+    * Integer property. default (0)
+    * <p/>
+    * Number of pages of a {@link org.jclouds.collect.PagedIterable} to request ahead of the one
+    * being consumed, on the user executor. 0 fetches each page when it is needed.
+    */
+   public static final String PROPERTY_PREFETCH_PAGES = "jclouds.prefetch-pages";
+
    private Constants() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -16,15 +16,28 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
  * Utilities for using {@link PagedIterable}s.
@@ -73,6 +86,115 @@ public class PagedIterables {
       };
    }
 
+   /**
+    * Like {@link #advance(IterableWithMarker, Function)}, except that up to {@code prefetchDepth}
+    * pages beyond the one being consumed are requested ahead of time on {@code executor}. Pages are
+    * still requested one after another, as each request needs the marker of the previous page.
+    * <p/>
+    * The iterators returned implement {@link Closeable}; closing one, or a failure fetching a page,
+    * cancels the requests still outstanding.
+    * 
+    * @param prefetchDepth
+    *           how many pages to fetch ahead; {@code 0} fetches each page on demand
+    */
+   public static <T> PagedIterable<T> advance(final IterableWithMarker<T> initial,
+         final Function<Object, IterableWithMarker<T>> markerToNext, final ListeningExecutorService executor,
+         final int prefetchDepth) {
+      checkArgument(prefetchDepth >= 0, "prefetchDepth must not be negative");
+      if (prefetchDepth == 0) {
+         return advance(initial, markerToNext);
+      }
+      checkNotNull(executor, "executor");
+      return new PagedIterable<T>() {
+         public Iterator<IterableWithMarker<T>> iterator() {
+            if (!initial.nextMarker().isPresent()) {
+               return ImmutableSet.of(initial).iterator();
+            }
+            return new PrefetchingIterator<T>(initial, markerToNext, executor, prefetchDepth);
+         }
+      };
+   }
+
+   private static class PrefetchingIterator<T> extends AbstractIterator<IterableWithMarker<T>> implements Closeable {
+
+      private final IterableWithMarker<T> initial;
+      private final AsyncFunction<IterableWithMarker<T>, IterableWithMarker<T>> fetchNext;
+      private final int prefetchDepth;
+      private final Deque<ListenableFuture<IterableWithMarker<T>>> pending =
+            new ArrayDeque<ListenableFuture<IterableWithMarker<T>>>();
+      private ListenableFuture<IterableWithMarker<T>> last;
+      private boolean unread = true;
+
+      private PrefetchingIterator(IterableWithMarker<T> initial,
+            final Function<Object, IterableWithMarker<T>> markerToNext, final ListeningExecutorService executor,
+            int prefetchDepth) {
+         this.initial = checkNotNull(initial, "initial iterable");
+         checkNotNull(markerToNext, "marker to next iterable");
+         this.prefetchDepth = prefetchDepth;
+         this.last = Futures.immediateFuture(initial);
+         // a null page marks the end of the result set
+         this.fetchNext = new AsyncFunction<IterableWithMarker<T>, IterableWithMarker<T>>() {
+            @Override
+            public ListenableFuture<IterableWithMarker<T>> apply(IterableWithMarker<T> previous) {
+               if (previous == null || !previous.nextMarker().isPresent()) {
+                  return Futures.immediateFuture(null);
+               }
+               final Object marker = previous.nextMarker().get();
+               return executor.submit(new Callable<IterableWithMarker<T>>() {
+                  @Override
+                  public IterableWithMarker<T> call() {
+                     return markerToNext.apply(marker);
+                  }
+               });
+            }
+         };
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         if (unread) {
+            unread = false;
+            prefetch();
+            return initial;
+         }
+         ListenableFuture<IterableWithMarker<T>> next = pending.poll();
+         IterableWithMarker<T> page;
+         try {
+            page = Uninterruptibles.getUninterruptibly(next);
+         } catch (ExecutionException e) {
+            close();
+            throw Throwables.propagate(e.getCause());
+         }
+         if (page == null) {
+            close();
+            return endOfData();
+         }
+         prefetch();
+         return page;
+      }
+
+      private void prefetch() {
+         while (pending.size() < prefetchDepth) {
+            last = Futures.transform(last, fetchNext, MoreExecutors.sameThreadExecutor());
+            pending.add(last);
+         }
+      }
+
+      @Override
+      public void close() {
+         for (ListenableFuture<IterableWithMarker<T>> future : pending) {
+            future.cancel(/*mayInterruptIfRunning=*/ true);
+         }
+         pending.clear();
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper("").add("prefetchDepth", prefetchDepth).add("pending", pending.size())
+               .add("unread", unread).toString();
+      }
+   }
+
    private static class AdvancingIterator<T> extends AbstractIterator<IterableWithMarker<T>> {
 
       private final Function<Object, IterableWithMarker<T>> markerToNext;
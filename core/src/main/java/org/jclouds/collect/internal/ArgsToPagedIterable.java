@@ -22,6 +22,9 @@ import static org.jclouds.collect.PagedIterables.onlyPage;
 
 import java.util.List;
 
+import javax.inject.Named;
+
+import org.jclouds.Constants;
 import org.jclouds.collect.IterableWithMarker;
 import org.jclouds.collect.PagedIterable;
 import org.jclouds.http.HttpRequest;
@@ -30,6 +33,8 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 /**
  * Used to propagate the invoked method arguments during an advance in a
@@ -39,6 +44,9 @@ import com.google.common.base.Function;
  * have the context of the initial request. This class propagates the arguments
  * used in the original request, so they can be used to fetch the next page in
  * the result set.
+ * <p>
+ * When {@link Constants#PROPERTY_PREFETCH_PAGES} is set, the following pages are
+ * requested on the user executor while the current one is being consumed.
  */
 @Beta
 public abstract class ArgsToPagedIterable<T, I extends ArgsToPagedIterable<T, I>> implements
@@ -46,9 +54,30 @@ public abstract class ArgsToPagedIterable<T, I extends ArgsToPagedIterable<T, I>
 
    protected GeneratedHttpRequest request;
 
+   private ListeningExecutorService userExecutor;
+
+   private int prefetchPages;
+
+   @Inject(optional = true)
+   void setUserExecutor(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = userExecutor;
+   }
+
+   @Inject(optional = true)
+   void setPrefetchPages(@Named(Constants.PROPERTY_PREFETCH_PAGES) int prefetchPages) {
+      this.prefetchPages = prefetchPages;
+   }
+
    @Override
    public PagedIterable<T> apply(IterableWithMarker<T> input) {
-      return input.nextMarker().isPresent() ? advance(input, markerToNextForArgs(getArgs(request))) : onlyPage(input);
+      if (!input.nextMarker().isPresent()) {
+         return onlyPage(input);
+      }
+      Function<Object, IterableWithMarker<T>> markerToNext = markerToNextForArgs(getArgs(request));
+      if (prefetchPages > 0 && userExecutor != null) {
+         return advance(input, markerToNext, userExecutor, prefetchPages);
+      }
+      return advance(input, markerToNext);
    }
 
    protected List<Object> getArgs(GeneratedHttpRequest request) {
@@ -18,10 +18,12 @@ package org.jclouds.concurrent.config;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.jclouds.concurrent.DynamicExecutors.newScalingThreadPool;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,6 +41,7 @@ import com.google.common.util.concurrent.SimpleTimeLimiter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.TimeLimiter;
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
 import com.google.inject.Provides;
 
 /**
@@ -72,6 +75,16 @@ public class ExecutorServiceModule extends AbstractModule {
       }
    }
 
+   /**
+    * Reads {@link org.jclouds.Constants#PROPERTY_VIRTUAL_THREADS}, which modules configured without
+    * the default properties may not bind.
+    */
+   static final class VirtualThreads {
+      @Inject(optional = true)
+      @Named(PROPERTY_VIRTUAL_THREADS)
+      boolean enabled = false;
+   }
+
    final ListeningExecutorService userExecutorFromConstructor;
 
    public ExecutorServiceModule() {
@@ -119,9 +132,15 @@ public class ExecutorServiceModule extends AbstractModule {
    @Provides
    @Singleton
    @Named(PROPERTY_USER_THREADS)
-   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count, Closer closer) { // NO_UCD
+   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count,
+         VirtualThreads virtualThreads, Closer closer) { // NO_UCD
       if (userExecutorFromConstructor != null)
          return userExecutorFromConstructor;
+      if (virtualThreads.enabled) {
+         ExecutorService virtual = newVirtualThreadPerTaskExecutor("user virtual thread ");
+         if (virtual != null)
+            return shutdownOnClose(WithSubmissionTrace.wrap(listeningDecorator(virtual)), closer);
+      }
       return shutdownOnClose(WithSubmissionTrace.wrap(newThreadPoolNamed("user thread %d", count)), closer);
    }
 
@@ -149,6 +168,27 @@ public class ExecutorServiceModule extends AbstractModule {
       return listeningDecorator(newScalingThreadPool(1, maxCount, 60L * 1000, namedThreadFactory(name)));
    }
 
+   /**
+    * Creates an executor which starts a new virtual thread for each task, with threads named
+    * {@code prefix} followed by a counter.
+    *
+    * @return the executor, or null if this JDK does not support virtual threads
+    */
+   static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+      // looked up reflectively as jclouds is built for JDKs without virtual threads
+      try {
+         Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+         builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+         ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+         Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+         return (ExecutorService) newExecutor.invoke(null, factory);
+      } catch (Exception e) {
+         // absent before JDK 21, or a disabled preview feature on JDK 19 and 20
+         return null;
+      }
+   }
+
    private ThreadFactory namedThreadFactory(String name) {
       return new ThreadFactoryBuilder().setNameFormat(name).setThreadFactory(Executors.defaultThreadFactory()).build();
    }
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.jclouds.date.internal.DateUtils.findTZ;
+import static org.jclouds.date.internal.DateUtils.trimTZ;
+import static org.jclouds.date.internal.DateUtils.trimToMillis;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+
+import javax.inject.Singleton;
+
+import org.jclouds.date.DateService;
+
+/**
+ * Produces the same results as {@link SimpleDateFormatDateService} without serializing callers on
+ * shared formatters.
+ * <p/>
+ * The fixed-width ISO-8601 and RFC-822 forms written and read by most requests and listings are
+ * formatted and parsed by hand. Other input, and dates outside the years 1600 to 9999, fall back to
+ * a {@link SimpleDateFormat} confined to the calling thread.
+ */
+@Singleton
+public class ThreadLocalDateService implements DateService {
+
+   private static final ThreadLocal<SimpleDateFormat> iso8601SecondsSimpleDateFormat = gmtFormat(
+         "yyyy-MM-dd'T'HH:mm:ssZ");
+
+   private static final ThreadLocal<SimpleDateFormat> iso8601SimpleDateFormat = gmtFormat(
+         "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+   private static final ThreadLocal<SimpleDateFormat> rfc822SimpleDateFormat = gmtFormat(
+         "EEE, dd MMM yyyy HH:mm:ss 'GMT'");
+
+   // like SimpleDateFormatDateService, this one formats in the default time zone
+   private static final ThreadLocal<SimpleDateFormat> rfc1123SimpleDateFormat = new ThreadLocal<SimpleDateFormat>() {
+      @Override
+      protected SimpleDateFormat initialValue() {
+         return new SimpleDateFormat("EEE, dd MMM yyyyy HH:mm:ss Z", Locale.US);
+      }
+   };
+
+   private static final ThreadLocal<SimpleDateFormat> cSimpleDateFormat = gmtFormat("EEE MMM dd HH:mm:ss Z yyyy");
+
+   private static ThreadLocal<SimpleDateFormat> gmtFormat(final String pattern) {
+      return new ThreadLocal<SimpleDateFormat>() {
+         @Override
+         protected SimpleDateFormat initialValue() {
+            SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+            format.setTimeZone(new SimpleTimeZone(0, "GMT"));
+            return format;
+         }
+      };
+   }
+
+   private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+   private static final long MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE;
+   private static final long MIN_FAST_MILLIS = daysFromCivil(1600, 1, 1) * MILLIS_PER_DAY;
+   private static final long MAX_FAST_MILLIS = daysFromCivil(10000, 1, 1) * MILLIS_PER_DAY;
+
+   private static final String[] DAYS_OF_WEEK = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+   private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+         "Nov", "Dec" };
+
+   @Override
+   public final String cDateFormat(Date date) {
+      return cSimpleDateFormat.get().format(date);
+   }
+
+   @Override
+   public final String cDateFormat() {
+      return cDateFormat(new Date());
+   }
+
+   @Override
+   public final Date cDateParse(String toParse) {
+      return parse(cSimpleDateFormat.get(), toParse);
+   }
+
+   @Override
+   public final String rfc822DateFormat(Date date) {
+      long millis = date.getTime();
+      if (millis < MIN_FAST_MILLIS || millis >= MAX_FAST_MILLIS)
+         return rfc822SimpleDateFormat.get().format(date);
+      long days = floorDiv(millis, MILLIS_PER_DAY);
+      int[] civil = civilFromDays(days);
+      StringBuilder builder = new StringBuilder(29);
+      builder.append(DAYS_OF_WEEK[(int) floorMod(days + 4, 7)]).append(", ");
+      appendPadded(builder, civil[2], 2).append(' ').append(MONTHS[civil[1] - 1]).append(' ');
+      appendPadded(builder, civil[0], 4).append(' ');
+      appendTime(builder, (int) (millis - days * MILLIS_PER_DAY));
+      return builder.append(" GMT").toString();
+   }
+
+   @Override
+   public final String rfc822DateFormat() {
+      return rfc822DateFormat(new Date());
+   }
+
+   @Override
+   public final Date rfc822DateParse(String toParse) {
+      Date fast = parseRfc822(toParse);
+      if (fast != null)
+         return fast;
+      return parse(rfc822SimpleDateFormat.get(), toParse);
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat() {
+      return iso8601SecondsDateFormat(new Date());
+   }
+
+   @Override
+   public final String iso8601DateFormat(Date date) {
+      long millis = date.getTime();
+      if (millis < MIN_FAST_MILLIS || millis >= MAX_FAST_MILLIS)
+         return zuluIfUtc(iso8601SimpleDateFormat.get().format(date));
+      return formatIso8601(millis, true);
+   }
+
+   @Override
+   public final String iso8601DateFormat() {
+      return iso8601DateFormat(new Date());
+   }
+
+   @Override
+   public final Date iso8601DateParse(String toParse) {
+      Date fast = parseIso8601(toParse, true);
+      if (fast != null)
+         return fast;
+      return parse(iso8601SimpleDateFormat.get(), normalizeIso8601(toParse));
+   }
+
+   @Override
+   public final Date iso8601SecondsDateParse(String toParse) throws IllegalArgumentException {
+      Date fast = parseIso8601(toParse, false);
+      if (fast != null)
+         return fast;
+      return parse(iso8601SecondsSimpleDateFormat.get(), normalizeIso8601(toParse));
+   }
+
+   @Override
+   public Date iso8601DateOrSecondsDateParse(String toParse) throws IllegalArgumentException {
+      try {
+         return iso8601DateParse(toParse);
+      } catch (IllegalArgumentException orig) {
+         try {
+            return iso8601SecondsDateParse(toParse);
+         } catch (IllegalArgumentException ignored) {
+            throw orig;
+         }
+      }
+   }
+
+   @Override
+   public String iso8601SecondsDateFormat(Date date) {
+      long millis = date.getTime();
+      if (millis < MIN_FAST_MILLIS || millis >= MAX_FAST_MILLIS)
+         return zuluIfUtc(iso8601SecondsSimpleDateFormat.get().format(date));
+      return formatIso8601(millis, false);
+   }
+
+   @Override
+   public final String rfc1123DateFormat(Date date) {
+      return rfc1123SimpleDateFormat.get().format(date);
+   }
+
+   @Override
+   public final String rfc1123DateFormat() {
+      return rfc1123DateFormat(new Date());
+   }
+
+   @Override
+   public final Date rfc1123DateParse(String toParse) throws IllegalArgumentException {
+      return parse(rfc1123SimpleDateFormat.get(), toParse);
+   }
+
+   private static Date parse(SimpleDateFormat format, String toParse) {
+      try {
+         return format.parse(toParse);
+      } catch (ParseException pe) {
+         throw new IllegalArgumentException("Error parsing data at " + pe.getErrorOffset(), pe);
+      }
+   }
+
+   /**
+    * Rewrites ISO-8601 input the way {@link SimpleDateFormatDateService} does before handing it to
+    * a {@link SimpleDateFormat}.
+    */
+   private static String normalizeIso8601(String toParse) {
+      if (toParse.length() < 10)
+         throw new IllegalArgumentException("incorrect date format " + toParse);
+      String tz = findTZ(toParse);
+      toParse = trimToMillis(toParse);
+      toParse = trimTZ(toParse);
+      toParse += tz;
+      if (toParse.charAt(10) == ' ')
+         toParse = new StringBuilder(toParse).replace(10, 11, "T").toString();
+      return toParse;
+   }
+
+   private static String zuluIfUtc(String formatted) {
+      if (findTZ(formatted).equals("+0000"))
+         return trimTZ(formatted) + "Z";
+      return formatted;
+   }
+
+   private static String formatIso8601(long millis, boolean withMillis) {
+      long days = floorDiv(millis, MILLIS_PER_DAY);
+      int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+      int[] civil = civilFromDays(days);
+      StringBuilder builder = new StringBuilder(24);
+      appendPadded(builder, civil[0], 4).append('-');
+      appendPadded(builder, civil[1], 2).append('-');
+      appendPadded(builder, civil[2], 2).append('T');
+      appendTime(builder, millisOfDay);
+      if (withMillis)
+         appendPadded(builder.append('.'), millisOfDay % 1000, 3);
+      return builder.append('Z').toString();
+   }
+
+   private static void appendTime(StringBuilder builder, int millisOfDay) {
+      int seconds = millisOfDay / 1000;
+      appendPadded(builder, seconds / 3600, 2).append(':');
+      appendPadded(builder, seconds / 60 % 60, 2).append(':');
+      appendPadded(builder, seconds % 60, 2);
+   }
+
+   private static StringBuilder appendPadded(StringBuilder builder, int value, int width) {
+      for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+         if (value < limit)
+            builder.append('0');
+      }
+      return builder.append(value);
+   }
+
+   /**
+    * Parses {@code yyyy-MM-ddTHH:mm:ss}, followed by three or more fraction digits if
+    * {@code withMillis}, and optionally by {@code Z}, {@code +HHMM} or {@code +HH:MM} and their
+    * negative counterparts. The date and time may also be separated by a space.
+    *
+    * @return the date, or null if the input is not in this form or not in range
+    */
+   private static Date parseIso8601(String s, boolean withMillis) {
+      int length = s.length();
+      if (length < 19 || s.charAt(4) != '-' || s.charAt(7) != '-' || (s.charAt(10) != 'T' && s.charAt(10) != ' ')
+            || s.charAt(13) != ':' || s.charAt(16) != ':')
+         return null;
+      int year = digits(s, 0, 4);
+      int month = digits(s, 5, 2);
+      int day = digits(s, 8, 2);
+      int hour = digits(s, 11, 2);
+      int minute = digits(s, 14, 2);
+      int second = digits(s, 17, 2);
+      if (year < 1600 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0
+            || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+         return null;
+      int pos = 19;
+      int millis = 0;
+      if (withMillis) {
+         if (pos >= length || s.charAt(pos) != '.')
+            return null;
+         millis = digits(s, pos + 1, 3);
+         if (millis < 0)
+            return null;
+         pos += 4;
+         // like trimToMillis, ignore digits beyond milliseconds
+         while (pos < length && isDigit(s.charAt(pos)))
+            pos++;
+      }
+      int offsetMinutes = 0;
+      if (pos < length) {
+         char sign = s.charAt(pos);
+         int remaining = length - pos;
+         if (sign == 'Z' && remaining == 1) {
+            offsetMinutes = 0;
+         } else if (sign == '+' || sign == '-') {
+            int offsetHours = digits(s, pos + 1, 2);
+            int offsetMinute;
+            if (remaining == 5)
+               offsetMinute = digits(s, pos + 3, 2);
+            else if (remaining == 6 && s.charAt(pos + 3) == ':')
+               offsetMinute = digits(s, pos + 4, 2);
+            else
+               return null;
+            if (offsetHours < 0 || offsetHours > 23 || offsetMinute < 0 || offsetMinute > 59)
+               return null;
+            offsetMinutes = offsetHours * 60 + offsetMinute;
+            if (sign == '-')
+               offsetMinutes = -offsetMinutes;
+         } else {
+            return null;
+         }
+      }
+      long epochMillis = daysFromCivil(year, month, day) * MILLIS_PER_DAY
+            + ((hour * 60L + minute) * 60 + second) * 1000 + millis - offsetMinutes * MILLIS_PER_MINUTE;
+      return new Date(epochMillis);
+   }
+
+   /**
+    * Parses {@code EEE, dd MMM yyyy HH:mm:ss GMT}. As with {@link SimpleDateFormat}, the day of the
+    * week is not checked against the date.
+    *
+    * @return the date, or null if the input is not in this form or not in range
+    */
+   private static Date parseRfc822(String s) {
+      if (s.length() != 29 || s.charAt(3) != ',' || s.charAt(4) != ' ' || s.charAt(7) != ' ' || s.charAt(11) != ' '
+            || s.charAt(16) != ' ' || s.charAt(19) != ':' || s.charAt(22) != ':' || !s.endsWith(" GMT"))
+         return null;
+      int day = digits(s, 5, 2);
+      int month = indexOf(MONTHS, s.substring(8, 11)) + 1;
+      int year = digits(s, 12, 4);
+      int hour = digits(s, 17, 2);
+      int minute = digits(s, 20, 2);
+      int second = digits(s, 23, 2);
+      if (indexOf(DAYS_OF_WEEK, s.substring(0, 3)) < 0 || month < 1 || year < 1600 || day < 1
+            || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0
+            || second > 59)
+         return null;
+      return new Date(daysFromCivil(year, month, day) * MILLIS_PER_DAY + ((hour * 60L + minute) * 60 + second)
+            * 1000);
+   }
+
+   private static int indexOf(String[] names, String name) {
+      for (int i = 0; i < names.length; i++) {
+         if (names[i].equals(name))
+            return i;
+      }
+      return -1;
+   }
+
+   /**
+    * @return the non-negative value of {@code count} decimal digits at {@code start}, or -1 if any
+    *         of them is not a digit
+    */
+   private static int digits(String s, int start, int count) {
+      if (start + count > s.length())
+         return -1;
+      int value = 0;
+      for (int i = start; i < start + count; i++) {
+         char c = s.charAt(i);
+         if (!isDigit(c))
+            return -1;
+         value = value * 10 + (c - '0');
+      }
+      return value;
+   }
+
+   private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static int daysInMonth(int year, int month) {
+      switch (month) {
+         case 2:
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+         case 4:
+         case 6:
+         case 9:
+         case 11:
+            return 30;
+         default:
+            return 31;
+      }
+   }
+
+   /**
+    * @return days since 1970-01-01 in the proleptic Gregorian calendar
+    */
+   static long daysFromCivil(int year, int month, int day) {
+      long y = month <= 2 ? year - 1 : year;
+      long era = (y >= 0 ? y : y - 399) / 400;
+      long yearOfEra = y - era * 400;
+      long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+      long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      return era * 146097 + dayOfEra - 719468;
+   }
+
+   /**
+    * @return year, month and day of {@code days} since 1970-01-01 in the proleptic Gregorian
+    *         calendar
+    */
+   static int[] civilFromDays(long days) {
+      long z = days + 719468;
+      long era = (z >= 0 ? z : z - 146096) / 146097;
+      long dayOfEra = z - era * 146097;
+      long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+      long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+      long mp = (5 * dayOfYear + 2) / 153;
+      int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+      int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+      int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+      return new int[] { year, month, day };
+   }
+
+   private static long floorDiv(long x, long y) {
+      long q = x / y;
+      return (x % y != 0 && (x ^ y) < 0) ? q - 1 : q;
+   }
+
+   private static long floorMod(long x, long y) {
+      return x - floorDiv(x, y) * y;
+   }
+}
@@ -20,6 +20,7 @@ import static org.jclouds.http.HttpUtils.releasePayload;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 
 import javax.annotation.Resource;
@@ -29,10 +30,13 @@ import javax.inject.Singleton;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.json.Json;
+import org.jclouds.json.internal.GsonWrapper;
 import org.jclouds.logging.Logger;
 import org.jclouds.util.Strings2;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
+import com.google.gson.JsonIOException;
 import com.google.inject.TypeLiteral;
 
 /**
@@ -77,10 +81,34 @@ public class ParseJson<T> implements Function<HttpResponse, T> {
       return (T) apply(stream, type.getType());
    }
 
+   /**
+    * Parses the stream incrementally when the json is parsed by {@link GsonWrapper}. Only when
+    * debug logging is enabled is the body buffered, so that it can be logged if it cannot be
+    * parsed.
+    */
    @SuppressWarnings("unchecked")
    public <V> V apply(InputStream stream, Type type) throws IOException {
       try {
-         return (V) json.fromJson(Strings2.toStringAndClose(stream), type);
+         if (!(json instanceof GsonWrapper)) {
+            return (V) json.fromJson(Strings2.toStringAndClose(stream), type);
+         }
+         if (logger.isDebugEnabled()) {
+            String body = Strings2.toStringAndClose(stream);
+            try {
+               return (V) json.fromJson(body, type);
+            } catch (RuntimeException e) {
+               logger.debug("unparseable json: %s", body);
+               throw e;
+            }
+         }
+         try {
+            return (V) GsonWrapper.class.cast(json).fromJson(new InputStreamReader(stream, Charsets.UTF_8),
+                  type);
+         } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException)
+               throw (IOException) e.getCause();
+            throw e;
+         }
       } finally {
          if (stream != null)
             stream.close();
@@ -22,6 +22,8 @@ import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 import static org.jclouds.util.Closeables2.closeQuietly;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
@@ -34,6 +36,7 @@ import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
+import org.jclouds.xml.internal.XMLReaderPool;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -54,6 +57,7 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    private Logger logger = Logger.NULL;
 
    private final XMLReader parser;
+   private final XMLReaderPool readers;
    private final HandlerWithResult<T> handler;
    private HttpRequest request;
 
@@ -63,6 +67,17 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
 
    public ParseSax(XMLReader parser, HandlerWithResult<T> handler) {
       this.parser = checkNotNull(parser, "parser");
+      this.readers = null;
+      this.handler = checkNotNull(handler, "handler");
+   }
+
+   /**
+    * Borrows a reader from {@code readers} for each parse, so that the instance can be used from any
+    * thread and a reader is never shared between parses in progress.
+    */
+   public ParseSax(XMLReaderPool readers, HandlerWithResult<T> handler) {
+      this.parser = null;
+      this.readers = checkNotNull(readers, "readers");
       this.handler = checkNotNull(handler, "handler");
    }
 
@@ -75,11 +90,13 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
       InputStream is = null;
       try {
-         // debug is more normally set, so trace is more appropriate for
-         // something heavy like this
-         if (from.getStatusCode() >= 300 || logger.isTraceEnabled())
+         if (from.getStatusCode() >= 300)
             return convertStreamToStringAndParse(from);
          is = from.getPayload().getInput();
+         // debug is more normally set, so trace is more appropriate for
+         // something heavy like this
+         if (logger.isTraceEnabled())
+            return teeStreamAndParse(from, is);
          return parse(new InputSource(is));
       } catch (RuntimeException e) {
          return addDetailsAndPropagate(from, e);
@@ -102,6 +119,62 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
    }
 
+   /**
+    * Parses the stream as it arrives, keeping a copy of the bytes read so far for the trace log and
+    * for the error message should the parse fail.
+    */
+   private T teeStreamAndParse(HttpResponse response, InputStream is) {
+      TeeInputStream tee = new TeeInputStream(is);
+      try {
+         T result = doParse(new InputSource(tee));
+         logger.trace("%s", tee.copied());
+         return result;
+      } catch (Exception e) {
+         return addDetailsAndPropagate(response, e, tee.copied());
+      }
+   }
+
+   private static final class TeeInputStream extends FilterInputStream {
+      private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+      private TeeInputStream(InputStream in) {
+         super(in);
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = super.read();
+         if (b != -1)
+            copy.write(b);
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int read = super.read(b, off, len);
+         if (read > 0)
+            copy.write(b, off, read);
+         return read;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         // route skipped bytes through read so that the copy stays complete
+         byte[] skipped = new byte[(int) Math.min(n, 8192)];
+         int read = read(skipped, 0, skipped.length);
+         return read < 0 ? 0 : read;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      private String copied() {
+         return new String(copy.toByteArray());
+      }
+   }
+
    public T parse(String from) {
       try {
          validateXml(from);
@@ -135,9 +208,13 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
    protected T doParse(InputSource from) throws IOException, SAXException {
       checkNotNull(from, "xml inputsource");
       from.setEncoding("UTF-8");
-      parser.setContentHandler(getHandler());
+      XMLReader reader = parser != null ? parser : readers.borrow();
+      reader.setContentHandler(getHandler());
       // This method should accept documents with a BOM (Byte-order mark)
-      parser.parse(from);
+      reader.parse(from);
+      // a reader whose parse failed is dropped rather than reused
+      if (readers != null)
+         readers.release(reader);
       return getHandler().getResult();
    }
 
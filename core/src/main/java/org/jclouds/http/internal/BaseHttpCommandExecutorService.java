@@ -18,6 +18,7 @@ package org.jclouds.http.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
 import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.http.HttpUtils.wirePayloadIfEnabled;
@@ -25,6 +26,9 @@ import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -46,6 +50,11 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 
 public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
    private static final Set<String> IDEMPOTENT_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
@@ -65,6 +74,8 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected final HttpWire wire;
 
+   private ListeningExecutorService userExecutor = sameThreadExecutor();
+
    @Inject
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
@@ -77,47 +88,29 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       this.wire = checkNotNull(wire, "wire");
    }
 
+   @com.google.inject.Inject(optional = true)
+   void setUserExecutor(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = userExecutor;
+   }
+
    @Override
    public HttpResponse invoke(HttpCommand command) {
       HttpResponse response = null;
       for (;;) {
-         HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
          try {
-            for (HttpRequestFilter filter : request.getFilters()) {
-               request = filter.filter(request);
-            }
-            checkRequestHasContentLengthOrChunkedEncoding(request,
-                  "After filtering, the request has neither chunked encoding nor content length: " + request);
-            logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
-            wirePayloadIfEnabled(wire, request);
-            utils.logRequest(headerLog, request, ">>");
+            HttpRequest request = filter(command.getCurrentRequest());
             nativeRequest = convert(request);
             response = invoke(nativeRequest);
-
-            logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
-            utils.logResponse(headerLog, response, "<<");
-            if (response.getPayload() != null && wire.enabled())
-               wire.input(response);
+            received(request, response);
             nativeRequest = null; // response took ownership of streams
-            int statusCode = response.getStatusCode();
-            if (statusCode >= 300) {
-               if (shouldContinue(command, response))
-                  continue;
-               else
-                  break;
-            } else {
-               break;
-            }
+            if (response.getStatusCode() >= 300 && shouldContinue(command, response))
+               continue;
+            break;
          } catch (Exception e) {
-            IOException ioe = getFirstThrowableOfType(e, IOException.class);
-            if (ioe != null && shouldContinue(command, ioe)) {
+            if (shouldContinueAfter(command, e))
                continue;
-            }
-            command.setException(new HttpResponseException(e.getMessage() + " connecting to "
-                  + command.getCurrentRequest().getRequestLine(), command, null, e));
             break;
-
          } finally {
             cleanup(nativeRequest);
          }
@@ -127,6 +120,153 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * Sends the command through the same filters, retry and error handlers as
+    * {@link #invoke(HttpCommand)}. Error responses and failures are handed to the user executor
+    * before the retry handlers run, so that their back-off never blocks the driver's threads.
+    */
+   public ListenableFuture<HttpResponse> invokeAsync(HttpCommand command) {
+      final SettableFuture<HttpResponse> result = SettableFuture.create();
+      final AtomicReference<ListenableFuture<HttpResponse>> attempt =
+            new AtomicReference<ListenableFuture<HttpResponse>>();
+      result.addListener(new Runnable() {
+         @Override
+         public void run() {
+            ListenableFuture<HttpResponse> current = attempt.get();
+            if (result.isCancelled() && current != null)
+               current.cancel(true);
+         }
+      }, sameThreadExecutor());
+      sendAsync(command, result, attempt);
+      return result;
+   }
+
+   private void sendAsync(final HttpCommand command, final SettableFuture<HttpResponse> result,
+         final AtomicReference<ListenableFuture<HttpResponse>> current) {
+      final HttpRequest request;
+      final Q nativeRequest;
+      final ListenableFuture<HttpResponse> attempt;
+      if (result.isCancelled())
+         return;
+      try {
+         request = filter(command.getCurrentRequest());
+         nativeRequest = convert(request);
+      } catch (Exception e) {
+         retryOrFail(command, e, result, current);
+         return;
+      }
+      try {
+         attempt = invokeAsync(nativeRequest);
+      } catch (RuntimeException e) {
+         cleanup(nativeRequest);
+         retryOrFail(command, e, result, current);
+         return;
+      }
+      current.set(attempt);
+      // the result may have been cancelled before this attempt was visible to its listener
+      if (result.isCancelled())
+         attempt.cancel(true);
+      Futures.addCallback(attempt, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(final HttpResponse response) {
+            if (response.getStatusCode() < 300) {
+               try {
+                  received(request, response);
+                  if (command.getException() != null)
+                     result.setException(command.getException());
+                  else
+                     result.set(response);
+               } catch (Exception e) {
+                  retryOrFail(command, e, result, current);
+               }
+               return;
+            }
+            // retry handlers may back off by sleeping, which must not happen on the driver's thread
+            execute(result, new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     received(request, response);
+                     if (shouldContinue(command, response)) {
+                        sendAsync(command, result, current);
+                     } else if (command.getException() != null) {
+                        result.setException(command.getException());
+                     } else {
+                        result.set(response);
+                     }
+                  } catch (Exception e) {
+                     retryOrFail(command, e, result, current);
+                  }
+               }
+            });
+         }
+
+         @Override
+         public void onFailure(final Throwable t) {
+            cleanup(nativeRequest);
+            if (attempt.isCancelled()) {
+               result.cancel(false);
+               return;
+            }
+            execute(result, new Runnable() {
+               @Override
+               public void run() {
+                  retryOrFail(command, t, result, current);
+               }
+            });
+         }
+      }, sameThreadExecutor());
+   }
+
+   private void execute(SettableFuture<HttpResponse> result, Runnable task) {
+      try {
+         userExecutor.execute(task);
+      } catch (RejectedExecutionException e) {
+         result.setException(e);
+      }
+   }
+
+   private void retryOrFail(HttpCommand command, Throwable t, SettableFuture<HttpResponse> result,
+         AtomicReference<ListenableFuture<HttpResponse>> current) {
+      if (shouldContinueAfter(command, t))
+         sendAsync(command, result, current);
+      else
+         result.setException(command.getException());
+   }
+
+   private HttpRequest filter(HttpRequest request) {
+      for (HttpRequestFilter filter : request.getFilters()) {
+         request = filter.filter(request);
+      }
+      checkRequestHasContentLengthOrChunkedEncoding(request,
+            "After filtering, the request has neither chunked encoding nor content length: " + request);
+      logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
+      wirePayloadIfEnabled(wire, request);
+      utils.logRequest(headerLog, request, ">>");
+      return request;
+   }
+
+   private void received(HttpRequest request, HttpResponse response) {
+      logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
+      utils.logResponse(headerLog, response, "<<");
+      if (response.getPayload() != null && wire.enabled())
+         wire.input(response);
+   }
+
+   /**
+    * @return true if the command should be retried after {@code t}; otherwise the command's
+    *         exception is set
+    */
+   private boolean shouldContinueAfter(HttpCommand command, Throwable t) {
+      IOException ioe = getFirstThrowableOfType(t, IOException.class);
+      if (ioe != null && shouldContinue(command, ioe)) {
+         return true;
+      }
+      command.setException(new HttpResponseException(t.getMessage() + " connecting to "
+            + command.getCurrentRequest().getRequestLine(), command, null, t));
+      return false;
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
@@ -159,6 +299,19 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected abstract HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException;
 
+   /**
+    * Sends {@code nativeRequest} without blocking the caller. This default blocks a user thread in
+    * {@link #invoke(Object)}; drivers with a non-blocking client should override it.
+    */
+   protected ListenableFuture<HttpResponse> invokeAsync(final Q nativeRequest) {
+      return userExecutor.submit(new Callable<HttpResponse>() {
+         @Override
+         public HttpResponse call() throws Exception {
+            return invoke(nativeRequest);
+         }
+      });
+   }
+
    protected abstract void cleanup(Q nativeRequest);
 
 }
@@ -36,6 +36,16 @@ public class HttpWire extends Wire {
    @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO)
    boolean logSensitiveInformation = false;
 
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_MAX_BYTES)
+   long maxBytes = -1;
+
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_SAMPLE_EVERY)
+   int sampleEvery = 1;
+
    public Logger getWireLog() {
       return wireLog;
    }
@@ -44,4 +54,14 @@ public class HttpWire extends Wire {
    protected boolean isLogSensitiveInformation() {
       return logSensitiveInformation;
    }
+
+   @Override
+   protected long getMaxBytes() {
+      return maxBytes;
+   }
+
+   @Override
+   protected int getSampleEvery() {
+      return sampleEvery;
+   }
 }
@@ -49,6 +49,7 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -57,7 +58,6 @@ import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
-import com.google.common.io.ByteStreams;
 import com.google.common.io.CountingOutputStream;
 import com.google.inject.Inject;
 
@@ -292,14 +292,11 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
    void writePayloadToConnection(Payload payload, Object lengthDesc, HttpURLConnection connection) throws IOException {
       connection.setDoOutput(true);
       CountingOutputStream out = new CountingOutputStream(connection.getOutputStream());
-      InputStream is = payload.openStream();
       try {
-         ByteStreams.copy(is, out);
+         ByteStreams2.copy(payload, out);
       } catch (IOException e) {
          logger.error(e, "error after writing %d/%s bytes to %s", out.getCount(), lengthDesc, connection.getURL());
          throw e;
-      } finally {
-         closeQuietly(is);
       }
    }
 
@@ -23,14 +23,25 @@ import org.jclouds.Constants;
 import org.jclouds.logging.Logger;
 import org.jclouds.logging.internal.Wire;
 
+import com.google.inject.Inject;
+
 public class SignatureWire extends Wire {
 
    @Resource
    @Named(Constants.LOGGER_SIGNATURE)
    Logger signatureLog = Logger.NULL;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_MAX_BYTES)
+   long maxBytes = -1;
+
    public Logger getWireLog() {
       return signatureLog;
    }
 
+   @Override
+   protected long getMaxBytes() {
+      return maxBytes;
+   }
+
 }
@@ -27,7 +27,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.ThreadLocalDateService;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
@@ -48,7 +48,7 @@ import com.google.common.collect.Multimap;
  * <code>
  */
 public class GetOptions extends BaseHttpRequestOptions {
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new ThreadLocalDateService();
    public static final GetOptions NONE = new GetOptions();
    private final List<String> ranges = Lists.newArrayList();
 
@@ -20,8 +20,16 @@ package org.jclouds.io;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.util.Closeables2.closeQuietly;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.FileSlicePayload;
 
 import com.google.common.annotations.Beta;
 import com.google.common.hash.HashCode;
@@ -31,6 +39,12 @@ import com.google.common.io.ByteStreams;
 
 @Beta
 public class ByteStreams2 {
+   /**
+    * Buffer used when copying from a file; large enough that the copy isn't dominated by the
+    * per-read overhead, unlike the 4 KB buffer of {@link ByteStreams#copy(InputStream, OutputStream)}.
+    */
+   private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
    public static HashCode hashAndClose(InputStream input, HashFunction hashFunction) throws IOException {
       checkNotNull(input, "input");
       checkNotNull(hashFunction, "hashFunction");
@@ -51,4 +65,65 @@ public class ByteStreams2 {
          closeQuietly(input);
       }
    }
+
+   /**
+    * Writes the content of the payload to {@code out}, which is not closed.
+    * <p/>
+    * {@link FilePayload}s and {@link FileSlicePayload}s are read from the file's channel: with
+    * {@link FileChannel#transferTo} when {@code out} is a {@link FileOutputStream}, so the bytes
+    * never enter the heap, otherwise through a single large buffer. Other payloads are copied from
+    * {@link Payload#openStream()}.
+    *
+    * @return the number of bytes written
+    */
+   public static long copy(Payload payload, OutputStream out) throws IOException {
+      checkNotNull(payload, "payload");
+      checkNotNull(out, "out");
+      if (payload instanceof FilePayload) {
+         File file = (File) payload.getRawContent();
+         return copy(file, 0, file.length(), out);
+      } else if (payload instanceof FileSlicePayload) {
+         FileSlicePayload slice = (FileSlicePayload) payload;
+         return copy(slice.getFile(), slice.getOffset(), slice.getLength(), out);
+      }
+      InputStream input = payload.openStream();
+      try {
+         return ByteStreams.copy(input, out);
+      } finally {
+         closeQuietly(input);
+      }
+   }
+
+   private static long copy(File file, long offset, long length, OutputStream out) throws IOException {
+      FileInputStream input = new FileInputStream(file);
+      try {
+         FileChannel channel = input.getChannel();
+         long end = Math.min(offset + length, channel.size());
+         long position = offset;
+         // subclasses may override write, so only the plain stream's channel is used
+         if (out.getClass() == FileOutputStream.class) {
+            FileChannel target = ((FileOutputStream) out).getChannel();
+            while (position < end) {
+               long transferred = channel.transferTo(position, end - position, target);
+               // nothing is transferred once the file was truncated under us
+               if (transferred == 0)
+                  break;
+               position += transferred;
+            }
+         } else {
+            channel.position(position);
+            byte[] buffer = new byte[(int) Math.min(FILE_BUFFER_SIZE, Math.max(end - position, 1))];
+            while (position < end) {
+               int read = input.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+               if (read == -1)
+                  break;
+               out.write(buffer, 0, read);
+               position += read;
+            }
+         }
+         return Math.max(position - offset, 0);
+      } finally {
+         closeQuietly(input);
+      }
+   }
 }
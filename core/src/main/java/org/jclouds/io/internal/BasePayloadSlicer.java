@@ -34,6 +34,7 @@ import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.BaseMutableContentMetadata;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.FileSlicePayload;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
@@ -127,13 +128,23 @@ public class BasePayloadSlicer implements PayloadSlicer {
 
    private static class ByteSourcePayloadIterator implements Iterable<Payload>, Iterator<Payload> {
       private final ByteSource input;
+      private final File file;
       private final ContentMetadata metaData;
       private Payload nextPayload;
       private long offset = 0;
       private final long readLen;
 
       ByteSourcePayloadIterator(ByteSource input, ContentMetadata metaData) {
+         this(input, null, metaData);
+      }
+
+      /**
+       * @param file
+       *           if not {@code null}, the file {@code input} reads, which the slices keep
+       */
+      ByteSourcePayloadIterator(ByteSource input, File file, ContentMetadata metaData) {
          this.input = checkNotNull(input, "input");
+         this.file = file;
          this.metaData = checkNotNull(metaData, "metaData");
          this.readLen = checkNotNull(this.metaData.getContentLength(), "content-length").longValue();
          this.nextPayload = getNextPayload();
@@ -179,7 +190,8 @@ public class BasePayloadSlicer implements PayloadSlicer {
             throw Throwables.propagate(e);
          }
 
-         Payload nextPayload = new ByteSourcePayload(byteSource);
+         Payload nextPayload = file != null ? new FileSlicePayload(file, offset, byteSourceSize)
+               : new ByteSourcePayload(byteSource);
          ContentMetadata cm = metaData.toBuilder()
                .contentLength(byteSourceSize)
                .contentMD5((HashCode) null)
@@ -224,7 +236,7 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Payload doSlice(File content, long offset, long length) {
-      return doSlice(Files.asByteSource(content), offset, length);
+      return new FileSlicePayload(content, offset, length);
    }
 
    protected Payload doSlice(InputStream content, long offset, long length) {
@@ -293,7 +305,7 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Iterable<Payload> doSlice(File rawContent, ContentMetadata meta) {
-      return doSlice(Files.asByteSource(rawContent), meta);
+      return new ByteSourcePayloadIterator(Files.asByteSource(rawContent), rawContent, meta);
    }
 
    protected Iterable<Payload> doSlice(InputStream rawContent, ContentMetadata meta) {
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+
+import com.google.common.io.Files;
+
+/**
+ * A repeatable payload of {@code length} bytes of a file, starting at {@code offset}.
+ * <p/>
+ * The raw content is a {@link com.google.common.io.ByteSource} of the region, as for any other
+ * slice, but the file and region are kept so that writers can read the region straight from the
+ * file's channel.
+ *
+ * @see org.jclouds.io.ByteStreams2#copy(org.jclouds.io.Payload, java.io.OutputStream)
+ */
+public class FileSlicePayload extends ByteSourcePayload {
+   private final File file;
+   private final long offset;
+   private final long length;
+
+   public FileSlicePayload(File file, long offset, long length) {
+      super(Files.asByteSource(checkNotNull(file, "file")).slice(offset, length));
+      checkArgument(offset >= 0, "offset is negative");
+      checkArgument(length >= 0, "length is negative");
+      this.file = file;
+      this.offset = offset;
+      this.length = length;
+      getContentMetadata().setContentLength(length);
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   public long getOffset() {
+      return offset;
+   }
+
+   public long getLength() {
+      return length;
+   }
+}
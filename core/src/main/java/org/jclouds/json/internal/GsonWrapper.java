@@ -16,6 +16,7 @@
  */
 package org.jclouds.json.internal;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 import javax.inject.Inject;
@@ -47,6 +48,15 @@ public class GsonWrapper extends ForwardingObject implements Json  {
       return gson.fromJson(json, classOfT);
    }
 
+   /**
+    * Deserialize the generic object from a stream of json, without reading it into a
+    * {@code String} first. The reader is not closed.
+    */
+   @SuppressWarnings("unchecked")
+   public <T> T fromJson(Reader json, Type type) {
+      return (T) gson.fromJson(json, type);
+   }
+
    @Override
    public String toJson(Object src) {
       return gson.toJson(src);
@@ -17,7 +17,6 @@
 package org.jclouds.logging.internal;
 
 import com.google.common.io.ByteStreams;
-import com.google.common.io.FileBackedOutputStream;
 import org.jclouds.Constants;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -32,6 +31,7 @@ import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.io.Payloads.newPayload;
@@ -39,85 +39,191 @@ import static org.jclouds.util.Closeables2.closeQuietly;
 
 /**
  * Logs data to the wire LOG, similar to {@code org.apache.HttpWire.impl.conn.Wire}
+ * <p/>
+ * Streams are logged as they are read by their consumer, rather than buffered up front, so that
+ * wire logging adds neither latency nor temporary files to a transfer. Content already in memory is
+ * logged when it is passed in.
  */
 public abstract class Wire {
 
    @Resource
    protected Logger logger = Logger.NULL;
 
+   private final AtomicLong inputs = new AtomicLong();
+   private final AtomicLong outputs = new AtomicLong();
+
    protected abstract Logger getWireLog();
 
    protected boolean isLogSensitiveInformation() {
       return false;
    }
 
+   /**
+    * @return the number of bytes of each message to log, or a negative number to log them all
+    */
+   protected long getMaxBytes() {
+      return -1;
+   }
+
+   /**
+    * @return log one out of this many messages in each direction
+    */
+   protected int getSampleEvery() {
+      return 1;
+   }
+
+   private boolean sampled(AtomicLong messages) {
+      int every = getSampleEvery();
+      return every <= 1 || messages.getAndIncrement() % every == 0;
+   }
+
    private void wire(String header, InputStream instream) {
-      StringBuilder buffer = new StringBuilder();
-      int ch;
+      Tap tap = new Tap(header);
+      byte[] buffer = new byte[8192];
+      int read;
       try {
-         while ((ch = instream.read()) != -1) {
-            if (ch == 13) {
-               buffer.append("[\\r]");
-            } else if (ch == 10) {
-               buffer.append("[\\n]\"");
-               buffer.insert(0, "\"");
-               buffer.insert(0, header);
-               getWireLog().debug(buffer.toString());
-               buffer.setLength(0);
-            } else if ((ch < 32) || (ch > 127)) {
-               buffer.append("[0x");
-               buffer.append(Integer.toHexString(ch));
-               buffer.append("]");
-            } else {
-               buffer.append((char) ch);
-            }
-         }
-         if (buffer.length() > 0) {
-            buffer.append('\"');
-            buffer.insert(0, '\"');
-            buffer.insert(0, header);
-            getWireLog().debug(buffer.toString());
+         while (!tap.truncated() && (read = instream.read(buffer)) != -1) {
+            tap.write(buffer, 0, read);
          }
       } catch (IOException e) {
          logger.error(e, "Error tapping line");
       }
+      tap.flush();
    }
 
    public boolean enabled() {
       return getWireLog().isDebugEnabled();
    }
 
+   /**
+    * @return a stream which logs the bytes of {@code instream} as they are read from it, up to
+    *         {@link #getMaxBytes()}. A {@link ByteArrayInputStream} is already in memory, so it is
+    *         logged right away and returned unread, as callers such as request signers log a
+    *         signature without reading the result.
+    */
    public InputStream copy(final String header, InputStream instream) {
-      int limit = 256 * 1024;
-      final FileBackedOutputStream out = new FileBackedOutputStream(limit);
-      try {
-         long bytesRead = ByteStreams.copy(instream, out);
-         if (bytesRead >= limit)
-            logger.debug("over limit %d/%d: wrote temp file", bytesRead, limit);
-         InputStream is = out.asByteSource().openStream();
-         try {
-            wire(header, is);
-         } finally {
-            is.close();
+      checkNotNull(instream, "instream");
+      if (instream instanceof ByteArrayInputStream) {
+         ByteArrayInputStream bytes = (ByteArrayInputStream) instream;
+         bytes.mark(0);
+         wire(header, bytes);
+         bytes.reset();
+         return bytes;
+      }
+      return tap(header, instream);
+   }
+
+   private InputStream tap(final String header, InputStream instream) {
+      final Tap tap = new Tap(header);
+      return new FilterInputStream(instream) {
+         @Override
+         public int read() throws IOException {
+            int ch = super.read();
+            if (ch == -1) {
+               tap.flush();
+            } else {
+               tap.write(ch);
+            }
+            return ch;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+               tap.flush();
+            } else {
+               tap.write(b, off, read);
+            }
+            return read;
          }
-         // we must call FileBackedOutputStream.reset to remove temporary file
-         return new FilterInputStream(out.asByteSource().openStream()) {
-            @Override
-            public void close() throws IOException {
+
+         @Override
+         public boolean markSupported() {
+            // replayed bytes would be logged twice
+            return false;
+         }
+
+         @Override
+         public void close() throws IOException {
+            try {
                super.close();
-               out.reset();
+            } finally {
+               tap.flush();
             }
-         };
-      } catch (IOException e) {
-         throw new RuntimeException("Error tapping line", e);
-      } finally {
-         closeQuietly(out);
-         closeQuietly(instream);
+         }
+      };
+   }
+
+   /**
+    * Logs a message line by line as its bytes arrive.
+    */
+   private final class Tap {
+      private final String header;
+      private final long maxBytes = getMaxBytes();
+      private final StringBuilder buffer = new StringBuilder();
+      private long logged;
+      private boolean truncated;
+      private boolean flushed;
+
+      private Tap(String header) {
+         this.header = header;
+      }
+
+      private synchronized boolean truncated() {
+         return truncated;
+      }
+
+      private synchronized void write(byte[] b, int off, int len) {
+         for (int i = off; i < off + len && !truncated; i++) {
+            write(b[i] & 0xff);
+         }
+      }
+
+      private synchronized void write(int ch) {
+         if (flushed || truncated) {
+            return;
+         }
+         if (maxBytes >= 0 && logged >= maxBytes) {
+            truncated = true;
+            logLine();
+            getWireLog().debug(header + "[truncated after " + logged + " bytes]");
+            return;
+         }
+         logged++;
+         if (ch == 13) {
+            buffer.append("[\\r]");
+         } else if (ch == 10) {
+            buffer.append("[\\n]");
+            logLine();
+         } else if ((ch < 32) || (ch > 127)) {
+            buffer.append("[0x");
+            buffer.append(Integer.toHexString(ch));
+            buffer.append("]");
+         } else {
+            buffer.append((char) ch);
+         }
+      }
+
+      /** Logs the rest of the message, once. */
+      private synchronized void flush() {
+         if (!flushed) {
+            logLine();
+            flushed = true;
+         }
+      }
+
+      private void logLine() {
+         if (buffer.length() > 0) {
+            getWireLog().debug(header + "\"" + buffer + "\"");
+            buffer.setLength(0);
+         }
       }
    }
 
    public InputStream input(InputStream instream) {
-      return copy("<< ", checkNotNull(instream, "input"));
+      checkNotNull(instream, "input");
+      return sampled(inputs) ? copy("<< ", instream) : instream;
    }
 
    public void input(PayloadEnclosing request) {
@@ -172,8 +278,11 @@ public abstract class Wire {
    @SuppressWarnings("unchecked")
    public <T> T output(T data) {
       checkNotNull(data, "data");
+      if (!sampled(outputs)) {
+         return data;
+      }
       if (data instanceof InputStream) {
-         return (T) copy(">> ", (InputStream) data);
+         return (T) tap(">> ", (InputStream) data);
       } else if (data instanceof byte[]) {
          output((byte[]) data);
          return data;
@@ -192,7 +301,9 @@ public abstract class Wire {
       InputStream in = null;
       try {
          in = new FileInputStream(out);
-         wire(">> ", in);
+         long maxBytes = getMaxBytes();
+         // read no more of the file than is logged
+         wire(">> ", maxBytes < 0 ? in : ByteStreams.limit(in, maxBytes + 1));
       } catch (FileNotFoundException e) {
          logger.error(e, "Error tapping file: %s", out);
       } finally {
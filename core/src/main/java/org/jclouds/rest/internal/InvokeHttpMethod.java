@@ -19,17 +19,21 @@ package org.jclouds.rest.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Objects.toStringHelper;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.Constants;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.internal.BaseHttpCommandExecutorService;
 import org.jclouds.logging.Logger;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.InvocationContext;
@@ -39,6 +43,10 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.TimeLimiter;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
@@ -51,6 +59,7 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final TimeLimiter timeLimiter;
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
+   private ListeningExecutorService userExecutor = sameThreadExecutor();
 
    @Inject
    @VisibleForTesting
@@ -64,6 +73,11 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       this.config = config;
    }
 
+   @com.google.inject.Inject(optional = true)
+   void setUserExecutor(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = userExecutor;
+   }
+
    @Override
    public Object apply(Invocation in) {
       Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
@@ -97,6 +111,45 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * like {@link #invoke(Invocation)}, but returns without waiting for the
+    * response. The request is sent by the driver or on the user executor, and
+    * the response is parsed, and the fallback applied, on the user executor. Invocation timeouts are not applied; use
+    * {@link ListenableFuture#get(long, java.util.concurrent.TimeUnit)} instead.
+    */
+   public ListenableFuture<Object> invokeAsync(Invocation invocation) {
+      String commandName = config.getCommandName(invocation);
+      HttpCommand command = toCommand(commandName, invocation);
+      Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      final org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
+
+      logger.debug(">> invoking %s asynchronously", commandName);
+      ListenableFuture<Object> result = Futures.<HttpResponse, Object> transform(sendAsync(command),
+            transformer, userExecutor);
+      return Futures.withFallback(result, new FutureFallback<Object>() {
+         @Override
+         public ListenableFuture<Object> create(Throwable t) throws Exception {
+            return Futures.<Object> immediateFuture(fallback.createOrPropagate(t));
+         }
+      }, userExecutor);
+   }
+
+   /**
+    * executors which extend {@link BaseHttpCommandExecutorService} keep the retry handlers off the
+    * driver's threads, and block a user thread only when the driver has no non-blocking client;
+    * others block a user thread in {@link HttpCommandExecutorService#invoke(HttpCommand)}.
+    */
+   private ListenableFuture<HttpResponse> sendAsync(final HttpCommand command) {
+      if (http instanceof BaseHttpCommandExecutorService)
+         return BaseHttpCommandExecutorService.class.cast(http).invokeAsync(command);
+      return userExecutor.submit(new Callable<HttpResponse>() {
+         @Override
+         public HttpResponse call() {
+            return http.invoke(command);
+         }
+      });
+   }
+
    /**
     * calls {@link #invoke(Invocation)}, timing out after the specified time
     * limit. If the target method call finished before the limit is reached, the
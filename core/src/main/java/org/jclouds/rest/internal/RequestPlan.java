@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
+import static org.jclouds.reflect.Reflection2.getInvokableParameters;
+import static org.jclouds.util.Strings2.urlEncode;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.Encoded;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.FormParams;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.ParamParser;
+import org.jclouds.rest.annotations.PartParam;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.PayloadParams;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.annotations.WrapWith;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Chars;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+
+/**
+ * What {@link RestAnnotationProcessor} reads from the annotations of a method and of its type. The
+ * plan of a method is read once, so that building a request only binds the arguments of the
+ * invocation.
+ * <p/>
+ * Plans hold no instances from the injector, as they are shared by all apis.
+ */
+final class RequestPlan {
+
+   private static final LoadingCache<Invokable<?, ?>, RequestPlan> PLANS = CacheBuilder.newBuilder().build(
+         new CacheLoader<Invokable<?, ?>, RequestPlan>() {
+            @Override
+            public RequestPlan load(Invokable<?, ?> invokable) {
+               return new RequestPlan(invokable);
+            }
+         });
+
+   static RequestPlan of(Invokable<?, ?> invokable) {
+      return PLANS.getUnchecked(checkNotNull(invokable, "invokable"));
+   }
+
+   /**
+    * A parameter bound to a name, such as a path or query parameter.
+    */
+   static final class NamedParam {
+      final Parameter parameter;
+      final int index;
+      final String name;
+      @Nullable
+      final Class<? extends Function<Object, String>> parser;
+      final boolean encoded;
+
+      private NamedParam(Parameter parameter, String name) {
+         this.parameter = parameter;
+         this.index = parameter.hashCode(); // guava issue 1243
+         this.name = name;
+         ParamParser parser = parameter.getAnnotation(ParamParser.class);
+         this.parser = parser != null ? parser.value() : null;
+         this.encoded = parameter.isAnnotationPresent(Encoded.class);
+      }
+   }
+
+   final Invokable<?, ?> invokable;
+   final List<Parameter> parameters;
+   final Optional<String> httpMethod;
+
+   final List<Class<? extends HttpRequestFilter>> typeFilters;
+   final List<Class<? extends HttpRequestFilter>> methodFilters;
+   final boolean overrideFilters;
+
+   @Nullable
+   final List<Character> skipPathEncoding;
+   final boolean encodeFullPath;
+   /*
+    * Paths are kept as written, as they are appended to the path of the endpoint, which is only
+    * known per request. Each request decodes and expands the joined path again.
+    */
+   @Nullable
+   final String typePath;
+   @Nullable
+   final String methodPath;
+   final boolean virtualHost;
+
+   final List<Parameter> endpointParams;
+   @Nullable
+   final Class<? extends Annotation> endpoint;
+
+   final List<FormParams> formParams;
+   final List<QueryParams> queryParams;
+   final List<Headers> headers;
+   @Nullable
+   final List<String> produces;
+   @Nullable
+   final PayloadParams payloadParams;
+
+   final List<NamedParam> pathParams;
+   final List<NamedParam> formParamArgs;
+   final List<NamedParam> queryParamArgs;
+   final List<NamedParam> headerParamArgs;
+   final List<NamedParam> payloadParamArgs;
+   final List<Parameter> partParams;
+   final List<Parameter> binderParams;
+   final Set<Integer> indexesOfOptions;
+   private final boolean[] nullable;
+
+   @Nullable
+   final Class<? extends org.jclouds.rest.MapBinder> mapBinder;
+   final boolean payloadAnnotated;
+   @Nullable
+   final String wrapWith;
+
+   private RequestPlan(Invokable<?, ?> invokable) {
+      Class<?> type = invokable.getOwnerType().getRawType();
+      this.invokable = invokable;
+      this.parameters = getInvokableParameters(invokable);
+      this.httpMethod = tryFindHttpMethod(invokable);
+
+      this.typeFilters = type.isAnnotationPresent(RequestFilters.class) ? ImmutableList.copyOf(type.getAnnotation(
+            RequestFilters.class).value()) : ImmutableList.<Class<? extends HttpRequestFilter>> of();
+      this.methodFilters = invokable.isAnnotationPresent(RequestFilters.class) ? ImmutableList.copyOf(invokable
+            .getAnnotation(RequestFilters.class).value()) : ImmutableList.<Class<? extends HttpRequestFilter>> of();
+      this.overrideFilters = invokable.isAnnotationPresent(RequestFilters.class)
+            && invokable.isAnnotationPresent(OverrideRequestFilters.class);
+
+      if (invokable.isAnnotationPresent(SkipEncoding.class))
+         this.skipPathEncoding = Chars.asList(invokable.getAnnotation(SkipEncoding.class).value());
+      else if (type.isAnnotationPresent(SkipEncoding.class))
+         this.skipPathEncoding = Chars.asList(type.getAnnotation(SkipEncoding.class).value());
+      else
+         this.skipPathEncoding = null;
+      this.typePath = type.isAnnotationPresent(Path.class) ? type.getAnnotation(Path.class).value() : null;
+      this.methodPath = invokable.isAnnotationPresent(Path.class) ? invokable.getAnnotation(Path.class).value() : null;
+      this.virtualHost = type.isAnnotationPresent(VirtualHost.class) || invokable.isAnnotationPresent(VirtualHost.class);
+
+      if (invokable.isAnnotationPresent(Endpoint.class))
+         this.endpoint = invokable.getAnnotation(Endpoint.class).value();
+      else if (type.isAnnotationPresent(Endpoint.class))
+         this.endpoint = type.getAnnotation(Endpoint.class).value();
+      else
+         this.endpoint = null;
+
+      this.formParams = annotationsOnTypeAndMethod(type, invokable, FormParams.class);
+      this.queryParams = annotationsOnTypeAndMethod(type, invokable, QueryParams.class);
+      this.headers = annotationsOnTypeAndMethod(type, invokable, Headers.class);
+      if (invokable.isAnnotationPresent(Produces.class))
+         this.produces = ImmutableList.copyOf(invokable.getAnnotation(Produces.class).value());
+      else if (type.isAnnotationPresent(Produces.class))
+         this.produces = ImmutableList.copyOf(type.getAnnotation(Produces.class).value());
+      else
+         this.produces = null;
+      this.payloadParams = invokable.getAnnotation(PayloadParams.class);
+
+      ImmutableList.Builder<NamedParam> pathParams = ImmutableList.builder();
+      ImmutableList.Builder<NamedParam> formParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<NamedParam> queryParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<NamedParam> headerParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<NamedParam> payloadParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> endpointParams = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> partParams = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> binderParams = ImmutableList.builder();
+      ImmutableList.Builder<Parameter> wrapWithParams = ImmutableList.builder();
+      ImmutableSet.Builder<Integer> indexesOfOptions = ImmutableSet.builder();
+      this.nullable = new boolean[parameters.size()];
+      boolean encodedUsed = false;
+      for (Parameter param : parameters) {
+         nullable[param.hashCode()] = param.isAnnotationPresent(Nullable.class);
+         if (param.isAnnotationPresent(PathParam.class))
+            pathParams.add(new NamedParam(param, param.getAnnotation(PathParam.class).value()));
+         if (param.isAnnotationPresent(FormParam.class))
+            formParamArgs.add(new NamedParam(param, param.getAnnotation(FormParam.class).value()));
+         if (param.isAnnotationPresent(QueryParam.class))
+            queryParamArgs.add(new NamedParam(param, urlEncode(param.getAnnotation(QueryParam.class).value(), '/',
+                  ',')));
+         if (param.isAnnotationPresent(HeaderParam.class))
+            headerParamArgs.add(new NamedParam(param, param.getAnnotation(HeaderParam.class).value()));
+         if (param.isAnnotationPresent(PayloadParam.class))
+            payloadParamArgs.add(new NamedParam(param, param.getAnnotation(PayloadParam.class).value()));
+         if (param.isAnnotationPresent(EndpointParam.class))
+            endpointParams.add(param);
+         if (param.isAnnotationPresent(PartParam.class))
+            partParams.add(param);
+         if (param.isAnnotationPresent(BinderParam.class))
+            binderParams.add(param);
+         if (param.isAnnotationPresent(WrapWith.class))
+            wrapWithParams.add(param);
+         if (param.isAnnotationPresent(Encoded.class))
+            encodedUsed = true;
+         Class<?> paramType = param.getType().getRawType();
+         if (HttpRequestOptions.class.isAssignableFrom(paramType)
+               || HttpRequestOptions[].class.isAssignableFrom(paramType))
+            indexesOfOptions.add(param.hashCode());
+      }
+      this.pathParams = pathParams.build();
+      this.formParamArgs = formParamArgs.build();
+      this.queryParamArgs = queryParamArgs.build();
+      this.headerParamArgs = headerParamArgs.build();
+      this.payloadParamArgs = payloadParamArgs.build();
+      this.endpointParams = endpointParams.build();
+      this.partParams = partParams.build();
+      // binders before wrappers, each parameter once
+      this.binderParams = ImmutableSet.<Parameter> builder().addAll(binderParams.build())
+            .addAll(wrapWithParams.build()).build().asList();
+      this.indexesOfOptions = indexesOfOptions.build();
+      this.encodeFullPath = !encodedUsed;
+
+      this.mapBinder = invokable.isAnnotationPresent(MapBinder.class) ? invokable.getAnnotation(MapBinder.class)
+            .value() : null;
+      this.payloadAnnotated = invokable.isAnnotationPresent(org.jclouds.rest.annotations.Payload.class);
+      this.wrapWith = invokable.isAnnotationPresent(WrapWith.class) ? invokable.getAnnotation(WrapWith.class).value()
+            : null;
+   }
+
+   boolean isNullable(int index) {
+      return nullable[index];
+   }
+
+   private static <A extends Annotation> List<A> annotationsOnTypeAndMethod(Class<?> type, Invokable<?, ?> invokable,
+         Class<A> annotationType) {
+      ImmutableList.Builder<A> annotations = ImmutableList.builder();
+      if (type.isAnnotationPresent(annotationType))
+         annotations.add(type.getAnnotation(annotationType));
+      if (invokable.isAnnotationPresent(annotationType))
+         annotations.add(invokable.getAnnotation(annotationType));
+      return annotations.build();
+   }
+}
@@ -21,7 +21,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.instanceOf;
-import static com.google.common.collect.Collections2.filter;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.get;
 import static com.google.common.collect.Iterables.transform;
@@ -33,16 +32,12 @@ import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.HttpHeaders.HOST;
 import static java.lang.String.format;
-import static java.util.Arrays.asList;
 import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
-import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
 import static org.jclouds.http.Uris.uriBuilder;
 import static org.jclouds.io.Payloads.newPayload;
-import static org.jclouds.reflect.Reflection2.getInvokableParameters;
 import static org.jclouds.util.Strings2.replaceTokens;
 import static org.jclouds.util.Strings2.urlEncode;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.net.URI;
 import java.util.ArrayList;
@@ -56,13 +51,6 @@ import java.util.Set;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
-import javax.ws.rs.Encoded;
-import javax.ws.rs.FormParam;
-import javax.ws.rs.HeaderParam;
-import javax.ws.rs.Path;
-import javax.ws.rs.PathParam;
-import javax.ws.rs.Produces;
-import javax.ws.rs.QueryParam;
 
 import org.jclouds.Constants;
 import org.jclouds.http.HttpRequest;
@@ -88,20 +76,12 @@ import org.jclouds.rest.InputParamValidator;
 import org.jclouds.rest.annotations.ApiVersion;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.BuildVersion;
-import org.jclouds.rest.annotations.Endpoint;
 import org.jclouds.rest.annotations.EndpointParam;
 import org.jclouds.rest.annotations.FormParams;
 import org.jclouds.rest.annotations.Headers;
-import org.jclouds.rest.annotations.MapBinder;
-import org.jclouds.rest.annotations.OverrideRequestFilters;
-import org.jclouds.rest.annotations.ParamParser;
 import org.jclouds.rest.annotations.PartParam;
-import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.PayloadParams;
 import org.jclouds.rest.annotations.QueryParams;
-import org.jclouds.rest.annotations.RequestFilters;
-import org.jclouds.rest.annotations.SkipEncoding;
-import org.jclouds.rest.annotations.VirtualHost;
 import org.jclouds.rest.annotations.WrapWith;
 import org.jclouds.rest.binders.BindMapToStringPayload;
 import org.jclouds.rest.binders.BindToJsonPayloadWrappedWith;
@@ -110,21 +90,15 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.primitives.Chars;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.Parameter;
 import com.google.inject.Inject;
@@ -185,7 +159,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
    @Override
    public GeneratedHttpRequest apply(Invocation invocation) {
       checkNotNull(invocation, "invocation");
-      inputParamValidator.validateMethodParametersOrThrow(invocation, getInvokableParameters(invocation.getInvokable()));
+      RequestPlan plan = RequestPlan.of(invocation.getInvokable());
+      RequestPlan callerPlan = caller != null ? RequestPlan.of(caller.getInvokable()) : null;
+      inputParamValidator.validateMethodParametersOrThrow(invocation, plan.parameters);
 
       Optional<URI> endpoint = Optional.absent();
       HttpRequest r = findOrNull(invocation.getArgs(), HttpRequest.class);
@@ -194,13 +170,13 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          if (endpoint.isPresent())
             logger.trace("using endpoint %s from invocation.getArgs() for %s", endpoint, invocation);
       } else if (caller != null) {
-         endpoint = getEndpointFor(caller);
+         endpoint = getEndpointFor(caller, callerPlan);
          if (endpoint.isPresent())
             logger.trace("using endpoint %s from caller %s for %s", endpoint, caller, invocation);
          else
-            endpoint = findEndpoint(invocation);
+            endpoint = findEndpoint(invocation, plan);
       } else {
-         endpoint = findEndpoint(invocation);
+         endpoint = findEndpoint(invocation, plan);
       }
 
       if (!endpoint.isPresent())
@@ -212,11 +188,11 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          requestMethod = r.getMethod();
          requestBuilder.fromHttpRequest(r);
       } else {
-         requestMethod = tryFindHttpMethod(invocation.getInvokable()).get();
+         requestMethod = plan.httpMethod.get();
          requestBuilder.method(requestMethod);
       }
 
-      requestBuilder.filters(getFiltersIfAnnotated(invocation));
+      requestBuilder.filters(getFiltersIfAnnotated(plan));
       if (stripExpectHeader) {
          requestBuilder.filter(new StripExpectHeader());
       }
@@ -231,34 +207,35 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       // URI template in rfc6570 form
       UriBuilder uriBuilder = uriBuilder(endpoint.get().toString());
 
-      overridePathEncoding(uriBuilder, invocation);
+      if (plan.skipPathEncoding != null)
+         uriBuilder.skipPathEncoding(plan.skipPathEncoding);
 
-      boolean encodeFullPath = !isEncodedUsed(invocation);
+      boolean encodeFullPath = plan.encodeFullPath;
       if (caller != null)
-         tokenValues.putAll(addPathAndGetTokens(caller, uriBuilder, encodeFullPath));
-      tokenValues.putAll(addPathAndGetTokens(invocation, uriBuilder, encodeFullPath));
+         tokenValues.putAll(addPathAndGetTokens(caller, callerPlan, uriBuilder, encodeFullPath));
+      tokenValues.putAll(addPathAndGetTokens(invocation, plan, uriBuilder, encodeFullPath));
       Multimap<String, Object> formParams;
       if (caller != null) {
-         formParams = addFormParams(tokenValues, caller);
-         formParams.putAll(addFormParams(tokenValues, invocation));
+         formParams = addFormParams(tokenValues, caller, callerPlan);
+         formParams.putAll(addFormParams(tokenValues, invocation, plan));
       } else {
-         formParams = addFormParams(tokenValues, invocation);
+         formParams = addFormParams(tokenValues, invocation, plan);
       }
 
-      Multimap<String, Object> queryParams = addQueryParams(tokenValues, invocation);
+      Multimap<String, Object> queryParams = addQueryParams(tokenValues, invocation, plan);
 
       Multimap<String, String> headers;
       if (caller != null) {
-         headers = buildHeaders(tokenValues, caller);
-         headers.putAll(buildHeaders(tokenValues, invocation));
+         headers = buildHeaders(tokenValues, caller, callerPlan);
+         headers.putAll(buildHeaders(tokenValues, invocation, plan));
       } else {
-         headers = buildHeaders(tokenValues, invocation);
+         headers = buildHeaders(tokenValues, invocation, plan);
       }
 
       if (r != null)
          headers.putAll(r.getHeaders());
 
-      if (shouldAddHostHeader(invocation)) {
+      if (plan.virtualHost) {
          StringBuilder hostHeader = new StringBuilder(endpoint.get().getHost());
          if (endpoint.get().getPort() != -1)
             hostHeader.append(":").append(endpoint.get().getPort());
@@ -266,7 +243,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
 
       Payload payload = null;
-      for (HttpRequestOptions options : findOptionsIn(invocation)) {
+      for (HttpRequestOptions options : findOptionsIn(invocation, plan)) {
          injector.injectMembers(options);  // TODO test case
          for (Entry<String, String> header : options.buildRequestHeaders().entries()) {
             headers.put(header.getKey(), replaceTokens(header.getValue(), tokenValues));
@@ -303,8 +280,8 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
                Payload.class);
       }
 
-      List<? extends Part> parts = getParts(invocation, ImmutableMultimap.<String, Object> builder()
-            .putAll(tokenValues).putAll(formParams).build());
+      List<? extends Part> parts = plan.partParams.isEmpty() ? ImmutableList.<Part> of() : getParts(invocation, plan,
+            ImmutableMultimap.<String, Object> builder().putAll(tokenValues).putAll(formParams).build());
 
       if (!parts.isEmpty()) {
          if (!formParams.isEmpty()) {
@@ -323,22 +300,21 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
       GeneratedHttpRequest request = requestBuilder.build();
 
-      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation);
+      org.jclouds.rest.MapBinder mapBinder = getMapPayloadBinderOrNull(invocation, plan);
       if (mapBinder != null) {
          Map<String, Object> mapParams;
          if (caller != null) {
-            mapParams = buildPayloadParams(caller);
-            mapParams.putAll(buildPayloadParams(invocation));
+            mapParams = buildPayloadParams(caller, callerPlan);
+            mapParams.putAll(buildPayloadParams(invocation, plan));
          } else {
-            mapParams = buildPayloadParams(invocation);
+            mapParams = buildPayloadParams(invocation, plan);
          }
-         if (invocation.getInvokable().isAnnotationPresent(PayloadParams.class)) {
-            PayloadParams params = invocation.getInvokable().getAnnotation(PayloadParams.class);
-            addMapPayload(mapParams, params, headers);
+         if (plan.payloadParams != null) {
+            addMapPayload(mapParams, plan.payloadParams, headers);
          }
          request = mapBinder.bindToRequest(request, mapParams);
       } else {
-         request = decorateRequest(request);
+         request = decorateRequest(request, plan);
       }
 
       if (request.getPayload() != null) {
@@ -360,16 +336,6 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return ImmutableMap.copyOf(out);
    }
 
-   private void overridePathEncoding(UriBuilder uriBuilder, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(SkipEncoding.class).value()));
-      }
-      if (invocation.getInvokable().isAnnotationPresent(SkipEncoding.class)) {
-         uriBuilder.skipPathEncoding(Chars.asList(invocation.getInvokable().getAnnotation(SkipEncoding.class).value()));
-      }
-   }
-
    // different than guava as accepts null
    private static enum NullableToStringFunction implements Function<Object, String> {
       INSTANCE;
@@ -382,7 +348,11 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
    }
 
    protected Optional<URI> findEndpoint(Invocation invocation) {
-      Optional<URI> endpoint = getEndpointFor(invocation);
+      return findEndpoint(invocation, RequestPlan.of(invocation.getInvokable()));
+   }
+
+   private Optional<URI> findEndpoint(Invocation invocation, RequestPlan plan) {
+      Optional<URI> endpoint = getEndpointFor(invocation, plan);
       if (endpoint.isPresent())
          logger.trace("using endpoint %s for %s", endpoint, invocation);
       if (!endpoint.isPresent()) {
@@ -395,46 +365,36 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return endpoint;
    }
 
-   private Multimap<String, Object> addPathAndGetTokens(Invocation invocation, UriBuilder uriBuilder,
+   private Multimap<String, Object> addPathAndGetTokens(Invocation invocation, RequestPlan plan, UriBuilder uriBuilder,
                                                         boolean encodeFullPath) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Path.class).value());
-      if (invocation.getInvokable().isAnnotationPresent(Path.class))
-         uriBuilder.appendPath(invocation.getInvokable().getAnnotation(Path.class).value());
-      return getPathParamKeyValues(invocation, encodeFullPath);
+      if (plan.typePath != null)
+         uriBuilder.appendPath(plan.typePath);
+      if (plan.methodPath != null)
+         uriBuilder.appendPath(plan.methodPath);
+      return getPathParamKeyValues(invocation, plan, encodeFullPath);
    }
 
-   private Multimap<String, Object> addFormParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, Object> addFormParams(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestPlan plan) {
       Multimap<String, Object> formMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(FormParams.class);
+      for (FormParams form : plan.formParams) {
          addForm(formMap, form, tokenValues);
       }
 
-      if (invocation.getInvokable().isAnnotationPresent(FormParams.class)) {
-         FormParams form = invocation.getInvokable().getAnnotation(FormParams.class);
-         addForm(formMap, form, tokenValues);
-      }
-
-      for (Entry<String, Object> form : getFormParamKeyValues(invocation).entries()) {
+      for (Entry<String, Object> form : getFormParamKeyValues(invocation, plan).entries()) {
          formMap.put(form.getKey(), replaceTokens(form.getValue().toString(), tokenValues));
       }
       return formMap;
    }
 
-   private Multimap<String, Object> addQueryParams(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, Object> addQueryParams(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestPlan plan) {
       Multimap<String, Object> queryMap = LinkedListMultimap.create();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(QueryParams.class);
-         addQuery(queryMap, query, tokenValues);
-      }
-
-      if (invocation.getInvokable().isAnnotationPresent(QueryParams.class)) {
-         QueryParams query = invocation.getInvokable().getAnnotation(QueryParams.class);
+      for (QueryParams query : plan.queryParams) {
          addQuery(queryMap, query, tokenValues);
       }
 
-      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, tokenValues).entries()) {
+      for (Entry<String, Object> query : getQueryParamKeyValues(invocation, plan, tokenValues).entries()) {
          queryMap.put(query.getKey(), query.getValue());
       }
       return queryMap;
@@ -474,33 +434,31 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private List<HttpRequestFilter> getFiltersIfAnnotated(Invocation invocation) {
+   private List<HttpRequestFilter> getFiltersIfAnnotated(RequestPlan plan) {
       List<HttpRequestFilter> filters = newArrayList();
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(RequestFilters.class)) {
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getOwnerType().getRawType()
-               .getAnnotation(RequestFilters.class).value()) {
+      if (!plan.overrideFilters) {
+         for (Class<? extends HttpRequestFilter> clazz : plan.typeFilters) {
             HttpRequestFilter instance = injector.getInstance(clazz);
             filters.add(instance);
-            logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getOwnerType()
+            logger.trace("adding filter %s from annotation on %s", instance, plan.invokable.getOwnerType()
                   .getRawType().getName());
          }
       }
-      if (invocation.getInvokable().isAnnotationPresent(RequestFilters.class)) {
-         if (invocation.getInvokable().isAnnotationPresent(OverrideRequestFilters.class))
-            filters.clear();
-         for (Class<? extends HttpRequestFilter> clazz : invocation.getInvokable().getAnnotation(RequestFilters.class)
-               .value()) {
-            HttpRequestFilter instance = injector.getInstance(clazz);
-            filters.add(instance);
-            logger.trace("adding filter %s from annotation on %s", instance, invocation.getInvokable().getName());
-         }
+      for (Class<? extends HttpRequestFilter> clazz : plan.methodFilters) {
+         HttpRequestFilter instance = injector.getInstance(clazz);
+         filters.add(instance);
+         logger.trace("adding filter %s from annotation on %s", instance, plan.invokable.getName());
       }
       return filters;
    }
 
    @VisibleForTesting
    static URI getEndpointInParametersOrNull(Invocation invocation, Injector injector) {
-      Collection<Parameter> endpointParams = parametersWithAnnotation(invocation.getInvokable(), EndpointParam.class);
+      return getEndpointInParametersOrNull(invocation, RequestPlan.of(invocation.getInvokable()), injector);
+   }
+
+   private static URI getEndpointInParametersOrNull(Invocation invocation, RequestPlan plan, Injector injector) {
+      Collection<Parameter> endpointParams = plan.endpointParams;
       if (endpointParams.isEmpty())
          return null;
       checkState(endpointParams.size() == 1, "invocation.getInvoked() %s has too many EndpointParam annotations",
@@ -519,31 +477,21 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static Collection<Parameter> parametersWithAnnotation(Invokable<?, ?> invokable,
-         final Class<? extends Annotation> annotationType) {
-      return filter(getInvokableParameters(invokable), new Predicate<Parameter>() {
-         public boolean apply(Parameter in) {
-            return in.isAnnotationPresent(annotationType);
-         }
-      });
-   }
-
    private static final TypeLiteral<Supplier<URI>> uriSupplierLiteral = new TypeLiteral<Supplier<URI>>() {
    };
 
    protected Optional<URI> getEndpointFor(Invocation invocation) {
-      URI endpoint = getEndpointInParametersOrNull(invocation, injector);
+      return getEndpointFor(invocation, RequestPlan.of(invocation.getInvokable()));
+   }
+
+   private Optional<URI> getEndpointFor(Invocation invocation, RequestPlan plan) {
+      URI endpoint = getEndpointInParametersOrNull(invocation, plan, injector);
       if (endpoint == null) {
-         Endpoint annotation;
-         if (invocation.getInvokable().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getAnnotation(Endpoint.class);
-         } else if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Endpoint.class)) {
-            annotation = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Endpoint.class);
-         } else {
+         if (plan.endpoint == null) {
             logger.trace("no annotations on class or invocation.getInvoked(): %s", invocation.getInvokable());
             return Optional.absent();
          }
-         endpoint = injector.getInstance(Key.get(uriSupplierLiteral, annotation.value())).get();
+         endpoint = injector.getInstance(Key.get(uriSupplierLiteral, plan.endpoint)).get();
       }
       URI provider = injector.getInstance(Key.get(uriSupplierLiteral, org.jclouds.location.Provider.class)).get();
       return Optional.fromNullable(addHostIfMissing(endpoint, provider));
@@ -560,7 +508,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return withHost.resolve(original);
    }
 
-   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation) {
+   private org.jclouds.rest.MapBinder getMapPayloadBinderOrNull(Invocation invocation, RequestPlan plan) {
       if (invocation.getArgs() != null) {
          for (Object arg : invocation.getArgs()) {
             if (arg instanceof Object[]) {
@@ -586,29 +534,21 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             }
          }
       }
-      if (invocation.getInvokable().isAnnotationPresent(MapBinder.class)) {
-         return injector.getInstance(invocation.getInvokable().getAnnotation(MapBinder.class).value());
-      } else if (invocation.getInvokable().isAnnotationPresent(org.jclouds.rest.annotations.Payload.class)) {
+      if (plan.mapBinder != null) {
+         return injector.getInstance(plan.mapBinder);
+      } else if (plan.payloadAnnotated) {
          return injector.getInstance(BindMapToStringPayload.class);
-      } else if (invocation.getInvokable().isAnnotationPresent(WrapWith.class)) {
-         return injector.getInstance(BindToJsonPayloadWrappedWith.Factory.class).create(
-               invocation.getInvokable().getAnnotation(WrapWith.class).value());
+      } else if (plan.wrapWith != null) {
+         return injector.getInstance(BindToJsonPayloadWrappedWith.Factory.class).create(plan.wrapWith);
       }
       return null;
    }
 
-   private boolean shouldAddHostHeader(Invocation invocation) {
-      return invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(VirtualHost.class) || invocation
-            .getInvokable().isAnnotationPresent(VirtualHost.class);
-   }
-
-   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request) throws NegativeArraySizeException {
+   private GeneratedHttpRequest decorateRequest(GeneratedHttpRequest request, RequestPlan plan)
+         throws NegativeArraySizeException {
       Invocation invocation = request.getInvocation();
       List<Object> args = request.getInvocation().getArgs();
-      Set<Parameter> binderOrWrapWith = ImmutableSet.copyOf(concat(
-            parametersWithAnnotation(invocation.getInvokable(), BinderParam.class),
-            parametersWithAnnotation(invocation.getInvokable(), WrapWith.class)));
-      OUTER: for (Parameter entry : binderOrWrapWith) {
+      OUTER: for (Parameter entry : plan.binderParams) {
          int position = entry.hashCode();
          boolean shouldBreak = false;
          Binder binder;
@@ -624,7 +564,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             if (!argType.isArray() && parameterType.isArray()) {// TODO: &&
                                                                 // invocation.getInvokable().isVarArgs())
                                                                 // {
-               int arrayLength = args.size() - getInvokableParameters(invocation.getInvokable()).size() + 1;
+               int arrayLength = args.size() - plan.parameters.size() + 1;
                if (arrayLength == 0)
                   break OUTER;
                arg = (Object[]) Array.newInstance(arg.getClass(), arrayLength);
@@ -646,7 +586,7 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
             if (shouldBreak)
                break OUTER;
          } else {
-            if (position + 1 == getInvokableParameters(invocation.getInvokable()).size() && entry.getType().isArray())// TODO:
+            if (position + 1 == plan.parameters.size() && entry.getType().isArray())// TODO:
                                                                                                               // &&
                                                                                                               // invocation.getInvokable().isVarArgs())
                continue OUTER;
@@ -660,24 +600,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return request;
    }
 
-   private static final LoadingCache<Invokable<?, ?>, Set<Integer>> invokableToIndexesOfOptions = CacheBuilder
-         .newBuilder().build(new CacheLoader<Invokable<?, ?>, Set<Integer>>() {
-            @Override
-            public Set<Integer> load(Invokable<?, ?> invokable) {
-               Builder<Integer> toReturn = ImmutableSet.builder();
-               for (Parameter param : getInvokableParameters(invokable)) {
-                  Class<?> type = param.getType().getRawType();
-                  if (HttpRequestOptions.class.isAssignableFrom(type)
-                        || HttpRequestOptions[].class.isAssignableFrom(type))
-                     toReturn.add(param.hashCode());
-               }
-               return toReturn.build();
-            }
-         });
-
-   private Set<HttpRequestOptions> findOptionsIn(Invocation invocation) {
+   private Set<HttpRequestOptions> findOptionsIn(Invocation invocation, RequestPlan plan) {
       ImmutableSet.Builder<HttpRequestOptions> result = ImmutableSet.builder();
-      for (int index : invokableToIndexesOfOptions.getUnchecked(invocation.getInvokable())) {
+      for (int index : plan.indexesOfOptions) {
          if (invocation.getArgs().size() >= index + 1) {// accommodate
                                                         // varinvocation.getArgs()
             if (invocation.getArgs().get(index) instanceof Object[]) {
@@ -698,16 +623,20 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return result.build();
    }
 
-   private Multimap<String, String> buildHeaders(Multimap<String, ?> tokenValues, Invocation invocation) {
+   private Multimap<String, String> buildHeaders(Multimap<String, ?> tokenValues, Invocation invocation,
+         RequestPlan plan) {
       Multimap<String, String> headers = LinkedHashMultimap.create();
-      addHeaderIfAnnotationPresentOnMethod(headers, invocation, tokenValues);
-      for (Parameter headerParam : parametersWithAnnotation(invocation.getInvokable(), HeaderParam.class)) {
-         Annotation key = headerParam.getAnnotation(HeaderParam.class);
-         String value = invocation.getArgs().get(headerParam.hashCode()).toString();
+      for (Headers header : plan.headers) {
+         addHeader(headers, header, tokenValues);
+      }
+      for (RequestPlan.NamedParam headerParam : plan.headerParamArgs) {
+         String value = invocation.getArgs().get(headerParam.index).toString();
          value = replaceTokens(value, tokenValues);
-         headers.put(((HeaderParam) key).value(), value);
+         headers.put(headerParam.name, value);
+      }
+      if (plan.produces != null) {
+         headers.replaceValues(CONTENT_TYPE, plan.produces);
       }
-      addProducesIfPresentOnTypeOrMethod(headers, invocation);
       addConsumesIfPresentOnTypeOrMethod(headers, invocation);
       return headers;
    }
@@ -718,29 +647,6 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
          headers.replaceValues(ACCEPT, accept);
    }
 
-   private void addProducesIfPresentOnTypeOrMethod(Multimap<String, String> headers, Invocation invocation) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
-      }
-      if (invocation.getInvokable().isAnnotationPresent(Produces.class)) {
-         Produces header = invocation.getInvokable().getAnnotation(Produces.class);
-         headers.replaceValues(CONTENT_TYPE, asList(header.value()));
-      }
-   }
-
-   private void addHeaderIfAnnotationPresentOnMethod(Multimap<String, String> headers, Invocation invocation,
-         Multimap<String, ?> tokenValues) {
-      if (invocation.getInvokable().getOwnerType().getRawType().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getOwnerType().getRawType().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
-      }
-      if (invocation.getInvokable().isAnnotationPresent(Headers.class)) {
-         Headers header = invocation.getInvokable().getAnnotation(Headers.class);
-         addHeader(headers, header, tokenValues);
-      }
-   }
-
    private static void addHeader(Multimap<String, String> headers, Headers header, Multimap<String, ?> tokenValues) {
       for (int i = 0; i < header.keys().length; i++) {
          String value = header.values()[i];
@@ -749,9 +655,9 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       }
    }
 
-   private static List<Part> getParts(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private static List<Part> getParts(Invocation invocation, RequestPlan plan, Multimap<String, ?> tokenValues) {
       ImmutableList.Builder<Part> parts = ImmutableList.<Part> builder();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PartParam.class)) {
+      for (Parameter param : plan.partParams) {
          PartParam partParam = param.getAnnotation(PartParam.class);
          PartOptions options = new PartOptions();
          if (!PartParam.NO_CONTENT_TYPE.equals(partParam.contentType()))
@@ -766,19 +672,14 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return parts.build();
    }
 
-   private boolean isEncodedUsed(Invocation invocation) {
-      return !parametersWithAnnotation(invocation.getInvokable(), Encoded.class).isEmpty();
-   }
-
-   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, boolean encodeFullPath) {
+   private Multimap<String, Object> getPathParamKeyValues(Invocation invocation, RequestPlan plan,
+         boolean encodeFullPath) {
       Multimap<String, Object> pathParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PathParam.class)) {
-         PathParam pathParam = param.getAnnotation(PathParam.class);
-         String paramKey = pathParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (RequestPlan.NamedParam param : plan.pathParams) {
+         String paramKey = param.name;
+         Optional<?> paramValue = getParamValue(invocation, plan, param);
          if (paramValue.isPresent()) {
-            if (!encodeFullPath && !param.isAnnotationPresent(Encoded.class)) {
+            if (!encodeFullPath && !param.encoded) {
                pathParamValues.put(paramKey, urlEncode(paramValue.get().toString()));
             } else {
                pathParamValues.put(paramKey, paramValue.get().toString());
@@ -788,45 +689,41 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return pathParamValues;
    }
 
-   private Optional<?> getParamValue(Invocation invocation, @Nullable ParamParser extractor, int argIndex,
-         String paramKey) {
-      Object arg = invocation.getArgs().get(argIndex);
-      if (extractor != null && checkPresentOrNullable(invocation, paramKey, argIndex, arg)) {
+   private Optional<?> getParamValue(Invocation invocation, RequestPlan plan, RequestPlan.NamedParam param) {
+      Object arg = invocation.getArgs().get(param.index);
+      if (param.parser != null && checkPresentOrNullable(invocation, plan, param.name, param.index, arg)) {
          // ParamParsers can deal with nullable parameters
-         arg = injector.getInstance(extractor.value()).apply(arg);
+         arg = injector.getInstance(param.parser).apply(arg);
       }
-      checkPresentOrNullable(invocation, paramKey, argIndex, arg);
+      checkPresentOrNullable(invocation, plan, param.name, param.index, arg);
       return Optional.fromNullable(arg);
    }
 
-   private boolean checkPresentOrNullable(Invocation invocation, String paramKey, int argIndex, Object arg) {
-      if (arg == null && !getInvokableParameters(invocation.getInvokable()).get(argIndex).isAnnotationPresent(Nullable.class))
+   private boolean checkPresentOrNullable(Invocation invocation, RequestPlan plan, String paramKey, int argIndex,
+         Object arg) {
+      if (arg == null && !plan.isNullable(argIndex))
          throw new NullPointerException(format("param{%s} for invocation %s.%s", paramKey, invocation.getInvokable()
                .getOwnerType().getRawType().getSimpleName(), invocation.getInvokable().getName()));
       return true;
    }
 
-   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation) {
+   private Multimap<String, Object> getFormParamKeyValues(Invocation invocation, RequestPlan plan) {
       Multimap<String, Object> formParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), FormParam.class)) {
-         FormParam formParam = param.getAnnotation(FormParam.class);
-         String paramKey = formParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (RequestPlan.NamedParam param : plan.formParamArgs) {
+         Optional<?> paramValue = getParamValue(invocation, plan, param);
          if (paramValue.isPresent())
-            formParamValues.put(paramKey, paramValue.get().toString());
+            formParamValues.put(param.name, paramValue.get().toString());
       }
       return formParamValues;
    }
 
-   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, Multimap<String, ?> tokenValues) {
+   private Multimap<String, Object> getQueryParamKeyValues(Invocation invocation, RequestPlan plan,
+         Multimap<String, ?> tokenValues) {
       Multimap<String, Object> queryParamValues = LinkedHashMultimap.create();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), QueryParam.class)) {
-         QueryParam queryParam = param.getAnnotation(QueryParam.class);
-         String paramKey = urlEncode(queryParam.value(), '/', ',');
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
-         boolean encoded = param.isAnnotationPresent(Encoded.class);
+      for (RequestPlan.NamedParam param : plan.queryParamArgs) {
+         String paramKey = param.name;
+         Optional<?> paramValue = getParamValue(invocation, plan, param);
+         boolean encoded = param.encoded;
          if (paramValue.isPresent())
             if (paramValue.get() instanceof Iterable) {
                @SuppressWarnings("unchecked")
@@ -844,15 +741,12 @@ public class RestAnnotationProcessor implements Function<Invocation, HttpRequest
       return queryParamValues;
    }
 
-   private Map<String, Object> buildPayloadParams(Invocation invocation) {
+   private Map<String, Object> buildPayloadParams(Invocation invocation, RequestPlan plan) {
       Map<String, Object> payloadParamValues = Maps.newLinkedHashMap();
-      for (Parameter param : parametersWithAnnotation(invocation.getInvokable(), PayloadParam.class)) {
-         PayloadParam payloadParam = param.getAnnotation(PayloadParam.class);
-         String paramKey = payloadParam.value();
-         Optional<?> paramValue = getParamValue(invocation, param.getAnnotation(ParamParser.class), param.hashCode(),
-               paramKey);
+      for (RequestPlan.NamedParam param : plan.payloadParamArgs) {
+         Optional<?> paramValue = getParamValue(invocation, plan, param);
          if (paramValue.isPresent())
-            payloadParamValues.put(paramKey, paramValue.get());
+            payloadParamValues.put(param.name, paramValue.get());
       }
       return payloadParamValues;
    }
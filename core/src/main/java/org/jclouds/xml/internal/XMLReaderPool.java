@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.xml.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Keeps a bounded number of idle {@link XMLReader}s so that parsing a response does not have to
+ * create a new parser.
+ * <p/>
+ * An {@link XMLReader} is not thread-safe, so each reader is used by one parse at a time:
+ * {@link #borrow()} hands out an idle reader, or a new one if none is idle, and
+ * {@link #release(XMLReader)} returns it once the parse completed. Readers released while the pool
+ * is full are discarded.
+ */
+@Singleton
+public class XMLReaderPool {
+   private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
+
+   private final SAXParserFactory factory;
+   private final BlockingQueue<XMLReader> idle;
+
+   @Inject
+   XMLReaderPool(SAXParserFactory factory) {
+      this(factory, 2 * Runtime.getRuntime().availableProcessors());
+   }
+
+   public XMLReaderPool(SAXParserFactory factory, int capacity) {
+      this.factory = checkNotNull(factory, "factory");
+      checkArgument(capacity > 0, "capacity must be positive");
+      this.idle = new ArrayBlockingQueue<XMLReader>(capacity);
+   }
+
+   /**
+    * @return a reader which is not in use by any other parse
+    */
+   public XMLReader borrow() {
+      XMLReader reader = idle.poll();
+      if (reader != null)
+         return reader;
+      try {
+         return factory.newSAXParser().getXMLReader();
+      } catch (Exception e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   /**
+    * Makes a reader which completed its parse available to others. Readers whose parse failed
+    * should not be released, as their state is unknown.
+    */
+   public void release(XMLReader reader) {
+      // don't keep the last handler and its result reachable from the pool
+      reader.setContentHandler(NO_OP_HANDLER);
+      idle.offer(reader);
+   }
+
+   int idleCount() {
+      return idle.size();
+   }
+}
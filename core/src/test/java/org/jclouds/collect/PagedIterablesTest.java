@@ -19,12 +19,24 @@ package org.jclouds.collect;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.easymock.EasyMock;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Tests behavior of {@code IterableWithMarkers}.
@@ -70,4 +82,85 @@ public class PagedIterablesTest {
       EasyMock.verify(markerToNext);
 
    }
+
+   private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+
+   @AfterClass
+   void shutdownExecutor() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void testPrefetchingConcatReturnsPagesInOrder() {
+      Function<Object, IterableWithMarker<String>> markerToNext = new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            return page((Integer) marker, 5);
+         }
+      };
+      PagedIterable<String> iterable = PagedIterables.advance(page(0, 5), markerToNext, executor, 2);
+
+      Assert.assertEquals(iterable.concat().toList(), ImmutableList.of("page0", "page1", "page2", "page3", "page4"));
+   }
+
+   @Test
+   public void testPrefetchesWhileCurrentPageIsConsumed() throws InterruptedException {
+      final CountDownLatch secondPageRequested = new CountDownLatch(1);
+      Function<Object, IterableWithMarker<String>> markerToNext = new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            secondPageRequested.countDown();
+            return page((Integer) marker, 3);
+         }
+      };
+      PagedIterable<String> iterable = PagedIterables.advance(page(0, 3), markerToNext, executor, 1);
+
+      Iterator<IterableWithMarker<String>> pages = iterable.iterator();
+      pages.next();
+      // the consumer has not asked for the second page yet
+      Assert.assertTrue(secondPageRequested.await(10, TimeUnit.SECONDS));
+   }
+
+   @Test
+   public void testCloseCancelsOutstandingPages() throws IOException, InterruptedException {
+      final AtomicInteger requests = new AtomicInteger();
+      final CountDownLatch release = new CountDownLatch(1);
+      Function<Object, IterableWithMarker<String>> markerToNext = new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            requests.incrementAndGet();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            return page((Integer) marker, 100);
+         }
+      };
+      PagedIterable<String> iterable = PagedIterables.advance(page(0, 100), markerToNext, executor, 3);
+
+      Iterator<IterableWithMarker<String>> pages = iterable.iterator();
+      pages.next();
+      Closeable.class.cast(pages).close();
+      release.countDown();
+      Thread.sleep(100);
+      Assert.assertTrue(requests.get() <= 1, "requests after close: " + requests.get());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testPrefetchFailureIsPropagated() {
+      Function<Object, IterableWithMarker<String>> markerToNext = new Function<Object, IterableWithMarker<String>>() {
+         @Override
+         public IterableWithMarker<String> apply(Object marker) {
+            throw new IllegalStateException("boom");
+         }
+      };
+      PagedIterable<String> iterable = PagedIterables.advance(page(0, 3), markerToNext, executor, 2);
+
+      iterable.concat().toList();
+   }
+
+   private static IterableWithMarker<String> page(int index, int pages) {
+      return IterableWithMarkers.from(ImmutableSet.of("page" + index), index + 1 < pages ? index + 1 : null);
+   }
 }
@@ -24,13 +24,18 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.jclouds.lifecycle.Closer;
 import org.testng.annotations.AfterClass;
@@ -38,7 +43,11 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -104,6 +113,82 @@ public class ExecutorServiceModuleTest {
       }
    }
 
+   @Test(timeOut = 5000)
+   public void testVirtualThreadsFallBackToPoolWhenUnsupported() throws Exception {
+      Injector virtual = Guice.createInjector(new ExecutorServiceModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(named(PROPERTY_USER_THREADS)).to(1);
+            bindConstant().annotatedWith(named(PROPERTY_VIRTUAL_THREADS)).to(true);
+            super.configure();
+         }
+      });
+      ListeningExecutorService exec = virtual.getInstance(Key.get(ListeningExecutorService.class,
+            named(PROPERTY_USER_THREADS)));
+      try {
+         String threadName = exec.submit(new Callable<String>() {
+            public String call() {
+               return Thread.currentThread().getName();
+            }
+         }).get();
+         boolean supported = ExecutorServiceModule.newVirtualThreadPerTaskExecutor("probe") != null;
+         assertTrue(threadName.startsWith(supported ? "user virtual thread " : "user thread "), threadName);
+         try {
+            exec.submit(runnableThrowsRTE()).get();
+         } catch (ExecutionException e) {
+            // the task ran elsewhere, so this method is only in the trace if the submission was recorded
+            String trace = getStackTraceAsString(e.getCause());
+            assertNotEquals(trace.indexOf("testVirtualThreadsFallBackToPoolWhenUnsupported"), -1, trace);
+         }
+      } finally {
+         virtual.getInstance(Closer.class).close();
+      }
+      assertTrue(exec.isShutdown());
+   }
+
+   /**
+    * Compares how long it takes to fan out 1k and 10k tasks which each block for 10ms on a pool of 50
+    * threads, the default, and on a thread per task: virtual threads where the JDK supports them,
+    * otherwise platform threads.
+    */
+   @Test(groups = "performance")
+   public void testFanOutLatencyOfBlockingTasks() throws Exception {
+      ExecutorService virtual = ExecutorServiceModule.newVirtualThreadPerTaskExecutor("virtual ");
+      String perTask = virtual != null ? "virtual threads" : "cached pool";
+      ListeningExecutorService pooled = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(50));
+      ListeningExecutorService unbounded = MoreExecutors.listeningDecorator(virtual != null ? virtual
+            : Executors.newCachedThreadPool());
+      try {
+         for (int tasks : new int[] { 1000, 10000 }) {
+            long pooledMillis = fanOut(pooled, tasks);
+            long unboundedMillis = fanOut(unbounded, tasks);
+            System.out.printf("TIMING: %d blocking tasks took %dms on 50 threads, %dms on %s%n", tasks,
+                  pooledMillis, unboundedMillis, perTask);
+         }
+      } finally {
+         pooled.shutdownNow();
+         unbounded.shutdownNow();
+      }
+   }
+
+   private static long fanOut(ListeningExecutorService executor, int tasks) throws Exception {
+      long start = System.nanoTime();
+      List<ListenableFuture<?>> futures = Lists.newArrayListWithCapacity(tasks);
+      for (int i = 0; i < tasks; i++) {
+         futures.add(executor.submit(new Runnable() {
+            public void run() {
+               try {
+                  Thread.sleep(10);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         }));
+      }
+      Futures.allAsList(futures).get();
+      return (System.nanoTime() - start) / 1000000;
+   }
+
    static void assertTraceHasSubmission(String trace, String expected) {
       assertEquals(trace.indexOf(WithSubmissionTrace.class.getName()), -1, trace);
       assertNotEquals(trace.indexOf(expected), -1, trace + " " + expected);
@@ -272,4 +272,25 @@ public class DateServiceTest extends PerformanceTest {
       executeMultiThreadedPerformanceTest("testParseIso8601DatePerformanceInParallel", tasks);
    }
 
+   /**
+    * Formats and parses the timestamps of a request signature and a listing entry from
+    * {@link #THREAD_COUNT} threads at once.
+    */
+   @Test
+   void testFormatAndParsePerformanceUnderContention() throws Throwable {
+      List<Runnable> tasks = Lists.newArrayListWithCapacity(testData.length);
+      for (final TestData myData : testData) {
+         tasks.add(new Runnable() {
+            public void run() {
+               for (int i = 0; i < LOOP_COUNT; i++) {
+                  dateService.rfc822DateFormat(myData.date);
+                  dateService.iso8601SecondsDateFormat(myData.date);
+                  dateService.iso8601DateParse(myData.iso8601DateString);
+               }
+            }
+         });
+      }
+      executeMultiThreadedPerformanceTest(dateService.getClass().getSimpleName() + " under contention", tasks);
+   }
+
 }
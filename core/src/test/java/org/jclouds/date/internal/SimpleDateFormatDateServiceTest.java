@@ -20,10 +20,18 @@ import static org.testng.AssertJUnit.assertEquals;
 
 import java.util.Date;
 
+import org.jclouds.date.DateServiceTest;
+import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 @Test(groups = "unit", testName = "SimpleDateFormatDateServiceTest")
-public class SimpleDateFormatDateServiceTest {
+public class SimpleDateFormatDateServiceTest extends DateServiceTest {
+   @Override
+   @BeforeTest
+   protected void createDateService() {
+      dateService = new SimpleDateFormatDateService();
+   }
+
    // TODO: this test has to work when a machine is not in GMT timezone
    @Test(enabled = false)
    public void testCorrectHandlingOfMillis() {
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.jclouds.date.DateService;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.inject.Guice;
+
+/**
+ * Checks that {@code ThreadLocalDateService} agrees with {@code SimpleDateFormatDateService}.
+ */
+@Test(groups = "unit", testName = "ThreadLocalDateServiceTest")
+public class ThreadLocalDateServiceTest {
+   private final DateService expected = new SimpleDateFormatDateService();
+   private final DateService dateService = new ThreadLocalDateService();
+
+   public void testIsDefault() {
+      assertEquals(Guice.createInjector().getInstance(DateService.class).getClass(), ThreadLocalDateService.class);
+   }
+
+   public void testFormatsLikeSimpleDateFormat() {
+      Random random = new Random(42);
+      long min = -400L * 365 * 24 * 3600 * 1000;
+      long max = 8000L * 365 * 24 * 3600 * 1000;
+      for (int i = 0; i < 100000; i++) {
+         Date date = new Date(min + (long) (random.nextDouble() * (max - min)));
+         assertEquals(dateService.iso8601DateFormat(date), expected.iso8601DateFormat(date));
+         assertEquals(dateService.iso8601SecondsDateFormat(date), expected.iso8601SecondsDateFormat(date));
+         assertEquals(dateService.rfc822DateFormat(date), expected.rfc822DateFormat(date));
+      }
+   }
+
+   public void testFormatsOutOfFastRange() {
+      for (Date date : new Date[] { new Date(Long.MIN_VALUE / 2), new Date(-12219292800000L),
+            new Date(253402300800000L) }) {
+         assertEquals(dateService.iso8601DateFormat(date), expected.iso8601DateFormat(date));
+         assertEquals(dateService.rfc822DateFormat(date), expected.rfc822DateFormat(date));
+      }
+   }
+
+   public void testRoundTripsThroughFastPaths() {
+      Random random = new Random(7);
+      for (int i = 0; i < 100000; i++) {
+         Date date = new Date((long) (random.nextDouble() * 4102444800000L));
+         assertEquals(dateService.iso8601DateParse(dateService.iso8601DateFormat(date)), date);
+         Date seconds = new Date(date.getTime() / 1000 * 1000);
+         assertEquals(dateService.iso8601SecondsDateParse(dateService.iso8601SecondsDateFormat(date)), seconds);
+         assertEquals(dateService.rfc822DateParse(dateService.rfc822DateFormat(date)), seconds);
+      }
+   }
+
+   @DataProvider
+   public Object[][] iso8601() {
+      return new Object[][] {
+            { "2009-03-12T02:00:07.000Z" },
+            { "2009-03-12T02:00:07.123Z" },
+            { "2009-03-12T02:00:07.123456Z" },
+            { "2009-03-12 02:00:07.123+0000" },
+            { "2009-03-12T02:00:07.123-04:30" },
+            { "2009-03-12T02:00:07.123+05" },
+            { "2009-02-03T05:26:32.612278" },
+            { "2012-02-29T23:59:59.999Z" },
+            { "2009-03-12T02:00:07.1Z" },
+            { "2009-02-30T02:00:07.000Z" },
+            { "2009-03-12T24:00:07.000Z" },
+            { "1500-03-12T02:00:07.000Z" },
+            { "2009-03-12Txx:00:13.000Z" },
+            { "2009-03-12T02:0x:13.000Z" },
+            { "2009-03-12T02:00:1x.000+0100" },
+            { "2009-03-12T02:00:07Z" } };
+   }
+
+   @Test(dataProvider = "iso8601")
+   public void testParsesIso8601LikeSimpleDateFormat(String toParse) {
+      assertSameOutcome(toParse, new Parse() {
+         public Date apply(DateService service, String input) {
+            return service.iso8601DateParse(input);
+         }
+      });
+   }
+
+   @DataProvider
+   public Object[][] iso8601Seconds() {
+      return new Object[][] {
+            { "2009-03-12T02:00:07Z" },
+            { "2009-03-12T06:00:07+0400" },
+            { "2011-05-26T02:14:13-04:00" },
+            { "2009-03-12 02:00:07" },
+            { "2012-11-26T17:32:31UTC+0000" },
+            { "2009-03-12T02:00:07.000Z" },
+            { "2009-13-12T02:00:07Z" },
+            { "2009-03-12T02:00:60Z" },
+            { "2009-03-12Txx:00:13Z" },
+            { "2009-03-12T02:00:1x+0100" },
+            { "-1" } };
+   }
+
+   @Test(dataProvider = "iso8601Seconds")
+   public void testParsesIso8601SecondsLikeSimpleDateFormat(String toParse) {
+      assertSameOutcome(toParse, new Parse() {
+         public Date apply(DateService service, String input) {
+            return service.iso8601SecondsDateParse(input);
+         }
+      });
+   }
+
+   @DataProvider
+   public Object[][] rfc822() {
+      return new Object[][] {
+            { "Thu, 12 Mar 2009 02:00:07 GMT" },
+            { "Mon, 12 Mar 2009 02:00:07 GMT" },
+            { "Thu, 31 Feb 2009 02:00:07 GMT" },
+            { "thu, 12 mar 2009 02:00:07 GMT" },
+            { "Thu, 12 Mar 2009 2:00:07 GMT" },
+            { "foo" } };
+   }
+
+   @Test(dataProvider = "rfc822")
+   public void testParsesRfc822LikeSimpleDateFormat(String toParse) {
+      assertSameOutcome(toParse, new Parse() {
+         public Date apply(DateService service, String input) {
+            return service.rfc822DateParse(input);
+         }
+      });
+   }
+
+   private interface Parse {
+      Date apply(DateService service, String input);
+   }
+
+   private void assertSameOutcome(String toParse, Parse parse) {
+      Date expectedDate;
+      try {
+         expectedDate = parse.apply(expected, toParse);
+      } catch (IllegalArgumentException e) {
+         try {
+            parse.apply(dateService, toParse);
+            fail("expected " + toParse + " not to parse");
+         } catch (IllegalArgumentException expected) {
+            return;
+         }
+         return;
+      }
+      assertEquals(parse.apply(dateService, toParse), expectedDate, toParse);
+   }
+
+   public void testCivilConversionsAreInverse() {
+      for (long days = -200000; days < 3000000; days += 13) {
+         int[] civil = ThreadLocalDateService.civilFromDays(days);
+         assertEquals(ThreadLocalDateService.daysFromCivil(civil[0], civil[1], civil[2]), days);
+      }
+   }
+}
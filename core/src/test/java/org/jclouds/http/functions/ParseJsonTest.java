@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "ParseJsonTest")
+public class ParseJsonTest {
+
+   private static class Server {
+      String id;
+      String name;
+      Map<String, String> metadata;
+   }
+
+   private static class Servers {
+      List<Server> servers;
+   }
+
+   private final Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+
+   private final ParseJson<Servers> parser = Guice.createInjector(new GsonModule()).getInstance(
+         Key.get(new TypeLiteral<ParseJson<Servers>>() {
+         }));
+
+   public void testParsesStream() throws IOException {
+      Servers servers = parser.apply(new ByteArrayInputStream(serversJson(3).getBytes(Charsets.UTF_8)));
+      assertEquals(servers.servers.size(), 3);
+      assertEquals(servers.servers.get(2).id, "2");
+      assertEquals(servers.servers.get(2).name, "server-2\u00e9");
+      assertEquals(servers.servers.get(2).metadata, ImmutableMap.of("group", "web"));
+   }
+
+   @Test(expectedExceptions = HttpResponseException.class)
+   public void testMalformedResponseWrapsException() {
+      parser.apply(HttpResponse.builder().statusCode(200).payload("{\"servers\":[{\"id\":").build());
+   }
+
+   /**
+    * Compares the time and bytes allocated to parse 1 MB to 50 MB listings through an intermediate
+    * {@code String} and directly from the stream.
+    */
+   @Test(groups = "performance")
+   public void testStreamingAllocatesLessThanBuffering() throws IOException {
+      for (int megabytes : new int[] { 1, 10, 50 }) {
+         byte[] body = serversJson(megabytes * 1024 * 1024 / 64).getBytes(Charsets.UTF_8);
+         // warm up both paths
+         parseBuffered(body);
+         parser.apply(new ByteArrayInputStream(body));
+
+         long bufferedBytes = allocatedBytes();
+         long start = System.nanoTime();
+         parseBuffered(body);
+         long bufferedNanos = System.nanoTime() - start;
+         bufferedBytes = allocatedBytes() - bufferedBytes;
+
+         long streamingBytes = allocatedBytes();
+         start = System.nanoTime();
+         parser.apply(new ByteArrayInputStream(body));
+         long streamingNanos = System.nanoTime() - start;
+         streamingBytes = allocatedBytes() - streamingBytes;
+
+         System.out.printf("TIMING: %.1f MB buffered took %.3fms allocating %d KB, "
+               + "streaming took %.3fms allocating %d KB%n", body.length / (1024 * 1024d), bufferedNanos / 1000000d, bufferedBytes / 1024,
+               streamingNanos / 1000000d, streamingBytes / 1024);
+      }
+   }
+
+   private Servers parseBuffered(byte[] body) throws IOException {
+      InputStream stream = new ByteArrayInputStream(body);
+      return json.fromJson(Strings2.toStringAndClose(stream), Servers.class);
+   }
+
+   /**
+    * @return bytes allocated by the current thread, or 0 if the JVM cannot tell
+    */
+   private static long allocatedBytes() {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+         return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return 0;
+   }
+
+   private static String serversJson(int count) {
+      StringBuilder builder = new StringBuilder("{\"servers\":[");
+      for (int i = 0; i < count; i++) {
+         if (i > 0)
+            builder.append(',');
+         builder.append("{\"id\":\"").append(i).append("\",\"name\":\"server-").append(i)
+               .append("\u00e9\",\"metadata\":{\"group\":\"web\"}}");
+      }
+      return builder.append("]}").toString();
+   }
+}
@@ -21,14 +21,30 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.logging.NullLogger;
+import org.jclouds.logging.config.LoggingModule;
 import org.jclouds.utils.TestUtils;
 import org.testng.annotations.Test;
+import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXParseException;
 
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.CountingInputStream;
+import com.google.inject.Guice;
+
 /**
  * Tests behavior of {@code ParseSax}
  */
@@ -131,4 +147,115 @@ public class ParseSaxTest extends BaseHandlerTest {
          assertEquals(e.getCause(), input);
       }
    }
+
+   /**
+    * Collects the text of the {@code inner} element, which holds an escaped document parsed by a
+    * nested {@code ParseSax} while the outer parse is still in progress.
+    */
+   static class NestingHandler extends ParseSax.HandlerWithResult<String> {
+      private final ParseSax.Factory factory;
+      private final StringBuilder currentText = new StringBuilder();
+      private String result;
+
+      NestingHandler(ParseSax.Factory factory) {
+         this.factory = factory;
+      }
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+         currentText.setLength(0);
+      }
+
+      @Override
+      public void endElement(String uri, String localName, String qName) {
+         if (qName.equals("outer"))
+            result = factory.create(new NestingHandler(factory)).parse(currentText.toString().trim());
+         else if (qName.equals("inner"))
+            result = currentText.toString().trim();
+      }
+
+      @Override
+      public void characters(char[] ch, int start, int length) {
+         currentText.append(ch, start, length);
+      }
+
+      @Override
+      public String getResult() {
+         return result;
+      }
+   }
+
+   @Test
+   public void testNestedParseDoesNotShareReader() {
+      String xml = "<outer>&lt;inner&gt;nested&lt;/inner&gt;</outer>";
+      assertEquals(factory.create(new NestingHandler(factory)).parse(xml), "nested");
+      // the readers released by both parses are reused
+      assertEquals(factory.create(new NestingHandler(factory)).parse(xml), "nested");
+   }
+
+   /**
+    * Records how much of the response had been read when the parse reached the first element.
+    */
+   static class ReadAheadHandler extends ParseSax.HandlerWithResult<Integer> {
+      private final CountingInputStream body;
+      private int readAtFirstItem;
+
+      ReadAheadHandler(CountingInputStream body) {
+         this.body = body;
+      }
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attributes) {
+         if (qName.equals("first"))
+            readAtFirstItem = (int) body.getCount();
+      }
+
+      @Override
+      public Integer getResult() {
+         return readAtFirstItem;
+      }
+   }
+
+   private static class TracingLogger extends NullLogger {
+      private final List<String> traced = Lists.newArrayList();
+
+      @Override
+      public boolean isTraceEnabled() {
+         return true;
+      }
+
+      @Override
+      public void trace(String message, Object... args) {
+         traced.add(String.format(message, args));
+      }
+   }
+
+   @Test
+   public void testTraceLoggingDoesNotBufferResponseBeforeParsing() {
+      final TracingLogger logger = new TracingLogger();
+      ParseSax.Factory tracingFactory = Guice.createInjector(new SaxParserModule(), new LoggingModule() {
+         @Override
+         public Logger.LoggerFactory createLoggerFactory() {
+            return new Logger.LoggerFactory() {
+               public Logger getLogger(String category) {
+                  return logger;
+               }
+            };
+         }
+      }).getInstance(ParseSax.Factory.class);
+
+      StringBuilder xml = new StringBuilder("<items><first/>");
+      for (int i = 0; i < 10000; i++)
+         xml.append("<item>").append(i).append("</item>");
+      xml.append("<last/></items>");
+      byte[] bytes = xml.toString().getBytes(Charsets.UTF_8);
+      CountingInputStream body = new CountingInputStream(new ByteArrayInputStream(bytes));
+      HttpResponse response = HttpResponse.builder().statusCode(200).message("OK")
+            .payload(Payloads.newInputStreamPayload(body)).build();
+
+      int readAtFirstItem = tracingFactory.create(new ReadAheadHandler(body)).apply(response);
+
+      assertTrue(readAtFirstItem < bytes.length, "read " + readAtFirstItem + " of " + bytes.length);
+      assertEquals(logger.traced, ImmutableList.of(xml.toString()));
+   }
 }
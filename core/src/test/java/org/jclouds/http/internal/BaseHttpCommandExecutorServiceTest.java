@@ -16,6 +16,7 @@
  */
 package org.jclouds.http.internal;
 
+import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.getCurrentArguments;
@@ -31,6 +32,12 @@ import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -41,6 +48,7 @@ import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
@@ -49,6 +57,10 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -234,6 +246,164 @@ public class BaseHttpCommandExecutorServiceTest {
       verify(ioRetryHandler);
    }
 
+   public void testInvokeAsyncRetriesLikeInvoke() throws Exception {
+      HttpResponse unavailable = HttpResponse.builder().statusCode(503).build();
+      HttpResponse ok = HttpResponse.builder().statusCode(200).build();
+      HttpCommand command = mockHttpCommand();
+
+      DelegatingRetryHandler retryHandler = EasyMock.createMock(DelegatingRetryHandler.class);
+      DelegatingErrorHandler errorHandler = EasyMock.createMock(DelegatingErrorHandler.class);
+      expect(retryHandler.shouldRetryRequest(command, unavailable)).andReturn(true);
+      replay(retryHandler, errorHandler);
+
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            retryHandler, errorHandler);
+      service.responses.add(unavailable);
+      service.responses.add(ok);
+      assertEquals(service.invokeAsync(command).get(), ok);
+
+      verify(retryHandler, errorHandler);
+   }
+
+   public void testInvokeAsyncRunsRetryHandlersOnUserExecutor() throws Exception {
+      HttpResponse unavailable = HttpResponse.builder().statusCode(503).build();
+      HttpResponse ok = HttpResponse.builder().statusCode(200).build();
+      HttpCommand command = mockHttpCommand();
+      final Thread caller = Thread.currentThread();
+      final List<Thread> retriedOn = Lists.newArrayList();
+
+      DelegatingRetryHandler retryHandler = EasyMock.createMock(DelegatingRetryHandler.class);
+      DelegatingErrorHandler errorHandler = EasyMock.createMock(DelegatingErrorHandler.class);
+      expect(retryHandler.shouldRetryRequest(command, unavailable)).andAnswer(new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() throws Throwable {
+            retriedOn.add(Thread.currentThread());
+            return true;
+         }
+      });
+      replay(retryHandler, errorHandler);
+
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            retryHandler, errorHandler);
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         service.setUserExecutor(userExecutor);
+         service.responses.add(unavailable);
+         service.responses.add(ok);
+         assertEquals(service.invokeAsync(command).get(), ok);
+      } finally {
+         userExecutor.shutdownNow();
+      }
+
+      assertEquals(retriedOn.size(), 1);
+      assertFalse(retriedOn.get(0) == caller);
+      verify(retryHandler, errorHandler);
+   }
+
+   public void testInvokeAsyncDoesNotBlockCallerInBlockingDriver() throws Exception {
+      HttpResponse ok = HttpResponse.builder().statusCode(200).build();
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            createMock(DelegatingRetryHandler.class), createMock(DelegatingErrorHandler.class));
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         service.setUserExecutor(userExecutor);
+         service.release = new CountDownLatch(1);
+         service.responses.add(ok);
+         ListenableFuture<HttpResponse> response = service.invokeAsync(mockHttpCommand());
+         assertFalse(response.isDone());
+
+         service.release.countDown();
+         assertEquals(response.get(), ok);
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+
+   public void testInvokeAsyncCancelInterruptsBlockingDriver() throws Exception {
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            createMock(DelegatingRetryHandler.class), createMock(DelegatingErrorHandler.class));
+      ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         service.setUserExecutor(userExecutor);
+         service.release = new CountDownLatch(1);
+         ListenableFuture<HttpResponse> response = service.invokeAsync(mockHttpCommand());
+         assertTrue(service.sending.await(10, TimeUnit.SECONDS), "expected the request to be sent");
+
+         assertTrue(response.cancel(true));
+         assertTrue(service.interrupted.await(10, TimeUnit.SECONDS), "expected the send to be interrupted");
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+
+   public void testInvokeAsyncFailsWithErrorFromErrorHandler() throws Exception {
+      final HttpResponse notFound = HttpResponse.builder().statusCode(404).build();
+      final HttpCommand command = mockHttpCommand();
+      final IllegalStateException error = new IllegalStateException("not found");
+
+      DelegatingRetryHandler retryHandler = EasyMock.createMock(DelegatingRetryHandler.class);
+      DelegatingErrorHandler errorHandler = EasyMock.createMock(DelegatingErrorHandler.class);
+      expect(retryHandler.shouldRetryRequest(command, notFound)).andReturn(false);
+      errorHandler.handleError(command, notFound);
+      expectLastCall().andAnswer(new IAnswer<Void>() {
+         @Override
+         public Void answer() throws Throwable {
+            command.setException(error);
+            return null;
+         }
+      });
+      replay(retryHandler, errorHandler);
+
+      MockHttpCommandExecutorService service = (MockHttpCommandExecutorService) mockHttpCommandExecutorService(
+            retryHandler, errorHandler);
+      service.responses.add(notFound);
+      try {
+         service.invokeAsync(command).get();
+         fail("Expected the error handler's exception");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause(), error);
+      }
+
+      verify(retryHandler, errorHandler);
+   }
+
+   public void testInvokeAsyncDoesNotRetryPostOnException() throws Exception {
+      helperRetryOnlyIdempotentAsync("POST");
+   }
+
+   public void testInvokeAsyncRetriesGetOnException() throws Exception {
+      helperRetryOnlyIdempotentAsync("GET");
+   }
+
+   private void helperRetryOnlyIdempotentAsync(String method) throws Exception {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method(method)
+            .filter(throwingFilter).build());
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      if ("GET".equals(method)) {
+         expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(true);
+         expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(false);
+      }
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      try {
+         service.invokeAsync(command).get();
+         fail("Expected to fail due to throwing filter");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof HttpResponseException, e.getCause().toString());
+      }
+
+      verify(ioRetryHandler);
+   }
+
    private HttpCommand mockHttpCommand() {
       return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("mock").build());
    }
@@ -303,6 +473,10 @@ public class BaseHttpCommandExecutorServiceTest {
    }
 
    private static class MockHttpCommandExecutorService extends BaseHttpCommandExecutorService<Object> {
+      private final Deque<HttpResponse> responses = Lists.newLinkedList();
+      private CountDownLatch release;
+      private final CountDownLatch sending = new CountDownLatch(1);
+      private final CountDownLatch interrupted = new CountDownLatch(1);
 
       @Inject
       MockHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
@@ -318,7 +492,16 @@ public class BaseHttpCommandExecutorServiceTest {
 
       @Override
       protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
-         return null;
+         if (release != null) {
+            sending.countDown();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+               interrupted.countDown();
+               throw e;
+            }
+         }
+         return responses.poll();
       }
 
       @Override
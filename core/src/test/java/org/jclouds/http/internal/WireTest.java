@@ -23,6 +23,9 @@ import org.jclouds.logging.Logger;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
@@ -178,4 +181,66 @@ public class WireTest {
       wire.output(request);
       assertEquals(wireLog.buff.toString(), ">> \"foo\"", "Expected payload to be printed in logs");
    }
+
+   public void testInputIsLoggedAsItIsRead() throws Exception {
+      HttpWire wire = setUp();
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      InputStream in = wire.input(new BufferedInputStream(new ByteArrayInputStream("foo\nbar".getBytes())));
+      assertEquals(wireLog.buff.toString(), "", "Expected nothing to be read up front");
+
+      assertEquals(ByteStreams.read(in, new byte[4], 0, 4), 4);
+      assertEquals(wireLog.buff.toString(), "<< \"foo[\\n]\"");
+
+      assertEquals(Strings2.toStringAndClose(in), "bar");
+      assertEquals(wireLog.buff.toString(), "<< \"foo[\\n]\"<< \"bar\"");
+   }
+
+   public void testInputInMemoryIsLoggedWithoutReadingIt() throws Exception {
+      HttpWire wire = setUp();
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      // signers log the signature this way and discard the returned stream
+      InputStream in = wire.input(Strings2.toInputStream("signature"));
+      assertEquals(wireLog.buff.toString(), "<< \"signature\"");
+
+      assertEquals(Strings2.toStringAndClose(in), "signature");
+      assertEquals(wireLog.buff.toString(), "<< \"signature\"", "Expected the content to be logged once");
+   }
+
+   public void testMaxBytesTruncatesLogButNotStream() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxBytes = 3;
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      InputStream in = wire.output(new ByteArrayInputStream("foobar".getBytes()));
+      assertEquals(Strings2.toStringAndClose(in), "foobar");
+      assertEquals(wireLog.buff.toString(), ">> \"foo\">> [truncated after 3 bytes]");
+
+      wireLog.buff.setLength(0);
+      wire.output("foobar");
+      assertEquals(wireLog.buff.toString(), ">> \"foo\">> [truncated after 3 bytes]");
+
+      wireLog.buff.setLength(0);
+      wire.output("foo");
+      assertEquals(wireLog.buff.toString(), ">> \"foo\"");
+   }
+
+   public void testSampleEvery() throws Exception {
+      HttpWire wire = setUp();
+      wire.sampleEvery = 2;
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      for (String message : new String[] { "one", "two", "three" }) {
+         assertEquals(Strings2.toStringAndClose(wire.input(new ByteArrayInputStream(message.getBytes()))), message);
+      }
+      assertEquals(wireLog.buff.toString(), "<< \"one\"<< \"three\"");
+   }
+
+   public void testSampleEveryCountsEachDirection() throws Exception {
+      HttpWire wire = setUp();
+      wire.sampleEvery = 2;
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      for (String message : new String[] { "one", "two", "three" }) {
+         wire.output(message);
+         assertEquals(Strings2.toStringAndClose(wire.input(new ByteArrayInputStream(message.getBytes()))), message);
+      }
+      assertEquals(wireLog.buff.toString(), ">> \"one\"<< \"one\">> \"three\"<< \"three\"");
+   }
 }
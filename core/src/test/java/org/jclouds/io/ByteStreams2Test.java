@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+
+import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.FileSlicePayload;
+import org.jclouds.io.payloads.StringPayload;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "ByteStreams2Test", singleThreaded = true)
+public class ByteStreams2Test {
+   private final byte[] content = new byte[200 * 1024 + 7];
+   private File file;
+
+   @BeforeClass
+   void createFile() throws IOException {
+      new Random(0).nextBytes(content);
+      file = File.createTempFile("bytestreams2", ".bin");
+      Files.write(content, file);
+   }
+
+   @AfterClass(alwaysRun = true)
+   void deleteFile() {
+      file.delete();
+   }
+
+   public void testCopiesFileThroughStream() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(ByteStreams2.copy(new FilePayload(file), new FilterOutputStream(out)), content.length);
+      assertEquals(out.toByteArray(), content);
+   }
+
+   public void testCopiesFileSliceThroughStream() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(ByteStreams2.copy(new FileSlicePayload(file, 100000, 70000), out), 70000);
+      assertEquals(out.toByteArray(), slice(100000, 70000));
+   }
+
+   public void testCopiesFileSliceToFile() throws IOException {
+      File target = File.createTempFile("bytestreams2", ".bin");
+      try {
+         FileOutputStream out = new FileOutputStream(target);
+         try {
+            out.write(1);
+            assertEquals(ByteStreams2.copy(new FileSlicePayload(file, 100000, 70000), out), 70000);
+         } finally {
+            out.close();
+         }
+         byte[] copied = Files.toByteArray(target);
+         assertEquals(copied.length, 70001);
+         assertEquals(copied[0], 1);
+         assertEquals(ByteStreams.toByteArray(Files.asByteSource(target).slice(1, 70000).openStream()),
+               slice(100000, 70000));
+      } finally {
+         target.delete();
+      }
+   }
+
+   public void testStopsAtEndOfFile() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(ByteStreams2.copy(new FileSlicePayload(file, content.length - 10, 100), out), 10);
+      assertEquals(out.toByteArray(), slice(content.length - 10, 10));
+   }
+
+   public void testCopiesOtherPayloadsFromStream() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(ByteStreams2.copy(new StringPayload("hello"), out), 5);
+      assertEquals(out.toString("UTF-8"), "hello");
+   }
+
+   /**
+    * Compares throughput and cpu time of writing a 256 MB file to a local socket with the 4 KB
+    * copy loop and with {@link ByteStreams2#copy}, and to a file with {@link ByteStreams2#copy}.
+    */
+   @Test(groups = "performance")
+   public void testFileCopyThroughput() throws Exception {
+      File large = File.createTempFile("bytestreams2", ".bin");
+      File target = File.createTempFile("bytestreams2", ".out");
+      try {
+         byte[] block = new byte[1024 * 1024];
+         new Random(0).nextBytes(block);
+         OutputStream out = new FileOutputStream(large);
+         try {
+            for (int i = 0; i < 256; i++) {
+               out.write(block);
+            }
+         } finally {
+            out.close();
+         }
+         for (int round = 0; round < 3; round++) {
+            timeToSocket("4 KB copy loop", large, false);
+            timeToSocket("ByteStreams2.copy", large, true);
+            FileOutputStream fileOut = new FileOutputStream(target);
+            try {
+               time("ByteStreams2.copy to file", new FilePayload(large), fileOut, true);
+            } finally {
+               fileOut.close();
+            }
+         }
+      } finally {
+         large.delete();
+         target.delete();
+      }
+   }
+
+   private static void timeToSocket(String name, File file, boolean payloadCopy) throws Exception {
+      final ServerSocket server = new ServerSocket(0);
+      Thread drain = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               Socket accepted = server.accept();
+               try {
+                  ByteStreams.copy(accepted.getInputStream(), ByteStreams.nullOutputStream());
+               } finally {
+                  accepted.close();
+               }
+            } catch (IOException e) {
+               throw new RuntimeException(e);
+            }
+         }
+      });
+      drain.start();
+      Socket socket = new Socket("localhost", server.getLocalPort());
+      try {
+         time(name + " to socket", new FilePayload(file), socket.getOutputStream(), payloadCopy);
+      } finally {
+         socket.close();
+         drain.join();
+         server.close();
+      }
+   }
+
+   private static void time(String name, FilePayload payload, OutputStream out, boolean payloadCopy)
+         throws IOException {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      long cpu = threads.getCurrentThreadCpuTime();
+      long start = System.nanoTime();
+      long copied;
+      if (payloadCopy) {
+         copied = ByteStreams2.copy(payload, out);
+      } else {
+         InputStream in = payload.openStream();
+         try {
+            copied = ByteStreams.copy(in, out);
+         } finally {
+            in.close();
+         }
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("TIMING: %s of %d MB: %.0f MB/s, %d ms cpu%n", name, copied >> 20,
+            (copied / 1048576d) / (elapsed / 1e9), (threads.getCurrentThreadCpuTime() - cpu) / 1000000);
+   }
+
+   private byte[] slice(int offset, int length) {
+      byte[] slice = new byte[length];
+      System.arraycopy(content, offset, slice, 0, length);
+      return slice;
+   }
+}
@@ -21,18 +21,22 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.FileSlicePayload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 
 @Test
 public class BasePayloadSlicerTest {
@@ -111,4 +115,30 @@ public class BasePayloadSlicerTest {
 
       assertFalse(iter.hasNext());
    }
+
+   @Test
+   public void testSlicesOfFileKeepRegion() throws IOException {
+      File file = File.createTempFile("slicer", ".txt");
+      try {
+         Files.write("aaaaaaaaaabbbbbbbbbbccccc", file, Charsets.UTF_8);
+         PayloadSlicer slicer = new BasePayloadSlicer();
+         Payload payload = new FilePayload(file);
+
+         FileSlicePayload part = (FileSlicePayload) slicer.slice(payload, 10, 10);
+         assertEquals(part.getOffset(), 10);
+         assertEquals(Strings2.toStringAndClose(part.openStream()), "bbbbbbbbbb");
+
+         Iterator<Payload> iter = slicer.slice(payload, 10).iterator();
+         iter.next();
+         iter.next();
+         part = (FileSlicePayload) iter.next();
+         assertEquals(part.getOffset(), 20);
+         assertEquals(part.getLength(), 5);
+         assertEquals(part.getContentMetadata().getContentLength(), Long.valueOf(5));
+         assertEquals(Strings2.toStringAndClose(part.openStream()), "ccccc");
+         assertFalse(iter.hasNext());
+      } finally {
+         file.delete();
+      }
+   }
 }
@@ -305,4 +305,59 @@ public final class DeserializationConstructorAndReflectiveTypeAdapterFactoryTest
             .create(gson, TypeToken.get(ComposedObjects.class));
       assertNull(adapter.fromJson("{\"x\":{\"foo\":0,\"bar\":1}}"));
    }
+
+   private static class Listed {
+      final String id;
+      final String name;
+      final int size;
+      final long created;
+      final boolean active;
+      final Optional<String> owner;
+      final List<String> tags;
+      final Map<String, String> metadata;
+
+      @ConstructorProperties({ "id", "name", "size", "created", "active", "owner", "tags", "metadata" })
+      Listed(String id, String name, int size, long created, boolean active, Optional<String> owner,
+            List<String> tags, Map<String, String> metadata) {
+         this.id = checkNotNull(id, "id");
+         this.name = name;
+         this.size = size;
+         this.created = created;
+         this.active = active;
+         this.owner = checkNotNull(owner, "owner");
+         this.tags = tags;
+         this.metadata = metadata;
+      }
+   }
+
+   /**
+    * Times decoding a listing of 100k objects built through their deserialization constructor.
+    */
+   @Test(groups = "performance")
+   public void testDecodeThroughput() {
+      StringBuilder json = new StringBuilder("[");
+      int count = 100000;
+      for (int i = 0; i < count; i++) {
+         if (i > 0)
+            json.append(',');
+         json.append("{\"id\":\"").append(i).append("\",\"name\":\"object-").append(i)
+               .append("\",\"size\":").append(i % 1024).append(",\"created\":").append(1400000000000L + i)
+               .append(i % 2 == 0 ? ",\"active\":true" : "")
+               .append(i % 3 == 0 ? ",\"owner\":\"owner\"" : "")
+               .append(",\"tags\":[\"a\",\"b\"],\"metadata\":{\"k\":\"v\"}}");
+      }
+      String listing = json.append(']').toString();
+      Gson gson = new GsonBuilder().registerTypeAdapterFactory(parameterizedCtorFactory)
+            .registerTypeAdapterFactory(new OptionalTypeAdapterFactory()).create();
+      Type listType = new TypeToken<List<Listed>>() {
+      }.getType();
+      for (int run = 0; run < 5; run++) {
+         long start = System.nanoTime();
+         List<Listed> listed = gson.fromJson(listing, listType);
+         long nanos = System.nanoTime() - start;
+         assertEquals(listed.size(), count);
+         System.out.printf("TIMING: decoding %d objects took %.1fms, %.0f objects/s%n", count, nanos / 1000000d,
+               count * 1e9 / nanos);
+      }
+   }
 }
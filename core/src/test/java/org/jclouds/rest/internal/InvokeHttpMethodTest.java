@@ -130,4 +130,18 @@ public class InvokeHttpMethodTest {
       replay(http, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   public void testAsyncCallTransformsResponse() throws Exception {
+      expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
+      replay(http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.invokeAsync(get).get(), response);
+   }
+
+   public void testAsyncCallRunsFallbackCreateOrPropagate() throws Exception {
+      IllegalStateException exception = new IllegalStateException();
+      expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(http, timeLimiter, fallback, config);
+      assertEquals(invokeHttpMethod.invokeAsync(get).get(), fallbackResponse);
+   }
 }
@@ -2590,6 +2590,32 @@ public class RestAnnotationProcessorTest extends BaseRestApiTest {
       assertEquals(form, "x-amz-copy-source=/eggs/robot");
    }
 
+   /**
+    * Times building requests of methods with path, query, header, payload and form parameters.
+    */
+   @Test(groups = "performance")
+   public void testRequestsBuiltPerSecond() throws Exception {
+      List<Invocation> invocations = ImmutableList.of(
+            Invocation.create(method(TestRequest.class, "getQuery", String.class), ImmutableList.<Object> of("1")),
+            Invocation.create(method(TestRequest.class, "get", String.class, String.class),
+                  ImmutableList.<Object> of("apples", "localhost")),
+            Invocation.create(method(TestRequest.class, "putHeader", String.class, String.class),
+                  ImmutableList.<Object> of("1", "data")),
+            Invocation.create(method(TestClassForm.class, "oneForm", String.class),
+                  ImmutableList.<Object> of("robot")));
+      for (int round = 0; round < 3; round++) {
+         int requests = 0;
+         long start = System.nanoTime();
+         while (System.nanoTime() - start < 1000000000L) {
+            for (Invocation invocation : invocations) {
+               processor.apply(invocation);
+               requests++;
+            }
+         }
+         System.out.printf("TIMING: built %.0f requests/s%n", requests / ((System.nanoTime() - start) / 1e9));
+      }
+   }
+
    @Test(expectedExceptions = NullPointerException.class)
    public void testAddHostNullWithHost() throws Exception {
       assertNull(RestAnnotationProcessor.addHostIfMissing(null, null));
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.xml.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.testng.annotations.Test;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+@Test(groups = "unit", testName = "XMLReaderPoolTest")
+public class XMLReaderPoolTest {
+
+   public void testReusesReleasedReader() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 2);
+      XMLReader reader = pool.borrow();
+      pool.release(reader);
+      assertSame(pool.borrow(), reader);
+   }
+
+   public void testBorrowedReadersAreDistinct() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 2);
+      assertNotSame(pool.borrow(), pool.borrow());
+   }
+
+   public void testReleaseClearsContentHandler() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 2);
+      XMLReader reader = pool.borrow();
+      DefaultHandler handler = new DefaultHandler();
+      reader.setContentHandler(handler);
+      pool.release(reader);
+      assertNotSame(reader.getContentHandler(), handler);
+   }
+
+   public void testKeepsAtMostCapacityIdleReaders() {
+      XMLReaderPool pool = new XMLReaderPool(SAXParserFactory.newInstance(), 2);
+      XMLReader first = pool.borrow();
+      XMLReader second = pool.borrow();
+      XMLReader third = pool.borrow();
+      pool.release(first);
+      pool.release(second);
+      pool.release(third);
+      assertEquals(pool.idleCount(), 2);
+   }
+}
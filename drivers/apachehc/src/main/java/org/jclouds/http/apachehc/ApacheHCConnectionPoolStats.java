@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URI;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Reports the connections of the Apache HttpClient pool, for monitoring.
+ * <p/>
+ * {@link PoolStats#getPending()} counts the requests waiting to lease a connection, because the
+ * limits of {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} or
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST} were reached.
+ */
+@Beta
+@Singleton
+public class ApacheHCConnectionPoolStats {
+   private final PoolingClientConnectionManager connectionManager;
+
+   @Inject
+   ApacheHCConnectionPoolStats(PoolingClientConnectionManager connectionManager) {
+      this.connectionManager = checkNotNull(connectionManager, "connectionManager");
+   }
+
+   /**
+    * @return the connections of all endpoints
+    */
+   public PoolStats getTotalStats() {
+      return connectionManager.getTotalStats();
+   }
+
+   /**
+    * @return the connections to the endpoint, when not connected through a proxy
+    */
+   public PoolStats getStats(URI endpoint) {
+      HttpHost host = new HttpHost(endpoint.getHost(), endpoint.getPort(), endpoint.getScheme());
+      return connectionManager.getStats(new HttpRoute(host, null, "https".equalsIgnoreCase(endpoint.getScheme())));
+   }
+
+   @Override
+   public String toString() {
+      return getTotalStats().toString();
+   }
+}
@@ -19,6 +19,7 @@ package org.jclouds.http.apachehc;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Map;
 import java.util.Set;
@@ -36,14 +37,15 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.ByteArrayEntity;
-import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.params.CoreProtocolPNames;
 import org.apache.http.util.EntityUtils;
 import org.jclouds.JcloudsVersion;
 import org.jclouds.http.HttpRequest;
+import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -51,6 +53,7 @@ import org.jclouds.io.payloads.BasePayload;
 import org.jclouds.io.payloads.ByteArrayPayload;
 import org.jclouds.io.payloads.DelegatingPayload;
 import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.FileSlicePayload;
 import org.jclouds.io.payloads.StringPayload;
 
 import com.google.common.base.Throwables;
@@ -136,9 +139,10 @@ public class ApacheHCUtils {
          }
          nStringEntity.setContentType(payload.getContentMetadata().getContentType());
          apacheRequest.setEntity(nStringEntity);
-      } else if (payload instanceof FilePayload) {
-         apacheRequest.setEntity(new FileEntity((File) payload.getRawContent(), payload.getContentMetadata()
-               .getContentType()));
+      } else if (payload instanceof FilePayload || payload instanceof FileSlicePayload) {
+         FileRegionEntity entity = new FileRegionEntity(payload);
+         entity.setContentType(payload.getContentMetadata().getContentType());
+         apacheRequest.setEntity(entity);
       } else if (payload instanceof ByteArrayPayload) {
          ByteArrayEntity Entity = new ByteArrayEntity((byte[]) payload.getRawContent());
          Entity.setContentType(payload.getContentMetadata().getContentType());
@@ -164,6 +168,44 @@ public class ApacheHCUtils {
       assert apacheRequest.getEntity() != null;
    }
 
+   /**
+    * Writes a file, or a region of it, with {@link ByteStreams2#copy(Payload, OutputStream)}.
+    */
+   static class FileRegionEntity extends AbstractHttpEntity {
+      private final Payload payload;
+
+      FileRegionEntity(Payload payload) {
+         this.payload = payload;
+      }
+
+      @Override
+      public boolean isRepeatable() {
+         return true;
+      }
+
+      @Override
+      public long getContentLength() {
+         return payload instanceof FileSlicePayload ? FileSlicePayload.class.cast(payload).getLength()
+               : File.class.cast(payload.getRawContent()).length();
+      }
+
+      @Override
+      public InputStream getContent() throws IOException {
+         return payload.openStream();
+      }
+
+      @Override
+      public void writeTo(OutputStream out) throws IOException {
+         ByteStreams2.copy(payload, out);
+         out.flush();
+      }
+
+      @Override
+      public boolean isStreaming() {
+         return false;
+      }
+   }
+
    public static class HttpEntityPayload extends BasePayload<HttpEntity> {
 
       HttpEntityPayload(HttpEntity content) {
@@ -16,35 +16,44 @@
  */
 package org.jclouds.http.apachehc.config;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_IDLE_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.http.apachehc.reference.ApacheHCConstants.PROPERTY_APACHEHC_STALE_CONNECTION_CHECK;
+
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.ProxySelector;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.net.ssl.SSLContext;
 
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.conn.ClientConnectionManager;
-import org.apache.http.conn.params.ConnManagerParams;
-import org.apache.http.conn.params.ConnPerRoute;
-import org.apache.http.conn.params.ConnPerRouteBean;
 import org.apache.http.conn.scheme.PlainSocketFactory;
 import org.apache.http.conn.scheme.Scheme;
 import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.http.impl.conn.ProxySelectorRoutePlanner;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.CoreConnectionPNames;
 import org.apache.http.params.CoreProtocolPNames;
 import org.apache.http.params.HttpParams;
 import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HttpContext;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.apachehc.ApacheHCHttpCommandExecutorService;
@@ -55,6 +64,7 @@ import org.jclouds.proxy.ProxyConfig;
 
 import com.google.common.base.Supplier;
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 
@@ -72,14 +82,36 @@ public class ApacheHCHttpCommandExecutorServiceModule extends AbstractModule {
       bindClient();
    }
 
+   /**
+    * Settings of the connection pool, which are not all configured.
+    */
+   static final class PoolSettings {
+      /** the keep-alive of HttpClient when the server does not limit it, is forever */
+      static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+      static final long MAX_EVICTION_PERIOD = TimeUnit.SECONDS.toMillis(5);
+
+      @Inject(optional = true)
+      @Named(PROPERTY_IDLE_CONNECTION_TIMEOUT)
+      long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_APACHEHC_STALE_CONNECTION_CHECK)
+      boolean staleConnectionCheck = true;
+
+      /** bound by {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule}, if installed */
+      @Inject(optional = true)
+      @Named(PROPERTY_SCHEDULER_THREADS)
+      ScheduledExecutorService scheduler;
+   }
+
    @Singleton
    @Provides
-   final HttpParams newBasicHttpParams(HttpUtils utils) {
+   final HttpParams newBasicHttpParams(HttpUtils utils, PoolSettings settings) {
       BasicHttpParams params = new BasicHttpParams();
 
       params.setIntParameter(CoreConnectionPNames.SOCKET_BUFFER_SIZE, 8 * 1024).setBooleanParameter(
-               CoreConnectionPNames.STALE_CONNECTION_CHECK, true).setBooleanParameter(CoreConnectionPNames.TCP_NODELAY,
-               true).setParameter(CoreProtocolPNames.ORIGIN_SERVER, "jclouds/1.0");
+               CoreConnectionPNames.STALE_CONNECTION_CHECK, settings.staleConnectionCheck).setBooleanParameter(
+               CoreConnectionPNames.TCP_NODELAY, true).setParameter(CoreProtocolPNames.ORIGIN_SERVER, "jclouds/1.0");
 
       if (utils.getConnectionTimeout() > 0) {
          params.setIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, utils.getConnectionTimeout());
@@ -89,13 +121,6 @@ public class ApacheHCHttpCommandExecutorServiceModule extends AbstractModule {
          params.setIntParameter(CoreConnectionPNames.SO_TIMEOUT, utils.getSocketOpenTimeout());
       }
 
-      if (utils.getMaxConnections() > 0)
-         ConnManagerParams.setMaxTotalConnections(params, utils.getMaxConnections());
-
-      if (utils.getMaxConnectionsPerHost() > 0) {
-         ConnPerRoute connectionsPerRoute = new ConnPerRouteBean(utils.getMaxConnectionsPerHost());
-         ConnManagerParams.setMaxConnectionsPerRoute(params, connectionsPerRoute);
-      }
       HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
       return params;
    }
@@ -121,8 +146,8 @@ public class ApacheHCHttpCommandExecutorServiceModule extends AbstractModule {
 
    @Singleton
    @Provides
-   final ClientConnectionManager newClientConnectionManager(HttpParams params, X509HostnameVerifier verifier,
-            SSLContext context, Closer closer) throws NoSuchAlgorithmException, KeyManagementException {
+   final PoolingClientConnectionManager newPoolingClientConnectionManager(HttpUtils utils, PoolSettings settings,
+            X509HostnameVerifier verifier, SSLContext context, Closer closer) {
 
       SchemeRegistry schemeRegistry = new SchemeRegistry();
       schemeRegistry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
@@ -131,20 +156,61 @@ public class ApacheHCHttpCommandExecutorServiceModule extends AbstractModule {
       sf.setHostnameVerifier(verifier);
       schemeRegistry.register(new Scheme("https", sf, 443));
 
-      final ClientConnectionManager cm = new ThreadSafeClientConnManager(params, schemeRegistry);
+      final PoolingClientConnectionManager cm = new PoolingClientConnectionManager(schemeRegistry);
+      if (utils.getMaxConnections() > 0) {
+         cm.setMaxTotal(utils.getMaxConnections());
+      }
+      // a host may use all connections unless limited, instead of the default of two
+      if (utils.getMaxConnectionsPerHost() > 0) {
+         cm.setDefaultMaxPerRoute(utils.getMaxConnectionsPerHost());
+      } else {
+         cm.setDefaultMaxPerRoute(cm.getMaxTotal());
+      }
+
+      // without a scheduler, idle connections are only closed once expired and leased again
+      final ScheduledFuture<?> eviction;
+      if (settings.scheduler != null) {
+         long period = Math.max(1, Math.min(settings.idleConnectionTimeout, PoolSettings.MAX_EVICTION_PERIOD));
+         eviction = settings.scheduler.scheduleWithFixedDelay(new EvictIdleConnections(cm,
+               settings.idleConnectionTimeout), period, period, MILLISECONDS);
+      } else {
+         eviction = null;
+      }
       closer.addToClose(new Closeable() {
          @Override
          public void close() throws IOException {
+            if (eviction != null)
+               eviction.cancel(false);
             cm.shutdown();
          }
       });
       return cm;
    }
 
+   @Singleton
+   @Provides
+   final ClientConnectionManager newClientConnectionManager(PoolingClientConnectionManager cm) {
+      return cm;
+   }
+
    @Provides
    @Singleton
-   final HttpClient newDefaultHttpClient(ProxyConfig config, BasicHttpParams params, ClientConnectionManager cm) {
+   final HttpClient newDefaultHttpClient(ProxyConfig config, HttpParams params, ClientConnectionManager cm,
+            PoolSettings settings) {
       DefaultHttpClient client = new DefaultHttpClient(cm, params);
+      final long idleConnectionTimeout = settings.idleConnectionTimeout;
+      if (idleConnectionTimeout <= 0) {
+         client.setReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+      } else {
+         // connections expire once idle for longer, so that they are neither leased nor kept open
+         client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+               long duration = super.getKeepAliveDuration(response, context);
+               return duration > 0 ? Math.min(duration, idleConnectionTimeout) : idleConnectionTimeout;
+            }
+         });
+      }
       if (config.useSystem()) {
          ProxySelectorRoutePlanner routePlanner = new ProxySelectorRoutePlanner(client.getConnectionManager()
                   .getSchemeRegistry(), ProxySelector.getDefault());
@@ -153,6 +219,26 @@ public class ApacheHCHttpCommandExecutorServiceModule extends AbstractModule {
       return client;
    }
 
+   /**
+    * Closes the connections which expired or idled too long, so that the server does not close
+    * them first, leaving broken connections in the pool.
+    */
+   private static final class EvictIdleConnections implements Runnable {
+      private final PoolingClientConnectionManager cm;
+      private final long idleConnectionTimeout;
+
+      private EvictIdleConnections(PoolingClientConnectionManager cm, long idleConnectionTimeout) {
+         this.cm = cm;
+         this.idleConnectionTimeout = idleConnectionTimeout;
+      }
+
+      @Override
+      public void run() {
+         cm.closeExpiredConnections();
+         cm.closeIdleConnections(Math.max(idleConnectionTimeout, 0), MILLISECONDS);
+      }
+   }
+
    protected void bindClient() {
       bind(HttpCommandExecutorService.class).to(ApacheHCHttpCommandExecutorService.class).in(Scopes.SINGLETON);
    }
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc.reference;
+
+/**
+ * Configuration properties of the Apache HttpClient driver
+ */
+public final class ApacheHCConstants {
+
+   /**
+    * Boolean property. Whether a pooled connection is checked before each request for having
+    * been closed by the server. The check costs up to a millisecond per request; without it, a
+    * request on a connection the server closed fails and is retried. Connections are closed
+    * after {@link org.jclouds.Constants#PROPERTY_IDLE_CONNECTION_TIMEOUT} either way. Defaults
+    * to true.
+    */
+   public static final String PROPERTY_APACHEHC_STALE_CONNECTION_CHECK = "jclouds.apachehc.stale-connection-check";
+
+   private ApacheHCConstants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+import static org.jclouds.Constants.PROPERTY_IDLE_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+import static org.jclouds.http.HttpUtils.releasePayload;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.testng.Assert.assertEquals;
+
+import java.io.Closeable;
+import java.util.Properties;
+
+import org.apache.http.pool.PoolStats;
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ScheduledExecutorServiceModule;
+import org.jclouds.http.BaseMockWebServerTest;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.apachehc.config.ApacheHCHttpCommandExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.providers.AnonymousProviderMetadata;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(groups = "unit", testName = "ApacheHCConnectionPoolStatsTest", singleThreaded = true)
+public class ApacheHCConnectionPoolStatsTest extends BaseMockWebServerTest {
+
+   private interface Api extends Closeable {
+   }
+
+   @Override
+   protected Module createConnectionModule() {
+      return new ApacheHCHttpCommandExecutorServiceModule();
+   }
+
+   @Override
+   protected void addOverrideProperties(Properties props) {
+      props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, 20 + "");
+      props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_HOST, 0 + "");
+   }
+
+   public void testSequentialRequestsReuseConnection() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"), new MockResponse().setBody("bar"));
+      Injector injector = injector(server.getUrl("/").toString(), new Properties());
+      try {
+         invoke(injector, server, 2);
+         assertEquals(server.takeRequest().getSequenceNumber(), 0);
+         assertEquals(server.takeRequest().getSequenceNumber(), 1);
+
+         ApacheHCConnectionPoolStats stats = injector.getInstance(ApacheHCConnectionPoolStats.class);
+         PoolStats route = stats.getStats(server.getUrl("/").toURI());
+         assertEquals(route.getAvailable(), 1);
+         assertEquals(route.getLeased(), 0);
+         assertEquals(route.getMax(), 20);
+         assertEquals(stats.getTotalStats().getAvailable(), 1);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+   }
+
+   public void testNoReuseWithoutIdleTimeout() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"), new MockResponse().setBody("bar"));
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_IDLE_CONNECTION_TIMEOUT, "0");
+      Injector injector = injector(server.getUrl("/").toString(), overrides);
+      try {
+         invoke(injector, server, 2);
+         assertEquals(server.takeRequest().getSequenceNumber(), 0);
+         assertEquals(server.takeRequest().getSequenceNumber(), 0);
+         assertEquals(injector.getInstance(ApacheHCConnectionPoolStats.class).getTotalStats().getAvailable(), 0);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+   }
+
+   public void testEvictsIdleConnections() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"));
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_IDLE_CONNECTION_TIMEOUT, "50");
+      Injector injector = injector(server.getUrl("/").toString(), overrides, new ScheduledExecutorServiceModule());
+      try {
+         invoke(injector, server, 1);
+         ApacheHCConnectionPoolStats stats = injector.getInstance(ApacheHCConnectionPoolStats.class);
+         long deadline = System.currentTimeMillis() + 5000;
+         while (stats.getTotalStats().getAvailable() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+         }
+         assertEquals(stats.getTotalStats().getAvailable(), 0);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+   }
+
+   /**
+    * Compares sequential requests over pooled connections with requests which each open a
+    * connection.
+    */
+   @Test(groups = "performance")
+   public void testPooledConnectionThroughput() throws Exception {
+      final int requests = 500;
+      for (String idleTimeout : new String[] { "0", "60000" }) {
+         MockWebServer server = mockWebServer(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+               // written at once, so that the delayed acks of reused connections don't stall the server
+               return new MockResponse();
+            }
+         });
+         Properties overrides = new Properties();
+         overrides.setProperty(PROPERTY_IDLE_CONNECTION_TIMEOUT, idleTimeout);
+         Injector injector = injector(server.getUrl("/").toString(), overrides);
+         try {
+            long start = System.nanoTime();
+            invoke(injector, server, requests);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("TIMING: %d requests with idle timeout %sms: %.1f/s, %s%n", requests, idleTimeout,
+                  requests / (nanos / 1000000000d), injector.getInstance(ApacheHCConnectionPoolStats.class));
+         } finally {
+            closeQuietly(injector.getInstance(Closer.class));
+            server.shutdown();
+         }
+      }
+   }
+
+   private static void invoke(Injector injector, MockWebServer server, int requests) throws Exception {
+      HttpCommandExecutorService http = injector.getInstance(HttpCommandExecutorService.class);
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint(server.getUrl("/objects/1").toURI())
+            .build();
+      for (int i = 0; i < requests; i++) {
+         releasePayload(http.invoke(new HttpCommand(request)));
+      }
+   }
+
+   private Injector injector(String url, Properties overrides, Module... modules) {
+      Properties properties = new Properties();
+      addOverrideProperties(properties);
+      properties.putAll(overrides);
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(Api.class, url))
+            .modules(ImmutableSet.<Module> builder().add(createConnectionModule()).add(modules).build())
+            .overrides(properties).buildInjector();
+   }
+}
@@ -19,6 +19,8 @@ package org.jclouds.http.okhttp;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 
@@ -28,8 +30,6 @@ import java.net.URI;
 import java.util.Map;
 
 import okio.BufferedSink;
-import okio.Okio;
-import okio.Source;
 
 import org.jclouds.JcloudsVersion;
 import org.jclouds.http.HttpRequest;
@@ -40,6 +40,7 @@ import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
 import org.jclouds.http.internal.BaseHttpCommandExecutorService;
 import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -47,7 +48,11 @@ import org.jclouds.io.Payload;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
@@ -119,14 +124,11 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
       return new RequestBody() {
          @Override
          public void writeTo(BufferedSink sink) throws IOException {
-            Source source = Okio.source(payload.openStream());
             try {
-               sink.writeAll(source);
+               ByteStreams2.copy(payload, sink.outputStream());
             } catch (IOException ex) {
                logger.error(ex, "error writing bytes to %s", request.getEndpoint());
                throw ex;
-            } finally {
-               source.close();
             }
          }
 
@@ -144,11 +146,53 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 
    @Override
    protected HttpResponse invoke(Request nativeRequest) throws IOException, InterruptedException {
+      return toHttpResponse(newCall(nativeRequest).execute());
+   }
+
+   /**
+    * Enqueues the call on the client's dispatcher instead of blocking the calling thread.
+    */
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(Request nativeRequest) {
+      final SettableFuture<HttpResponse> future = SettableFuture.create();
+      final Call call;
+      try {
+         call = newCall(nativeRequest);
+      } catch (IOException e) {
+         return immediateFailedFuture(e);
+      }
+      call.enqueue(new Callback() {
+         @Override
+         public void onFailure(Request request, IOException e) {
+            future.setException(e);
+         }
+
+         @Override
+         public void onResponse(Response response) {
+            try {
+               future.set(toHttpResponse(response));
+            } catch (Exception e) {
+               future.setException(e);
+            }
+         }
+      });
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (future.isCancelled())
+               call.cancel();
+         }
+      }, sameThreadExecutor());
+      return future;
+   }
+
+   private Call newCall(Request nativeRequest) throws IOException {
       OkHttpClient requestScopedClient = globalClient.clone();
       requestScopedClient.setProxy(proxyForURI.apply(nativeRequest.uri()));
+      return requestScopedClient.newCall(nativeRequest);
+   }
 
-      Response response = requestScopedClient.newCall(nativeRequest).execute();
-
+   private HttpResponse toHttpResponse(Response response) throws IOException {
       HttpResponse.Builder<?> builder = HttpResponse.builder();
       builder.statusCode(response.code());
       builder.message(response.message());
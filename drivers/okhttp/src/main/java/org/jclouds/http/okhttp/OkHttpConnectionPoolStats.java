@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp;
+
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+import javax.net.SocketFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.OkHttpClient;
+
+/**
+ * Counts the connections of the OkHttp client, for monitoring.
+ * <p/>
+ * Connections are counted by the socket factory the driver installs, so they are not counted
+ * if an {@link OkHttpClientSupplier} sets its own.
+ */
+@Beta
+@Singleton
+public class OkHttpConnectionPoolStats {
+   private final AtomicLong opened = new AtomicLong();
+   private final AtomicLong closed = new AtomicLong();
+   private volatile ConnectionPool pool;
+
+   /**
+    * @return the number of connections idling in the pool
+    */
+   public int getIdleConnectionCount() {
+      ConnectionPool pool = this.pool;
+      return pool == null ? 0 : pool.getHttpConnectionCount();
+   }
+
+   /**
+    * @return the number of open connections which are not idle, including shared HTTP/2
+    *         connections
+    */
+   public long getActiveConnectionCount() {
+      return Math.max(0, opened.get() - closed.get() - getIdleConnectionCount());
+   }
+
+   public long getOpenedConnectionCount() {
+      return opened.get();
+   }
+
+   /**
+    * @return the number of connections closed, because they were evicted from the pool after
+    *         idling or could not be reused
+    */
+   public long getClosedConnectionCount() {
+      return closed.get();
+   }
+
+   /**
+    * Counts the connections of the client from now on.
+    *
+    * @param sendBufferSize
+    *           the send buffer size of its sockets, or 0 for the default
+    * @param receiveBufferSize
+    *           the receive buffer size of its sockets, or 0 for the default
+    */
+   public void monitor(OkHttpClient client, int sendBufferSize, int receiveBufferSize) {
+      pool = client.getConnectionPool();
+      if (client.getSocketFactory() == null) {
+         client.setSocketFactory(new CountingSocketFactory(sendBufferSize, receiveBufferSize));
+      }
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("idle", getIdleConnectionCount())
+            .add("active", getActiveConnectionCount()).add("opened", getOpenedConnectionCount())
+            .add("closed", getClosedConnectionCount()).toString();
+   }
+
+   /**
+    * Creates unconnected sockets, which is how OkHttp creates them, and counts them once they
+    * connect and once they close.
+    */
+   private final class CountingSocketFactory extends SocketFactory {
+      private final int sendBufferSize;
+      private final int receiveBufferSize;
+
+      private CountingSocketFactory(int sendBufferSize, int receiveBufferSize) {
+         this.sendBufferSize = sendBufferSize;
+         this.receiveBufferSize = receiveBufferSize;
+      }
+
+      @Override
+      public Socket createSocket() throws SocketException {
+         Socket socket = new CountingSocket();
+         // the receive buffer must be sized before connecting, for window scaling to apply
+         if (sendBufferSize > 0)
+            socket.setSendBufferSize(sendBufferSize);
+         if (receiveBufferSize > 0)
+            socket.setReceiveBufferSize(receiveBufferSize);
+         return socket;
+      }
+
+      @Override
+      public Socket createSocket(String host, int port) throws IOException {
+         return connect(new InetSocketAddress(host, port), null);
+      }
+
+      @Override
+      public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+         return connect(new InetSocketAddress(host, port), new InetSocketAddress(localHost, localPort));
+      }
+
+      @Override
+      public Socket createSocket(InetAddress host, int port) throws IOException {
+         return connect(new InetSocketAddress(host, port), null);
+      }
+
+      @Override
+      public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+         return connect(new InetSocketAddress(address, port), new InetSocketAddress(localAddress, localPort));
+      }
+
+      private Socket connect(InetSocketAddress endpoint, InetSocketAddress localAddress) throws IOException {
+         Socket socket = createSocket();
+         try {
+            if (localAddress != null)
+               socket.bind(localAddress);
+            socket.connect(endpoint);
+            return socket;
+         } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+         }
+      }
+   }
+
+   private final class CountingSocket extends Socket {
+      private final AtomicBoolean open = new AtomicBoolean();
+
+      @Override
+      public void connect(java.net.SocketAddress endpoint, int timeout) throws IOException {
+         super.connect(endpoint, timeout);
+         if (open.compareAndSet(false, true))
+            opened.incrementAndGet();
+      }
+
+      @Override
+      public synchronized void close() throws IOException {
+         try {
+            super.close();
+         } finally {
+            if (open.compareAndSet(true, false))
+               closed.incrementAndGet();
+         }
+      }
+   }
+}
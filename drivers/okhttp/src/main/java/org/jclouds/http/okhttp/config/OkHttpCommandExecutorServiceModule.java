@@ -16,6 +16,16 @@
  */
 package org.jclouds.http.okhttp.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.Constants.PROPERTY_IDLE_CONNECTION_TIMEOUT;
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_OKHTTP_PROTOCOLS;
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_OKHTTP_SOCKET_RECEIVE_BUFFER_SIZE;
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_OKHTTP_SOCKET_SEND_BUFFER_SIZE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
@@ -28,13 +38,19 @@ import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.SSLModule;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
 import org.jclouds.http.okhttp.OkHttpCommandExecutorService;
+import org.jclouds.http.okhttp.OkHttpConnectionPoolStats;
+import org.jclouds.lifecycle.Closer;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
 
 /**
  * Configures the {@link OkHttpCommandExecutorService}.
@@ -52,18 +68,42 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
    }
 
    private static final class OkHttpClientProvider implements Provider<OkHttpClient> {
+      /** the keep-alive of the default OkHttp pool */
+      private static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
       private final HostnameVerifier verifier;
       private final Supplier<SSLContext> untrustedSSLContextProvider;
       private final HttpUtils utils;
       private final OkHttpClientSupplier clientSupplier;
+      private final OkHttpConnectionPoolStats stats;
+      private final Closer closer;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_IDLE_CONNECTION_TIMEOUT)
+      private long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_OKHTTP_PROTOCOLS)
+      private String protocols;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_OKHTTP_SOCKET_SEND_BUFFER_SIZE)
+      private int sendBufferSize;
+
+      @Inject(optional = true)
+      @Named(PROPERTY_OKHTTP_SOCKET_RECEIVE_BUFFER_SIZE)
+      private int receiveBufferSize;
 
       @Inject
       OkHttpClientProvider(HttpUtils utils, @Named("untrusted") HostnameVerifier verifier,
-            @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, OkHttpClientSupplier clientSupplier) {
+            @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, OkHttpClientSupplier clientSupplier,
+            OkHttpConnectionPoolStats stats, Closer closer) {
          this.utils = utils;
          this.verifier = verifier;
          this.untrustedSSLContextProvider = untrustedSSLContextProvider;
          this.clientSupplier = clientSupplier;
+         this.stats = stats;
+         this.closer = closer;
       }
 
       @Override
@@ -83,8 +123,52 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
             client.setSslSocketFactory(untrustedSSLContextProvider.get().getSocketFactory());
          }
 
+         // a client of its own pool, instead of the pool shared by all default clients of the jvm
+         if (client.getConnectionPool() == null) {
+            final ConnectionPool pool = new ConnectionPool(utils.getMaxConnections(), idleConnectionTimeout);
+            client.setConnectionPool(pool);
+            closer.addToClose(new Closeable() {
+               @Override
+               public void close() throws IOException {
+                  pool.evictAll();
+               }
+            });
+         }
+         // limits the calls in flight, which are otherwise 64 of which 5 per host
+         client.getDispatcher().setMaxRequests(utils.getMaxConnections());
+         client.getDispatcher().setMaxRequestsPerHost(
+               utils.getMaxConnectionsPerHost() > 0 ? utils.getMaxConnectionsPerHost() : utils.getMaxConnections());
+         if (protocols != null) {
+            client.setProtocols(parseProtocols(protocols));
+         }
+         stats.monitor(client, sendBufferSize, receiveBufferSize);
+
          return client;
       }
+
+      /**
+       * Parses protocols either by their ALPN id, such as {@code h2-16}, or by their name, such as
+       * {@code HTTP_2}.
+       */
+      private static List<Protocol> parseProtocols(String protocols) {
+         List<Protocol> parsed = Lists.newArrayList();
+         for (String protocol : Splitter.on(',').trimResults().omitEmptyStrings().split(protocols)) {
+            try {
+               parsed.add(Protocol.get(protocol));
+            } catch (IOException e) {
+               try {
+                  parsed.add(Protocol.valueOf(protocol.toUpperCase(Locale.ENGLISH).replace('/', '_')
+                        .replace('.', '_')));
+               } catch (IllegalArgumentException notAName) {
+                  throw new IllegalArgumentException(String.format("unknown protocol %s in %s: %s", protocol,
+                        PROPERTY_OKHTTP_PROTOCOLS, protocols));
+               }
+            }
+         }
+         checkArgument(parsed.contains(Protocol.HTTP_1_1), "%s must contain http/1.1: %s", PROPERTY_OKHTTP_PROTOCOLS,
+               protocols);
+         return parsed;
+      }
    }
 
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp.reference;
+
+/**
+ * Configuration properties of the OkHttp driver
+ */
+public final class OkHttpConstants {
+
+   /**
+    * Comma-separated protocols to negotiate, most preferred first, for example
+    * {@code h2-16,http/1.1}. HTTP/2 is only used where the endpoint and the JVM support ALPN.
+    * Defaults to the protocols of OkHttp.
+    */
+   public static final String PROPERTY_OKHTTP_PROTOCOLS = "jclouds.okhttp.protocols";
+
+   /**
+    * Integer property. Size in bytes of the socket send buffer. Defaults to that of the platform.
+    */
+   public static final String PROPERTY_OKHTTP_SOCKET_SEND_BUFFER_SIZE = "jclouds.okhttp.socket-send-buffer-size";
+
+   /**
+    * Integer property. Size in bytes of the socket receive buffer. Defaults to that of the platform.
+    */
+   public static final String PROPERTY_OKHTTP_SOCKET_RECEIVE_BUFFER_SIZE =
+         "jclouds.okhttp.socket-receive-buffer-size";
+
+   private OkHttpConstants() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
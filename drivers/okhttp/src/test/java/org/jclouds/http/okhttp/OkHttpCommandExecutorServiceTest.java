@@ -16,37 +16,64 @@
  */
 package org.jclouds.http.okhttp;
 
+import static org.jclouds.Constants.PROPERTY_IDLE_CONNECTION_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+import static org.jclouds.Constants.PROPERTY_RELAX_HOSTNAME;
+import static org.jclouds.Constants.PROPERTY_TRUST_ALL_CERTS;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.HttpUtils.releasePayload;
+import static org.jclouds.http.okhttp.reference.OkHttpConstants.PROPERTY_OKHTTP_PROTOCOLS;
 import static org.jclouds.util.Closeables2.closeQuietly;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
 
 import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 
+import org.jclouds.ContextBuilder;
 import org.jclouds.http.BaseHttpCommandExecutorServiceIntegrationTest;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.internal.BaseHttpCommandExecutorService;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.providers.AnonymousProviderMetadata;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.PATCH;
 import org.jclouds.rest.binders.BindToStringPayload;
+import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.ConnectionSpec;
 import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
 import com.squareup.okhttp.TlsVersion;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
@@ -230,6 +257,185 @@ public class OkHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorSer
       }
    }
 
+   @Test
+   public void testInvokeAsyncRetriesServerErrors() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(500), new MockResponse().setBody("foo"));
+      Injector injector = injector(server.getUrl("/").toString());
+      try {
+         BaseHttpCommandExecutorService<?> http = (BaseHttpCommandExecutorService<?>) injector
+               .getInstance(HttpCommandExecutorService.class);
+         HttpResponse response = http.invokeAsync(new HttpCommand(get(server.getUrl("/objects/1").toString())))
+               .get(10, TimeUnit.SECONDS);
+         assertEquals(response.getStatusCode(), 200);
+         assertEquals(Strings2.toStringAndClose(response.getPayload().openStream()), "foo");
+         assertEquals(server.getRequestCount(), 2);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+   }
+
+   /**
+    * Compares requests per second when one thread sends requests one at a time with when it only
+    * enqueues them.
+    */
+   @Test(groups = "performance")
+   public void testInvokeAsyncThroughputPerThread() throws Exception {
+      final int requests = 100;
+      MockWebServer server = mockWebServer(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            Thread.sleep(5);
+            return new MockResponse().setBody("foo");
+         }
+      });
+      Injector injector = injector(server.getUrl("/").toString());
+      try {
+         BaseHttpCommandExecutorService<?> http = (BaseHttpCommandExecutorService<?>) injector
+               .getInstance(HttpCommandExecutorService.class);
+         HttpRequest request = get(server.getUrl("/objects/1").toString());
+
+         long start = System.nanoTime();
+         for (int i = 0; i < requests; i++) {
+            releasePayload(http.invoke(new HttpCommand(request)));
+         }
+         long blockingNanos = System.nanoTime() - start;
+
+         start = System.nanoTime();
+         List<ListenableFuture<HttpResponse>> responses = Lists.newArrayListWithCapacity(requests);
+         for (int i = 0; i < requests; i++) {
+            responses.add(http.invokeAsync(new HttpCommand(request)));
+         }
+         for (HttpResponse response : Futures.allAsList(responses).get()) {
+            releasePayload(response);
+         }
+         long asyncNanos = System.nanoTime() - start;
+
+         System.out.printf("TIMING: %d requests from one thread: blocking %.1f/s, async %.1f/s%n", requests,
+               requests / (blockingNanos / 1000000000d), requests / (asyncNanos / 1000000000d));
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testClientIsConfiguredFromProperties() throws Exception {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MAX_CONNECTIONS_PER_HOST, 7 + "");
+      overrides.setProperty(PROPERTY_OKHTTP_PROTOCOLS, "HTTP_2, http/1.1");
+      Injector injector = injector("http://localhost", overrides);
+      try {
+         OkHttpClient client = injector.getInstance(OkHttpClient.class);
+         assertEquals(client.getDispatcher().getMaxRequests(), 50);
+         assertEquals(client.getDispatcher().getMaxRequestsPerHost(), 7);
+         assertEquals(client.getProtocols(), ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+         assertNotSame(client.getConnectionPool(), ConnectionPool.getDefault());
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+      }
+   }
+
+   @Test
+   public void testSequentialRequestsReuseConnection() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"), new MockResponse().setBody("bar"));
+      Injector injector = injector(server.getUrl("/").toString());
+      try {
+         HttpCommandExecutorService http = injector.getInstance(HttpCommandExecutorService.class);
+         OkHttpConnectionPoolStats stats = injector.getInstance(OkHttpConnectionPoolStats.class);
+         for (String body : new String[] { "foo", "bar" }) {
+            HttpResponse response = http.invoke(new HttpCommand(get(server.getUrl("/objects/1").toString())));
+            assertEquals(Strings2.toStringAndClose(response.getPayload().openStream()), body);
+         }
+         assertEquals(stats.getOpenedConnectionCount(), 1);
+         assertEquals(stats.getIdleConnectionCount(), 1);
+         assertEquals(stats.getActiveConnectionCount(), 0);
+      } finally {
+         closeQuietly(injector.getInstance(Closer.class));
+         server.shutdown();
+      }
+      assertEquals(injector.getInstance(OkHttpConnectionPoolStats.class).getClosedConnectionCount(), 1);
+   }
+
+   @Test
+   public void testMonitoredSocketFactoryConnectsToHostAndPort() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse());
+      try {
+         OkHttpConnectionPoolStats stats = new OkHttpConnectionPoolStats();
+         OkHttpClient client = new OkHttpClient();
+         stats.monitor(client, 0, 0);
+         InetAddress localhost = InetAddress.getByName("localhost");
+
+         Socket socket = client.getSocketFactory().createSocket("localhost", server.getPort());
+         assertTrue(socket.isConnected());
+         socket.close();
+
+         socket = client.getSocketFactory().createSocket(localhost, server.getPort(), localhost, 0);
+         assertTrue(socket.isConnected());
+         assertEquals(socket.getLocalAddress(), localhost);
+         socket.close();
+
+         assertEquals(stats.getOpenedConnectionCount(), 2);
+         assertEquals(stats.getClosedConnectionCount(), 2);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   /**
+    * Compares sequential https requests over pooled connections with requests which each open a
+    * connection.
+    */
+   @Test(groups = "performance")
+   public void testPooledConnectionThroughput() throws Exception {
+      final int requests = 50;
+      for (String idleTimeout : new String[] { "0", "300000" }) {
+         MockWebServer server = mockWebServer(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+               return new MockResponse().setBody("foo");
+            }
+         });
+         server.useHttps(sslContext.getSocketFactory(), false);
+         Properties overrides = new Properties();
+         overrides.setProperty(PROPERTY_IDLE_CONNECTION_TIMEOUT, idleTimeout);
+         overrides.setProperty(PROPERTY_TRUST_ALL_CERTS, "true");
+         overrides.setProperty(PROPERTY_RELAX_HOSTNAME, "true");
+         Injector injector = injector(server.getUrl("/").toString(), overrides);
+         try {
+            HttpCommandExecutorService http = injector.getInstance(HttpCommandExecutorService.class);
+            HttpRequest request = get(server.getUrl("/objects/1").toString());
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+               releasePayload(http.invoke(new HttpCommand(request)));
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("TIMING: %d https requests with idle timeout %sms: %.1f/s, %s%n", requests,
+                  idleTimeout, requests / (nanos / 1000000000d),
+                  injector.getInstance(OkHttpConnectionPoolStats.class));
+         } finally {
+            closeQuietly(injector.getInstance(Closer.class));
+            server.shutdown();
+         }
+      }
+   }
+
+   private static HttpRequest get(String endpoint) {
+      return HttpRequest.builder().method("GET").endpoint(endpoint).build();
+   }
+
+   private Injector injector(String url) {
+      return injector(url, new Properties());
+   }
+
+   private Injector injector(String url, Properties overrides) {
+      Properties properties = new Properties();
+      addOverrideProperties(properties);
+      properties.putAll(overrides);
+      return ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(PatchApi.class, url))
+            .modules(ImmutableSet.of(createConnectionModule())).overrides(properties).buildInjector();
+   }
+
    @ConfiguresHttpCommandExecutorService
    private static final class ConnectionSpecModule extends AbstractModule {
       private final List<ConnectionSpec> connectionSpecs;
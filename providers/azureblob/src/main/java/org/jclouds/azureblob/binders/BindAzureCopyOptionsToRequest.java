@@ -23,7 +23,7 @@ import java.util.Map;
 import org.jclouds.azure.storage.reference.AzureStorageHeaders;
 import org.jclouds.azureblob.options.CopyBlobOptions;
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.ThreadLocalDateService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.rest.Binder;
 
@@ -31,7 +31,7 @@ import com.google.common.base.Optional;
 
 /** Binds options to a copyBlob request. */
 public class BindAzureCopyOptionsToRequest implements Binder {
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new ThreadLocalDateService();
 
    @Override
    public <R extends HttpRequest> R bindToRequest(R request, Object input) {